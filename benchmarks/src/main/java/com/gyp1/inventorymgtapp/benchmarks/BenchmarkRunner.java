@@ -0,0 +1,55 @@
+package com.gyp1.inventorymgtapp.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * The BenchmarkRunner class runs the benchmarks with the usual JMH command line options,
+ * but writes the results as JSON to target/jmh-result.json unless another format or file
+ * is given, so that the results of two commits can be compared.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class BenchmarkRunner {
+    /**
+     * The file receiving the results when none is given.
+     */
+    private static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+    /**
+     * Runs the benchmarks selected by the command line.
+     *
+     * @param args the JMH command line options, for example -p size=1000 LookupBenchmark.
+     * @throws CommandLineOptionException if the options are not valid.
+     * @throws RunnerException if a benchmark fails.
+     * @throws IOException if the help cannot be printed.
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+            if (!commandLine.getResult().hasValue()) {
+                options.result(DEFAULT_RESULT_FILE);
+            }
+        }
+        Runner runner = new Runner(options.build());
+        if (commandLine.shouldList()) {
+            runner.list();
+        } else {
+            runner.run();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.gyp1.inventorymgtapp.benchmarks;
+
+import com.gyp1.inventorymgtapp.InHouse;
+import com.gyp1.inventorymgtapp.Inventory;
+import com.gyp1.inventorymgtapp.Outsourced;
+import com.gyp1.inventorymgtapp.Part;
+import com.gyp1.inventorymgtapp.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The Catalog class builds the Inventory measured by the benchmarks: a given number of
+ * parts with realistic names, and one product for every ten parts, each listing three of
+ * them. The same size always gives the same catalog, so results can be compared across
+ * commits. It also draws the ids and search keys the benchmarks look up.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class Catalog {
+    /**
+     * The number of ids and search keys drawn in advance; a power of two.
+     */
+    public static final int SAMPLE_SIZE = 1024;
+
+    /**
+     * The words the part names are made of.
+     */
+    private static final String[] WORDS = {
+            "Bolt", "Bracket", "Gear", "Hinge", "Spring", "Washer", "Bearing", "Valve", "Gasket",
+            "Pulley", "Sprocket", "Shaft", "Clamp", "Rivet", "Flange", "Coupling", "Spindle", "Bushing"
+    };
+
+    /**
+     * The generator of the catalog's names and samples.
+     */
+    private final Random random = new Random(42);
+
+    /**
+     * The Inventory holding the catalog.
+     */
+    private final Inventory inventory = new Inventory();
+
+    /**
+     * The parts of the catalog, in the order they were added.
+     */
+    private final List<Part> parts;
+
+    /**
+     * The products of the catalog, in the order they were added.
+     */
+    private final List<Product> products;
+
+    /**
+     * Default constructor. Builds a catalog of the given number of parts.
+     *
+     * @param partCount the number of parts.
+     */
+    public Catalog(int partCount) {
+        parts = new ArrayList<>(partCount);
+        for (int id = 1; id <= partCount; id++) {
+            parts.add(newPart(id));
+        }
+        inventory.addParts(parts);
+
+        int productCount = Math.max(1, partCount / 10);
+        products = new ArrayList<>(productCount);
+        for (int id = 1; id <= productCount; id++) {
+            Product product = new Product(id, name() + " Assembly", 1000, 5, 1, 10);
+            for (int i = 0; i < 3; i++) {
+                product.addAssociatedPart(parts.get(random.nextInt(partCount)));
+            }
+            products.add(product);
+        }
+        inventory.addProducts(products);
+    }
+
+    /**
+     * Returns the Inventory holding the catalog.
+     *
+     * @return the Inventory.
+     */
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Returns the parts of the catalog. Benchmarks replacing a part keep this list up to date.
+     *
+     * @return the parts, in the order they were added.
+     */
+    public List<Part> getParts() {
+        return parts;
+    }
+
+    /**
+     * Returns the products of the catalog.
+     *
+     * @return the products, in the order they were added.
+     */
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    /**
+     * Creates a part with the given id and a random name, alternating between in-house
+     * and outsourced parts.
+     *
+     * @param id the id of the part.
+     * @return the new part.
+     */
+    public Part newPart(int id) {
+        String name = name() + " " + id;
+        if (id % 2 == 0) {
+            return new InHouse(id, name, 1 + random.nextInt(100), 50, 0, 100, 1 + random.nextInt(50));
+        }
+        return new Outsourced(id, name, 1 + random.nextInt(100), 50, 0, 100, "Supplier " + random.nextInt(50));
+    }
+
+    /**
+     * Draws SAMPLE_SIZE random positions in the parts list.
+     *
+     * @return the positions.
+     */
+    public int[] samplePositions() {
+        int[] positions = new int[SAMPLE_SIZE];
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            positions[i] = random.nextInt(parts.size());
+        }
+        return positions;
+    }
+
+    /**
+     * Draws SAMPLE_SIZE search keys: six-letter fragments of the names of random parts or
+     * products, as typed in the search fields.
+     *
+     * @param ofProducts true to take the fragments from product names, false from part names.
+     * @return the search keys.
+     */
+    public String[] sampleKeys(boolean ofProducts) {
+        String[] keys = new String[SAMPLE_SIZE];
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            String name = ofProducts ? products.get(random.nextInt(products.size())).getName()
+                    : parts.get(random.nextInt(parts.size())).getName();
+            int start = random.nextInt(name.length() - 5);
+            keys[i] = name.substring(start, start + 6);
+        }
+        return keys;
+    }
+
+    /**
+     * Returns a random name of two words.
+     *
+     * @return the name.
+     */
+    private String name() {
+        return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+    }
+}
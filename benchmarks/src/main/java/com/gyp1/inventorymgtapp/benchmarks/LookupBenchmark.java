@@ -0,0 +1,145 @@
+package com.gyp1.inventorymgtapp.benchmarks;
+
+import com.gyp1.inventorymgtapp.Inventory;
+import com.gyp1.inventorymgtapp.Part;
+import com.gyp1.inventorymgtapp.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The LookupBenchmark class measures the lookups of the Inventory: by id, which should
+ * take the same time whatever the size of the catalog, and by name. The scanPartById
+ * benchmark repeats the linear search that lookupPart(int) used before the id index, as
+ * the baseline the index is compared with.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookupBenchmark {
+    /**
+     * The number of parts in the catalog.
+     */
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    /**
+     * The Inventory holding the catalog.
+     */
+    private Inventory inventory;
+
+    /**
+     * A copy of the parts list, scanned by the baseline.
+     */
+    private List<Part> partList;
+
+    /**
+     * The ids looked up, drawn at random from the catalog.
+     */
+    private int[] ids;
+
+    /**
+     * The part search keys.
+     */
+    private String[] partKeys;
+
+    /**
+     * The product search keys.
+     */
+    private String[] productKeys;
+
+    /**
+     * The position of the next sample to use.
+     */
+    private int next;
+
+    /**
+     * Builds the catalog and draws the samples.
+     */
+    @Setup
+    public void setUp() {
+        Catalog catalog = new Catalog(size);
+        inventory = catalog.getInventory();
+        partList = new ArrayList<>(catalog.getParts());
+        ids = new int[Catalog.SAMPLE_SIZE];
+        int[] positions = catalog.samplePositions();
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = partList.get(positions[i]).getId();
+        }
+        partKeys = catalog.sampleKeys(false);
+        productKeys = catalog.sampleKeys(true);
+    }
+
+    /**
+     * Returns the position of the next sample to use.
+     *
+     * @return the position, cycling through the samples.
+     */
+    private int nextSample() {
+        return next++ & (Catalog.SAMPLE_SIZE - 1);
+    }
+
+    /**
+     * Looks up a Part by id through the id index.
+     *
+     * @return the Part found.
+     */
+    @Benchmark
+    public Part lookupPartById() {
+        return inventory.lookupPart(ids[nextSample()]);
+    }
+
+    /**
+     * Looks up a Part by id by scanning the parts list, as before the id index.
+     *
+     * @return the Part found.
+     */
+    @Benchmark
+    public Part scanPartById() {
+        int id = ids[nextSample()];
+        for (Part part : partList) {
+            if (part.getId() == id) {
+                return part;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Searches the parts by a fragment of a name.
+     *
+     * @return the parts found.
+     */
+    @Benchmark
+    public List<Part> lookupPartByName() {
+        return inventory.lookupPart(partKeys[nextSample()]);
+    }
+
+    /**
+     * Searches the products by a fragment of a name.
+     *
+     * @return the products found.
+     */
+    @Benchmark
+    public List<Product> lookupProductByName() {
+        return inventory.lookupProduct(productKeys[nextSample()]);
+    }
+}
@@ -0,0 +1,139 @@
+package com.gyp1.inventorymgtapp.benchmarks;
+
+import com.gyp1.inventorymgtapp.Inventory;
+import com.gyp1.inventorymgtapp.Part;
+import com.gyp1.inventorymgtapp.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The MutationBenchmark class measures the changes made to the Inventory and to the
+ * parts of a Product. Additions are measured together with the deletion that undoes
+ * them, so the catalog keeps its size across iterations.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MutationBenchmark {
+    /**
+     * The number of parts in the catalog.
+     */
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    /**
+     * The catalog being changed.
+     */
+    private Catalog catalog;
+
+    /**
+     * The Inventory holding the catalog.
+     */
+    private Inventory inventory;
+
+    /**
+     * The current parts of the catalog, kept up to date by updatePart.
+     */
+    private List<Part> parts;
+
+    /**
+     * The products of the catalog.
+     */
+    private List<Product> products;
+
+    /**
+     * The positions of the parts replaced, drawn at random.
+     */
+    private int[] positions;
+
+    /**
+     * The position of the next sample to use.
+     */
+    private int next;
+
+    /**
+     * The id of the next part added; above every id of the catalog.
+     */
+    private int nextId;
+
+    /**
+     * Builds the catalog and draws the samples.
+     */
+    @Setup
+    public void setUp() {
+        catalog = new Catalog(size);
+        inventory = catalog.getInventory();
+        parts = catalog.getParts();
+        products = catalog.getProducts();
+        positions = catalog.samplePositions();
+        nextId = size + 1;
+    }
+
+    /**
+     * Returns the position of the next sample to use.
+     *
+     * @return the position, cycling through the samples.
+     */
+    private int nextSample() {
+        return next++ & (Catalog.SAMPLE_SIZE - 1);
+    }
+
+    /**
+     * Adds a new Part to the Inventory and deletes it again.
+     *
+     * @return true if the Part was deleted.
+     */
+    @Benchmark
+    public boolean addThenDeletePart() {
+        Part part = catalog.newPart(nextId++);
+        inventory.addPart(part);
+        return inventory.deletePart(part);
+    }
+
+    /**
+     * Replaces a random Part of the Inventory with a copy of itself.
+     *
+     * @return true if the Part was replaced.
+     */
+    @Benchmark
+    public boolean updatePart() {
+        int position = positions[nextSample()];
+        Part oldPart = parts.get(position);
+        Part newPart = catalog.newPart(oldPart.getId());
+        parts.set(position, newPart);
+        return inventory.updatePart(oldPart, newPart);
+    }
+
+    /**
+     * Associates a random Part with a random Product and removes the association again,
+     * which also keeps the Inventory's where-used index up to date.
+     *
+     * @return true if the association was removed.
+     */
+    @Benchmark
+    public boolean associateThenDeletePart() {
+        int sample = nextSample();
+        Product product = products.get(positions[sample] % products.size());
+        Part part = parts.get(positions[(sample + 1) & (Catalog.SAMPLE_SIZE - 1)]);
+        product.addAssociatedPart(part);
+        return product.deleteAssociatedPart(part);
+    }
+}
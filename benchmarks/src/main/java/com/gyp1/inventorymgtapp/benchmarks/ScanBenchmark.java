@@ -0,0 +1,83 @@
+package com.gyp1.inventorymgtapp.benchmarks;
+
+import com.gyp1.inventorymgtapp.Inventory;
+import com.gyp1.inventorymgtapp.Part;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ScanBenchmark class measures a valuation of the whole catalog, once over the
+ * Inventory's attribute columns and once over the Part objects, as the baseline.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScanBenchmark {
+    /**
+     * The number of parts in the catalog.
+     */
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    /**
+     * The Inventory holding the catalog.
+     */
+    private Inventory inventory;
+
+    /**
+     * The parts of the catalog.
+     */
+    private List<Part> parts;
+
+    /**
+     * Builds the catalog.
+     */
+    @Setup
+    public void setUp() {
+        Catalog catalog = new Catalog(size);
+        inventory = catalog.getInventory();
+        parts = catalog.getParts();
+    }
+
+    /**
+     * Values the parts by scanning the attribute columns.
+     *
+     * @return the value of the parts in stock.
+     */
+    @Benchmark
+    public double scanColumns() {
+        return inventory.scanPartValue();
+    }
+
+    /**
+     * Values the parts by reading each Part object.
+     *
+     * @return the value of the parts in stock.
+     */
+    @Benchmark
+    public double scanObjects() {
+        double total = 0;
+        for (Part part : parts) {
+            total += part.getPrice() * part.getStock();
+        }
+        return total;
+    }
+}
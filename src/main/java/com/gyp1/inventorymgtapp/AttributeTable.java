@@ -0,0 +1,303 @@
+package com.gyp1.inventorymgtapp;
+
+import java.util.Arrays;
+
+/**
+ * The AttributeTable class keeps the numeric attributes of a set of parts or products,
+ * their id, price, stock, min and max, in parallel primitive arrays indexed by a dense row
+ * number. A scan of the whole catalog, such as a valuation or a search for low stock,
+ * then reads a few contiguous arrays instead of following a reference to each object,
+ * and allocates nothing.
+ *
+ * Rows are kept dense: removing an entry moves the last row into its place, so the
+ * order of the rows is not the order in which entries were added. The table is not
+ * thread-safe; the Inventory only uses it under its own lock. The Inventory keeps it up
+ * to date with every change made through it; a Part or Product changed directly with its
+ * setters while in the Inventory is not.
+ *
+ * Every change of a stock or a minimum also goes to the table's LowStockIndex, so the
+ * entries low on stock are known at any time without a scan, and, once a StockLedger is
+ * attached, to the ledger, so that its on-hand counts follow the table.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class AttributeTable {
+    /**
+     * The number of rows allocated for an empty table.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The id in each row.
+     */
+    private int[] ids = new int[INITIAL_CAPACITY];
+
+    /**
+     * The price in each row.
+     */
+    private double[] prices = new double[INITIAL_CAPACITY];
+
+    /**
+     * The stock in each row.
+     */
+    private int[] stocks = new int[INITIAL_CAPACITY];
+
+    /**
+     * The minimum stock in each row.
+     */
+    private int[] mins = new int[INITIAL_CAPACITY];
+
+    /**
+     * The maximum stock in each row.
+     */
+    private int[] maxs = new int[INITIAL_CAPACITY];
+
+    /**
+     * The number of rows in use.
+     */
+    private int size;
+
+    /**
+     * The row of each id.
+     */
+    private final IntIntMap rowsById = new IntIntMap();
+
+    /**
+     * The entries whose stock is at or below their minimum.
+     */
+    private final LowStockIndex lowStock = new LowStockIndex();
+
+    /**
+     * The ledger given the stock of every entry, or null while none is attached.
+     */
+    private StockLedger ledger;
+
+    /**
+     * Sets the attributes of the entry with the given id, adding a row for it if needed.
+     *
+     * @param id the id of the entry.
+     * @param price the price.
+     * @param stock the inventory level.
+     * @param min the minimum inventory level.
+     * @param max the maximum inventory level.
+     */
+    public void put(int id, double price, int stock, int min, int max) {
+        int row = rowsById.get(id, -1);
+        if (row < 0) {
+            row = size;
+            grow(size + 1);
+            size++;
+            ids[row] = id;
+            rowsById.put(id, row);
+        }
+        prices[row] = price;
+        stocks[row] = stock;
+        mins[row] = min;
+        maxs[row] = max;
+        lowStock.update(id, stock, min);
+        if (ledger != null) {
+            ledger.setOnHand(id, stock);
+        }
+    }
+
+    /**
+     * Sets the stock of the entry with the given id.
+     *
+     * @param id the id of the entry.
+     * @param stock the new inventory level.
+     * @return true if the entry was found, or false otherwise.
+     */
+    public boolean setStock(int id, int stock) {
+        int row = rowsById.get(id, -1);
+        if (row < 0) {
+            return false;
+        }
+        stocks[row] = stock;
+        lowStock.update(id, stock, mins[row]);
+        if (ledger != null) {
+            ledger.setOnHand(id, stock);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the entry with the given id. The last row takes its place.
+     *
+     * @param id the id of the entry.
+     * @return true if the entry was removed, or false if it was not in the table.
+     */
+    public boolean remove(int id) {
+        int row = rowsById.get(id, -1);
+        if (row < 0) {
+            return false;
+        }
+        rowsById.remove(id);
+        lowStock.remove(id);
+        if (ledger != null) {
+            // The cell stays, with nothing on hand, so that its reservations are still given back.
+            ledger.setOnHand(id, 0);
+        }
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            prices[row] = prices[last];
+            stocks[row] = stocks[last];
+            mins[row] = mins[last];
+            maxs[row] = maxs[last];
+            rowsById.put(ids[row], row);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of rows in use.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the index of the entries whose stock is at or below their minimum.
+     *
+     * @return the low-stock index, kept up to date by every change of the table.
+     */
+    public LowStockIndex lowStock() {
+        return lowStock;
+    }
+
+    /**
+     * Attaches a ledger, giving it the stock of every entry now and after every change.
+     *
+     * @param ledger the ledger to keep up to date.
+     */
+    public void attach(StockLedger ledger) {
+        this.ledger = ledger;
+        for (int row = 0; row < size; row++) {
+            ledger.setOnHand(ids[row], stocks[row]);
+        }
+    }
+
+    /**
+     * Returns the row of the entry with the given id.
+     *
+     * @param id the id of the entry.
+     * @return the row, or -1 if the entry is not in the table.
+     */
+    public int rowOf(int id) {
+        return rowsById.get(id, -1);
+    }
+
+    /**
+     * Returns the id in the given row.
+     *
+     * @param row a row below size().
+     * @return the id.
+     */
+    public int id(int row) {
+        return ids[row];
+    }
+
+    /**
+     * Returns the price in the given row.
+     *
+     * @param row a row below size().
+     * @return the price.
+     */
+    public double price(int row) {
+        return prices[row];
+    }
+
+    /**
+     * Returns the stock in the given row.
+     *
+     * @param row a row below size().
+     * @return the inventory level.
+     */
+    public int stock(int row) {
+        return stocks[row];
+    }
+
+    /**
+     * Returns the minimum stock in the given row.
+     *
+     * @param row a row below size().
+     * @return the minimum inventory level.
+     */
+    public int min(int row) {
+        return mins[row];
+    }
+
+    /**
+     * Returns the maximum stock in the given row.
+     *
+     * @param row a row below size().
+     * @return the maximum inventory level.
+     */
+    public int max(int row) {
+        return maxs[row];
+    }
+
+    /**
+     * Returns the value of the stock of every entry, the sum of price times stock.
+     *
+     * @return the total value.
+     */
+    public double totalValue() {
+        double total = 0;
+        for (int row = 0; row < size; row++) {
+            total += prices[row] * stocks[row];
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of entries whose stock is at or below their minimum.
+     *
+     * @return the number of entries low on stock.
+     */
+    public int countLowStock() {
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (stocks[row] <= mins[row]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the ids of the entries whose stock is at or below their minimum.
+     *
+     * @return the ids in ascending order.
+     */
+    public int[] lowStockIds() {
+        int[] found = new int[countLowStock()];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (stocks[row] <= mins[row]) {
+                found[count++] = ids[row];
+            }
+        }
+        Arrays.sort(found);
+        return found;
+    }
+
+    /**
+     * Makes room for the given number of rows in every array.
+     *
+     * @param capacity the number of rows needed.
+     */
+    private void grow(int capacity) {
+        if (capacity > ids.length) {
+            int length = Math.max(capacity, ids.length + (ids.length >> 1));
+            ids = Arrays.copyOf(ids, length);
+            prices = Arrays.copyOf(prices, length);
+            stocks = Arrays.copyOf(stocks, length);
+            mins = Arrays.copyOf(mins, length);
+            maxs = Arrays.copyOf(maxs, length);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.gyp1.inventorymgtapp;
+
+import javafx.application.Platform;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The BackgroundSearch class runs the searches of a search box on a background thread so
+ * that the JavaFX application thread stays free to draw the screen. Each new query
+ * interrupts the search still running for an older one, and a result is only handed back
+ * to the application thread if no newer query was submitted in the meantime. The result
+ * is published in one call, so the table it feeds changes once per search.
+ *
+ * @param <T> the type of the objects found by the search.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class BackgroundSearch<T> {
+    /**
+     * The single thread running the searches, one at a time and in submission order.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Computes the result of a query. It runs on the background thread.
+     */
+    private final Function<String, List<T>> search;
+
+    /**
+     * Receives the result of the latest query. It runs on the JavaFX application thread.
+     */
+    private final Consumer<List<T>> publisher;
+
+    /**
+     * The number of the latest query submitted or cancelled. A result is published only
+     * if it belongs to this query.
+     */
+    private final AtomicLong latest = new AtomicLong();
+
+    /**
+     * The search most recently handed to the executor.
+     */
+    private Future<?> running;
+
+    /**
+     * Default constructor. Initializes a background search and its worker thread.
+     *
+     * @param name the name given to the worker thread.
+     * @param search computes the result of a query on the worker thread.
+     * @param publisher receives the result of the latest query on the application thread.
+     */
+    public BackgroundSearch(String name, Function<String, List<T>> search, Consumer<List<T>> publisher) {
+        this.search = search;
+        this.publisher = publisher;
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts searching for the given query, cancelling the search of any older query.
+     *
+     * @param query the query to search for.
+     */
+    public synchronized void submit(String query) {
+        long ticket = latest.incrementAndGet();
+        if (running != null) {
+            running.cancel(true);
+        }
+        running = executor.submit(() -> {
+            List<T> result;
+            try {
+                result = search.apply(query);
+            } catch (CancellationException ex) {
+                return;
+            }
+            if (ticket == latest.get()) {
+                Platform.runLater(() -> {
+                    if (ticket == latest.get()) {
+                        publisher.accept(result);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Cancels the running search, if any, and drops any result not yet published.
+     */
+    public synchronized void cancel() {
+        latest.incrementAndGet();
+        if (running != null) {
+            running.cancel(true);
+            running = null;
+        }
+    }
+
+    /**
+     * Cancels the running search and stops the worker thread.
+     */
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+}
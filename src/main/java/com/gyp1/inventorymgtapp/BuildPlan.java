@@ -0,0 +1,142 @@
+package com.gyp1.inventorymgtapp;
+
+/**
+ * The BuildPlan class holds the answer of a BuildabilitySolver: for every Product, the
+ * number of units that could be assembled from the stock of the parts if it were built
+ * alone, and the number of units planned when the stock is shared across the catalog;
+ * and for every part, the stock the plan leaves. A Product without associated parts, or
+ * listing a part no longer in the Inventory, cannot be built. A BuildPlan is immutable.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class BuildPlan {
+    /**
+     * The id of each Product.
+     */
+    private final int[] productIds;
+
+    /**
+     * The number of units of each Product that its parts allow, built alone.
+     */
+    private final int[] buildable;
+
+    /**
+     * The number of units of each Product in the plan.
+     */
+    private final int[] planned;
+
+    /**
+     * The id of each part.
+     */
+    private final int[] partIds;
+
+    /**
+     * The stock of each part left by the plan.
+     */
+    private final int[] remaining;
+
+    /**
+     * The position of each Product in the arrays, by id.
+     */
+    private final IntIntMap productIndexes;
+
+    /**
+     * The position of each part in the arrays, by id.
+     */
+    private final IntIntMap partIndexes;
+
+    /**
+     * The total number of units in the plan.
+     */
+    private final long totalPlanned;
+
+    /**
+     * Default constructor.
+     *
+     * @param productIds the id of each Product.
+     * @param buildable the number of units of each Product its parts allow, built alone.
+     * @param planned the number of units of each Product in the plan.
+     * @param partIds the id of each part.
+     * @param remaining the stock of each part left by the plan.
+     */
+    public BuildPlan(int[] productIds, int[] buildable, int[] planned, int[] partIds, int[] remaining) {
+        this.productIds = productIds;
+        this.buildable = buildable;
+        this.planned = planned;
+        this.partIds = partIds;
+        this.remaining = remaining;
+        productIndexes = new IntIntMap(productIds.length);
+        long total = 0;
+        for (int i = 0; i < productIds.length; i++) {
+            productIndexes.put(productIds[i], i);
+            total += planned[i];
+        }
+        partIndexes = new IntIntMap(partIds.length);
+        for (int i = 0; i < partIds.length; i++) {
+            partIndexes.put(partIds[i], i);
+        }
+        totalPlanned = total;
+    }
+
+    /**
+     * Returns the number of Products in the plan.
+     *
+     * @return the number of Products.
+     */
+    public int getProductCount() {
+        return productIds.length;
+    }
+
+    /**
+     * Returns the ids of the Products in the plan.
+     *
+     * @return a copy of the ids.
+     */
+    public int[] getProductIds() {
+        return productIds.clone();
+    }
+
+    /**
+     * Returns the number of units of the Product with the given id that the stock of its
+     * parts allows when it is built alone.
+     *
+     * @param productId the id of the Product.
+     * @return the number of units, or 0 if the Product is not in the plan.
+     */
+    public int getBuildable(int productId) {
+        int index = productIndexes.get(productId, -1);
+        return index < 0 ? 0 : buildable[index];
+    }
+
+    /**
+     * Returns the number of units of the Product with the given id in the plan.
+     *
+     * @param productId the id of the Product.
+     * @return the number of units, or 0 if the Product is not in the plan.
+     */
+    public int getPlanned(int productId) {
+        int index = productIndexes.get(productId, -1);
+        return index < 0 ? 0 : planned[index];
+    }
+
+    /**
+     * Returns the stock of the part with the given id left once the plan is built.
+     *
+     * @param partId the id of the part.
+     * @return the stock left, or 0 if the part is not in the plan.
+     */
+    public int getRemainingStock(int partId) {
+        int index = partIndexes.get(partId, -1);
+        return index < 0 ? 0 : remaining[index];
+    }
+
+    /**
+     * Returns the total number of units of every Product in the plan.
+     *
+     * @return the sum of the planned units.
+     */
+    public long getTotalPlanned() {
+        return totalPlanned;
+    }
+}
@@ -0,0 +1,429 @@
+package com.gyp1.inventorymgtapp;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The BuildabilitySolver class works out how many units of each Product can be assembled
+ * from the stock of the parts, and plans how to share that stock across the catalog.
+ *
+ * The buildable count of a Product takes it alone: the smallest, over its parts, of the
+ * stock of the part divided by the number of times the Product lists it. These counts
+ * are independent and are worked out in parallel. Products that share parts compete for
+ * their stock, so the plan allocates it greedily: the Products are taken in order of how
+ * much of the stock of their parts one unit consumes, the least first, and each is given
+ * as many units as the stock left allows.
+ *
+ * Only Products that share a part, directly or through other Products, compete for
+ * stock. The Products are grouped into such independent groups, and the groups are
+ * planned in parallel on the fork-join pool, each one alone on the stock of its own parts.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class BuildabilitySolver {
+    /**
+     * The number of Products below which a task works alone instead of splitting.
+     */
+    private static final int THRESHOLD = 2048;
+
+    /**
+     * The parts and Products to solve for, copied from the Inventory so that the solver
+     * runs without holding its lock.
+     */
+    public static final class Catalog {
+        /**
+         * The row of each part, by id.
+         */
+        private final IntIntMap partRows = new IntIntMap();
+
+        /**
+         * The id of the part in each row.
+         */
+        private int[] partIds = new int[64];
+
+        /**
+         * The stock of the part in each row.
+         */
+        private int[] stocks = new int[64];
+
+        /**
+         * The number of parts.
+         */
+        private int partCount;
+
+        /**
+         * The id of each Product.
+         */
+        private int[] productIds = new int[64];
+
+        /**
+         * The rows of the distinct parts of each Product, or an array holding -1 when a
+         * Product lists a part that is not in the catalog.
+         */
+        private int[][] productParts = new int[64][];
+
+        /**
+         * The number of times each Product lists each of its distinct parts.
+         */
+        private int[][] productQuantities = new int[64][];
+
+        /**
+         * The number of Products.
+         */
+        private int productCount;
+
+        /**
+         * Adds a part.
+         *
+         * @param id the id of the part.
+         * @param stock the stock of the part.
+         */
+        public void addPart(int id, int stock) {
+            if (partCount == partIds.length) {
+                partIds = Arrays.copyOf(partIds, partCount * 2);
+                stocks = Arrays.copyOf(stocks, partCount * 2);
+            }
+            partRows.put(id, partCount);
+            partIds[partCount] = id;
+            stocks[partCount] = stock;
+            partCount++;
+        }
+
+        /**
+         * Adds a Product. The parts must be added first.
+         *
+         * @param id the id of the Product.
+         * @param partIds the ids of its associated parts, repeated as many times as it
+         *                lists each of them.
+         */
+        public void addProduct(int id, int[] partIds) {
+            if (productCount == productIds.length) {
+                productIds = Arrays.copyOf(productIds, productCount * 2);
+                productParts = Arrays.copyOf(productParts, productCount * 2);
+                productQuantities = Arrays.copyOf(productQuantities, productCount * 2);
+            }
+            int[] sorted = partIds.clone();
+            Arrays.sort(sorted);
+            int[] rows = new int[sorted.length];
+            int[] quantities = new int[sorted.length];
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i > 0 && sorted[i] == sorted[i - 1]) {
+                    quantities[distinct - 1]++;
+                    continue;
+                }
+                int row = partRows.get(sorted[i], -1);
+                if (row < 0) {
+                    rows = new int[] {-1};
+                    quantities = new int[] {1};
+                    distinct = 1;
+                    break;
+                }
+                rows[distinct] = row;
+                quantities[distinct] = 1;
+                distinct++;
+            }
+            productIds[productCount] = id;
+            productParts[productCount] = Arrays.copyOf(rows, distinct);
+            productQuantities[productCount] = Arrays.copyOf(quantities, distinct);
+            productCount++;
+        }
+    }
+
+    /**
+     * Works out the buildable count and the cost of a unit of a range of Products.
+     */
+    private static final class CountTask extends RecursiveAction {
+        /**
+         * The version of the serialized form.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The catalog solved for.
+         */
+        private final Catalog catalog;
+
+        /**
+         * Receives the buildable count of each Product.
+         */
+        private final int[] buildable;
+
+        /**
+         * Receives the share of the stock of its parts that one unit of each Product consumes.
+         */
+        private final double[] weights;
+
+        /**
+         * The first Product of the range.
+         */
+        private final int from;
+
+        /**
+         * The end of the range, exclusive.
+         */
+        private final int to;
+
+        /**
+         * Default constructor.
+         *
+         * @param catalog the catalog solved for.
+         * @param buildable receives the buildable counts.
+         * @param weights receives the costs of a unit.
+         * @param from the first Product of the range.
+         * @param to the end of the range, exclusive.
+         */
+        CountTask(Catalog catalog, int[] buildable, double[] weights, int from, int to) {
+            this.catalog = catalog;
+            this.buildable = buildable;
+            this.weights = weights;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Works out the range, splitting it in two while it is large.
+         */
+        @Override
+        protected void compute() {
+            if (to - from > THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new CountTask(catalog, buildable, weights, from, middle),
+                        new CountTask(catalog, buildable, weights, middle, to));
+                return;
+            }
+            for (int product = from; product < to; product++) {
+                int[] rows = catalog.productParts[product];
+                int[] quantities = catalog.productQuantities[product];
+                if (rows.length == 0 || rows[0] < 0) {
+                    buildable[product] = 0;
+                    weights[product] = Double.POSITIVE_INFINITY;
+                    continue;
+                }
+                int count = Integer.MAX_VALUE;
+                double weight = 0;
+                for (int i = 0; i < rows.length; i++) {
+                    int stock = catalog.stocks[rows[i]];
+                    count = Math.min(count, stock / quantities[i]);
+                    weight += stock == 0 ? Double.POSITIVE_INFINITY : (double) quantities[i] / stock;
+                }
+                buildable[product] = count;
+                weights[product] = weight;
+            }
+        }
+    }
+
+    /**
+     * Plans a range of the independent groups of Products.
+     */
+    private static final class PlanTask extends RecursiveAction {
+        /**
+         * The version of the serialized form.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The catalog solved for.
+         */
+        private final Catalog catalog;
+
+        /**
+         * The Products of every group, one group after the other, each group in the order
+         * the stock is allocated.
+         */
+        private final int[] order;
+
+        /**
+         * The start of each group in order, followed by the end of the last group.
+         */
+        private final int[] groupStarts;
+
+        /**
+         * The stock left of each part, shared by the tasks; each group only touches the
+         * rows of its own parts.
+         */
+        private final int[] remaining;
+
+        /**
+         * Receives the number of units planned for each Product.
+         */
+        private final int[] planned;
+
+        /**
+         * The first group of the range.
+         */
+        private final int from;
+
+        /**
+         * The end of the range of groups, exclusive.
+         */
+        private final int to;
+
+        /**
+         * Default constructor.
+         *
+         * @param catalog the catalog solved for.
+         * @param order the Products of every group, each group in allocation order.
+         * @param groupStarts the start of each group in order.
+         * @param remaining the stock left of each part.
+         * @param planned receives the units planned.
+         * @param from the first group of the range.
+         * @param to the end of the range of groups, exclusive.
+         */
+        PlanTask(Catalog catalog, int[] order, int[] groupStarts, int[] remaining, int[] planned, int from, int to) {
+            this.catalog = catalog;
+            this.order = order;
+            this.groupStarts = groupStarts;
+            this.remaining = remaining;
+            this.planned = planned;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Plans the range, splitting it in two while it holds many Products.
+         */
+        @Override
+        protected void compute() {
+            if (to - from > 1 && groupStarts[to] - groupStarts[from] > THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PlanTask(catalog, order, groupStarts, remaining, planned, from, middle),
+                        new PlanTask(catalog, order, groupStarts, remaining, planned, middle, to));
+                return;
+            }
+            for (int i = groupStarts[from]; i < groupStarts[to]; i++) {
+                int product = order[i];
+                int[] rows = catalog.productParts[product];
+                int[] quantities = catalog.productQuantities[product];
+                int units = Integer.MAX_VALUE;
+                for (int j = 0; j < rows.length; j++) {
+                    units = Math.min(units, remaining[rows[j]] / quantities[j]);
+                }
+                for (int j = 0; j < rows.length; j++) {
+                    remaining[rows[j]] -= units * quantities[j];
+                }
+                planned[product] = units;
+            }
+        }
+    }
+
+    /**
+     * The pool running the tasks.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Default constructor.
+     *
+     * @param pool the pool running the tasks.
+     */
+    public BuildabilitySolver(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Works out the buildable count of every Product of the catalog and a plan sharing
+     * the stock of the parts between them.
+     *
+     * @param catalog the parts and Products.
+     * @return the counts and the plan.
+     */
+    public BuildPlan solve(Catalog catalog) {
+        int products = catalog.productCount;
+        int[] buildable = new int[products];
+        double[] weights = new double[products];
+        pool.invoke(new CountTask(catalog, buildable, weights, 0, products));
+
+        // Group the buildable Products that share parts, joining the parts of each Product.
+        int[] parents = new int[catalog.partCount];
+        for (int row = 0; row < parents.length; row++) {
+            parents[row] = row;
+        }
+        for (int product = 0; product < products; product++) {
+            int[] rows = catalog.productParts[product];
+            if (buildable[product] > 0) {
+                for (int i = 1; i < rows.length; i++) {
+                    union(parents, rows[0], rows[i]);
+                }
+            }
+        }
+
+        // Lay the groups out one after the other, by their root part, each group in the
+        // order its stock is allocated: the cheapest units first.
+        Integer[] byWeight = new Integer[products];
+        for (int product = 0; product < products; product++) {
+            byWeight[product] = product;
+        }
+        Arrays.parallelSort(byWeight, (a, b) -> weights[a] != weights[b] ? Double.compare(weights[a], weights[b])
+                : Integer.compare(catalog.productIds[a], catalog.productIds[b]));
+        int[] groupOfRoot = new int[catalog.partCount];
+        Arrays.fill(groupOfRoot, -1);
+        int[] groupSizes = new int[Math.max(products, 1)];
+        int[] groupOfProduct = new int[products];
+        int groups = 0;
+        for (int product = 0; product < products; product++) {
+            if (buildable[product] == 0) {
+                groupOfProduct[product] = -1;
+                continue;
+            }
+            int root = find(parents, catalog.productParts[product][0]);
+            if (groupOfRoot[root] < 0) {
+                groupOfRoot[root] = groups++;
+            }
+            groupOfProduct[product] = groupOfRoot[root];
+            groupSizes[groupOfProduct[product]]++;
+        }
+        int[] groupStarts = new int[groups + 1];
+        for (int group = 0; group < groups; group++) {
+            groupStarts[group + 1] = groupStarts[group] + groupSizes[group];
+        }
+        int[] order = new int[groupStarts[groups]];
+        int[] next = Arrays.copyOf(groupStarts, groups);
+        for (int product : byWeight) {
+            if (groupOfProduct[product] >= 0) {
+                order[next[groupOfProduct[product]]++] = product;
+            }
+        }
+
+        // The groups share no part, so they are planned in parallel.
+        int[] remaining = Arrays.copyOf(catalog.stocks, catalog.partCount);
+        int[] planned = new int[products];
+        if (groups > 0) {
+            pool.invoke(new PlanTask(catalog, order, groupStarts, remaining, planned, 0, groups));
+        }
+        return new BuildPlan(Arrays.copyOf(catalog.productIds, products), buildable, planned,
+                Arrays.copyOf(catalog.partIds, catalog.partCount), remaining);
+    }
+
+    /**
+     * Joins the groups of two parts.
+     *
+     * @param parents the parent of each part in its group's tree.
+     * @param a the row of one part.
+     * @param b the row of the other part.
+     */
+    private static void union(int[] parents, int a, int b) {
+        int rootA = find(parents, a);
+        int rootB = find(parents, b);
+        if (rootA != rootB) {
+            parents[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+
+    /**
+     * Returns the root of the group of a part, halving the path to it on the way.
+     *
+     * @param parents the parent of each part in its group's tree.
+     * @param row the row of the part.
+     * @return the row of the root part.
+     */
+    private static int find(int[] parents, int row) {
+        while (parents[row] != row) {
+            parents[row] = parents[parents[row]];
+            row = parents[row];
+        }
+        return row;
+    }
+}
@@ -0,0 +1,216 @@
+package com.gyp1.inventorymgtapp;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+/**
+ * The CdsTraining class runs the startup paths of the application once, so that a JVM
+ * started with -XX:ArchiveClassesAtExit records the classes they load in an AppCDS
+ * archive. A later JVM started with -XX:SharedArchiveFile maps those classes from the
+ * archive instead of loading, verifying and linking them again, which shortens the
+ * startup. The Maven build runs it with the --cds-training argument of the Launcher.
+ *
+ * The training loads, changes, compacts and reloads an inventory in a temporary
+ * directory, then parses the three screens when a display is available. When the system
+ * property inventory.cds.argfile names a file, it writes there the java arguments that
+ * start the application with the archive, for use as java @file.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class CdsTraining {
+    /**
+     * The system property naming the java argument file to write.
+     */
+    public static final String ARGFILE_PROPERTY = "inventory.cds.argfile";
+
+    /**
+     * The JVM option naming the archive written at exit.
+     */
+    private static final String ARCHIVE_OPTION = "-XX:ArchiveClassesAtExit=";
+
+    /**
+     * The number of parts created by the training; one product is created per ten parts.
+     */
+    private static final int PARTS = 500;
+
+    /**
+     * How long the screens may take to load, in seconds.
+     */
+    private static final int SCREEN_TIMEOUT = 60;
+
+    /**
+     * Logs the steps of the training that cannot run.
+     */
+    private static final System.Logger LOG = System.getLogger(CdsTraining.class.getName());
+
+    /**
+     * Prevents instantiation.
+     */
+    private CdsTraining() {
+    }
+
+    /**
+     * Runs the training.
+     *
+     * @throws IOException if the inventory cannot be written or the argument file saved.
+     */
+    public static void run() throws IOException {
+        Path directory = Files.createTempDirectory("inventory-cds");
+        try {
+            trainStore(directory);
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        trainScreens();
+        writeArgumentFile();
+    }
+
+    /**
+     * Runs the inventory through the paths of a session: loading, changes, searches,
+     * scans, compaction, and loading again from the snapshot.
+     *
+     * @param directory the data directory.
+     * @throws IOException if the inventory cannot be written.
+     */
+    private static void trainStore(Path directory) throws IOException {
+        Inventory inventory = InventoryStore.newInventory(directory);
+        try (InventoryStore store = InventoryStore.open(inventory, directory)) {
+            for (int i = 0; i < PARTS; i++) {
+                int id = inventory.getPartIds().next();
+                inventory.addPart(i % 2 == 0
+                        ? new InHouse(id, "Part " + id, 1.5 + i, 10, 1, 100, i)
+                        : new Outsourced(id, "Part " + id, 1.5 + i, 10, 1, 100, "Company " + i));
+                if (i % 10 == 0) {
+                    Product product = new Product(inventory.getProductIds().next(), "Product " + id, 9.5, 5, 1, 50);
+                    product.addAssociatedPart(inventory.lookupPart(id));
+                    inventory.addProduct(product);
+                }
+            }
+            Part part = inventory.lookupPart(1);
+            inventory.updatePart(part, new InHouse(part.getId(), part.getName(), 2.5, 20, 1, 100, 7));
+            inventory.adjustPartStock(part.getId(), -1);
+            inventory.lookupPart("Part 1");
+            inventory.lookupProductsUsingPart(part.getId());
+            inventory.newPartSearch().search("art 4");
+            inventory.newProductSearch().search("Product");
+            inventory.scanPartValue();
+            inventory.scanLowStockPartIds();
+            store.compact();
+            inventory.deletePart(inventory.lookupPart(2));
+        }
+        inventory = InventoryStore.newInventory(directory);
+        InventoryStore.open(inventory, directory).close();
+    }
+
+    /**
+     * Parses the three screens and applies their style sheets, when the JavaFX toolkit
+     * can start; on a machine without a display, this step is skipped.
+     */
+    private static void trainScreens() {
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            Platform.startup(started::countDown);
+            started.await(SCREEN_TIMEOUT, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (RuntimeException ex) {
+            LOG.log(System.Logger.Level.WARNING, "No display; the screens are left out of the archive: " + ex);
+            return;
+        }
+        CompletableFuture<Void> loaded = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                loadScreen("main-view.fxml", new MainController());
+                loadScreen("part-view.fxml", new PartController());
+                loadScreen("product-view.fxml", new ProductController());
+                loaded.complete(null);
+            } catch (IOException | RuntimeException ex) {
+                loaded.completeExceptionally(ex);
+            }
+        });
+        try {
+            loaded.get(SCREEN_TIMEOUT, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ex) {
+            LOG.log(System.Logger.Level.WARNING, "The screens could not be loaded", ex);
+        } finally {
+            Platform.exit();
+        }
+    }
+
+    /**
+     * Parses a screen and applies its style sheets.
+     *
+     * @param fxml the FXML file of the screen.
+     * @param controller the controller of the screen.
+     * @throws IOException if the FXML cannot be loaded.
+     */
+    private static void loadScreen(String fxml, Object controller) throws IOException {
+        FXMLLoader loader = new FXMLLoader(CdsTraining.class.getResource(fxml));
+        loader.setController(controller);
+        Parent root = loader.load();
+        new Scene(root).getRoot().applyCss();
+    }
+
+    /**
+     * Writes the java arguments that start the application with the archive, if the
+     * inventory.cds.argfile system property names a file: the archive, the module path of
+     * this JVM and the main class.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    private static void writeArgumentFile() throws IOException {
+        String argfile = System.getProperty(ARGFILE_PROPERTY);
+        if (argfile == null || argfile.isEmpty()) {
+            return;
+        }
+        String archive = null;
+        for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (argument.startsWith(ARCHIVE_OPTION)) {
+                archive = argument.substring(ARCHIVE_OPTION.length());
+            }
+        }
+        if (archive == null) {
+            throw new IOException("The JVM does not write an archive; start it with " + ARCHIVE_OPTION + "file");
+        }
+        List<String> lines = List.of(
+                "-XX:SharedArchiveFile=" + quote(archive),
+                "--module-path " + quote(System.getProperty("jdk.module.path", "")),
+                "--module com.gyp1.inventorymgtapp/" + Launcher.class.getName());
+        Files.write(Paths.get(argfile), lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Quotes a value for a java argument file.
+     *
+     * @param value the value.
+     * @return the value in double quotes, with its backslashes doubled.
+     */
+    private static String quote(String value) {
+        return '"' + value.replace("\\", "\\\\") + '"';
+    }
+}
@@ -0,0 +1,115 @@
+package com.gyp1.inventorymgtapp;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * The ChangeRecorder class records the changes of an Inventory in its Journal. Each change
+ * is encoded by the InventoryCodec and appended to the journal; while no journal is set,
+ * such as while a journal is replayed, nothing is recorded and nothing is encoded.
+ *
+ * A journal stops at its first failed write, so the changes made after it could not be
+ * replayed. The Inventory calls checkJournal before each change and refuses the change
+ * while the journal has failed, until a new journal replaces it.
+ *
+ * The recorder is not thread-safe; the Inventory only uses it under its write lock, so
+ * the records are appended in the order of the changes.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class ChangeRecorder {
+    /**
+     * The journal that records the changes, or null when they are not recorded.
+     */
+    private Journal journal;
+
+    /**
+     * Sets the journal that records the later changes.
+     *
+     * @param journal the journal to append changes to, or null to stop recording them.
+     */
+    void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Checks that the changes can still be recorded.
+     *
+     * @throws UncheckedIOException if the journal has failed.
+     */
+    void checkJournal() {
+        IOException failure = journal == null ? null : journal.getFailure();
+        if (failure != null) {
+            throw new UncheckedIOException("Changes can no longer be saved to " + journal.getFile(), failure);
+        }
+    }
+
+    /**
+     * Records the addition of a Part.
+     *
+     * @param part the Part added.
+     */
+    void addPart(Part part) {
+        if (journal != null) {
+            journal.append(InventoryCodec.addPart(part));
+        }
+    }
+
+    /**
+     * Records the update of a Part.
+     *
+     * @param oldId the id of the Part replaced.
+     * @param part the Part that replaces it.
+     */
+    void updatePart(int oldId, Part part) {
+        if (journal != null) {
+            journal.append(InventoryCodec.updatePart(oldId, part));
+        }
+    }
+
+    /**
+     * Records the deletion of a Part.
+     *
+     * @param partId the id of the Part deleted.
+     */
+    void deletePart(int partId) {
+        if (journal != null) {
+            journal.append(InventoryCodec.deletePart(partId));
+        }
+    }
+
+    /**
+     * Records the addition of a Product.
+     *
+     * @param product the Product added.
+     */
+    void addProduct(Product product) {
+        if (journal != null) {
+            journal.append(InventoryCodec.addProduct(product));
+        }
+    }
+
+    /**
+     * Records the update of a Product.
+     *
+     * @param oldId the id of the Product replaced.
+     * @param product the Product that replaces it.
+     */
+    void updateProduct(int oldId, Product product) {
+        if (journal != null) {
+            journal.append(InventoryCodec.updateProduct(oldId, product));
+        }
+    }
+
+    /**
+     * Records the deletion of a Product.
+     *
+     * @param productId the id of the Product deleted.
+     */
+    void deleteProduct(int productId) {
+        if (journal != null) {
+            journal.append(InventoryCodec.deleteProduct(productId));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.gyp1.inventorymgtapp;
+
+/**
+ * The CostRollup class remembers the cost of each Product: the sum of the prices of its
+ * associated parts, each counted as many times as the Product lists it. A cost is worked
+ * out once, when the Product is added or its parts change, and then read in constant time.
+ * When the price of a Part changes, the Inventory works out again only the costs of the
+ * Products that the WhereUsedIndex finds using that Part.
+ *
+ * The roll-up is not thread-safe; the Inventory only changes it under its own lock.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class CostRollup {
+    /**
+     * The cost of one Product.
+     */
+    private static final class Cost {
+        /**
+         * The sum of the prices of the associated parts.
+         */
+        double value;
+    }
+
+    /**
+     * The cost of each Product, by id.
+     */
+    private final IntMap<Cost> costs = new IntMap<>();
+
+    /**
+     * Records the cost of the Product with the given id.
+     *
+     * @param productId the id of the Product.
+     * @param value the sum of the prices of its associated parts.
+     * @return true if the cost is new or differs from the one recorded before.
+     */
+    public boolean set(int productId, double value) {
+        Cost cost = costs.get(productId);
+        if (cost == null) {
+            cost = new Cost();
+            cost.value = value;
+            costs.put(productId, cost);
+            return true;
+        }
+        if (Double.compare(cost.value, value) == 0) {
+            return false;
+        }
+        cost.value = value;
+        return true;
+    }
+
+    /**
+     * Returns the cost of the Product with the given id.
+     *
+     * @param productId the id of the Product.
+     * @return the sum of the prices of its associated parts, or NaN if it is not recorded.
+     */
+    public double get(int productId) {
+        Cost cost = costs.get(productId);
+        return cost == null ? Double.NaN : cost.value;
+    }
+
+    /**
+     * Forgets the cost of the Product with the given id.
+     *
+     * @param productId the id of the Product.
+     */
+    public void remove(int productId) {
+        costs.remove(productId);
+    }
+
+    /**
+     * Returns the number of Products whose cost is recorded.
+     *
+     * @return the number of costs.
+     */
+    public int size() {
+        return costs.size();
+    }
+}
@@ -0,0 +1,645 @@
+package com.gyp1.inventorymgtapp;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * The CsvImporter class streams large CSV files of parts or products into an Inventory.
+ *
+ * A parts file has the columns type, id, name, price, stock, min, max and machine id or
+ * company name, where type is InHouse or Outsourced. A products file has the columns id,
+ * name, price, stock, min, max and the ids of the associated parts separated by
+ * semicolons. Either file may start with a header line, and fields may be quoted. Rows
+ * are checked against the same rules as the part and product forms, and rows that break
+ * them, or whose id is already in use, are rejected and reported. A row whose id field is
+ * blank is given a new id from the Inventory's id sequence.
+ *
+ * The file is read in blocks of lines that are parsed and validated in parallel. The
+ * valid rows of each block are then added to the Inventory in file order, as one batch
+ * per block, so the Inventory's lists fire one change for each block rather than one
+ * for each row. The next blocks are parsed while a batch is being inserted. Whether an
+ * id is already in the Inventory is checked by the insertion itself, under the
+ * Inventory's lock, so a row is also rejected if its id was added meanwhile by another
+ * thread.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class CsvImporter {
+    /**
+     * The number of lines parsed together and added to the Inventory as one batch.
+     */
+    public static final int BATCH_SIZE = 10_000;
+
+    /**
+     * The largest number of rejection messages kept for the report.
+     */
+    private static final int MAX_REJECTIONS_KEPT = 100;
+
+    /**
+     * The id of a parsed row whose id field is blank, until it is given a new id.
+     */
+    private static final int NEW_ID = 0;
+
+    /**
+     * Parses and validates the fields of one row.
+     *
+     * @param <T> the type of object the row describes.
+     */
+    @FunctionalInterface
+    private interface RowParser<T> {
+        /**
+         * Creates the object described by the given fields.
+         *
+         * @param fields the fields of the row.
+         * @return the object described by the row.
+         * @throws IllegalArgumentException if the row is not valid.
+         */
+        T parse(String[] fields);
+    }
+
+    /**
+     * A block of lines after parsing: the valid rows with their line numbers, and the
+     * number of rejected rows with the reasons for them.
+     *
+     * @param <T> the type of object the rows describe.
+     */
+    private static final class Block<T> {
+        /**
+         * The objects described by the valid rows.
+         */
+        final List<T> rows = new ArrayList<>();
+
+        /**
+         * The line number of each valid row.
+         */
+        final List<Integer> lines = new ArrayList<>();
+
+        /**
+         * The reasons for the rejected rows, each with its line number.
+         */
+        final List<String> rejections = new ArrayList<>();
+
+        /**
+         * The number of lines in the block that are not blank.
+         */
+        int lineCount;
+    }
+
+    /**
+     * The Inventory receiving the imported rows.
+     */
+    private final Inventory inventory;
+
+    /**
+     * Runs the insertion of each batch.
+     */
+    private final Executor inserter;
+
+    /**
+     * The number of threads parsing blocks.
+     */
+    private final int parallelism;
+
+    /**
+     * Initializes an importer that adds the imported rows to the given Inventory. The
+     * Inventory may be changed from any thread, so the inserter only decides where the
+     * inserts run: a pool thread lets the next blocks be read meanwhile, while
+     * Runnable::run inserts each batch on the importing thread.
+     *
+     * @param inventory the Inventory receiving the imported rows.
+     * @param inserter runs the insertion of each batch.
+     */
+    public CsvImporter(Inventory inventory, Executor inserter) {
+        this.inventory = inventory;
+        this.inserter = inserter;
+        this.parallelism = Math.max(1, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Imports the given file as parts or products, depending on its first field: a file
+     * of parts starts with a type column holding InHouse, Outsourced or "type".
+     *
+     * @param file the CSV file.
+     * @return the outcome of the import.
+     * @throws IOException if the file cannot be read.
+     */
+    public ImportReport importFile(Path file) throws IOException {
+        String first;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            first = reader.readLine();
+        }
+        String type = first == null ? "" : splitLine(first)[0].trim();
+        if (type.equalsIgnoreCase("type") || type.equalsIgnoreCase("InHouse") || type.equalsIgnoreCase("Outsourced")) {
+            return importParts(file);
+        }
+        return importProducts(file);
+    }
+
+    /**
+     * Imports a CSV file of parts.
+     *
+     * @param file the CSV file.
+     * @return the outcome of the import.
+     * @throws IOException if the file cannot be read.
+     */
+    public ImportReport importParts(Path file) throws IOException {
+        return run(file, "type", CsvImporter::parsePart, Part::getId, Part::setId, inventory.getPartIds(),
+                inventory::addPartsIfAbsent);
+    }
+
+    /**
+     * Imports a CSV file of products. The associated parts must already be in the Inventory.
+     *
+     * @param file the CSV file.
+     * @return the outcome of the import.
+     * @throws IOException if the file cannot be read.
+     */
+    public ImportReport importProducts(Path file) throws IOException {
+        return run(file, "id", this::parseProduct, Product::getId, Product::setId, inventory.getProductIds(),
+                inventory::addProductsIfAbsent);
+    }
+
+    /**
+     * Runs the import pipeline: the calling thread reads blocks of lines and hands them to
+     * the parsing threads, then takes the parsed blocks back in file order, rejects the
+     * rows whose ids are used twice in the file, gives new ids to the rows without one,
+     * and passes the rows to the inserter, which rejects those whose ids are already in
+     * the Inventory.
+     *
+     * @param file the CSV file.
+     * @param header the first field of a header line.
+     * @param parser parses and validates one row.
+     * @param idOf returns the id of a parsed row.
+     * @param setId gives a parsed row its id.
+     * @param ids the sequence handing out the ids of the rows without one.
+     * @param adder adds a batch of rows to the Inventory, except those whose ids are
+     *              already used, and returns the rows it did not add.
+     * @param <T> the type of object the rows describe.
+     * @return the outcome of the import.
+     * @throws IOException if the file cannot be read.
+     */
+    private <T> ImportReport run(Path file, String header, RowParser<T> parser, ToIntFunction<T> idOf,
+                                 ObjIntConsumer<T> setId, IdSequence ids,
+                                 Function<List<T>, List<T>> adder) throws IOException {
+        long start = System.nanoTime();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService parsers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "csv-parse-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Deque<Future<Block<T>>> pending = new ArrayDeque<>();
+        IntSet seen = new IntSet();
+        List<String> rejections = new ArrayList<>();
+        long[] counts = new long[3]; // rows read, imported, rejected
+        CompletableFuture<List<String>> lastInsert = CompletableFuture.completedFuture(List.of());
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            int lineNumber = 0;
+            boolean firstLine = true;
+            List<String> lines = new ArrayList<>(BATCH_SIZE);
+            int blockStart = 1;
+            String line;
+            while (true) {
+                line = reader.readLine();
+                if (line != null) {
+                    lineNumber++;
+                    if (firstLine) {
+                        firstLine = false;
+                        if (splitLine(line)[0].trim().equalsIgnoreCase(header)) {
+                            blockStart = lineNumber + 1;
+                            continue;
+                        }
+                    }
+                    if (lines.isEmpty()) {
+                        blockStart = lineNumber;
+                    }
+                    lines.add(line);
+                }
+                if (lines.size() == BATCH_SIZE || (line == null && !lines.isEmpty())) {
+                    List<String> blockLines = lines;
+                    int firstLineNumber = blockStart;
+                    pending.add(parsers.submit(() -> parseBlock(blockLines, firstLineNumber, parser)));
+                    lines = new ArrayList<>(BATCH_SIZE);
+                }
+                // Keep a bounded number of blocks in flight, and drain them all at the end.
+                while (!pending.isEmpty() && (pending.size() > 2 * parallelism || line == null)) {
+                    Block<T> block = await(pending.poll());
+                    List<Integer> batchLines = new ArrayList<>(block.rows.size());
+                    List<T> batch = acceptRows(block, idOf, setId, ids, seen, batchLines, rejections, counts);
+                    rejectUsedIds(lastInsert.join(), rejections, counts);
+                    if (!batch.isEmpty()) {
+                        lastInsert = CompletableFuture.supplyAsync(
+                                () -> usedIdRejections(batch, batchLines, adder.apply(batch), idOf), inserter);
+                    }
+                }
+                if (line == null) {
+                    break;
+                }
+            }
+            rejectUsedIds(lastInsert.join(), rejections, counts);
+        } finally {
+            parsers.shutdownNow();
+        }
+        return new ImportReport(counts[0], counts[1], counts[2], System.nanoTime() - start, rejections);
+    }
+
+    /**
+     * Parses and validates a block of lines. Run by the parsing threads.
+     *
+     * @param lines the lines of the block; blank lines are skipped here, so that the
+     *              line numbers of the lines after them stay right.
+     * @param firstLineNumber the line number of the first line, used in rejection messages.
+     * @param parser parses and validates one row.
+     * @param <T> the type of object the rows describe.
+     * @return the parsed block.
+     */
+    private static <T> Block<T> parseBlock(List<String> lines, int firstLineNumber, RowParser<T> parser) {
+        Block<T> block = new Block<>();
+        int lineNumber = firstLineNumber;
+        for (String line : lines) {
+            if (!line.isBlank()) {
+                block.lineCount++;
+                try {
+                    block.rows.add(parser.parse(splitLine(line)));
+                    block.lines.add(lineNumber);
+                } catch (IllegalArgumentException ex) {
+                    block.rejections.add("Line " + lineNumber + ": " + ex.getMessage());
+                }
+            }
+            lineNumber++;
+        }
+        return block;
+    }
+
+    /**
+     * Takes the valid rows of a parsed block whose ids are not used earlier in the file,
+     * and records the block's rejections. The rows without an id share one block of ids leased from the
+     * sequence, after it has observed the ids given in the block, so they cannot take one
+     * of them; a later row giving one of the leased ids is rejected as a duplicate.
+     *
+     * @param block the parsed block.
+     * @param idOf returns the id of a parsed row.
+     * @param setId gives a parsed row its id.
+     * @param ids the sequence handing out the ids of the rows without one.
+     * @param seen the ids imported so far.
+     * @param batchLines receives the line number of each row returned.
+     * @param rejections the rejection messages kept for the report.
+     * @param counts the numbers of rows read, imported and rejected so far.
+     * @param <T> the type of object the rows describe.
+     * @return the rows to add to the Inventory.
+     */
+    private static <T> List<T> acceptRows(Block<T> block, ToIntFunction<T> idOf, ObjIntConsumer<T> setId,
+                                          IdSequence ids, IntSet seen, List<Integer> batchLines,
+                                          List<String> rejections, long[] counts) {
+        counts[0] += block.lineCount;
+        counts[2] += block.rejections.size();
+        keepRejections(block.rejections, rejections);
+        List<T> batch = new ArrayList<>(block.rows.size());
+        List<T> unnumbered = new ArrayList<>();
+        for (int i = 0; i < block.rows.size(); i++) {
+            T row = block.rows.get(i);
+            int id = idOf.applyAsInt(row);
+            if (id == NEW_ID) {
+                unnumbered.add(row);
+                batch.add(row);
+                batchLines.add(block.lines.get(i));
+            } else if (!seen.add(id)) {
+                counts[2]++;
+                keepRejections(List.of("Line " + block.lines.get(i) + ": Duplicate id " + id), rejections);
+            } else {
+                ids.observe(id);
+                batch.add(row);
+                batchLines.add(block.lines.get(i));
+            }
+        }
+        if (!unnumbered.isEmpty()) {
+            int next = ids.lease(unnumbered.size());
+            for (T row : unnumbered) {
+                seen.add(next);
+                setId.accept(row, next++);
+            }
+        }
+        counts[1] += batch.size();
+        return batch;
+    }
+
+    /**
+     * Returns the rejection messages of the rows of a batch that the Inventory did not add
+     * because their ids were already used. Run by the inserter once the batch is inserted.
+     *
+     * @param batch the rows passed to the Inventory.
+     * @param batchLines the line number of each row of the batch.
+     * @param rejected the rows not added, in batch order.
+     * @param idOf returns the id of a parsed row.
+     * @param <T> the type of object the rows describe.
+     * @return a rejection message for each row not added.
+     */
+    private static <T> List<String> usedIdRejections(List<T> batch, List<Integer> batchLines, List<T> rejected,
+                                                     ToIntFunction<T> idOf) {
+        List<String> messages = new ArrayList<>(rejected.size());
+        int i = 0;
+        for (T row : rejected) {
+            while (batch.get(i) != row) {
+                i++;
+            }
+            messages.add("Line " + batchLines.get(i) + ": Duplicate id " + idOf.applyAsInt(row));
+        }
+        return messages;
+    }
+
+    /**
+     * Counts the rows of an inserted batch that the Inventory did not add as rejected
+     * rather than imported, and keeps their messages for the report.
+     *
+     * @param messages a rejection message for each row not added.
+     * @param rejections the rejection messages kept for the report.
+     * @param counts the numbers of rows read, imported and rejected so far.
+     */
+    private static void rejectUsedIds(List<String> messages, List<String> rejections, long[] counts) {
+        counts[1] -= messages.size();
+        counts[2] += messages.size();
+        keepRejections(messages, rejections);
+    }
+
+    /**
+     * Adds rejection messages to the report until it holds MAX_REJECTIONS_KEPT of them.
+     *
+     * @param messages the messages to add.
+     * @param rejections the messages kept for the report.
+     */
+    private static void keepRejections(List<String> messages, List<String> rejections) {
+        for (String message : messages) {
+            if (rejections.size() >= MAX_REJECTIONS_KEPT) {
+                return;
+            }
+            rejections.add(message);
+        }
+    }
+
+    /**
+     * Waits for a block to be parsed.
+     *
+     * @param future the parsing of the block.
+     * @param <T> the type of object the rows describe.
+     * @return the parsed block.
+     * @throws IOException if the parsing failed or was interrupted.
+     */
+    private static <T> Block<T> await(Future<Block<T>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            throw new IOException("Cannot parse import file", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", ex);
+        }
+    }
+
+    /**
+     * Creates the part described by a row of a parts file.
+     *
+     * @param fields the fields of the row.
+     * @return a new InHouse or Outsourced part.
+     * @throws IllegalArgumentException if the row is not valid.
+     */
+    private static Part parsePart(String[] fields) {
+        checkFieldCount(fields, 8);
+        String type = fields[0].trim();
+        int id = parseId(fields[1], "Part ID");
+        String name = fields[2].trim();
+        double price = parsePrice(fields[3]);
+        int stock = parseInt(fields[4], "Inventory level");
+        int min = parseInt(fields[5], "Minimum inventory");
+        int max = parseInt(fields[6], "Maximum inventory");
+        checkLevels(name, stock, min, max);
+        if (type.equalsIgnoreCase("InHouse")) {
+            int machineId = parseInt(fields[7], "Machine ID");
+            if (machineId < 1) {
+                throw new IllegalArgumentException("Machine ID must be a positive integer");
+            }
+            return new InHouse(id, name, price, stock, min, max, machineId);
+        } else if (type.equalsIgnoreCase("Outsourced")) {
+            String companyName = fields[7].trim();
+            if (companyName.isEmpty()) {
+                throw new IllegalArgumentException("Company name is empty");
+            }
+            if (companyName.chars().allMatch(Character::isDigit)) {
+                throw new IllegalArgumentException("The company name is not valid");
+            }
+            return new Outsourced(id, name, price, stock, min, max, companyName);
+        }
+        throw new IllegalArgumentException("Unknown part type " + type);
+    }
+
+    /**
+     * Creates the product described by a row of a products file, with its associated parts.
+     *
+     * @param fields the fields of the row.
+     * @return a new Product.
+     * @throws IllegalArgumentException if the row is not valid or names an unknown part.
+     */
+    private Product parseProduct(String[] fields) {
+        checkFieldCount(fields, 7);
+        int id = parseId(fields[0], "Product ID");
+        String name = fields[1].trim();
+        double price = parsePrice(fields[2]);
+        int stock = parseInt(fields[3], "Inventory level");
+        int min = parseInt(fields[4], "Minimum inventory");
+        int max = parseInt(fields[5], "Maximum inventory");
+        checkLevels(name, stock, min, max);
+
+        Product product = new Product(id, name, price, stock, min, max);
+        double partsCost = 0;
+        for (String partField : fields[6].split(";")) {
+            if (partField.isBlank()) {
+                continue;
+            }
+            int partId = parseInt(partField, "Part ID");
+            Part part = inventory.lookupPart(partId);
+            if (part == null) {
+                throw new IllegalArgumentException("Unknown part ID " + partId);
+            }
+            product.getAllAssociatedParts().add(part);
+            partsCost += part.getPrice();
+        }
+        if (product.getAllAssociatedParts().isEmpty()) {
+            throw new IllegalArgumentException("Product must have at least one part");
+        }
+        if (price < partsCost) {
+            throw new IllegalArgumentException("Price cannot be less than cost of parts");
+        }
+        return product;
+    }
+
+    /**
+     * Checks the rules shared by parts and products, as the part and product forms do.
+     * The InventoryServer applies them to the objects it receives too.
+     *
+     * @param id the id.
+     * @param name the name.
+     * @param stock the inventory level.
+     * @param min the minimum inventory level.
+     * @param max the maximum inventory level.
+     * @throws IllegalArgumentException if a rule is broken.
+     */
+    static void checkCommon(int id, String name, int stock, int min, int max) {
+        if (id < 1) {
+            throw new IllegalArgumentException("Invalid ID " + id);
+        }
+        checkLevels(name, stock, min, max);
+    }
+
+    /**
+     * Checks the rules shared by parts and products that do not involve the id.
+     *
+     * @param name the name.
+     * @param stock the inventory level.
+     * @param min the minimum inventory level.
+     * @param max the maximum inventory level.
+     * @throws IllegalArgumentException if a rule is broken.
+     */
+    private static void checkLevels(String name, int stock, int min, int max) {
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Name is empty");
+        }
+        if (stock < 0) {
+            throw new IllegalArgumentException("Inventory level must be greater than or equal to 0");
+        }
+        if (stock > max) {
+            throw new IllegalArgumentException("Inventory level must be less than or equal to max");
+        }
+        if (min < 0) {
+            throw new IllegalArgumentException("Minimum inventory level cannot be negative");
+        }
+        if (max < min) {
+            throw new IllegalArgumentException("Max must be greater than min");
+        }
+        if (min > stock) {
+            throw new IllegalArgumentException("Inventory level must be greater than or equal to min");
+        }
+    }
+
+    /**
+     * Checks that a row has the given number of fields.
+     *
+     * @param fields the fields of the row.
+     * @param expected the number of fields expected.
+     * @throws IllegalArgumentException if the row has another number of fields.
+     */
+    private static void checkFieldCount(String[] fields, int expected) {
+        if (fields.length != expected) {
+            throw new IllegalArgumentException("Expected " + expected + " fields but found " + fields.length);
+        }
+    }
+
+    /**
+     * Parses an id field, which may be blank for a row that needs a new id.
+     *
+     * @param field the field.
+     * @param label the name of the field, used in the error message.
+     * @return the id, or NEW_ID if the field is blank.
+     * @throws IllegalArgumentException if the field is not a positive integer.
+     */
+    private static int parseId(String field, String label) {
+        if (field.isBlank()) {
+            return NEW_ID;
+        }
+        int id = parseInt(field, label);
+        if (id < 1) {
+            throw new IllegalArgumentException("Invalid ID " + id);
+        }
+        return id;
+    }
+
+    /**
+     * Parses an integer field.
+     *
+     * @param field the field.
+     * @param label the name of the field, used in the error message.
+     * @return the value of the field.
+     * @throws IllegalArgumentException if the field is not an integer.
+     */
+    private static int parseInt(String field, String label) {
+        try {
+            return Integer.parseInt(field.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(label + " must be an integer");
+        }
+    }
+
+    /**
+     * Parses a price field.
+     *
+     * @param field the field.
+     * @return the price.
+     * @throws IllegalArgumentException if the field is not a positive number.
+     */
+    private static double parsePrice(String field) {
+        double price;
+        try {
+            price = Double.parseDouble(field.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Price must be a floating number");
+        }
+        if (!(price > 0)) {
+            throw new IllegalArgumentException("Price cannot be zero or negative");
+        }
+        return price;
+    }
+
+    /**
+     * Splits a CSV line into its fields. A field may be enclosed in double quotes, in which
+     * case it may contain commas, and a double quote within it is written twice.
+     *
+     * @param line the line to split.
+     * @return the fields of the line.
+     */
+    static String[] splitLine(String line) {
+        List<String> fields = new ArrayList<>(8);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+}
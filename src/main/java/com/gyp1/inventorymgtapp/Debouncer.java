@@ -0,0 +1,71 @@
+package com.gyp1.inventorymgtapp;
+
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+
+/**
+ * The Debouncer class limits how often an action runs while it is triggered in quick
+ * succession, such as a search run on every keystroke. The first trigger after a quiet
+ * period runs the action at once, so a single keystroke is answered without delay. The
+ * triggers that follow within the quiet period are merged into one run when typing pauses.
+ * It must be used on the JavaFX application thread.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class Debouncer {
+    /**
+     * The timer measuring the quiet period since the last trigger.
+     */
+    private final PauseTransition quietPeriod;
+
+    /**
+     * The action to run.
+     */
+    private final Runnable action;
+
+    /**
+     * True when a trigger arrived during the quiet period and the action has not run for it.
+     */
+    private boolean pending;
+
+    /**
+     * Default constructor. Initializes a debouncer for the given action.
+     *
+     * @param delay the quiet period after which pending triggers run the action.
+     * @param action the action to run.
+     */
+    public Debouncer(Duration delay, Runnable action) {
+        this.action = action;
+        quietPeriod = new PauseTransition(delay);
+        quietPeriod.setOnFinished(event -> {
+            if (pending) {
+                pending = false;
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Requests a run of the action. It runs at once if the debouncer is idle, or when
+     * the triggers stop for the quiet period otherwise.
+     */
+    public void trigger() {
+        if (quietPeriod.getStatus() == Animation.Status.RUNNING) {
+            pending = true;
+        } else {
+            action.run();
+        }
+        quietPeriod.playFromStart();
+    }
+
+    /**
+     * Runs the action at once and drops any pending trigger.
+     */
+    public void runNow() {
+        pending = false;
+        quietPeriod.stop();
+        action.run();
+    }
+}
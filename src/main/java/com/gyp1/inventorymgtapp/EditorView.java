@@ -0,0 +1,118 @@
+package com.gyp1.inventorymgtapp;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * The EditorView class holds the scene of an editor screen, such as the part-view, built
+ * once and shown again for every Add or Modify. Its FXML is parsed on a background thread
+ * as soon as the EditorView is created, while the main screen starts. Once it is parsed,
+ * the scene is built and styled on the JavaFX application thread when it is next idle,
+ * so the first click usually finds the scene ready, or only waits for a load still
+ * running.
+ *
+ * The controller's initialize method runs on the background thread, on nodes that are not
+ * shown yet, so it must only set up the controls and leave the binding to the Inventory's
+ * views, and everything that depends on the user action, to the JavaFX application thread.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class EditorView {
+    /**
+     * The FXML file of the screen.
+     */
+    private final String fxml;
+
+    /**
+     * Parses the FXML into the root node of the screen.
+     */
+    private final FutureTask<Parent> preload;
+
+    /**
+     * The scene of the screen, or null until it is first shown.
+     */
+    private Scene scene;
+
+    /**
+     * Default constructor. Starts parsing the given FXML file on a background thread.
+     *
+     * @param fxml the FXML file of the screen, relative to this class.
+     * @param controller the controller of the screen.
+     */
+    public EditorView(String fxml, Object controller) {
+        this.fxml = fxml;
+        preload = new FutureTask<>(() -> {
+            FXMLLoader loader = new FXMLLoader(EditorView.class.getResource(fxml));
+            loader.setController(controller);
+            return loader.load();
+        }) {
+            @Override
+            protected void done() {
+                Platform.runLater(EditorView.this::build);
+            }
+        };
+        Thread thread = new Thread(preload, fxml + "-preload");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Returns the scene of the screen, waiting for its FXML to be parsed the first time.
+     * It must be called on the JavaFX application thread.
+     *
+     * @return the scene of the screen.
+     * @throws IOException when loading the FXML failed.
+     */
+    public Scene getScene() throws IOException {
+        if (scene == null) {
+            scene = new Scene(root());
+        }
+        return scene;
+    }
+
+    /**
+     * Builds the scene once the FXML is parsed, and applies its style sheets so that the
+     * skins of its controls are created before it is first shown. A failed load is left
+     * to be reported by getScene.
+     */
+    private void build() {
+        if (scene == null && !preload.isCancelled()) {
+            try {
+                getScene().getRoot().applyCss();
+            } catch (IOException | RuntimeException ex) {
+                // getScene reports it when the screen is asked for.
+            }
+        }
+    }
+
+    /**
+     * Waits for the FXML to be parsed and returns the root node of the screen.
+     *
+     * @return the root node.
+     * @throws IOException when loading the FXML failed.
+     */
+    private Parent root() throws IOException {
+        try {
+            return preload.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading " + fxml, ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Cannot load " + fxml, cause);
+        }
+    }
+}
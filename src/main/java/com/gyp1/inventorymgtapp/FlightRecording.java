@@ -0,0 +1,107 @@
+package com.gyp1.inventorymgtapp;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The FlightRecording class starts the continuous Java Flight Recorder recording of the
+ * application when the inventory.recording system property names a file. The recording
+ * uses the JDK's default profile with the inventory.jfc profile on top of it, keeps the
+ * last half hour on disk, and is written to the file when the application exits. While
+ * the application runs, jcmd pid JFR.dump name=inventory writes it out on demand, and
+ * JDK Mission Control reads the file either way.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class FlightRecording {
+    /**
+     * The system property naming the file the recording is written to.
+     */
+    public static final String RECORDING_PROPERTY = "inventory.recording";
+
+    /**
+     * The name of the recording, as listed by jcmd pid JFR.check.
+     */
+    public static final String RECORDING_NAME = "inventory";
+
+    /**
+     * The resource holding the settings of the application's events.
+     */
+    private static final String PROFILE = "inventory.jfc";
+
+    /**
+     * How long the events are kept.
+     */
+    private static final Duration MAX_AGE = Duration.ofMinutes(30);
+
+    /**
+     * The most disk space the recording takes, in bytes.
+     */
+    private static final long MAX_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * Logs the recording that cannot be started.
+     */
+    private static final System.Logger LOG = System.getLogger(FlightRecording.class.getName());
+
+    /**
+     * Starts the continuous recording if the inventory.recording system property is set.
+     * A recording that cannot be started is logged and the application runs without it.
+     *
+     * @return the recording started, or null if none was.
+     */
+    public static Recording startIfRequested() {
+        String file = System.getProperty(RECORDING_PROPERTY);
+        if (file == null || file.isEmpty()) {
+            return null;
+        }
+        try {
+            return start(Paths.get(file));
+        } catch (IOException | ParseException | RuntimeException ex) {
+            LOG.log(System.Logger.Level.WARNING, "Cannot start the flight recording " + file, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Starts the continuous recording, written to the given file on exit.
+     *
+     * @param destination the file the recording is written to.
+     * @return the recording started.
+     * @throws IOException if the profile cannot be read or the file cannot be written.
+     * @throws ParseException if a profile is invalid.
+     */
+    public static Recording start(Path destination) throws IOException, ParseException {
+        Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+        try (InputStream in = FlightRecording.class.getResourceAsStream(PROFILE)) {
+            if (in == null) {
+                throw new IOException("Missing resource " + PROFILE);
+            }
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                settings.putAll(Configuration.create(reader).getSettings());
+            }
+        }
+        Recording recording = new Recording(settings);
+        recording.setName(RECORDING_NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(MAX_AGE);
+        recording.setMaxSize(MAX_SIZE);
+        recording.setDumpOnExit(true);
+        recording.setDestination(destination);
+        recording.start();
+        return recording;
+    }
+}
@@ -0,0 +1,191 @@
+package com.gyp1.inventorymgtapp;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The IdSequence class hands out the ids of new Parts or Products. An id is taken with one
+ * atomic increment, so any number of threads can allocate ids without a lock, and a bulk
+ * importer can lease a block of consecutive ids with a single call. Every id used by an
+ * object added to the Inventory is observed by the sequence, so an id given explicitly, or
+ * loaded from disk, is never handed out again.
+ *
+ * Once attached to a file, the sequence survives restarts. It writes a ceiling above the
+ * ids it has handed out or observed, and only writes again when the ids reach it, each
+ * time reserving a larger range. After a restart it starts from the saved ceiling, so the
+ * ids of objects deleted since are not reused either. A crash leaves a gap in the ids,
+ * never a duplicate.
+ *
+ * Observing an id never writes the file, as the Inventory observes ids under its write
+ * lock, in the middle of adding an object. The Inventory calls save once it has released
+ * the lock, and the store saves the ceilings again before it deletes the records of
+ * deleted objects.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class IdSequence {
+    /**
+     * The smallest number of ids reserved each time the ceiling is written.
+     */
+    private static final int MIN_RESERVATION = 1024;
+
+    /**
+     * The next id to hand out.
+     */
+    private final AtomicInteger next = new AtomicInteger(1);
+
+    /**
+     * The saved ceiling: no id at or above it has been handed out or observed.
+     */
+    private volatile int reserved = Integer.MAX_VALUE;
+
+    /**
+     * The file holding the ceiling, or null while the sequence is not saved.
+     */
+    private Path file;
+
+    /**
+     * Returns a new id.
+     *
+     * @return an id not handed out or observed before.
+     * @throws IllegalStateException if every id has been used.
+     */
+    public int next() {
+        return lease(1);
+    }
+
+    /**
+     * Returns the first of a block of new consecutive ids.
+     *
+     * @param count the number of ids in the block.
+     * @return the first id of the block; the block runs up to it plus count minus one.
+     * @throws IllegalStateException if there are not enough ids left.
+     */
+    public int lease(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Cannot lease " + count + " ids");
+        }
+        int first = next.getAndAdd(count);
+        long end = (long) first + count;
+        if (first < 1 || end > Integer.MAX_VALUE) {
+            throw new IllegalStateException("No more ids");
+        }
+        reserve((int) end);
+        return first;
+    }
+
+    /**
+     * Records that the given id is used, so that it is never handed out. The saved ceiling
+     * is raised by the next call to save, not by this method, which never fails.
+     *
+     * @param id an id used by an object of the Inventory.
+     */
+    public void observe(int id) {
+        if (id >= next.get() && id < Integer.MAX_VALUE) {
+            next.accumulateAndGet(id + 1, Math::max);
+        }
+    }
+
+    /**
+     * Makes sure the saved ceiling is above every id handed out or observed so far.
+     *
+     * @throws IOException if the ceiling cannot be saved.
+     */
+    public void save() throws IOException {
+        int end = next.get();
+        if (end <= reserved) {
+            return;
+        }
+        synchronized (this) {
+            if (end > reserved) {
+                write(reservationAbove(end));
+            }
+        }
+    }
+
+    /**
+     * Returns the id that the next call to next() would hand out.
+     *
+     * @return the next id.
+     */
+    public int peek() {
+        return next.get();
+    }
+
+    /**
+     * Saves the sequence in the given file from now on. A ceiling saved earlier in the file
+     * is read first, and the sequence continues above it.
+     *
+     * @param file the file holding the ceiling.
+     * @throws IOException if the file cannot be read or written.
+     */
+    public synchronized void attach(Path file) throws IOException {
+        if (Files.exists(file)) {
+            String saved = Files.readString(file, StandardCharsets.UTF_8).trim();
+            try {
+                int ceiling = Integer.parseInt(saved);
+                next.accumulateAndGet(ceiling, Math::max);
+            } catch (NumberFormatException ex) {
+                throw new IOException("Invalid id ceiling in " + file + ": " + saved, ex);
+            }
+        }
+        this.file = file;
+        write(reservationAbove(next.get()));
+    }
+
+    /**
+     * Makes sure the saved ceiling is above the given id, raising it if needed.
+     *
+     * @param end the id just above those handed out or observed.
+     */
+    private void reserve(int end) {
+        if (end <= reserved) {
+            return;
+        }
+        synchronized (this) {
+            if (end > reserved) {
+                try {
+                    write(reservationAbove(end));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException("Cannot save the id ceiling in " + file, ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the ceiling to save when the ids reach the given one. The range reserved
+     * grows with the ids, so a large import writes the file only a few dozen times.
+     *
+     * @param end the id just above those handed out or observed.
+     * @return the new ceiling.
+     */
+    private static int reservationAbove(int end) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) end + Math.max(MIN_RESERVATION, end / 8));
+    }
+
+    /**
+     * Saves a new ceiling, replacing the file in one step. Without a file, the ceiling is
+     * left unlimited and nothing is written.
+     *
+     * @param ceiling the new ceiling.
+     * @throws IOException if the file cannot be written.
+     */
+    private void write(int ceiling) throws IOException {
+        if (file == null) {
+            return;
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, Integer.toString(ceiling).getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        reserved = ceiling;
+    }
+}
@@ -0,0 +1,121 @@
+package com.gyp1.inventorymgtapp;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The ImportReport class holds the outcome of a bulk import: how many rows were read,
+ * imported and rejected, how long the import took, and the reasons for the first
+ * rejections.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class ImportReport {
+    /**
+     * The number of data rows read from the file, not counting a header.
+     */
+    private final long rowsRead;
+
+    /**
+     * The number of rows added to the Inventory.
+     */
+    private final long imported;
+
+    /**
+     * The number of rows rejected.
+     */
+    private final long rejected;
+
+    /**
+     * The time taken by the import, in nanoseconds.
+     */
+    private final long elapsedNanos;
+
+    /**
+     * The reasons for the first rejections, each with the line number of the rejected row.
+     */
+    private final List<String> rejections;
+
+    /**
+     * Default constructor.
+     *
+     * @param rowsRead the number of data rows read.
+     * @param imported the number of rows added to the Inventory.
+     * @param rejected the number of rows rejected.
+     * @param elapsedNanos the time taken by the import, in nanoseconds.
+     * @param rejections the reasons for the first rejections.
+     */
+    public ImportReport(long rowsRead, long imported, long rejected, long elapsedNanos, List<String> rejections) {
+        this.rowsRead = rowsRead;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.elapsedNanos = elapsedNanos;
+        this.rejections = Collections.unmodifiableList(rejections);
+    }
+
+    /**
+     * Returns the number of data rows read from the file.
+     *
+     * @return the number of rows read.
+     */
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * Returns the number of rows added to the Inventory.
+     *
+     * @return the number of rows imported.
+     */
+    public long getImported() {
+        return imported;
+    }
+
+    /**
+     * Returns the number of rows rejected.
+     *
+     * @return the number of rows rejected.
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Returns the time taken by the import.
+     *
+     * @return the elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the number of rows read per second.
+     *
+     * @return the import throughput.
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rowsRead * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Returns the reasons for the first rejections, each with the line number of the row.
+     *
+     * @return an unmodifiable list of rejection messages.
+     */
+    public List<String> getRejections() {
+        return rejections;
+    }
+
+    /**
+     * Returns a one-line summary of this report.
+     *
+     * @return the summary.
+     */
+    @Override
+    public String toString() {
+        return String.format("Imported %,d of %,d rows (%,d rejected) in %.1f s, %,.0f rows/s",
+                imported, rowsRead, rejected, elapsedNanos / 1e9, getRowsPerSecond());
+    }
+}
@@ -0,0 +1,161 @@
+package com.gyp1.inventorymgtapp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * The IncrementalSearch class answers the successive queries typed into a search box.
+ * When a query extends the previous one (for example "bol" after "bo"), every match of the
+ * new query is also a match of the previous one, so only the previous matches are
+ * re-tested. The results of the queries typed so far are kept, so deleting characters
+ * widens the result back to an earlier answer without searching again. Only a query that
+ * neither extends nor shortens the previous ones goes back to the full index.
+ *
+ * A search may run on a background thread. It only holds the read lock of the Inventory
+ * that owns the index while it copies the candidate ids of a query from the index; the
+ * candidates are resolved to their objects and verified against their text after the lock
+ * is released, so a long search never holds up a change. The lock is taken interruptibly,
+ * and the search stops with a CancellationException when its thread is interrupted.
+ *
+ * @param <T> the type of the objects found by this search, either Part or Product.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class IncrementalSearch<T> {
+    /**
+     * The largest number of earlier queries whose results are kept for widening.
+     */
+    private static final int MAX_HISTORY = 32;
+
+    /**
+     * The index that answers queries that cannot be narrowed from an earlier result.
+     */
+    private final NGramIndex index;
+
+    /**
+     * Returns the Part or Product object with a given id, or null, without the lock.
+     */
+    private final IntFunction<T> resolver;
+
+    /**
+     * Returns the text indexed for a Part or Product.
+     */
+    private final Function<T, String> text;
+
+    /**
+     * The read lock guarding the index.
+     */
+    private final Lock lock;
+
+    /**
+     * The earlier lowercase queries, each one extending the query before it.
+     */
+    private final ArrayDeque<String> queries = new ArrayDeque<>();
+
+    /**
+     * The ids matching each query in the queries deque, in the same order.
+     */
+    private final ArrayDeque<IntSet> results = new ArrayDeque<>();
+
+    /**
+     * Set when the indexed data changed since the remembered results were computed.
+     */
+    private volatile boolean stale;
+
+    /**
+     * Default constructor. Initializes an incremental search over the given index.
+     *
+     * @param index the index to search.
+     * @param resolver returns the object with a given id, or null if there is none; it is
+     *                 called without the lock, so it must be safe to call at any time.
+     * @param text returns the text indexed for an object.
+     * @param lock the read lock guarding the index.
+     */
+    public IncrementalSearch(NGramIndex index, IntFunction<T> resolver, Function<T, String> text, Lock lock) {
+        this.index = index;
+        this.resolver = resolver;
+        this.text = text;
+        this.lock = lock;
+    }
+
+    /**
+     * Returns the objects whose indexed text contains the given query, ignoring case,
+     * in ascending order of their ids. Calls must not overlap; a BackgroundSearch runs
+     * them one at a time.
+     *
+     * @param query the non-empty substring to search for.
+     * @return a new list of the matching objects.
+     */
+    public List<T> search(String query) {
+        String lower = query.toLowerCase();
+        if (stale) {
+            stale = false;
+            queries.clear();
+            results.clear();
+        }
+        // Forget the earlier queries that the new query does not extend.
+        while (!queries.isEmpty() && !lower.contains(queries.peekLast())) {
+            queries.removeLast();
+            results.removeLast();
+        }
+        IntSet candidates = queries.isEmpty() ? candidates(lower) : results.peekLast();
+
+        int[] ids = candidates.toSortedArray();
+        IntSet matched = new IntSet(ids.length);
+        List<T> found = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            NGramIndex.checkInterrupted(i);
+            T item = resolver.apply(ids[i]);
+            if (item != null && text.apply(item).toLowerCase().contains(lower)) {
+                matched.add(ids[i]);
+                found.add(item);
+            }
+        }
+        if (queries.isEmpty() || !queries.peekLast().equals(lower)) {
+            queries.addLast(lower);
+            results.addLast(matched);
+            if (queries.size() > MAX_HISTORY) {
+                queries.removeFirst();
+                results.removeFirst();
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Discards the remembered results. It must be called when the indexed data changes,
+     * since the earlier results would miss the entries added since. It may be called
+     * from any thread.
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * Copies the ids that may match a query from the index, holding the read lock only
+     * for the copy.
+     *
+     * @param lower the lowercase query.
+     * @return the candidate ids.
+     * @throws CancellationException if the thread is interrupted while waiting for the lock.
+     */
+    private IntSet candidates(String lower) {
+        try {
+            lock.lockInterruptibly();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Search interrupted");
+        }
+        try {
+            return index.candidates(lower);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
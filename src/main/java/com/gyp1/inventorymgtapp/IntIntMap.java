@@ -0,0 +1,285 @@
+package com.gyp1.inventorymgtapp;
+
+import java.util.Arrays;
+
+/**
+ * The IntIntMap class is a hash table that maps primitive int keys to primitive int values,
+ * such as counts or row numbers, without boxing either of them. It uses the same linear
+ * probing scheme as IntMap.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class IntIntMap {
+    /**
+     * An action performed on each key and value of an IntIntMap.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        /**
+         * Performs this action on a key and its value.
+         *
+         * @param key the key of the entry.
+         * @param value the value mapped to the key.
+         */
+        void accept(int key, int value);
+    }
+
+    /**
+     * The smallest number of slots allocated for the tables of this map.
+     */
+    private static final int MIN_CAPACITY = 4;
+
+    /**
+     * The keys stored in this map.
+     */
+    private int[] keys;
+
+    /**
+     * The values stored in this map, in the same slots as their keys.
+     */
+    private int[] values;
+
+    /**
+     * Flags the slots that hold an entry.
+     */
+    private boolean[] used;
+
+    /**
+     * The number of keys stored in this map.
+     */
+    private int size;
+
+    /**
+     * The number of keys this map can hold before its tables are doubled.
+     */
+    private int threshold;
+
+    /**
+     * Default constructor. Initializes an empty map.
+     */
+    public IntIntMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Initializes an empty map that can hold the given number of keys without resizing.
+     *
+     * @param expectedSize the number of keys expected to be stored in this map.
+     */
+    public IntIntMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity / 4 * 3 < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Returns the value mapped to the given key.
+     *
+     * @param key the key to look up.
+     * @param defaultValue the value to return if the key is not in this map.
+     * @return the value mapped to the key, or the default value.
+     */
+    public int get(int key, int defaultValue) {
+        int slot = find(key);
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    /**
+     * Returns true if the given key is in this map.
+     *
+     * @param key the key to look up.
+     * @return true if the key is in this map, or false otherwise.
+     */
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Maps the given key to the given value, replacing any value previously mapped to it.
+     *
+     * @param key the key to map.
+     * @param value the value to map the key to.
+     */
+    public void put(int key, int value) {
+        int slot = find(key);
+        if (slot >= 0) {
+            values[slot] = value;
+        } else {
+            insert(key, value);
+        }
+    }
+
+    /**
+     * Adds the given amount to the value mapped to the given key. A key that is not in
+     * this map is added with the amount as its value.
+     *
+     * @param key the key whose value is changed.
+     * @param amount the amount to add.
+     * @return the new value mapped to the key.
+     */
+    public int addTo(int key, int amount) {
+        int slot = find(key);
+        if (slot >= 0) {
+            return values[slot] += amount;
+        }
+        insert(key, amount);
+        return amount;
+    }
+
+    /**
+     * Removes the given key from this map.
+     *
+     * @param key the key to remove.
+     * @return true if the key was removed, or false if it was not in this map.
+     */
+    public boolean remove(int key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return false;
+        }
+        closeGap(slot, keys.length - 1);
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns the number of keys in this map.
+     *
+     * @return the number of keys in this map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if this map has no keys.
+     *
+     * @return true if this map has no keys, or false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Passes each key and value of this map to the given action, in no particular order.
+     *
+     * @param action the action to perform on each entry.
+     */
+    public void forEach(EntryConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the keys of this map in ascending order.
+     *
+     * @return a new sorted array with the keys of this map.
+     */
+    public int[] keysSorted() {
+        int[] result = new int[size];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                result[count++] = keys[i];
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Returns the slot holding the given key.
+     *
+     * @param key the key to look up.
+     * @return the slot of the key, or -1 if the key is not in this map.
+     */
+    private int find(int key) {
+        int mask = keys.length - 1;
+        for (int slot = IntMap.hash(key) & mask; used[slot]; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Stores a key that is not yet in this map.
+     *
+     * @param key the key to store.
+     * @param value the value to map the key to.
+     */
+    private void insert(int key, int value) {
+        int mask = keys.length - 1;
+        int slot = IntMap.hash(key) & mask;
+        while (used[slot]) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        used[slot] = true;
+        if (++size > threshold) {
+            resize(keys.length << 1);
+        }
+    }
+
+    /**
+     * Shifts back the entries that follow a removed slot so that no probe sequence is
+     * broken by the removal.
+     *
+     * @param gap the slot that was emptied.
+     * @param mask the mask used to wrap slot numbers around the table.
+     */
+    private void closeGap(int gap, int mask) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (!used[slot]) {
+                break;
+            }
+            int home = IntMap.hash(keys[slot]) & mask;
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        used[gap] = false;
+    }
+
+    /**
+     * Rehashes all the entries of this map into tables of the given size.
+     *
+     * @param capacity the new number of slots; must be a power of two.
+     */
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                insert(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Allocates empty tables with the given number of slots.
+     *
+     * @param capacity the number of slots; must be a power of two.
+     */
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        threshold = capacity / 4 * 3;
+        size = 0;
+    }
+}
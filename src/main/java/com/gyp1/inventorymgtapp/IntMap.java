@@ -0,0 +1,275 @@
+package com.gyp1.inventorymgtapp;
+
+import java.util.Arrays;
+
+/**
+ * The IntMap class is a hash table that maps primitive int keys to objects. Keys are
+ * kept in an int array rather than as boxed Integer objects, and collisions are resolved
+ * with linear probing, so a lookup touches one or two adjacent array slots and does not
+ * allocate. It is used by the Inventory to index Part and Product objects by their ids.
+ *
+ * @param <V> the type of the values stored in this map.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class IntMap<V> {
+    /**
+     * An action performed on each key and value of an IntMap without boxing the key.
+     *
+     * @param <V> the type of the values of the map.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        /**
+         * Performs this action on a key and its value.
+         *
+         * @param key the key of the entry.
+         * @param value the value mapped to the key.
+         */
+        void accept(int key, V value);
+    }
+
+    /**
+     * The smallest number of slots allocated for the tables of this map.
+     */
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * The keys stored in this map. A slot is free when its value is null.
+     */
+    private int[] keys;
+
+    /**
+     * The values stored in this map, in the same slots as their keys.
+     */
+    private Object[] values;
+
+    /**
+     * The number of keys stored in this map.
+     */
+    private int size;
+
+    /**
+     * The number of keys this map can hold before its tables are doubled.
+     */
+    private int threshold;
+
+    /**
+     * Default constructor. Initializes an empty map.
+     */
+    public IntMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Initializes an empty map that can hold the given number of keys without resizing.
+     *
+     * @param expectedSize the number of keys expected to be stored in this map.
+     */
+    public IntMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Returns the value mapped to the given key.
+     *
+     * @param key the key to look up.
+     * @return the value mapped to the key, or null if the key is not in this map.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if the given key is in this map.
+     *
+     * @param key the key to look up.
+     * @return true if the key is in this map, or false otherwise.
+     */
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Maps the given key to the given value, replacing any value previously mapped to it.
+     *
+     * @param key the key to map.
+     * @param value the value to map the key to; it cannot be null.
+     * @return the value previously mapped to the key, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("IntMap values cannot be null");
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > threshold) {
+            resize(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the given key from this map.
+     *
+     * @param key the key to remove.
+     * @return the value that was mapped to the key, or null if the key was not in this map.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                closeGap(slot, mask);
+                size--;
+                return previous;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes all the keys from this map.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Returns the number of keys in this map.
+     *
+     * @return the number of keys in this map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if this map has no keys.
+     *
+     * @return true if this map has no keys, or false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Passes each key and value of this map to the given action, in no particular order.
+     *
+     * @param action the action to perform on each entry.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                action.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    /**
+     * Shifts back the entries that follow a removed slot so that no probe sequence is
+     * broken by the removal. This keeps the table free of tombstones.
+     *
+     * @param gap the slot that was emptied.
+     * @param mask the mask used to wrap slot numbers around the table.
+     */
+    private void closeGap(int gap, int mask) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (values[slot] == null) {
+                break;
+            }
+            int home = hash(keys[slot]) & mask;
+            // Move the entry only if the gap lies on its probe path from its home slot.
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        values[gap] = null;
+    }
+
+    /**
+     * Rehashes all the entries of this map into tables of the given size.
+     *
+     * @param capacity the new number of slots; must be a power of two.
+     */
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Allocates empty tables with the given number of slots.
+     *
+     * @param capacity the number of slots; must be a power of two.
+     */
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        threshold = capacity / 4 * 3;
+    }
+
+    /**
+     * Returns the power of two table size that holds the given number of keys under
+     * the 75% load factor.
+     *
+     * @param expectedSize the number of keys to hold.
+     * @return the number of slots to allocate.
+     */
+    static int tableSizeFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity / 4 * 3 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Spreads the bits of a key so that sequential ids do not fill adjacent slots
+     * in clusters.
+     *
+     * @param key the key to hash.
+     * @return the mixed hash of the key.
+     */
+    static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,229 @@
+package com.gyp1.inventorymgtapp;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * The IntSet class is a hash set of primitive int values. Like IntMap, it stores its
+ * elements in an int array with linear probing so membership tests neither box nor
+ * allocate. It is used for the posting lists of the search index and for passing
+ * sets of Part and Product ids around.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class IntSet {
+    /**
+     * The smallest number of slots allocated for the tables of this set.
+     */
+    private static final int MIN_CAPACITY = 4;
+
+    /**
+     * The elements stored in this set.
+     */
+    private int[] elements;
+
+    /**
+     * Flags the slots of the elements array that hold an element.
+     */
+    private boolean[] used;
+
+    /**
+     * The number of elements in this set.
+     */
+    private int size;
+
+    /**
+     * The number of elements this set can hold before its tables are doubled.
+     */
+    private int threshold;
+
+    /**
+     * Default constructor. Initializes an empty set.
+     */
+    public IntSet() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Initializes an empty set that can hold the given number of elements without resizing.
+     *
+     * @param expectedSize the number of elements expected to be stored in this set.
+     */
+    public IntSet(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity / 4 * 3 < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Returns true if the given value is in this set.
+     *
+     * @param value the value to look up.
+     * @return true if the value is in this set, or false otherwise.
+     */
+    public boolean contains(int value) {
+        int mask = elements.length - 1;
+        for (int slot = IntMap.hash(value) & mask; used[slot]; slot = (slot + 1) & mask) {
+            if (elements[slot] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the given value to this set.
+     *
+     * @param value the value to add.
+     * @return true if the value was added, or false if it was already in this set.
+     */
+    public boolean add(int value) {
+        int mask = elements.length - 1;
+        int slot = IntMap.hash(value) & mask;
+        while (used[slot]) {
+            if (elements[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        elements[slot] = value;
+        used[slot] = true;
+        if (++size > threshold) {
+            resize(elements.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the given value from this set.
+     *
+     * @param value the value to remove.
+     * @return true if the value was removed, or false if it was not in this set.
+     */
+    public boolean remove(int value) {
+        int mask = elements.length - 1;
+        for (int slot = IntMap.hash(value) & mask; used[slot]; slot = (slot + 1) & mask) {
+            if (elements[slot] == value) {
+                closeGap(slot, mask);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes all the elements from this set.
+     */
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * Returns the number of elements in this set.
+     *
+     * @return the number of elements in this set.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if this set has no elements.
+     *
+     * @return true if this set has no elements, or false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Passes each element of this set to the given action, in no particular order.
+     *
+     * @param action the action to perform on each element.
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < elements.length; i++) {
+            if (used[i]) {
+                action.accept(elements[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the elements of this set in ascending order.
+     *
+     * @return a new sorted array with the elements of this set.
+     */
+    public int[] toSortedArray() {
+        int[] result = new int[size];
+        int count = 0;
+        for (int i = 0; i < elements.length; i++) {
+            if (used[i]) {
+                result[count++] = elements[i];
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Shifts back the elements that follow a removed slot so that no probe sequence is
+     * broken by the removal.
+     *
+     * @param gap the slot that was emptied.
+     * @param mask the mask used to wrap slot numbers around the table.
+     */
+    private void closeGap(int gap, int mask) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (!used[slot]) {
+                break;
+            }
+            int home = IntMap.hash(elements[slot]) & mask;
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                elements[gap] = elements[slot];
+                gap = slot;
+            }
+        }
+        used[gap] = false;
+    }
+
+    /**
+     * Rehashes all the elements of this set into tables of the given size.
+     *
+     * @param capacity the new number of slots; must be a power of two.
+     */
+    private void resize(int capacity) {
+        int[] oldElements = elements;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldElements.length; i++) {
+            if (oldUsed[i]) {
+                int slot = IntMap.hash(oldElements[i]) & mask;
+                while (used[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                elements[slot] = oldElements[i];
+                used[slot] = true;
+            }
+        }
+    }
+
+    /**
+     * Allocates empty tables with the given number of slots.
+     *
+     * @param capacity the number of slots; must be a power of two.
+     */
+    private void allocate(int capacity) {
+        elements = new int[capacity];
+        used = new boolean[capacity];
+        threshold = capacity / 4 * 3;
+    }
+}
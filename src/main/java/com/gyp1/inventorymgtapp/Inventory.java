@@ -1,176 +1,2329 @@
 package com.gyp1.inventorymgtapp;
 
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
 /**
  * The Inventory class encapsulates the attributes and behaviors of an inventory object. An
  * Inventory contains a list of Part objects and a list of Product objects with methods that
  * represent the behaviors of the inventory object. Parts and Product objects can be added,
  * removed, searched, updated and retrieved.
  *
+ * An Inventory may be read and changed from any thread. Its lists and indexes are guarded
+ * by a StampedLock: changes hold the write lock, searches share the read lock, and lookups
+ * by id first try an optimistic read that takes no lock at all. The ObservableLists
+ * returned by getAllParts and getAllProducts are ListMirror views of the lists, changed
+ * only on the view thread and created only when first asked for.
+ *
+ * Each change is passed under the write lock to the collaborators kept up to date with
+ * it: the AttributeTable columns of the parts and products, the InventoryValuation, the
+ * ReservedStock, StockAlerts and the ChangeRecorder writing the journal.
+ *
+ * The latency of every read and change of the contents is recorded in an OperationStats
+ * named after the operation, and every change as an InventoryChangeEvent.
+ *
  * @author Mami Camara
  * @version April 2023
  */
 public class Inventory {
     /**
-     * An observable list of stocked Part objects that can be used to make Products. An
-     * ObservableList allows an event listener to track changes in it.
+     * Logs the failures of the stock alert listeners.
+     */
+    private static final System.Logger LOG = System.getLogger(Inventory.class.getName());
+
+    /**
+     * The latency statistics of each operation, by name, created on first use.
+     */
+    private static final Map<String, OperationStats> STATS = new ConcurrentHashMap<>();
+
+    /**
+     * A working copy of a list that a batch of changes is applied to before the list itself
+     * is changed. Elements are found by identity, as the list's own remove and set do.
+     *
+     * @param <T> the type of the list elements.
+     */
+    private static final class ListEditor<T> {
+        /**
+         * The elements of the working copy; removed elements leave a null behind.
+         */
+        private final List<T> items;
+
+        /**
+         * The number of elements of the original list.
+         */
+        private final int originalSize;
+
+        /**
+         * The position of each element, built when first needed.
+         */
+        private Map<T, Integer> positions;
+
+        /**
+         * The number of elements removed from the working copy.
+         */
+        private int removed;
+
+        /**
+         * True while the working copy only differs from the list by added elements.
+         */
+        private boolean appendOnly = true;
+
+        /**
+         * Initializes a working copy of the given list.
+         *
+         * @param list the list to copy.
+         */
+        ListEditor(List<T> list) {
+            items = new ArrayList<>(list);
+            originalSize = list.size();
+        }
+
+        /**
+         * Appends an element to the working copy.
+         *
+         * @param item the element to add.
+         */
+        void add(T item) {
+            if (positions != null) {
+                positions.put(item, items.size());
+            }
+            items.add(item);
+        }
+
+        /**
+         * Replaces an element of the working copy.
+         *
+         * @param oldItem the element to replace.
+         * @param newItem the element that replaces it.
+         * @return true if the element was replaced, or false if it is not in the working copy.
+         */
+        boolean replace(T oldItem, T newItem) {
+            Integer position = positions().remove(oldItem);
+            if (position == null) {
+                return false;
+            }
+            items.set(position, newItem);
+            positions.put(newItem, position);
+            appendOnly = false;
+            return true;
+        }
+
+        /**
+         * Removes an element from the working copy.
+         *
+         * @param item the element to remove.
+         * @return true if the element was removed, or false if it is not in the working copy.
+         */
+        boolean remove(T item) {
+            Integer position = positions().remove(item);
+            if (position == null) {
+                return false;
+            }
+            items.set(position, null);
+            removed++;
+            appendOnly = false;
+            return true;
+        }
+
+        /**
+         * Makes the given list equal to the working copy and records it in the given view as
+         * a single change: an addition if elements were only added, or a new content otherwise.
+         *
+         * @param list the list the working copy was made from.
+         * @param view the view of the list, or null if there is none.
+         */
+        void publish(List<T> list, ListMirror<T> view) {
+            if (appendOnly) {
+                if (items.size() > originalSize) {
+                    List<T> added = new ArrayList<>(items.subList(originalSize, items.size()));
+                    list.addAll(added);
+                    if (view != null) {
+                        view.added(originalSize, added);
+                    }
+                }
+                return;
+            }
+            List<T> result = items;
+            if (removed > 0) {
+                result = new ArrayList<>(items.size() - removed);
+                for (T item : items) {
+                    if (item != null) {
+                        result.add(item);
+                    }
+                }
+            }
+            list.clear();
+            list.addAll(result);
+            if (view != null) {
+                view.reset(result);
+            }
+        }
+
+        /**
+         * Returns the position index of the working copy, building it if needed.
+         *
+         * @return the position of each element.
+         */
+        private Map<T, Integer> positions() {
+            if (positions == null) {
+                positions = new IdentityHashMap<>(items.size() * 2);
+                for (int i = 0; i < items.size(); i++) {
+                    positions.put(items.get(i), i);
+                }
+            }
+            return positions;
+        }
+    }
+
+    /**
+     * Guards the lists, the indexes and the journal of this Inventory.
+     */
+    private final StampedLock lock = new StampedLock();
+
+    /**
+     * The stocked Part objects that can be used to make Products, in the order they were added.
+     */
+    private final List<Part> allParts;
+
+    /**
+     * The stocked Product objects, in the order they were added.
+     */
+    private final List<Product> allProducts = new ArrayList<>();
+
+    /**
+     * The view of the allParts list, or null until getAllParts is first called.
+     */
+    private volatile ListMirror<Part> partsView;
+
+    /**
+     * The view of the allProducts list, or null until getAllProducts is first called.
+     */
+    private volatile ListMirror<Product> productsView;
+
+    /**
+     * Runs the updates of the views made necessary by changes made on other threads than
+     * the view thread.
+     */
+    private Executor viewExecutor = Runnable::run;
+
+    /**
+     * Returns true when called on the thread that owns the views. Until setViewThread is
+     * called, every thread does, and each change is copied to the views by the thread that
+     * made it.
+     */
+    private BooleanSupplier viewThread = () -> true;
+
+    /**
+     * An index of the Part objects in the allParts list keyed by their ids. It allows
+     * lookupPart(int) to find a Part without scanning the list.
+     */
+    private final IntMap<Part> partsById = new IntMap<>();
+
+    /**
+     * An index of the Product objects in the allProducts list keyed by their ids. It allows
+     * lookupProduct(int) to find a Product without scanning the list.
+     */
+    private final IntMap<Product> productsById = new IntMap<>();
+
+    /**
+     * A trigram index over the names and ids of the Part objects in the allParts list. It
+     * answers substring searches without scanning the list. When the parts are kept in a
+     * MappedPartStore, it reads the names from the store instead of keeping a copy.
+     */
+    private final NGramIndex partNames;
+
+    /**
+     * A trigram index over the names and ids of the Product objects in the allProducts
+     * list. It answers substring searches without scanning the list.
+     */
+    private final NGramIndex productNames = new NGramIndex();
+
+    /**
+     * A reverse index from each Part id to the Products that list the Part among their
+     * associated parts.
+     */
+    private final WhereUsedIndex whereUsed = new WhereUsedIndex();
+
+    /**
+     * The listeners that keep the whereUsed index in step with the associated parts list
+     * of each Product in the allProducts list.
+     */
+    private final Map<Product, ListChangeListener<Part>> associationListeners = new IdentityHashMap<>();
+
+    /**
+     * The Products whose associated parts changed during the current change. Each is
+     * journaled once, however many of its parts changed, before the write lock is released.
+     */
+    private final Set<Product> changedAssociations = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * The thread holding the write lock through write, or null. Only that thread sets it,
+     * and a thread only compares it with itself, so it needs no synchronization: a thread
+     * always sees its own last write, and never mistakes another thread's for it.
+     */
+    private Thread writer;
+
+    /**
+     * Records every change made to this Inventory in its journal, if it has one.
+     */
+    private final ChangeRecorder changes = new ChangeRecorder();
+
+    /**
+     * The store holding the parts of this Inventory, or null when they are kept in the
+     * allParts list and the partsById index.
+     */
+    private final MappedPartStore partStore;
+
+    /**
+     * Hands out the ids of new parts, above every id used by a Part of this Inventory.
+     */
+    private final IdSequence partIds = new IdSequence();
+
+    /**
+     * Hands out the ids of new products, above every id used by a Product of this Inventory.
+     */
+    private final IdSequence productIds = new IdSequence();
+
+    /**
+     * The id, price, stock, min and max of every Part, in columns scanned without
+     * touching the Part objects.
+     */
+    private final AttributeTable partAttributes = new AttributeTable();
+
+    /**
+     * The id, price, stock, min and max of every Product, in columns scanned without
+     * touching the Product objects.
+     */
+    private final AttributeTable productAttributes = new AttributeTable();
+
+    /**
+     * The running valuation of the parts and the cost of every Product.
+     */
+    private final InventoryValuation valuation = new InventoryValuation(partAttributes);
+
+    /**
+     * The engine reserving the stock of this Inventory, once it is asked for.
      */
-    private ObservableList<Part> allParts = FXCollections.observableArrayList();
+    private final ReservedStock reserved = new ReservedStock();
 
     /**
-     * An observable list of stocked Product objects. An ObservableList allows an event listener
-     * to track changes in it.
+     * Delivers the threshold crossings of the parts and products to the listeners.
      */
-    private ObservableList<Product> allProducts = FXCollections.observableArrayList();
+    private final StockAlerts stockAlerts = new StockAlerts(partAttributes.lowStock(), productAttributes.lowStock());
 
+    /**
+     * Default constructor. Initializes an empty Inventory that keeps its parts on the heap.
+     */
+    public Inventory() {
+        partStore = null;
+        allParts = new ArrayList<>();
+        partNames = new NGramIndex();
+    }
+
+    /**
+     * Initializes an Inventory that keeps its parts in the given store instead of on the
+     * Java heap. The parts list is then backed by the store, Part objects are only created
+     * when they are read, and the parts are saved by the store rather than by the journal.
+     * Such an Inventory is for use without a user interface: a view of its parts would hold
+     * every Part object, so it has none. The parts already in the store are indexed for
+     * searching by name, without creating their Part objects.
+     *
+     * @param partStore the store holding the parts.
+     */
+    public Inventory(MappedPartStore partStore) {
+        this.partStore = partStore;
+        allParts = new MappedPartList(partStore);
+        partNames = new NGramIndex(id -> {
+            int row = partStore.rowOf(id);
+            return row < 0 ? null : searchText(partStore.name(row), id);
+        });
+        int[] rows = partStore.liveRows();
+        int[] ids = new int[rows.length];
+        String[] names = new String[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            ids[i] = partStore.id(rows[i]);
+            names[i] = searchText(partStore.name(rows[i]), ids[i]);
+            partIds.observe(ids[i]);
+            partAttributes.put(ids[i], partStore.price(rows[i]), partStore.stock(rows[i]),
+                    partStore.min(rows[i]), partStore.max(rows[i]));
+            valuation.putPart(ids[i], partStore.price(rows[i]), partStore.stock(rows[i]),
+                    partStore.machineId(rows[i]), partStore.companyName(rows[i]));
+        }
+        partNames.addAll(ids, names);
+    }
 
     /**
      * Inserts a new Part object to the list of this Inventory's parts list.
      *
      * @param newPart the Part object to add to this inventory's parts list.
+     * @throws IllegalArgumentException if a Part with the same id is already in this Inventory.
      */
     public void addPart(Part newPart) {
-        allParts.add(newPart);
+        write(stats("addPart"), () -> {
+            checkNewPartIds(List.of(newPart));
+            insertPart(newPart);
+        });
     }
 
     /**
      * Inserts a new Product object to the list of this Inventory's products list.
      *
      * @param newProduct the Product object to add to this inventory's products list.
+     * @throws IllegalArgumentException if a Product with the same id is already in this Inventory.
      */
     public void addProduct(Product newProduct) {
-        allProducts.add(newProduct);
+        write(stats("addProduct"), () -> {
+            checkNewProductIds(List.of(newProduct));
+            insertProduct(newProduct);
+        });
+    }
+
+    /**
+     * Inserts a new Part object into this Inventory unless a Part with the same id is
+     * already there. The check and the insertion are one step, so concurrent callers
+     * cannot both add the same id.
+     *
+     * @param newPart the Part object to add.
+     * @return true if the Part was added, or false if its id is already used.
+     */
+    public boolean addPartIfAbsent(Part newPart) {
+        return write(stats("addPartIfAbsent"), () -> {
+            if (partById(newPart.getId()) != null) {
+                return false;
+            }
+            insertPart(newPart);
+            return true;
+        });
+    }
+
+    /**
+     * Inserts a new Product object into this Inventory unless a Product with the same id
+     * is already there. The check and the insertion are one step, so concurrent callers
+     * cannot both add the same id.
+     *
+     * @param newProduct the Product object to add.
+     * @return true if the Product was added, or false if its id is already used.
+     */
+    public boolean addProductIfAbsent(Product newProduct) {
+        return write(stats("addProductIfAbsent"), () -> {
+            if (productsById.get(newProduct.getId()) != null) {
+                return false;
+            }
+            insertProduct(newProduct);
+            return true;
+        });
+    }
+
+    /**
+     * Inserts the given parts into this Inventory. The parts view receives them in a
+     * single change, so its listeners are notified once for the whole batch.
+     *
+     * @param newParts the parts to add.
+     * @throws IllegalArgumentException if two of the parts, or one of them and a Part of
+     *                                  this Inventory, have the same id; none is then added.
+     */
+    public void addParts(List<Part> newParts) {
+        write(stats("addParts"), () -> {
+            checkNewPartIds(newParts);
+            insertParts(newParts);
+            if (partStore == null) {
+                for (Part part : newParts) {
+                    changes.addPart(part);
+                }
+            }
+        });
+    }
+
+    /**
+     * Inserts the given products into this Inventory. The products view receives them
+     * in a single change, so its listeners are notified once for the whole batch.
+     *
+     * @param newProducts the products to add.
+     * @throws IllegalArgumentException if two of the products, or one of them and a Product
+     *                                  of this Inventory, have the same id; none is then added.
+     */
+    public void addProducts(List<Product> newProducts) {
+        write(stats("addProducts"), () -> {
+            checkNewProductIds(newProducts);
+            insertProducts(newProducts);
+            for (Product product : newProducts) {
+                changes.addProduct(product);
+            }
+        });
+    }
+
+    /**
+     * Inserts the given parts into this Inventory, except those whose id is already used
+     * by a Part of this Inventory or by an earlier part of the list. The check and the
+     * insertion are one step, so parts added meanwhile by other threads are never
+     * shadowed. The parts view receives the added parts in a single change.
+     *
+     * @param newParts the parts to add.
+     * @return the parts that were not added, in list order.
+     */
+    public List<Part> addPartsIfAbsent(List<Part> newParts) {
+        return write(stats("addPartsIfAbsent"), () -> {
+            List<Part> added = new ArrayList<>(newParts.size());
+            List<Part> rejected = new ArrayList<>();
+            IntSet ids = new IntSet(newParts.size());
+            for (Part part : newParts) {
+                boolean used = partStore == null ? partsById.containsKey(part.getId())
+                        : partStore.contains(part.getId());
+                if (ids.add(part.getId()) && !used) {
+                    added.add(part);
+                } else {
+                    rejected.add(part);
+                }
+            }
+            insertParts(added);
+            if (partStore == null) {
+                for (Part part : added) {
+                    changes.addPart(part);
+                }
+            }
+            return rejected;
+        });
+    }
+
+    /**
+     * Inserts the given products into this Inventory, except those whose id is already
+     * used by a Product of this Inventory or by an earlier product of the list. The check
+     * and the insertion are one step. The products view receives the added products in a
+     * single change.
+     *
+     * @param newProducts the products to add.
+     * @return the products that were not added, in list order.
+     */
+    public List<Product> addProductsIfAbsent(List<Product> newProducts) {
+        return write(stats("addProductsIfAbsent"), () -> {
+            List<Product> added = new ArrayList<>(newProducts.size());
+            List<Product> rejected = new ArrayList<>();
+            IntSet ids = new IntSet(newProducts.size());
+            for (Product product : newProducts) {
+                if (ids.add(product.getId()) && !productsById.containsKey(product.getId())) {
+                    added.add(product);
+                } else {
+                    rejected.add(product);
+                }
+            }
+            insertProducts(added);
+            for (Product product : added) {
+                changes.addProduct(product);
+            }
+            return rejected;
+        });
+    }
+
+    /**
+     * Records changes in a new batch and applies them to this Inventory in one step.
+     *
+     * @param changes records the changes in the batch it is given.
+     * @throws IllegalArgumentException if a change replaces an object not in this Inventory.
+     */
+    public void mutate(Consumer<InventoryBatch> changes) {
+        InventoryBatch batch = new InventoryBatch();
+        changes.accept(batch);
+        apply(batch);
+    }
+
+    /**
+     * Applies the changes of the given batch to this Inventory. Each list is changed once,
+     * so the listeners of its view receive one change for the whole batch, while the
+     * indexes and the journal are updated for every change as if it had been made on its own.
+     *
+     * When the parts are kept on the heap, the changes are first applied to copies of the
+     * lists, so a batch that replaces a Part or Product not in this Inventory is rejected
+     * without changing anything. When they are kept in a MappedPartStore, the part changes
+     * are written to the store one after another, and a failing change leaves the earlier
+     * ones applied.
+     *
+     * @param batch the changes to apply.
+     * @throws IllegalArgumentException if a change replaces an object not in this Inventory,
+     *                                  or gives two parts or two products the same id.
+     */
+    public void apply(InventoryBatch batch) {
+        write(stats("apply"), () -> applyChanges(batch));
+    }
+
+    /**
+     * Applies the changes of the given batch to this Inventory. The write lock must be held.
+     *
+     * @param batch the changes to apply.
+     * @throws IllegalArgumentException if a change replaces an object not in this Inventory.
+     */
+    private void applyChanges(InventoryBatch batch) {
+        ListEditor<Part> parts = partStore == null ? new ListEditor<>(allParts) : null;
+        ListEditor<Product> products = new ListEditor<>(allProducts);
+        List<InventoryBatch.Change> applied = new ArrayList<>(batch.size());
+        IntIntMap partIdUses = new IntIntMap();
+        IntIntMap productIdUses = new IntIntMap();
+        for (InventoryBatch.Change change : batch.getChanges()) {
+            boolean done;
+            switch (change.op) {
+                case InventoryCodec.ADD_PART:
+                    claimPartId(partIdUses, (Part) change.newItem);
+                    if (parts != null) {
+                        parts.add((Part) change.newItem);
+                    }
+                    done = true;
+                    break;
+                case InventoryCodec.UPDATE_PART:
+                    done = parts == null || parts.replace((Part) change.oldItem, (Part) change.newItem);
+                    if (!done) {
+                        throw new IllegalArgumentException("Part " + ((Part) change.oldItem).getId()
+                                + " is not in the inventory");
+                    }
+                    partIdUses.addTo(((Part) change.oldItem).getId(), -1);
+                    claimPartId(partIdUses, (Part) change.newItem);
+                    reserved.lowerPartUpdate((Part) change.oldItem, (Part) change.newItem);
+                    break;
+                case InventoryCodec.DELETE_PART:
+                    done = parts == null || parts.remove((Part) change.oldItem);
+                    if (done) {
+                        partIdUses.addTo(((Part) change.oldItem).getId(), -1);
+                    }
+                    break;
+                case InventoryCodec.ADD_PRODUCT:
+                    claimId(productIdUses, ((Product) change.newItem).getId(),
+                            productsById.containsKey(((Product) change.newItem).getId()), "Product");
+                    products.add((Product) change.newItem);
+                    done = true;
+                    break;
+                case InventoryCodec.UPDATE_PRODUCT:
+                    done = products.replace((Product) change.oldItem, (Product) change.newItem);
+                    if (!done) {
+                        throw new IllegalArgumentException("Product " + ((Product) change.oldItem).getId()
+                                + " is not in the inventory");
+                    }
+                    productIdUses.addTo(((Product) change.oldItem).getId(), -1);
+                    claimId(productIdUses, ((Product) change.newItem).getId(),
+                            productsById.containsKey(((Product) change.newItem).getId()), "Product");
+                    reserved.lowerProductUpdate((Product) change.oldItem, (Product) change.newItem);
+                    break;
+                default:
+                    done = products.remove((Product) change.oldItem);
+                    if (done) {
+                        productIdUses.addTo(((Product) change.oldItem).getId(), -1);
+                    }
+                    break;
+            }
+            if (done) {
+                applied.add(change);
+            }
+        }
+
+        if (parts == null) {
+            applyToPartStore(applied);
+        } else {
+            parts.publish(allParts, partsView);
+        }
+        products.publish(allProducts, productsView);
+        for (InventoryBatch.Change change : applied) {
+            switch (change.op) {
+                case InventoryCodec.ADD_PART:
+                case InventoryCodec.UPDATE_PART:
+                case InventoryCodec.DELETE_PART:
+                    if (partStore == null) {
+                        indexPartChange((Part) change.oldItem, (Part) change.newItem);
+                    }
+                    break;
+                case InventoryCodec.ADD_PRODUCT:
+                    indexProduct((Product) change.newItem);
+                    changes.addProduct((Product) change.newItem);
+                    break;
+                case InventoryCodec.UPDATE_PRODUCT:
+                    unindexProduct((Product) change.oldItem);
+                    indexProduct((Product) change.newItem);
+                    changes.updateProduct(((Product) change.oldItem).getId(), (Product) change.newItem);
+                    break;
+                default:
+                    unindexProduct((Product) change.oldItem);
+                    changes.deleteProduct(((Product) change.oldItem).getId());
+                    break;
+            }
+        }
     }
 
     /**
-     * Searches in the allParts list for a Part with an id that match the
+     * Searches the parts id index for a Part with an id that match the
      * value of the parameter variable and returns the matched Part object.
      *
      * @param partId the id of the part to search in the list.
      * @return a part object with an id that match the parameter value.
      */
     public Part lookupPart(int partId) {
-        for (Part part : allParts){
-            if (part.getId() == partId) {
-                return part;
+        OperationStats stats = stats("lookupPartById");
+        long start = stats.start();
+        try {
+            return findPart(partId);
+        } finally {
+            stats.stop(start);
+        }
+    }
+
+    /**
+     * Returns the Part with the given id, reading the id index without a lock when no
+     * change is under way.
+     *
+     * @param partId the id of the part.
+     * @return the Part, or null if it is not in this Inventory.
+     */
+    private Part findPart(int partId) {
+        if (partStore != null) {
+            // The store guards its own columns.
+            return partStore.get(partId);
+        }
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                Part part = partsById.get(partId);
+                if (lock.validate(stamp)) {
+                    return part;
+                }
+            } catch (RuntimeException ex) {
+                // The index was being resized under the read; read it again under the lock.
             }
         }
-        return null;
+        return read(() -> partsById.get(partId));
     }
 
 
     /**
-     * Searches in the allProducts list for a Product with an id that match the
+     * Searches the products id index for a Product with an id that match the
      * value of the parameter variable and returns the matched Product object.
      *
      * @param productId the id of the product to search in the list.
      * @return a Product object with an id that match the parameter value.
      */
     public Product lookupProduct(int productId) {
-        for (Product product : allProducts){
-            if (product.getId() == productId) {
-                return product;
+        OperationStats stats = stats("lookupProductById");
+        long start = stats.start();
+        try {
+            return findProduct(productId);
+        } finally {
+            stats.stop(start);
+        }
+    }
+
+    /**
+     * Returns the Product with the given id, reading the id index without a lock when no
+     * change is under way.
+     *
+     * @param productId the id of the product.
+     * @return the Product, or null if it is not in this Inventory.
+     */
+    private Product findProduct(int productId) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                Product product = productsById.get(productId);
+                if (lock.validate(stamp)) {
+                    return product;
+                }
+            } catch (RuntimeException ex) {
+                // The index was being resized under the read; read it again under the lock.
             }
         }
-        return null;
+        return read(() -> productsById.get(productId));
     }
 
     /**
-     * Searches in the allParts list for parts with the name given in the parameter
+     * Searches the parts name index for parts with the name given in the parameter
      * variable and returns the matched parts in an ObservableList.
      *
      * @param partName the name of the part to search in the list.
      * @return an ObervableList of part that match the parameter value.
      */
     public ObservableList<Part> lookupPart(String partName) {
-        ObservableList<Part> foundParts = FXCollections.observableArrayList();;
-        for (Part part : allParts){
-            if (part.getName().contains(partName)) {
-                foundParts.add(part) ;
+        List<Part> foundParts = read(stats("lookupPartByName"), () -> {
+            List<Part> found = new ArrayList<>();
+            // The index ignores case, so each candidate is checked against the exact name.
+            for (int id : partNames.search(partName).toSortedArray()) {
+                Part part = partById(id);
+                if (part.getName().contains(partName)) {
+                    found.add(part);
+                }
             }
-        }
-        return foundParts;
+            return found;
+        });
+        return FXCollections.observableArrayList(foundParts);
     }
 
     /**
-     * Searches in the allProducts list for products with the name given in the parameter
+     * Searches the products name index for products with the name given in the parameter
      * variable and returns the matched products in an ObservableList.
      *
      * @param productName the name of the product to search in the list.
      * @return an ObervableList of products that match the parameter value.
      */
     public ObservableList<Product> lookupProduct(String productName) {
-        ObservableList<Product> foundProducts = FXCollections.observableArrayList();;
-        for (Product product : allProducts){
-            if (productName.equalsIgnoreCase(product.getName())) {
-                foundProducts.add(product) ;
+        List<Product> foundProducts = read(stats("lookupProductByName"), () -> {
+            List<Product> found = new ArrayList<>();
+            for (int id : productNames.search(productName).toSortedArray()) {
+                Product product = productsById.get(id);
+                if (productName.equalsIgnoreCase(product.getName())) {
+                    found.add(product);
+                }
+            }
+            return found;
+        });
+        return FXCollections.observableArrayList(foundProducts);
+    }
+
+    /**
+     * Returns the ids of the parts whose name or id contains the given search key,
+     * ignoring case.
+     *
+     * @param searchKey the text to search for in part names and ids.
+     * @return a set with the ids of the matching parts.
+     */
+    public IntSet searchPartIds(String searchKey) {
+        return read(stats("searchPartIds"), () -> partNames.search(searchKey));
+    }
+
+    /**
+     * Returns the ids of the products whose name or id contains the given search key,
+     * ignoring case.
+     *
+     * @param searchKey the text to search for in product names and ids.
+     * @return a set with the ids of the matching products.
+     */
+    public IntSet searchProductIds(String searchKey) {
+        return read(stats("searchProductIds"), () -> productNames.search(searchKey));
+    }
+
+    /**
+     * Searches the where-used index for the products that list the Part with the given id
+     * among their associated parts.
+     *
+     * @param partId the id of the part to search for.
+     * @return an ObservableList of the products using the part, in ascending order of id.
+     */
+    public ObservableList<Product> lookupProductsUsingPart(int partId) {
+        List<Product> foundProducts = read(stats("lookupProductsUsingPart"), () -> {
+            List<Product> found = new ArrayList<>();
+            for (int productId : whereUsed.productsUsing(partId)) {
+                found.add(productsById.get(productId));
             }
+            return found;
+        });
+        return FXCollections.observableArrayList(foundProducts);
+    }
+
+    /**
+     * Returns true if at least one product lists the Part with the given id among its
+     * associated parts.
+     *
+     * @param partId the id of the part to check.
+     * @return true if the part is used by a product, or false otherwise.
+     */
+    public boolean isPartUsed(int partId) {
+        return read(stats("isPartUsed"), () -> whereUsed.isUsed(partId));
+    }
+
+    /**
+     * Returns the cost of the Product with the given id: the sum of the current prices of
+     * its associated parts, each counted as many times as the Product lists it. The cost
+     * is kept up to date by every change, so reading it takes constant time, and takes no
+     * lock when no change is under way.
+     *
+     * @param productId the id of the product.
+     * @return the cost of its parts, or NaN if there is no Product with the id.
+     */
+    public double getProductCost(int productId) {
+        OperationStats stats = stats("getProductCost");
+        long start = stats.start();
+        try {
+            return productCost(productId);
+        } finally {
+            stats.stop(start);
         }
-        return foundProducts;
     }
 
     /**
-     * Replaces the Part object in the allParts list at index given by the parameter
-     * variable 'index' with the Part given by the parameter variable 'selectedPart'.
+     * Returns the cost of the Product with the given id, reading the roll-up without a
+     * lock when no change is under way.
      *
-     * @param index the index in the allParts list at which to replace the Part.
-     * @param selectedPart the new part to replace the existing one.
+     * @param productId the id of the product.
+     * @return the cost of its parts, or NaN if there is no Product with the id.
      */
-    public void updatePart(int index, Part selectedPart) {
-        System.out.println(index);
-        allParts.set(index, selectedPart);
+    private double productCost(int productId) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                double cost = valuation.productCost(productId);
+                if (lock.validate(stamp)) {
+                    return cost;
+                }
+            } catch (RuntimeException ex) {
+                // The roll-up was being resized under the read; read it again under the lock.
+            }
+        }
+        return read(() -> valuation.productCost(productId));
     }
 
     /**
-     * Replaces the Product object in the allProducts list at index given by the parameter
-     * variable 'index' with the Product given by the parameter variable 'newProduct'.
+     * Returns the value of the parts in stock, the sum of price times stock of every Part,
+     * by scanning the part attribute columns.
      *
-     * @param index the index in the allProducts list at which to replace the product.
-     * @param newProduct the new product to replace the existing one.
+     * @return the value of the parts in stock.
      */
-    public void updateProduct(int index, Product newProduct) {
-        allProducts.set(index, newProduct);
+    public double scanPartValue() {
+        return read(stats("scanPartValue"), partAttributes::totalValue);
     }
 
     /**
-     * Removes from this Inventory the Part given in the parameter variable.
+     * Returns the value of the products in stock, the sum of price times stock of every
+     * Product, by scanning the product attribute columns.
      *
-     * @param selectedPart the Part object to remove.
-     * @return true if the Part object was removed, or false otherwise.
+     * @return the value of the products in stock.
      */
-    public boolean deletePart(Part selectedPart) {
-        return allParts.remove(selectedPart);
+    public double scanProductValue() {
+        return read(stats("scanProductValue"), productAttributes::totalValue);
     }
 
     /**
-     * Removes from this Inventory the Product given in the parameter variable.
+     * Returns the ids of the parts whose stock is at or below their minimum, by scanning
+     * the part attribute columns.
      *
-     * @param selectedProduct the Product object to remove.
-     * @return true if Product object was removed, or false otherwise.
+     * @return the ids in ascending order.
      */
-    public boolean deleteProduct(Product selectedProduct) {
-        return allProducts.remove(selectedProduct);
+    public int[] scanLowStockPartIds() {
+        return read(stats("scanLowStockPartIds"), partAttributes::lowStockIds);
     }
 
     /**
-     * Returns all the Part objects in this Inventory.
+     * Returns the ids of the products whose stock is at or below their minimum, by
+     * scanning the product attribute columns.
      *
-     * @return all the Part objects in this Inventory.
+     * @return the ids in ascending order.
      */
-    public ObservableList<Part> getAllParts() {
-        return allParts;
+    public int[] scanLowStockProductIds() {
+        return read(stats("scanLowStockProductIds"), productAttributes::lowStockIds);
     }
 
     /**
-     * Returns all the Product objects in this Inventory.
+     * Returns the valuation of every Part: their number, the value of their stock and
+     * their price range, kept up to date by every change.
      *
-     * @return all the Product objects in this Inventory.
+     * @return the valuation of the parts.
      */
-    public ObservableList<Product> getAllProducts() {
-        return allProducts;
+    public Valuation getPartValuation() {
+        return read(stats("getPartValuation"), () -> valuation.parts().total());
     }
 
+    /**
+     * Returns the valuation of the InHouse parts.
+     *
+     * @return the valuation of the InHouse parts.
+     */
+    public Valuation getInHousePartValuation() {
+        return read(stats("getInHousePartValuation"), () -> valuation.parts().inHouse());
+    }
+
+    /**
+     * Returns the valuation of the Outsourced parts.
+     *
+     * @return the valuation of the Outsourced parts.
+     */
+    public Valuation getOutsourcedPartValuation() {
+        return read(stats("getOutsourcedPartValuation"), () -> valuation.parts().outsourced());
+    }
+
+    /**
+     * Returns the valuation of the InHouse parts made by the given machine.
+     *
+     * @param machineId the id of the machine.
+     * @return the valuation of its parts, empty if it makes none.
+     */
+    public Valuation getMachineValuation(int machineId) {
+        return read(stats("getMachineValuation"), () -> valuation.parts().machine(machineId));
+    }
 
+    /**
+     * Returns the valuation of the Outsourced parts bought from the given company.
+     *
+     * @param companyName the name of the company.
+     * @return the valuation of its parts, empty if none is bought from it.
+     */
+    public Valuation getCompanyValuation(String companyName) {
+        return read(stats("getCompanyValuation"), () -> valuation.parts().company(companyName));
+    }
+
+    /**
+     * Returns the valuation of the InHouse parts of each machine.
+     *
+     * @return the valuations by machine id, in ascending order.
+     */
+    public Map<Integer, Valuation> getMachineValuations() {
+        return read(stats("getMachineValuations"), () -> valuation.parts().machines());
+    }
+
+    /**
+     * Returns the valuation of the Outsourced parts of each company.
+     *
+     * @return the valuations by company name, in alphabetical order.
+     */
+    public Map<String, Valuation> getCompanyValuations() {
+        return read(stats("getCompanyValuations"), () -> valuation.parts().companies());
+    }
+
+    /**
+     * Counts the valuation of the parts again from the Part objects and compares it with
+     * the running valuation. Every part is read, so this is a check, not a way to read
+     * the valuation.
+     *
+     * @return true if every aggregate of the running valuation is exactly right.
+     */
+    public boolean verifyPartValuation() {
+        return read(stats("verifyPartValuation"), () -> valuation.verifyParts(allParts));
+    }
+
+    /**
+     * Returns the engine reserving the stock of the parts and Products of this Inventory,
+     * creating it the first time. Its ledgers then follow every change of a stock.
+     *
+     * @return the reservation engine.
+     */
+    public ReservationEngine getReservations() {
+        ReservationEngine engine = reserved.engine();
+        if (engine != null) {
+            return engine;
+        }
+        return write(() -> reserved.create(this, partAttributes, productAttributes));
+    }
+
+    /**
+     * Works out how many units of each Product the current stock of the parts allows,
+     * and a plan sharing that stock across the Products, on the common fork-join pool.
+     *
+     * @return the buildable counts and the plan.
+     */
+    public BuildPlan planBuilds() {
+        return planBuilds(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Works out how many units of each Product the current stock of the parts allows,
+     * and a plan sharing that stock across the Products. The parts are matched by id, so
+     * a Product still listing a Part object replaced since is planned with the current
+     * stock. Only the copy of the catalog holds the read lock; the solver runs without it.
+     *
+     * @param pool the fork-join pool running the solver.
+     * @return the buildable counts and the plan.
+     */
+    public BuildPlan planBuilds(ForkJoinPool pool) {
+        OperationStats stats = stats("planBuilds");
+        long start = stats.start();
+        try {
+            BuildabilitySolver.Catalog catalog = read(() -> {
+                BuildabilitySolver.Catalog copy = new BuildabilitySolver.Catalog();
+                for (int row = 0; row < partAttributes.size(); row++) {
+                    copy.addPart(partAttributes.id(row), partAttributes.stock(row));
+                }
+                for (Product product : allProducts) {
+                    List<Part> parts = product.getAllAssociatedParts();
+                    int[] partIds = new int[parts.size()];
+                    for (int i = 0; i < partIds.length; i++) {
+                        partIds[i] = parts.get(i).getId();
+                    }
+                    copy.addProduct(product.getId(), partIds);
+                }
+                return copy;
+            });
+            return new BuildabilitySolver(pool).solve(catalog);
+        } finally {
+            stats.stop(start);
+        }
+    }
+
+    /**
+     * Returns the ids of the parts whose stock is at or below their minimum, from the
+     * low-stock index, without scanning.
+     *
+     * @param limit the most ids to return.
+     * @return the ids, the part furthest below its minimum first.
+     */
+    public int[] lowStockPartIds(int limit) {
+        return read(stats("lowStockPartIds"), () -> partAttributes.lowStock().ids(limit));
+    }
+
+    /**
+     * Returns the ids of the products whose stock is at or below their minimum, from the
+     * low-stock index, without scanning.
+     *
+     * @param limit the most ids to return.
+     * @return the ids, the product furthest below its minimum first.
+     */
+    public int[] lowStockProductIds(int limit) {
+        return read(stats("lowStockProductIds"), () -> productAttributes.lowStock().ids(limit));
+    }
+
+    /**
+     * Returns the number of parts whose stock is at or below their minimum.
+     *
+     * @return the number of parts low on stock.
+     */
+    public int getLowStockPartCount() {
+        return read(stats("getLowStockPartCount"), () -> partAttributes.lowStock().size());
+    }
+
+    /**
+     * Returns the number of products whose stock is at or below their minimum.
+     *
+     * @return the number of products low on stock.
+     */
+    public int getLowStockProductCount() {
+        return read(stats("getLowStockProductCount"), () -> productAttributes.lowStock().size());
+    }
+
+    /**
+     * Registers a listener of the threshold crossings. From now on, every change that
+     * brings the stock of a Part or Product to or below its minimum, or back above it,
+     * is delivered to the listener right after the change.
+     *
+     * @param listener the listener to add.
+     */
+    public void addStockAlertListener(StockAlertListener listener) {
+        write(() -> stockAlerts.add(listener));
+    }
+
+    /**
+     * Removes a listener of the threshold crossings. The crossings are no longer
+     * recorded once the last listener is removed.
+     *
+     * @param listener the listener to remove.
+     */
+    public void removeStockAlertListener(StockAlertListener listener) {
+        write(() -> stockAlerts.remove(listener));
+    }
+
+    /**
+     * Creates an IncrementalSearch over the names and ids of the parts in this Inventory.
+     *
+     * @return a new IncrementalSearch over the parts search index.
+     */
+    public IncrementalSearch<Part> newPartSearch() {
+        return new IncrementalSearch<>(partNames, this::findPart,
+                part -> searchText(part.getName(), part.getId()), lock.asReadLock());
+    }
+
+    /**
+     * Creates an IncrementalSearch over the names and ids of the products in this Inventory.
+     *
+     * @return a new IncrementalSearch over the products search index.
+     */
+    public IncrementalSearch<Product> newProductSearch() {
+        return new IncrementalSearch<>(productNames, this::findProduct,
+                product -> searchText(product.getName(), product.getId()), lock.asReadLock());
+    }
+
+    /**
+     * Replaces the Part object in the allParts list at index given by the parameter
+     * variable 'index' with the Part given by the parameter variable 'selectedPart'.
+     *
+     * @param index the index in the allParts list at which to replace the Part.
+     * @param selectedPart the new part to replace the existing one.
+     * @throws IllegalArgumentException if the new Part takes the id of another Part.
+     */
+    public void updatePart(int index, Part selectedPart) {
+        write(stats("updatePart"), () -> replacePart(index, selectedPart));
+    }
+
+    /**
+     * Replaces the given Part object of this Inventory with another, at the same position
+     * in the allParts list.
+     *
+     * @param oldPart the Part to replace.
+     * @param newPart the new part to replace the existing one.
+     * @return true if the Part was replaced, or false if it is no longer in this Inventory.
+     * @throws IllegalArgumentException if the new Part takes the id of another Part.
+     */
+    public boolean updatePart(Part oldPart, Part newPart) {
+        return write(stats("updatePart"), () -> {
+            int index = allParts.indexOf(oldPart);
+            if (index < 0) {
+                return false;
+            }
+            replacePart(index, newPart);
+            return true;
+        });
+    }
+
+    /**
+     * Replaces the Product object in the allProducts list at index given by the parameter
+     * variable 'index' with the Product given by the parameter variable 'newProduct'.
+     *
+     * @param index the index in the allProducts list at which to replace the product.
+     * @param newProduct the new product to replace the existing one.
+     * @throws IllegalArgumentException if the new Product takes the id of another Product.
+     */
+    public void updateProduct(int index, Product newProduct) {
+        write(stats("updateProduct"), () -> replaceProduct(index, newProduct));
+    }
+
+    /**
+     * Replaces the given Product object of this Inventory with another, at the same
+     * position in the allProducts list.
+     *
+     * @param oldProduct the Product to replace.
+     * @param newProduct the new product to replace the existing one.
+     * @return true if the Product was replaced, or false if it is no longer in this Inventory.
+     * @throws IllegalArgumentException if the new Product takes the id of another Product.
+     */
+    public boolean updateProduct(Product oldProduct, Product newProduct) {
+        return write(stats("updateProduct"), () -> {
+            int index = allProducts.indexOf(oldProduct);
+            if (index < 0) {
+                return false;
+            }
+            replaceProduct(index, newProduct);
+            return true;
+        });
+    }
+
+    /**
+     * Adds the given amount to the inventory level of the Part with the given id, as
+     * when goods are received or consumed. The Part is changed in place, so the Products
+     * listing it see the new level, and the change is journaled like an update. Neither
+     * the Part's position nor its indexes are touched, so an adjustment costs the same
+     * whatever the size of the Inventory.
+     *
+     * @param partId the id of the Part.
+     * @param delta the amount to add; negative to remove stock.
+     * @return the adjusted Part, or null if there is no Part with the id.
+     * @throws IllegalArgumentException if the level would fall below 0 or below the
+     *                                  units reserved, or rise above the maximum.
+     */
+    public Part adjustPartStock(int partId, int delta) {
+        return write(stats("adjustPartStock"), () -> {
+            Part part = partById(partId);
+            if (part == null) {
+                return null;
+            }
+            int stock = adjustedStock(part.getStock(), delta, part.getMax());
+            reserved.lowerPart(partId, part.getStock(), stock, 0);
+            setPartStock(part, stock);
+            return part;
+        });
+    }
+
+    /**
+     * Adds the given amounts to the inventory levels of several parts at once, as when
+     * the parts of a Product are consumed. Either every level is adjusted, or none is:
+     * the levels are all checked before the first one is changed.
+     *
+     * @param partIds the ids of the parts; an id may appear more than once.
+     * @param deltas the amount to add to each part; negative to remove stock.
+     * @return true if every level was adjusted, or false if a part is not in this Inventory.
+     * @throws IllegalArgumentException if a level would fall below 0 or below the units
+     *                                  reserved, or rise above the maximum.
+     */
+    public boolean adjustPartStocks(int[] partIds, int[] deltas) {
+        return adjustPartStocks(partIds, deltas, false);
+    }
+
+    /**
+     * Takes the stock of a committed reservation of parts out of this Inventory, all or
+     * nothing. The units taken may be reserved, since they are those of the reservation;
+     * the ReservationEngine gives back the reservation once they are taken.
+     *
+     * @param partIds the ids of the parts; an id may appear more than once.
+     * @param quantities the quantity to take of each part.
+     * @return true if every level was lowered, or false if a part is not in this Inventory.
+     * @throws IllegalArgumentException if a level would fall below 0 or below the units
+     *                                  held by other reservations.
+     */
+    boolean takeReservedPartStocks(int[] partIds, int[] quantities) {
+        int[] deltas = new int[quantities.length];
+        for (int i = 0; i < deltas.length; i++) {
+            deltas[i] = -quantities[i];
+        }
+        return adjustPartStocks(partIds, deltas, true);
+    }
+
+    /**
+     * Adds the given amounts to the inventory levels of several parts at once, all or
+     * nothing.
+     *
+     * @param partIds the ids of the parts; an id may appear more than once.
+     * @param deltas the amount to add to each part; negative to remove stock.
+     * @param reservedTaken true if the units removed are reserved by the reservation
+     *                      being committed, so only the units reserved by others must stay.
+     * @return true if every level was adjusted, or false if a part is not in this Inventory.
+     * @throws IllegalArgumentException if a level would fall below 0 or below the units
+     *                                  that must stay reserved, or rise above the maximum.
+     */
+    private boolean adjustPartStocks(int[] partIds, int[] deltas, boolean reservedTaken) {
+        if (partIds.length != deltas.length) {
+            throw new IllegalArgumentException("Expected one delta per part id");
+        }
+        return write(stats("adjustPartStocks"), () -> {
+            IntMap<Part> parts = new IntMap<>(partIds.length);
+            IntIntMap stocks = new IntIntMap(partIds.length);
+            for (int i = 0; i < partIds.length; i++) {
+                Part part = parts.get(partIds[i]);
+                if (part == null) {
+                    part = partById(partIds[i]);
+                    if (part == null) {
+                        return false;
+                    }
+                    parts.put(partIds[i], part);
+                }
+                stocks.put(partIds[i], adjustedStock(stocks.get(partIds[i], part.getStock()), deltas[i], part.getMax()));
+            }
+            stocks.forEach((partId, stock) -> {
+                int current = parts.get(partId).getStock();
+                // A committed reservation's own units are the whole decrease of the level.
+                int taken = reservedTaken ? Math.max(0, current - stock) : 0;
+                reserved.lowerPart(partId, current, stock, taken);
+            });
+            stocks.forEach((partId, stock) -> setPartStock(parts.get(partId), stock));
+            return true;
+        });
+    }
+
+    /**
+     * Adds the given amount to the inventory level of the Product with the given id. The
+     * Product is changed in place and the change is journaled like an update.
+     *
+     * @param productId the id of the Product.
+     * @param delta the amount to add; negative to remove stock.
+     * @return the adjusted Product, or null if there is no Product with the id.
+     * @throws IllegalArgumentException if the level would fall below 0 or below the
+     *                                  units reserved, or rise above the maximum.
+     */
+    public Product adjustProductStock(int productId, int delta) {
+        return adjustProductStock(productId, delta, 0);
+    }
+
+    /**
+     * Takes the stock of a committed reservation of a Product out of this Inventory. The
+     * units taken may be reserved, since they are those of the reservation.
+     *
+     * @param productId the id of the Product.
+     * @param quantity the quantity to take.
+     * @return the adjusted Product, or null if there is no Product with the id.
+     * @throws IllegalArgumentException if the level would fall below 0 or below the
+     *                                  units held by other reservations.
+     */
+    Product takeReservedProductStock(int productId, int quantity) {
+        return adjustProductStock(productId, -quantity, quantity);
+    }
+
+    /**
+     * Adds the given amount to the inventory level of the Product with the given id.
+     *
+     * @param productId the id of the Product.
+     * @param delta the amount to add; negative to remove stock.
+     * @param taken the units removed that are reserved by the reservation being committed.
+     * @return the adjusted Product, or null if there is no Product with the id.
+     * @throws IllegalArgumentException if the level would fall below 0 or below the
+     *                                  units that must stay reserved, or rise above the
+     *                                  maximum.
+     */
+    private Product adjustProductStock(int productId, int delta, int taken) {
+        return write(stats("adjustProductStock"), () -> {
+            Product product = productsById.get(productId);
+            if (product == null) {
+                return null;
+            }
+            int stock = adjustedStock(product.getStock(), delta, product.getMax());
+            reserved.lowerProduct(productId, product.getStock(), stock, taken);
+            product.setStock(stock);
+            productAttributes.setStock(productId, product.getStock());
+            changes.updateProduct(productId, product);
+            if (productsView != null) {
+                productsView.changed(product);
+            }
+            return product;
+        });
+    }
+
+    /**
+     * Removes from this Inventory the Part given in the parameter variable.
+     *
+     * @param selectedPart the Part object to remove.
+     * @return true if the Part object was removed, or false otherwise.
+     */
+    public boolean deletePart(Part selectedPart) {
+        return write(stats("deletePart"), () -> removePart(selectedPart));
+    }
+
+    /**
+     * Removes from this Inventory the Part given in the parameter variable unless a product
+     * lists it among its associated parts. The check and the removal are one step, so no
+     * product can start using the Part in between.
+     *
+     * @param selectedPart the Part object to remove.
+     * @return true if the Part object was removed, or false if it is not in this Inventory.
+     * @throws IllegalStateException if a product uses the Part.
+     */
+    public boolean deleteUnusedPart(Part selectedPart) {
+        return write(stats("deleteUnusedPart"), () -> {
+            if (whereUsed.isUsed(selectedPart.getId())) {
+                throw new IllegalStateException("Part " + selectedPart.getId() + " is used by products");
+            }
+            return removePart(selectedPart);
+        });
+    }
+
+    /**
+     * Removes from this Inventory the Product given in the parameter variable.
+     *
+     * @param selectedProduct the Product object to remove.
+     * @return true if Product object was removed, or false otherwise.
+     */
+    public boolean deleteProduct(Product selectedProduct) {
+        return write(stats("deleteProduct"), () -> removeProduct(selectedProduct));
+    }
+
+    /**
+     * Removes from this Inventory the Product given in the parameter variable unless it
+     * still has associated parts. The check and the removal are one step, so no part can
+     * be associated with the Product in between.
+     *
+     * @param selectedProduct the Product object to remove.
+     * @return true if the Product object was removed, or false if it is not in this Inventory.
+     * @throws IllegalStateException if the Product has associated parts.
+     */
+    public boolean deleteEmptyProduct(Product selectedProduct) {
+        return write(stats("deleteEmptyProduct"), () -> {
+            if (!selectedProduct.getAllAssociatedParts().isEmpty()) {
+                throw new IllegalStateException("Product " + selectedProduct.getId() + " has associated parts");
+            }
+            return removeProduct(selectedProduct);
+        });
+    }
+
+    /**
+     * Returns the number of Part objects in this Inventory.
+     *
+     * @return the number of parts.
+     */
+    public int getPartCount() {
+        return read(stats("getPartCount"), allParts::size);
+    }
+
+    /**
+     * Returns the number of Product objects in this Inventory.
+     *
+     * @return the number of products.
+     */
+    public int getProductCount() {
+        return read(stats("getProductCount"), allProducts::size);
+    }
+
+    /**
+     * Returns all the Part objects in this Inventory, as a view that is only changed, read
+     * and observed on the view thread. The view is created by the first call.
+     *
+     * @return all the Part objects in this Inventory.
+     * @throws IllegalStateException if the parts are kept in a MappedPartStore.
+     */
+    public ObservableList<Part> getAllParts() {
+        if (partStore != null) {
+            throw new IllegalStateException("The parts of a mapped part store have no view");
+        }
+        ListMirror<Part> view = partsView;
+        if (view == null) {
+            long stamp = lock.writeLock();
+            try {
+                if (partsView == null) {
+                    partsView = new ListMirror<>(allParts, viewExecutor, viewThread);
+                }
+                view = partsView;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+        return view.getList();
+    }
+
+    /**
+     * Returns all the Product objects in this Inventory, as a view that is only changed,
+     * read and observed on the view thread. The view is created by the first call.
+     *
+     * @return all the Product objects in this Inventory.
+     */
+    public ObservableList<Product> getAllProducts() {
+        ListMirror<Product> view = productsView;
+        if (view == null) {
+            long stamp = lock.writeLock();
+            try {
+                if (productsView == null) {
+                    productsView = new ListMirror<>(allProducts, viewExecutor, viewThread);
+                }
+                view = productsView;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+        return view.getList();
+    }
+
+    /**
+     * Sets the thread that owns the views returned by getAllParts and getAllProducts. A
+     * JavaFX application passes Platform::runLater and Platform::isFxApplicationThread, so
+     * the changes made on other threads reach the TableViews on the application thread.
+     *
+     * @param executor runs the view updates for changes made on other threads.
+     * @param isViewThread returns true when called on the thread that owns the views.
+     * @throws IllegalStateException if a view has already been created.
+     */
+    public void setViewThread(Executor executor, BooleanSupplier isViewThread) {
+        long stamp = lock.writeLock();
+        try {
+            if (partsView != null || productsView != null) {
+                throw new IllegalStateException("The inventory views already exist");
+            }
+            viewExecutor = executor;
+            viewThread = isViewThread;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Sets the journal that records every later change made to this Inventory. Changes
+     * made while no journal is set, such as those replayed from a journal, are not recorded.
+     *
+     * @param journal the journal to append changes to, or null to stop recording them.
+     */
+    public void setJournal(Journal journal) {
+        write(() -> changes.setJournal(journal));
+    }
+
+    /**
+     * Captures a consistent copy of the contents of this Inventory and, in the same step,
+     * switches the recording of later changes to the given journal. The changes recorded
+     * by the previous journal are therefore all in the copy, and none of those recorded by
+     * the new journal are. A snapshot may be taken while the journal has failed, and is
+     * the way to recover from it: the copy holds the changes the journal lost.
+     *
+     * @param segment the number of the journal segment written by the new journal.
+     * @param nextJournal the journal that records the changes made after the copy.
+     * @return the captured copy.
+     */
+    public Snapshot snapshot(int segment, Journal nextJournal) {
+        OperationStats stats = stats("snapshot");
+        long start = stats.start();
+        try {
+            return write(() -> {
+                Snapshot snapshot = new Snapshot(segment, partStore == null ? allParts : List.of(), allProducts);
+                changes.setJournal(nextJournal);
+                return snapshot;
+            });
+        } finally {
+            stats.stop(start);
+        }
+    }
+
+    /**
+     * Adds the given parts, restored from a snapshot, to this Inventory. The parts view
+     * receives them in a single change, and they are not recorded in the journal.
+     *
+     * @param parts the parts to add.
+     */
+    void loadParts(List<Part> parts) {
+        write(() -> insertParts(parts));
+    }
+
+    /**
+     * Adds the given products, restored from a snapshot, to this Inventory. The products
+     * view receives them in a single change, and they are not recorded in the journal.
+     *
+     * @param products the products to add.
+     */
+    void loadProducts(List<Product> products) {
+        write(() -> insertProducts(products));
+    }
+
+    /**
+     * Adds a Part to the allParts list, its indexes and its view, and journals it. A Part
+     * whose id the part store already has replaces the stored one. The write lock must be held.
+     *
+     * @param newPart the Part to add.
+     */
+    private void insertPart(Part newPart) {
+        if (partStore != null && partStore.contains(newPart.getId())) {
+            // A journal written before the store was used may add a part the store already has.
+            replacePart(allParts.indexOf(partStore.get(newPart.getId())), newPart);
+            return;
+        }
+        int index = allParts.size();
+        allParts.add(newPart);
+        indexPart(newPart);
+        recostProductsUsing(newPart.getId());
+        if (partStore == null) {
+            changes.addPart(newPart);
+        }
+        if (partsView != null) {
+            partsView.added(index, newPart);
+        }
+    }
+
+    /**
+     * Replaces the Part at the given position of the allParts list, updating the indexes
+     * and the view, and journals the change. The write lock must be held.
+     *
+     * @param index the position of the Part to replace.
+     * @param newPart the Part that replaces it.
+     * @throws IllegalArgumentException if the new Part takes the id of another Part.
+     */
+    private void replacePart(int index, Part newPart) {
+        if (partStore == null && allParts.get(index).getId() != newPart.getId()
+                && partsById.containsKey(newPart.getId())) {
+            throw new IllegalArgumentException("Part " + newPart.getId() + " is already in the inventory");
+        }
+        reserved.lowerPartUpdate(allParts.get(index), newPart);
+        Part oldPart = allParts.set(index, newPart);
+        reindexPart(oldPart, newPart);
+        repriced(oldPart, newPart);
+        if (partStore == null) {
+            changes.updatePart(oldPart.getId(), newPart);
+        }
+        if (partsView != null) {
+            partsView.replaced(index, newPart);
+        }
+    }
+
+    /**
+     * Removes a Part from the allParts list, its indexes and its view, and journals the
+     * change. The write lock must be held.
+     *
+     * @param part the Part to remove.
+     * @return true if the Part was removed, or false if it is not in this Inventory.
+     */
+    private boolean removePart(Part part) {
+        int index = allParts.indexOf(part);
+        if (index < 0) {
+            return false;
+        }
+        allParts.remove(index);
+        unindexPart(part);
+        recostProductsUsing(part.getId());
+        if (partStore == null) {
+            changes.deletePart(part.getId());
+        }
+        if (partsView != null) {
+            partsView.removed(index);
+        }
+        return true;
+    }
+
+    /**
+     * Adds a Product to the allProducts list, its indexes and its view, and journals it.
+     * The write lock must be held.
+     *
+     * @param newProduct the Product to add.
+     */
+    private void insertProduct(Product newProduct) {
+        int index = allProducts.size();
+        allProducts.add(newProduct);
+        indexProduct(newProduct);
+        changes.addProduct(newProduct);
+        if (productsView != null) {
+            productsView.added(index, newProduct);
+        }
+    }
+
+    /**
+     * Replaces the Product at the given position of the allProducts list, updating the
+     * indexes and the view, and journals the change. The write lock must be held.
+     *
+     * @param index the position of the Product to replace.
+     * @param newProduct the Product that replaces it.
+     * @throws IllegalArgumentException if the new Product takes the id of another Product.
+     */
+    private void replaceProduct(int index, Product newProduct) {
+        if (allProducts.get(index).getId() != newProduct.getId() && productsById.containsKey(newProduct.getId())) {
+            throw new IllegalArgumentException("Product " + newProduct.getId() + " is already in the inventory");
+        }
+        reserved.lowerProductUpdate(allProducts.get(index), newProduct);
+        Product oldProduct = allProducts.set(index, newProduct);
+        unindexProduct(oldProduct);
+        indexProduct(newProduct);
+        changes.updateProduct(oldProduct.getId(), newProduct);
+        if (productsView != null) {
+            productsView.replaced(index, newProduct);
+        }
+    }
+
+    /**
+     * Removes a Product from the allProducts list, its indexes and its view, and journals
+     * the change. The write lock must be held.
+     *
+     * @param product the Product to remove.
+     * @return true if the Product was removed, or false if it is not in this Inventory.
+     */
+    private boolean removeProduct(Product product) {
+        int index = allProducts.indexOf(product);
+        if (index < 0) {
+            return false;
+        }
+        allProducts.remove(index);
+        unindexProduct(product);
+        changes.deleteProduct(product.getId());
+        if (productsView != null) {
+            productsView.removed(index);
+        }
+        return true;
+    }
+
+    /**
+     * Adds the given parts to the allParts list and its indexes, and to the view in one
+     * change, without journaling them. The write lock must be held.
+     *
+     * @param parts the parts to add.
+     */
+    private void insertParts(List<Part> parts) {
+        if (partStore != null) {
+            // Parts the store already has are replaced one by one; the rest are added together.
+            List<Part> newParts = new ArrayList<>(parts.size());
+            for (Part part : parts) {
+                if (partStore.contains(part.getId())) {
+                    insertPart(part);
+                } else {
+                    newParts.add(part);
+                }
+            }
+            parts = newParts;
+        }
+        int from = allParts.size();
+        allParts.addAll(parts);
+        if (partsView != null) {
+            partsView.added(from, new ArrayList<>(parts));
+        }
+        int[] ids = new int[parts.size()];
+        String[] names = new String[parts.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Part part = parts.get(i);
+            if (partStore == null) {
+                partsById.put(part.getId(), part);
+            }
+            ids[i] = part.getId();
+            names[i] = searchText(part.getName(), part.getId());
+            partIds.observe(ids[i]);
+            partAttributes.put(part.getId(), part.getPrice(), part.getStock(), part.getMin(), part.getMax());
+            valuation.putPart(part);
+            recostProductsUsing(part.getId());
+        }
+        partNames.addAll(ids, names);
+    }
+
+    /**
+     * Adds the given products to the allProducts list and its indexes, and to the view in
+     * one change, without journaling them. The write lock must be held.
+     *
+     * @param products the products to add.
+     */
+    private void insertProducts(List<Product> products) {
+        int from = allProducts.size();
+        allProducts.addAll(products);
+        if (productsView != null) {
+            productsView.added(from, new ArrayList<>(products));
+        }
+        for (Product product : products) {
+            indexProduct(product);
+        }
+    }
+
+    /**
+     * Updates the part indexes and the journal for one part change of a batch.
+     *
+     * @param oldPart the Part replaced or removed, or null for an addition.
+     * @param newPart the Part added, or null for a deletion.
+     */
+    private void indexPartChange(Part oldPart, Part newPart) {
+        if (oldPart != null && newPart != null) {
+            reindexPart(oldPart, newPart);
+        } else if (oldPart != null) {
+            unindexPart(oldPart);
+        } else {
+            indexPart(newPart);
+        }
+        if (oldPart == null || newPart == null) {
+            recostProductsUsing(oldPart == null ? newPart.getId() : oldPart.getId());
+        } else {
+            repriced(oldPart, newPart);
+        }
+        if (oldPart == null) {
+            changes.addPart(newPart);
+        } else if (newPart == null) {
+            changes.deletePart(oldPart.getId());
+        } else {
+            changes.updatePart(oldPart.getId(), newPart);
+        }
+    }
+
+    /**
+     * Writes the part changes of a batch to the part store, one after another. The view
+     * receives them together when the lock is released. The write lock must be held.
+     *
+     * @param changes the changes of the batch.
+     */
+    private void applyToPartStore(List<InventoryBatch.Change> changes) {
+        for (InventoryBatch.Change change : changes) {
+            if (change.op == InventoryCodec.ADD_PART) {
+                insertPart((Part) change.newItem);
+            } else if (change.op == InventoryCodec.UPDATE_PART) {
+                int index = allParts.indexOf(change.oldItem);
+                if (index < 0) {
+                    throw new IllegalArgumentException("Part " + ((Part) change.oldItem).getId()
+                            + " is not in the inventory");
+                }
+                replacePart(index, (Part) change.newItem);
+            } else if (change.op == InventoryCodec.DELETE_PART) {
+                removePart((Part) change.oldItem);
+            }
+        }
+    }
+
+    /**
+     * Runs a change of this Inventory while holding the write lock, then brings the views
+     * up to date.
+     *
+     * @param change the change to make.
+     */
+    private void write(Runnable change) {
+        write(() -> {
+            change.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs a change of this Inventory while holding the write lock, then brings the views
+     * up to date and delivers the stock alerts of the change. The views and the alerts are
+     * published after the lock is released, so their listeners may read this Inventory.
+     * The ceilings of the id sequences are saved after the lock is released as well.
+     *
+     * @param change the change to make.
+     * @param <R> the type of the result of the change.
+     * @return the result of the change.
+     */
+    private <R> R write(Supplier<R> change) {
+        R result;
+        List<StockAlert> alerts;
+        long stamp = lock.writeLock();
+        writer = Thread.currentThread();
+        try {
+            result = change.get();
+        } finally {
+            try {
+                journalChangedAssociations();
+            } finally {
+                reserved.settle(partAttributes, productAttributes);
+                alerts = stockAlerts.take();
+                writer = null;
+                lock.unlockWrite(stamp);
+            }
+            publishViews();
+            stockAlerts.publish(alerts);
+            saveIds(partIds);
+            saveIds(productIds);
+        }
+        return result;
+    }
+
+    /**
+     * Saves the ceiling of an id sequence once the ids of a change have reached it. The
+     * change is already made, so a ceiling that cannot be saved is only logged; the next
+     * change, or the next compaction of the store, tries again.
+     *
+     * @param ids the id sequence.
+     */
+    private static void saveIds(IdSequence ids) {
+        try {
+            ids.save();
+        } catch (IOException ex) {
+            LOG.log(System.Logger.Level.WARNING, "Cannot save an id ceiling", ex);
+        }
+    }
+
+    /**
+     * Runs a change of this Inventory as write(change) does, recording its latency.
+     *
+     * @param stats the statistics of the operation making the change.
+     * @param change the change to make.
+     */
+    private void write(OperationStats stats, Runnable change) {
+        write(stats, () -> {
+            change.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs a change of this Inventory as write(change) does, recording its latency and,
+     * while Flight Recorder is recording it, an InventoryChangeEvent. The change is
+     * refused while the journal has failed, since it could not be saved.
+     *
+     * @param stats the statistics of the operation making the change.
+     * @param change the change to make.
+     * @param <R> the type of the result of the change.
+     * @return the result of the change.
+     * @throws java.io.UncheckedIOException if the journal has failed.
+     */
+    private <R> R write(OperationStats stats, Supplier<R> change) {
+        long start = stats.start();
+        InventoryChangeEvent event = new InventoryChangeEvent();
+        event.begin();
+        try {
+            if (!event.isEnabled()) {
+                return write(() -> {
+                    changes.checkJournal();
+                    return change.get();
+                });
+            }
+            return write(() -> {
+                changes.checkJournal();
+                R result = change.get();
+                event.partCount = allParts.size();
+                event.productCount = allProducts.size();
+                return result;
+            });
+        } finally {
+            stats.stop(start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = stats.getName();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Reads this Inventory while holding the read lock, recording the latency of the read.
+     *
+     * @param stats the statistics of the operation making the read.
+     * @param reader the read to make.
+     * @param <R> the type of the result of the read.
+     * @return the result of the read.
+     */
+    private <R> R read(OperationStats stats, Supplier<R> reader) {
+        long start = stats.start();
+        try {
+            return read(reader);
+        } finally {
+            stats.stop(start);
+        }
+    }
+
+    /**
+     * Returns the latency statistics of an operation of the Inventory, published over JMX
+     * as com.gyp1.inventorymgtapp:type=Inventory,name=operation the first time they are used.
+     *
+     * @param operation the name of the operation, such as lookupPartById.
+     * @return the statistics of the operation.
+     */
+    private static OperationStats stats(String operation) {
+        OperationStats stats = STATS.get(operation);
+        return stats != null ? stats : STATS.computeIfAbsent(operation, name -> OperationStats.of("Inventory", name));
+    }
+
+    /**
+     * Reads this Inventory while holding the read lock.
+     *
+     * @param reader the read to make.
+     * @param <R> the type of the result of the read.
+     * @return the result of the read.
+     */
+    private <R> R read(Supplier<R> reader) {
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Brings the views up to date with the changes recorded in them.
+     */
+    private void publishViews() {
+        ListMirror<Part> parts = partsView;
+        if (parts != null) {
+            parts.publish();
+        }
+        ListMirror<Product> products = productsView;
+        if (products != null) {
+            products.publish();
+        }
+    }
+
+    /**
+     * Returns the sequence handing out the ids of new parts. It never hands out the id of
+     * a Part added to this Inventory, whichever way the Part was added.
+     *
+     * @return the part id sequence.
+     */
+    public IdSequence getPartIds() {
+        return partIds;
+    }
+
+    /**
+     * Returns the sequence handing out the ids of new products. It never hands out the id
+     * of a Product added to this Inventory, whichever way the Product was added.
+     *
+     * @return the product id sequence.
+     */
+    public IdSequence getProductIds() {
+        return productIds;
+    }
+
+    /**
+     * Returns the store holding the parts of this Inventory.
+     *
+     * @return the part store, or null when the parts are kept on the heap.
+     */
+    public MappedPartStore getPartStore() {
+        return partStore;
+    }
+
+    /**
+     * Checks that the given parts can be added to this Inventory without two parts sharing
+     * an id, which would leave one of them out of the id index. A Part whose id the part
+     * store already has is not a duplicate, since it replaces the stored one. The write
+     * lock must be held.
+     *
+     * @param parts the parts to add.
+     * @throws IllegalArgumentException if an id is used twice.
+     */
+    private void checkNewPartIds(List<Part> parts) {
+        IntSet ids = new IntSet(parts.size());
+        for (Part part : parts) {
+            if (!ids.add(part.getId()) || (partStore == null && partsById.containsKey(part.getId()))) {
+                throw new IllegalArgumentException("Part " + part.getId() + " is already in the inventory");
+            }
+        }
+    }
+
+    /**
+     * Checks that the given products can be added to this Inventory without two products
+     * sharing an id. The write lock must be held.
+     *
+     * @param products the products to add.
+     * @throws IllegalArgumentException if an id is used twice.
+     */
+    private void checkNewProductIds(List<Product> products) {
+        IntSet ids = new IntSet(products.size());
+        for (Product product : products) {
+            if (!ids.add(product.getId()) || productsById.containsKey(product.getId())) {
+                throw new IllegalArgumentException("Product " + product.getId() + " is already in the inventory");
+            }
+        }
+    }
+
+    /**
+     * Counts one more use of the id of a Part by a change of a batch. A Part whose id the
+     * part store already has replaces the stored one, so it does not count that use.
+     *
+     * @param uses the change in the number of uses of each id made by the batch so far.
+     * @param part the Part added by the change.
+     * @throws IllegalArgumentException if the id would be used twice.
+     */
+    private void claimPartId(IntIntMap uses, Part part) {
+        claimId(uses, part.getId(), partStore == null && partsById.containsKey(part.getId()), "Part");
+    }
+
+    /**
+     * Counts one more use of an id by a change of a batch, and checks that the id is then
+     * used at most once.
+     *
+     * @param uses the change in the number of uses of each id made by the batch so far.
+     * @param id the id used by the change.
+     * @param used true if an item of this Inventory already uses the id.
+     * @param kind the kind of item, for the message.
+     * @throws IllegalArgumentException if the id would be used twice.
+     */
+    private static void claimId(IntIntMap uses, int id, boolean used, String kind) {
+        if (uses.addTo(id, 1) + (used ? 1 : 0) > 1) {
+            throw new IllegalArgumentException(kind + " " + id + " is already in the inventory");
+        }
+    }
+
+    /**
+     * Returns the Part with the given id from the partsById index or the part store.
+     *
+     * @param partId the id of the Part.
+     * @return the Part, or null if it is not in this Inventory.
+     */
+    private Part partById(int partId) {
+        return partStore == null ? partsById.get(partId) : partStore.get(partId);
+    }
+
+    /**
+     * Adds the given Part to the indexes maintained by this Inventory.
+     *
+     * @param part the Part that was added to the allParts list.
+     */
+    private void indexPart(Part part) {
+        if (partStore == null) {
+            partsById.put(part.getId(), part);
+        }
+        partNames.add(part.getId(), searchText(part.getName(), part.getId()));
+        partIds.observe(part.getId());
+        partAttributes.put(part.getId(), part.getPrice(), part.getStock(), part.getMin(), part.getMax());
+        valuation.putPart(part);
+    }
+
+    /**
+     * Removes the given Part from the indexes maintained by this Inventory. An index
+     * entry is only removed if it still refers to the same Part object.
+     *
+     * @param part the Part that was removed from the allParts list.
+     */
+    private void unindexPart(Part part) {
+        if (partStore != null) {
+            // The store has already dropped or overwritten the Part, so its name is taken
+            // from the Part object; the name index reads no copy of its own.
+            partNames.remove(part.getId(), searchText(part.getName(), part.getId()));
+            if (!partStore.contains(part.getId())) {
+                partAttributes.remove(part.getId());
+                valuation.removePart(part.getId());
+            }
+            return;
+        }
+        if (partsById.get(part.getId()) == part) {
+            partsById.remove(part.getId());
+            partNames.remove(part.getId());
+            partAttributes.remove(part.getId());
+            valuation.removePart(part.getId());
+        }
+    }
+
+    /**
+     * Moves the index entries of a Part to the Part that replaces it. When the id is kept
+     * the entries are overwritten in place, so the attribute row, the low-stock state and
+     * the ledger cell of the id never pass through an empty state: no stock alert fires
+     * unless the new Part crosses its minimum, and reservations are not refused meanwhile.
+     *
+     * @param oldPart the Part that was replaced in the allParts list.
+     * @param newPart the Part that replaced it.
+     */
+    private void reindexPart(Part oldPart, Part newPart) {
+        if (partStore == null && oldPart.getId() == newPart.getId() && partsById.get(oldPart.getId()) == oldPart) {
+            // Each index replaces the entry of an id it already has.
+            indexPart(newPart);
+            return;
+        }
+        unindexPart(oldPart);
+        indexPart(newPart);
+    }
+
+    /**
+     * Adds the given Product to the indexes maintained by this Inventory.
+     *
+     * @param product the Product that was added to the allProducts list.
+     */
+    private void indexProduct(Product product) {
+        if (associationListeners.containsKey(product)) {
+            // The same Product object indexed again replaces its entries and its listener.
+            unindexProduct(product);
+        }
+        productsById.put(product.getId(), product);
+        productNames.add(product.getId(), searchText(product.getName(), product.getId()));
+        productIds.observe(product.getId());
+        productAttributes.put(product.getId(), product.getPrice(), product.getStock(), product.getMin(),
+                product.getMax());
+
+        whereUsed.addProduct(product);
+        valuation.costProduct(product);
+        ListChangeListener<Part> listener = associationListener(product);
+        associationListeners.put(product, listener);
+        product.getAllAssociatedParts().addListener(listener);
+    }
+
+    /**
+     * Removes the given Product from the indexes maintained by this Inventory. An index
+     * entry is only removed if it still refers to the same Product object.
+     *
+     * @param product the Product that was removed from the allProducts list.
+     */
+    private void unindexProduct(Product product) {
+        if (productsById.get(product.getId()) == product) {
+            productsById.remove(product.getId());
+            productNames.remove(product.getId());
+            productAttributes.remove(product.getId());
+            valuation.removeProduct(product.getId());
+        }
+
+        ListChangeListener<Part> listener = associationListeners.remove(product);
+        if (listener != null) {
+            product.getAllAssociatedParts().removeListener(listener);
+        }
+        whereUsed.removeProduct(product);
+    }
+
+    /**
+     * Creates a listener that records in the whereUsed index the parts added to or
+     * removed from the associated parts of the given Product, whether through
+     * Product.addAssociatedPart, Product.deleteAssociatedPart or the list itself. A change
+     * made while this thread already holds the write lock, from inside a batch or another
+     * change, is recorded under that lock, since the lock cannot be taken twice.
+     *
+     * @param product the Product whose associated parts are tracked.
+     * @return a listener for the Product's associated parts list.
+     */
+    private ListChangeListener<Part> associationListener(Product product) {
+        return change -> {
+            if (writer == Thread.currentThread()) {
+                associationsChanged(product, change);
+            } else {
+                write(() -> associationsChanged(product, change));
+            }
+        };
+    }
+
+    /**
+     * Records a change of the associated parts of a Product in the whereUsed index and its
+     * cost, and marks the Product to be journaled when the change ends. The write lock
+     * must be held.
+     *
+     * @param product the Product whose associated parts changed.
+     * @param change the change of its associated parts list.
+     */
+    private void associationsChanged(Product product, ListChangeListener.Change<? extends Part> change) {
+        while (change.next()) {
+            if (change.wasPermutated() || change.wasUpdated()) {
+                continue;
+            }
+            for (Part removed : change.getRemoved()) {
+                whereUsed.removeUse(removed.getId(), product.getId());
+            }
+            for (Part added : change.getAddedSubList()) {
+                whereUsed.addUse(added.getId(), product.getId());
+            }
+        }
+        if (productsById.get(product.getId()) == product) {
+            if (valuation.costProduct(product) && productsView != null) {
+                productsView.changed(product);
+            }
+            changedAssociations.add(product);
+        }
+    }
+
+    /**
+     * Journals once each Product whose associated parts changed during the current change,
+     * if it is still in this Inventory. The write lock must be held.
+     */
+    private void journalChangedAssociations() {
+        if (changedAssociations.isEmpty()) {
+            return;
+        }
+        for (Product product : changedAssociations) {
+            if (productsById.get(product.getId()) == product) {
+                changes.updateProduct(product.getId(), product);
+            }
+        }
+        changedAssociations.clear();
+    }
+
+    /**
+     * Changes the inventory level of a Part of this Inventory in place, updating its
+     * columns, its store or the journal, and the view. The write lock must be held.
+     *
+     * @param part the Part.
+     * @param stock the new inventory level.
+     */
+    private void setPartStock(Part part, int stock) {
+        int partId = part.getId();
+        part.setStock(stock);
+        partAttributes.setStock(partId, stock);
+        valuation.setPartStock(partId, stock);
+        if (partStore != null) {
+            partStore.set(partStore.rowOf(partId), part);
+        } else {
+            changes.updatePart(partId, part);
+        }
+        if (partsView != null) {
+            partsView.changed(part);
+        }
+    }
+
+    /**
+     * Costs again the Products using a Part whose replacement has another price or id.
+     *
+     * @param oldPart the Part replaced.
+     * @param newPart the Part replacing it.
+     */
+    private void repriced(Part oldPart, Part newPart) {
+        if (oldPart.getId() != newPart.getId()) {
+            recostProductsUsing(oldPart.getId());
+            recostProductsUsing(newPart.getId());
+        } else if (Double.compare(oldPart.getPrice(), newPart.getPrice()) != 0) {
+            recostProductsUsing(newPart.getId());
+        }
+    }
+
+    /**
+     * Costs again the Products that use the Part with the given id, and shows the new
+     * cost of those whose cost changed. The other Products are not touched.
+     *
+     * @param partId the id of the Part whose price changed, or that was added or removed.
+     */
+    private void recostProductsUsing(int partId) {
+        if (!whereUsed.isUsed(partId)) {
+            return;
+        }
+        for (int productId : whereUsed.productsUsing(partId)) {
+            Product product = productsById.get(productId);
+            if (product != null && valuation.costProduct(product) && productsView != null) {
+                productsView.changed(product);
+            }
+        }
+    }
+
+    /**
+     * Returns an inventory level changed by the given amount. A level already above the
+     * maximum, as an older save may hold, can still be lowered.
+     *
+     * @param stock the current inventory level.
+     * @param delta the amount to add.
+     * @param max the maximum inventory level.
+     * @return the new inventory level.
+     * @throws IllegalArgumentException if the new level would be negative, or raised above
+     *                                  the maximum.
+     */
+    private static int adjustedStock(int stock, int delta, int max) {
+        long adjusted = (long) stock + delta;
+        if (adjusted < 0) {
+            throw new IllegalArgumentException("Inventory level must be greater than or equal to 0");
+        }
+        if (delta > 0 && adjusted > max) {
+            throw new IllegalArgumentException("Inventory level must be less than or equal to max");
+        }
+        return (int) adjusted;
+    }
+
+    /**
+     * Builds the text indexed for searching a Part or Product. The name and the id are
+     * separated by a line break, which cannot be typed in a search box, so no match can
+     * span both.
+     *
+     * @param name the name of the Part or Product.
+     * @param id the id of the Part or Product.
+     * @return the text to index.
+     */
+    private static String searchText(String name, int id) {
+        return (name == null ? "" : name) + '\n' + id;
+    }
 }
@@ -0,0 +1,142 @@
+package com.gyp1.inventorymgtapp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The InventoryBatch class collects changes to be made to an Inventory in one step. The
+ * changes are recorded in order and only applied when the batch is passed to
+ * Inventory.apply, or when the action given to Inventory.mutate returns. The Inventory then
+ * applies them all and notifies the listeners of each of its lists once, so a large edit
+ * costs one re-sort and one re-filter of the views built on those lists.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class InventoryBatch {
+    /**
+     * A recorded change: the operation, as one of the InventoryCodec operation codes, the
+     * object it replaces or removes, and the object it adds.
+     */
+    static final class Change {
+        /**
+         * The operation code of the change.
+         */
+        final byte op;
+
+        /**
+         * The Part or Product replaced or removed by the change, or null for an addition.
+         */
+        final Object oldItem;
+
+        /**
+         * The Part or Product added by the change, or null for a deletion.
+         */
+        final Object newItem;
+
+        /**
+         * Default constructor.
+         *
+         * @param op the operation code of the change.
+         * @param oldItem the object replaced or removed by the change.
+         * @param newItem the object added by the change.
+         */
+        Change(byte op, Object oldItem, Object newItem) {
+            this.op = op;
+            this.oldItem = oldItem;
+            this.newItem = newItem;
+        }
+    }
+
+    /**
+     * The recorded changes, in the order they were made.
+     */
+    private final List<Change> changes = new ArrayList<>();
+
+    /**
+     * Records the addition of a Part.
+     *
+     * @param part the Part to add.
+     * @return this batch.
+     */
+    public InventoryBatch addPart(Part part) {
+        changes.add(new Change(InventoryCodec.ADD_PART, null, part));
+        return this;
+    }
+
+    /**
+     * Records the replacement of a Part by another.
+     *
+     * @param oldPart the Part to replace; it must be in the Inventory, or added earlier in this batch.
+     * @param newPart the Part that replaces it.
+     * @return this batch.
+     */
+    public InventoryBatch updatePart(Part oldPart, Part newPart) {
+        changes.add(new Change(InventoryCodec.UPDATE_PART, oldPart, newPart));
+        return this;
+    }
+
+    /**
+     * Records the deletion of a Part. Deleting a Part that is not in the Inventory does nothing.
+     *
+     * @param part the Part to delete.
+     * @return this batch.
+     */
+    public InventoryBatch deletePart(Part part) {
+        changes.add(new Change(InventoryCodec.DELETE_PART, part, null));
+        return this;
+    }
+
+    /**
+     * Records the addition of a Product.
+     *
+     * @param product the Product to add.
+     * @return this batch.
+     */
+    public InventoryBatch addProduct(Product product) {
+        changes.add(new Change(InventoryCodec.ADD_PRODUCT, null, product));
+        return this;
+    }
+
+    /**
+     * Records the replacement of a Product by another.
+     *
+     * @param oldProduct the Product to replace; it must be in the Inventory, or added earlier in this batch.
+     * @param newProduct the Product that replaces it.
+     * @return this batch.
+     */
+    public InventoryBatch updateProduct(Product oldProduct, Product newProduct) {
+        changes.add(new Change(InventoryCodec.UPDATE_PRODUCT, oldProduct, newProduct));
+        return this;
+    }
+
+    /**
+     * Records the deletion of a Product. Deleting a Product that is not in the Inventory
+     * does nothing.
+     *
+     * @param product the Product to delete.
+     * @return this batch.
+     */
+    public InventoryBatch deleteProduct(Product product) {
+        changes.add(new Change(InventoryCodec.DELETE_PRODUCT, product, null));
+        return this;
+    }
+
+    /**
+     * Returns the number of changes recorded in this batch.
+     *
+     * @return the number of changes.
+     */
+    public int size() {
+        return changes.size();
+    }
+
+    /**
+     * Returns the recorded changes, in the order they were made.
+     *
+     * @return the recorded changes.
+     */
+    List<Change> getChanges() {
+        return changes;
+    }
+}
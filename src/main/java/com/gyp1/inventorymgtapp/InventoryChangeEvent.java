@@ -0,0 +1,40 @@
+package com.gyp1.inventorymgtapp;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The InventoryChangeEvent class is the Java Flight Recorder event of a change of the
+ * Inventory, such as addPart or updateProduct. Its duration includes the time spent
+ * waiting for the Inventory's lock, so a slow change shows whether it waited or worked,
+ * next to the size the catalog had reached.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+@Name("com.gyp1.inventorymgtapp.InventoryChange")
+@Label("Inventory Change")
+@Category({"Inventory Management", "Inventory"})
+@Description("A change of the inventory, including the time waiting for its lock")
+public class InventoryChangeEvent extends Event {
+    /**
+     * The name of the Inventory method making the change.
+     */
+    @Label("Operation")
+    String operation;
+
+    /**
+     * The number of parts after the change.
+     */
+    @Label("Parts")
+    int partCount;
+
+    /**
+     * The number of products after the change.
+     */
+    @Label("Products")
+    int productCount;
+}
@@ -0,0 +1,337 @@
+package com.gyp1.inventorymgtapp;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * The InventoryCodec class converts Part and Product objects, and the changes made to an
+ * Inventory, to and from a compact binary form. Parts are written with a type tag so that
+ * InHouse and Outsourced parts are restored as the right class, and Products are written
+ * with the ids of their associated parts. It is shared by the journal and the snapshots.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class InventoryCodec {
+    /**
+     * The type tag of an InHouse part.
+     */
+    private static final byte IN_HOUSE = 1;
+
+    /**
+     * The type tag of an Outsourced part.
+     */
+    private static final byte OUTSOURCED = 2;
+
+    /**
+     * The operation codes of the records describing changes to an Inventory.
+     */
+    static final byte ADD_PART = 1, UPDATE_PART = 2, DELETE_PART = 3,
+            ADD_PRODUCT = 4, UPDATE_PRODUCT = 5, DELETE_PRODUCT = 6;
+
+    /**
+     * Writes the given Part.
+     *
+     * @param out the output to write to.
+     * @param part the Part to write.
+     * @throws IOException if the output cannot be written.
+     */
+    public static void writePart(DataOutput out, Part part) throws IOException {
+        writePart(out, part, part.getStock());
+    }
+
+    /**
+     * Writes the given Part with the given stock, which may have been captured earlier
+     * than the Part's current stock.
+     *
+     * @param out the output to write to.
+     * @param part the Part to write.
+     * @param stock the stock of the Part.
+     * @throws IOException if the output cannot be written.
+     */
+    public static void writePart(DataOutput out, Part part, int stock) throws IOException {
+        out.writeByte(part instanceof Outsourced ? OUTSOURCED : IN_HOUSE);
+        out.writeInt(part.getId());
+        out.writeUTF(part.getName());
+        out.writeDouble(part.getPrice());
+        out.writeInt(stock);
+        out.writeInt(part.getMin());
+        out.writeInt(part.getMax());
+        if (part instanceof Outsourced) {
+            out.writeUTF(((Outsourced) part).getCompanyName());
+        } else {
+            out.writeInt(part instanceof InHouse ? ((InHouse) part).getMachineId() : 0);
+        }
+    }
+
+    /**
+     * Reads a Part written by writePart.
+     *
+     * @param in the input to read from.
+     * @return a new InHouse or Outsourced part.
+     * @throws IOException if the input cannot be read or holds an unknown part type.
+     */
+    public static Part readPart(DataInput in) throws IOException {
+        byte type = in.readByte();
+        int id = in.readInt();
+        String name = in.readUTF();
+        double price = in.readDouble();
+        int stock = in.readInt();
+        int min = in.readInt();
+        int max = in.readInt();
+        if (type == IN_HOUSE) {
+            return new InHouse(id, name, price, stock, min, max, in.readInt());
+        } else if (type == OUTSOURCED) {
+            return new Outsourced(id, name, price, stock, min, max, in.readUTF());
+        }
+        throw new IOException("Unknown part type " + type);
+    }
+
+    /**
+     * Writes the given Product and the ids of its associated parts.
+     *
+     * @param out the output to write to.
+     * @param product the Product to write.
+     * @throws IOException if the output cannot be written.
+     */
+    public static void writeProduct(DataOutput out, Product product) throws IOException {
+        List<Part> associated = product.getAllAssociatedParts();
+        int[] partIds = new int[associated.size()];
+        for (int i = 0; i < partIds.length; i++) {
+            partIds[i] = associated.get(i).getId();
+        }
+        writeProduct(out, product, product.getStock(), partIds);
+    }
+
+    /**
+     * Writes the given Product with the given stock and associated part ids, which may
+     * have been captured earlier than the Product's current stock and associated parts.
+     *
+     * @param out the output to write to.
+     * @param product the Product to write.
+     * @param stock the stock of the Product.
+     * @param partIds the ids of the Product's associated parts.
+     * @throws IOException if the output cannot be written.
+     */
+    public static void writeProduct(DataOutput out, Product product, int stock, int[] partIds)
+            throws IOException {
+        out.writeInt(product.getId());
+        out.writeUTF(product.getName());
+        out.writeDouble(product.getPrice());
+        out.writeInt(stock);
+        out.writeInt(product.getMin());
+        out.writeInt(product.getMax());
+        out.writeInt(partIds.length);
+        for (int partId : partIds) {
+            out.writeInt(partId);
+        }
+    }
+
+    /**
+     * Reads a Product written by writeProduct. Its associated parts are looked up in the
+     * given Inventory; ids of parts that are not in the Inventory are skipped.
+     *
+     * @param in the input to read from.
+     * @param inventory the Inventory holding the associated parts.
+     * @return a new Product.
+     * @throws IOException if the input cannot be read.
+     */
+    public static Product readProduct(DataInput in, Inventory inventory) throws IOException {
+        return readProduct(in, inventory::lookupPart);
+    }
+
+    /**
+     * Reads a Product written by writeProduct. Its associated parts are looked up by id
+     * with the given function; ids it does not find are skipped.
+     *
+     * @param in the input to read from.
+     * @param parts returns the Part with a given id, or null if there is none.
+     * @return a new Product.
+     * @throws IOException if the input cannot be read.
+     */
+    public static Product readProduct(DataInput in, IntFunction<Part> parts) throws IOException {
+        Product product = new Product(in.readInt(), in.readUTF(), in.readDouble(),
+                in.readInt(), in.readInt(), in.readInt());
+        int partCount = in.readInt();
+        for (int i = 0; i < partCount; i++) {
+            Part part = parts.apply(in.readInt());
+            if (part != null) {
+                product.getAllAssociatedParts().add(part);
+            }
+        }
+        return product;
+    }
+
+    /**
+     * Encodes the addition of a Part.
+     *
+     * @param part the Part that was added.
+     * @return the encoded record.
+     */
+    public static byte[] addPart(Part part) {
+        return encode(out -> {
+            out.writeByte(ADD_PART);
+            writePart(out, part);
+        });
+    }
+
+    /**
+     * Encodes the replacement of a Part.
+     *
+     * @param oldId the id of the Part that was replaced.
+     * @param part the Part that replaced it.
+     * @return the encoded record.
+     */
+    public static byte[] updatePart(int oldId, Part part) {
+        return encode(out -> {
+            out.writeByte(UPDATE_PART);
+            out.writeInt(oldId);
+            writePart(out, part);
+        });
+    }
+
+    /**
+     * Encodes the deletion of a Part.
+     *
+     * @param partId the id of the Part that was deleted.
+     * @return the encoded record.
+     */
+    public static byte[] deletePart(int partId) {
+        return encode(out -> {
+            out.writeByte(DELETE_PART);
+            out.writeInt(partId);
+        });
+    }
+
+    /**
+     * Encodes the addition of a Product.
+     *
+     * @param product the Product that was added.
+     * @return the encoded record.
+     */
+    public static byte[] addProduct(Product product) {
+        return encode(out -> {
+            out.writeByte(ADD_PRODUCT);
+            writeProduct(out, product);
+        });
+    }
+
+    /**
+     * Encodes the replacement of a Product, or a change to its associated parts.
+     *
+     * @param oldId the id of the Product that was replaced or changed.
+     * @param product the Product in its new state.
+     * @return the encoded record.
+     */
+    public static byte[] updateProduct(int oldId, Product product) {
+        return encode(out -> {
+            out.writeByte(UPDATE_PRODUCT);
+            out.writeInt(oldId);
+            writeProduct(out, product);
+        });
+    }
+
+    /**
+     * Encodes the deletion of a Product.
+     *
+     * @param productId the id of the Product that was deleted.
+     * @return the encoded record.
+     */
+    public static byte[] deleteProduct(int productId) {
+        return encode(out -> {
+            out.writeByte(DELETE_PRODUCT);
+            out.writeInt(productId);
+        });
+    }
+
+    /**
+     * Applies an encoded change to the given Inventory.
+     *
+     * @param record the encoded change.
+     * @param inventory the Inventory to change.
+     * @throws IOException if the record cannot be decoded.
+     */
+    public static void apply(byte[] record, Inventory inventory) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        byte op = in.readByte();
+        switch (op) {
+            case ADD_PART:
+                inventory.addPart(readPart(in));
+                break;
+            case UPDATE_PART: {
+                Part oldPart = inventory.lookupPart(in.readInt());
+                Part part = readPart(in);
+                if (oldPart == null || !inventory.updatePart(oldPart, part)) {
+                    inventory.addPart(part);
+                }
+                break;
+            }
+            case DELETE_PART: {
+                Part part = inventory.lookupPart(in.readInt());
+                if (part != null) {
+                    inventory.deletePart(part);
+                }
+                break;
+            }
+            case ADD_PRODUCT:
+                inventory.addProduct(readProduct(in, inventory));
+                break;
+            case UPDATE_PRODUCT: {
+                Product oldProduct = inventory.lookupProduct(in.readInt());
+                Product product = readProduct(in, inventory);
+                if (oldProduct == null || !inventory.updateProduct(oldProduct, product)) {
+                    inventory.addProduct(product);
+                }
+                break;
+            }
+            case DELETE_PRODUCT: {
+                Product product = inventory.lookupProduct(in.readInt());
+                if (product != null) {
+                    inventory.deleteProduct(product);
+                }
+                break;
+            }
+            default:
+                throw new IOException("Unknown journal operation " + op);
+        }
+    }
+
+    /**
+     * Something that writes to a DataOutput.
+     */
+    @FunctionalInterface
+    private interface Writer {
+        /**
+         * Writes to the given output.
+         *
+         * @param out the output to write to.
+         * @throws IOException if the output cannot be written.
+         */
+        void write(DataOutput out) throws IOException;
+    }
+
+    /**
+     * Runs the given writer against an in-memory buffer and returns the bytes written.
+     *
+     * @param writer the writer to run.
+     * @return the bytes written.
+     */
+    private static byte[] encode(Writer writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try {
+            writer.write(new DataOutputStream(bytes));
+        } catch (IOException ex) {
+            // A ByteArrayOutputStream does not fail, so this can only be a programming error.
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -1,16 +1,26 @@
 package com.gyp1.inventorymgtapp;
 
 import javafx.application.Application;
+import javafx.application.Preloader;
 import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The InventoryMgtApp class is the starting point of the app (system). It
  * contains the main method of the program.
  *
+ * The startup runs in steps, each one timed by the StartupTimer. The SplashPreloader
+ * shows first; init() then loads the inventory on a background thread while it parses
+ * the main-view on the launcher thread, and start() links the two and swaps the main
+ * window in for the splash window.
+ *
  * @author  Mami Camara
  * @version April 2023
  *
@@ -20,6 +30,11 @@ import java.io.IOException;
  * the application will prevent specifying multiple associated parts for a product.
  */
 public class InventoryMgtApp extends Application {
+    /**
+     * The number of startup steps reported to the preloader: loading the inventory,
+     * parsing the main-view and showing it.
+     */
+    private static final int STARTUP_STEPS = 3;
 
     /**
      * Creates an instance of the controller that manages the main view.
@@ -27,29 +42,100 @@ public class InventoryMgtApp extends Application {
     MainController controller = new MainController();
 
     /**
-     * The main entry point of this application.
+     * The root node of the main-view, parsed by init().
+     */
+    private Parent mainViewRoot;
+
+    /**
+     * The number of startup steps completed, out of STARTUP_STEPS.
+     */
+    private final AtomicInteger stepsDone = new AtomicInteger();
+
+    /**
+     * Loads the inventory and parses the main-view at the same time, while the splash
+     * window is shown. It runs on the launcher thread, before start().
      *
-     * @param stage the main stage (window) for this application's
-     *              GUI (Graphical User Interface).
      * @throws IOException when there is an error reading the fxml file.
      */
     @Override
-    public void start(Stage stage) throws IOException {
-        //Load the main-view fxml to create the main scene.
-        FXMLLoader fxmlLoader = new FXMLLoader(InventoryMgtApp.class.getResource("main-view.fxml"));
+    public void init() throws IOException {
+        long start = StartupTimer.start();
+        FutureTask<Void> load = new FutureTask<>(() -> {
+            long loadStart = StartupTimer.start();
+            controller.loadInventory();
+            StartupTimer.stop("loadInventory", loadStart);
+            stepDone();
+            return null;
+        });
+        Thread loader = new Thread(load, "inventory-load");
+        loader.setDaemon(true);
+        loader.start();
 
-        //Associate MainController to the main view.
+        //Load the main-view fxml and associate MainController to it.
+        long parseStart = StartupTimer.start();
+        FXMLLoader fxmlLoader = new FXMLLoader(InventoryMgtApp.class.getResource("main-view.fxml"));
         fxmlLoader.setController(controller);
+        mainViewRoot = fxmlLoader.load();
+        StartupTimer.stop("parseMainView", parseStart);
+        stepDone();
+
+        try {
+            load.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading the inventory", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException("Cannot load the inventory", ex.getCause());
+        }
+        StartupTimer.stop("init", start);
+    }
+
+    /**
+     * The main entry point of this application. It links the main-view parsed by init()
+     * to the inventory and shows it in place of the splash window.
+     *
+     * @param stage the main stage (window) for this application's
+     *              GUI (Graphical User Interface).
+     */
+    @Override
+    public void start(Stage stage) {
+        long start = StartupTimer.start();
+        controller.bind();
 
         //Initialize the main scene using the main-view fxml.
-        Scene scene = new Scene(fxmlLoader.load());
+        Scene scene = new Scene(mainViewRoot);
         stage.setScene(scene);
 
         //Initialize the MainController's variable that point to the scene created.
         controller.setView(scene);
+        StartupTimer.stop("bindMainView", start);
 
         //Show the GUI.
+        start = StartupTimer.start();
         stage.show();
+        StartupTimer.stop("showMainView", start);
+        stepDone();
+        StartupTimer.finish();
+    }
+
+    /**
+     * Reports to the preloader that one more startup step is complete. The preloader hides
+     * the splash window when all are.
+     */
+    private void stepDone() {
+        notifyPreloader(new Preloader.ProgressNotification((double) stepsDone.incrementAndGet() / STARTUP_STEPS));
+    }
+
+    /**
+     * Saves the pending inventory changes when the application stops, including when
+     * the main window is closed rather than exited with the Exit button.
+     */
+    @Override
+    public void stop() {
+        controller.shutdown();
     }
 
     /**
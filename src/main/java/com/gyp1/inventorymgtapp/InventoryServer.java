@@ -0,0 +1,807 @@
+package com.gyp1.inventorymgtapp;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The InventoryServer class serves an Inventory over HTTP, so that scanners and other
+ * systems can read and change it without the JavaFX user interface. It is built on the
+ * HTTP server of the JDK and exchanges JSON documents:
+ *
+ * GET /parts/{id} and GET /products/{id} return one Part or Product; GET /parts?name=...
+ * and GET /products?name=... return the matches of lookupPart(String) and
+ * lookupProduct(String). POST /parts and POST /products add one, PUT /parts/{id} and
+ * PUT /products/{id} replace one, and DELETE removes one, with the same rules as the part
+ * and product forms; a POST body without an id is given a new one. POST
+ * /parts/{id}/stock and POST /products/{id}/stock with a body such as {"delta": -3}
+ * adjust an inventory level. GET /valuation returns the count, value and price range of
+ * the parts, in total, by kind, by machine and by company.
+ *
+ * Each request runs on its own virtual thread when the Java runtime has them, and on a
+ * pool of platform threads otherwise. Requests never wait for each other except on the
+ * Inventory's own lock, and lookups by id take no lock at all.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class InventoryServer implements Closeable {
+    /**
+     * The system property that sets the port the server listens on.
+     */
+    public static final String PORT_PROPERTY = "inventory.httpPort";
+
+    /**
+     * The port the server listens on when no other is given.
+     */
+    public static final int DEFAULT_PORT = 8080;
+
+    /**
+     * The number of incoming connections that may wait to be accepted.
+     */
+    private static final int BACKLOG = 1024;
+
+    /**
+     * Logs the start of the server and the failures to answer a request.
+     */
+    private static final System.Logger LOG = System.getLogger(InventoryServer.class.getName());
+
+    /**
+     * The id given to a new Part or Product until it is leased one.
+     */
+    private static final int NEW_ID = 0;
+
+    /**
+     * The system property that makes the JDK HTTP server disable Nagle's algorithm on its
+     * connections.
+     */
+    private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    static {
+        // The server writes the headers and the body of an answer separately. With Nagle's
+        // algorithm the body then waits for the client's delayed acknowledgement, which
+        // limits each connection to a few dozen requests per second.
+        if (System.getProperty(NODELAY_PROPERTY) == null) {
+            System.setProperty(NODELAY_PROPERTY, "true");
+        }
+    }
+
+    /**
+     * An error answered with the given HTTP status and message.
+     */
+    private static final class ApiException extends RuntimeException {
+        /**
+         * The version of the serialized form.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The HTTP status of the answer.
+         */
+        private final int status;
+
+        /**
+         * Default constructor.
+         *
+         * @param status the HTTP status of the answer.
+         * @param message the message of the answer.
+         */
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Answers one request.
+     */
+    private interface Route {
+        /**
+         * Answers a request.
+         *
+         * @param exchange the request and its response.
+         * @param path the segments of the request path after the context path.
+         * @throws IOException if the response cannot be sent.
+         */
+        void handle(HttpExchange exchange, String[] path) throws IOException;
+    }
+
+    /**
+     * The Inventory served.
+     */
+    private final Inventory inventory;
+
+    /**
+     * The HTTP server.
+     */
+    private final HttpServer server;
+
+    /**
+     * Runs the requests.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Default constructor. Initializes a server for the given Inventory, bound to the given
+     * address. It answers nothing until start() is called.
+     *
+     * @param inventory the Inventory to serve.
+     * @param address the address to listen on.
+     * @throws IOException if the address cannot be bound.
+     */
+    public InventoryServer(Inventory inventory, InetSocketAddress address) throws IOException {
+        this.inventory = inventory;
+        this.executor = newRequestExecutor();
+        this.server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/parts", exchange -> dispatch(exchange, "/parts", this::handleParts));
+        server.createContext("/products", exchange -> dispatch(exchange, "/products", this::handleProducts));
+        server.createContext("/valuation", exchange -> dispatch(exchange, "/valuation", this::handleValuation));
+    }
+
+    /**
+     * Starts answering requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Returns the address the server listens on, with the port chosen by the system if
+     * port 0 was asked for.
+     *
+     * @return the bound address.
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stops answering requests and stops the threads that ran them.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs the server without a user interface. It loads the saved inventory, serves it on
+     * the port given by a --port=N argument, the inventory.httpPort system property or
+     * 8080, and saves the pending changes when the process is stopped.
+     *
+     * @param args the command line arguments.
+     * @throws IOException if the inventory cannot be loaded or the port cannot be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = Integer.getInteger(PORT_PROPERTY, DEFAULT_PORT);
+        for (String arg : args) {
+            if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            }
+        }
+
+        Path dataDirectory = InventoryStore.defaultDirectory();
+        Inventory inventory = InventoryStore.newInventory(dataDirectory);
+        InventoryStore store = InventoryStore.open(inventory, dataDirectory);
+        InventoryServer server = new InventoryServer(inventory, new InetSocketAddress(port));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            try {
+                store.close();
+            } catch (IOException ex) {
+                LOG.log(System.Logger.Level.ERROR, "Cannot save the inventory changes", ex);
+            }
+        }, "inventory-server-shutdown"));
+        server.start();
+        LOG.log(System.Logger.Level.INFO, "Serving the inventory in " + dataDirectory + " on port "
+                + server.getAddress().getPort());
+    }
+
+    /**
+     * Creates the executor running the requests: one virtual thread per request when the
+     * runtime offers them, or otherwise a fixed pool of daemon threads large enough to keep
+     * every core busy while some requests wait on the network.
+     *
+     * @return the request executor.
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            // Virtual threads need Java 21; use platform threads on older runtimes.
+        }
+        AtomicInteger count = new AtomicInteger();
+        int threads = Math.max(8, 4 * Runtime.getRuntime().availableProcessors());
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "inventory-http-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Answers a request with the given route, turning its errors into JSON error answers.
+     * An unexpected failure of the route is logged and answered with status 500, so the
+     * client is never left without an answer.
+     *
+     * @param exchange the request and its response.
+     * @param context the context path the request was received on.
+     * @param route the route answering the request.
+     */
+    private void dispatch(HttpExchange exchange, String context, Route route) {
+        try {
+            String path = exchange.getRequestURI().getPath().substring(context.length());
+            String[] segments = path.isEmpty() || path.equals("/") ? new String[0] : path.substring(1).split("/");
+            try {
+                route.handle(exchange, segments);
+            } catch (ApiException ex) {
+                respondError(exchange, ex.status, ex.getMessage());
+            } catch (IllegalArgumentException ex) {
+                respondError(exchange, 400, ex.getMessage());
+            } catch (RuntimeException ex) {
+                LOG.log(System.Logger.Level.ERROR, "Failed to answer " + exchange.getRequestURI(), ex);
+                respondError(exchange, 500, "Internal server error");
+            }
+        } catch (IOException | RuntimeException ex) {
+            LOG.log(System.Logger.Level.WARNING, "Cannot answer " + exchange.getRequestURI(), ex);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Answers the requests for parts.
+     *
+     * @param exchange the request and its response.
+     * @param path the segments of the request path after /parts.
+     * @throws IOException if the response cannot be sent.
+     */
+    private void handleParts(HttpExchange exchange, String[] path) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (path.length == 0) {
+            if (method.equals("GET")) {
+                StringBuilder json = new StringBuilder("[");
+                for (Part part : inventory.lookupPart(requiredQuery(exchange, "name"))) {
+                    appendPart(json.length() == 1 ? json : json.append(','), part);
+                }
+                respond(exchange, 200, json.append(']'));
+            } else if (method.equals("POST")) {
+                Map<String, Object> body = readObject(exchange);
+                Part part = toPart(body, requestedId(body, "Part ID"));
+                if (part.getId() == NEW_ID) {
+                    // An id is only leased for a body known to be valid.
+                    part.setId(inventory.getPartIds().next());
+                }
+                if (!inventory.addPartIfAbsent(part)) {
+                    throw new ApiException(409, "Part ID " + part.getId() + " is already used");
+                }
+                respond(exchange, 201, appendPart(new StringBuilder(), part));
+            } else {
+                throw new ApiException(405, "Method not allowed");
+            }
+            return;
+        }
+
+        int id = pathId(path[0]);
+        if (path.length == 2 && path[1].equals("stock")) {
+            requireMethod(method, "POST");
+            int delta = intMember(readObject(exchange), "delta", "Delta");
+            Part part;
+            try {
+                part = inventory.adjustPartStock(id, delta);
+            } catch (IllegalArgumentException ex) {
+                throw new ApiException(409, ex.getMessage());
+            }
+            respond(exchange, 200, appendPart(new StringBuilder(), found(part, "Part", id)));
+            return;
+        }
+        if (path.length != 1) {
+            throw new ApiException(404, "Not found");
+        }
+        Part part = found(inventory.lookupPart(id), "Part", id);
+        if (method.equals("GET")) {
+            respond(exchange, 200, appendPart(new StringBuilder(), part));
+        } else if (method.equals("PUT")) {
+            Map<String, Object> body = readObject(exchange);
+            checkSameId(body, id);
+            Part newPart = toPart(body, id);
+            if (!inventory.updatePart(part, newPart)) {
+                throw new ApiException(409, "Part " + id + " was changed by another request");
+            }
+            respond(exchange, 200, appendPart(new StringBuilder(), newPart));
+        } else if (method.equals("DELETE")) {
+            boolean deleted;
+            try {
+                deleted = inventory.deleteUnusedPart(part);
+            } catch (IllegalStateException ex) {
+                throw new ApiException(409, "You cannot delete a part used by products.");
+            }
+            found(deleted ? part : null, "Part", id);
+            respond(exchange, 204, null);
+        } else {
+            throw new ApiException(405, "Method not allowed");
+        }
+    }
+
+    /**
+     * Answers the requests for products.
+     *
+     * @param exchange the request and its response.
+     * @param path the segments of the request path after /products.
+     * @throws IOException if the response cannot be sent.
+     */
+    private void handleProducts(HttpExchange exchange, String[] path) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (path.length == 0) {
+            if (method.equals("GET")) {
+                StringBuilder json = new StringBuilder("[");
+                for (Product product : inventory.lookupProduct(requiredQuery(exchange, "name"))) {
+                    appendProduct(json.length() == 1 ? json : json.append(','), product);
+                }
+                respond(exchange, 200, json.append(']'));
+            } else if (method.equals("POST")) {
+                Map<String, Object> body = readObject(exchange);
+                Product product = toProduct(body, requestedId(body, "Product ID"));
+                if (product.getId() == NEW_ID) {
+                    product.setId(inventory.getProductIds().next());
+                }
+                if (!inventory.addProductIfAbsent(product)) {
+                    throw new ApiException(409, "Product ID " + product.getId() + " is already used");
+                }
+                respond(exchange, 201, appendProduct(new StringBuilder(), product));
+            } else {
+                throw new ApiException(405, "Method not allowed");
+            }
+            return;
+        }
+
+        int id = pathId(path[0]);
+        if (path.length == 2 && path[1].equals("stock")) {
+            requireMethod(method, "POST");
+            int delta = intMember(readObject(exchange), "delta", "Delta");
+            Product product;
+            try {
+                product = inventory.adjustProductStock(id, delta);
+            } catch (IllegalArgumentException ex) {
+                throw new ApiException(409, ex.getMessage());
+            }
+            respond(exchange, 200, appendProduct(new StringBuilder(), found(product, "Product", id)));
+            return;
+        }
+        if (path.length != 1) {
+            throw new ApiException(404, "Not found");
+        }
+        Product product = found(inventory.lookupProduct(id), "Product", id);
+        if (method.equals("GET")) {
+            respond(exchange, 200, appendProduct(new StringBuilder(), product));
+        } else if (method.equals("PUT")) {
+            Map<String, Object> body = readObject(exchange);
+            checkSameId(body, id);
+            Product newProduct = toProduct(body, id);
+            if (!inventory.updateProduct(product, newProduct)) {
+                throw new ApiException(409, "Product " + id + " was changed by another request");
+            }
+            respond(exchange, 200, appendProduct(new StringBuilder(), newProduct));
+        } else if (method.equals("DELETE")) {
+            boolean deleted;
+            try {
+                deleted = inventory.deleteEmptyProduct(product);
+            } catch (IllegalStateException ex) {
+                throw new ApiException(409, "You cannot delete a product with associated parts.");
+            }
+            found(deleted ? product : null, "Product", id);
+            respond(exchange, 204, null);
+        } else {
+            throw new ApiException(405, "Method not allowed");
+        }
+    }
+
+    /**
+     * Creates the Part described by a JSON object, checking it as the part form does.
+     *
+     * @param json the JSON object.
+     * @param id the id of the Part, or NEW_ID.
+     * @return a new InHouse or Outsourced part.
+     * @throws IllegalArgumentException if the object does not describe a valid part.
+     */
+    private static Part toPart(Map<String, Object> json, int id) {
+        String type = stringMember(json, "type", "Part type");
+        String name = stringMember(json, "name", "Name");
+        double price = priceMember(json);
+        int stock = intMember(json, "stock", "Inventory level");
+        int min = intMember(json, "min", "Minimum inventory");
+        int max = intMember(json, "max", "Maximum inventory");
+        checkCommon(id, name, stock, min, max);
+        if (type.equalsIgnoreCase("InHouse")) {
+            int machineId = intMember(json, "machineId", "Machine ID");
+            if (machineId < 1) {
+                throw new IllegalArgumentException("Machine ID must be a positive integer");
+            }
+            return new InHouse(id, name, price, stock, min, max, machineId);
+        } else if (type.equalsIgnoreCase("Outsourced")) {
+            String companyName = stringMember(json, "companyName", "Company name");
+            if (companyName.isEmpty()) {
+                throw new IllegalArgumentException("Company name is empty");
+            }
+            if (companyName.chars().allMatch(Character::isDigit)) {
+                throw new IllegalArgumentException("The company name is not valid");
+            }
+            return new Outsourced(id, name, price, stock, min, max, companyName);
+        }
+        throw new IllegalArgumentException("Unknown part type " + type);
+    }
+
+    /**
+     * Creates the Product described by a JSON object, with the parts listed by id in its
+     * parts member, checking it as the product form does.
+     *
+     * @param json the JSON object.
+     * @param id the id of the Product, or NEW_ID.
+     * @return a new Product.
+     * @throws IllegalArgumentException if the object does not describe a valid product.
+     */
+    private Product toProduct(Map<String, Object> json, int id) {
+        String name = stringMember(json, "name", "Name");
+        double price = priceMember(json);
+        int stock = intMember(json, "stock", "Inventory level");
+        int min = intMember(json, "min", "Minimum inventory");
+        int max = intMember(json, "max", "Maximum inventory");
+        checkCommon(id, name, stock, min, max);
+
+        Product product = new Product(id, name, price, stock, min, max);
+        Object parts = json.get("parts");
+        if (parts != null && !(parts instanceof List)) {
+            throw new IllegalArgumentException("Parts must be a list of part IDs");
+        }
+        double partsCost = 0;
+        for (Object partId : parts == null ? List.of() : (List<?>) parts) {
+            if (!(partId instanceof Long)) {
+                throw new IllegalArgumentException("Part ID must be an integer");
+            }
+            Part part = inventory.lookupPart(((Long) partId).intValue());
+            if (part == null) {
+                throw new IllegalArgumentException("Unknown part ID " + partId);
+            }
+            product.getAllAssociatedParts().add(part);
+            partsCost += part.getPrice();
+        }
+        if (product.getAllAssociatedParts().isEmpty()) {
+            throw new IllegalArgumentException("Product must have at least one part");
+        }
+        if (price < partsCost) {
+            throw new IllegalArgumentException("Price cannot be less than cost of parts");
+        }
+        return product;
+    }
+
+    /**
+     * Appends a Part to the given builder as a JSON object.
+     *
+     * @param out the builder to append to.
+     * @param part the Part to write.
+     * @return the builder.
+     */
+    private static StringBuilder appendPart(StringBuilder out, Part part) {
+        out.append("{\"type\":").append(part instanceof Outsourced ? "\"Outsourced\"" : "\"InHouse\"");
+        appendCommon(out, part.getId(), part.getName(), part.getPrice(), part.getStock(), part.getMin(), part.getMax());
+        if (part instanceof Outsourced) {
+            Json.appendString(out.append(",\"companyName\":"), ((Outsourced) part).getCompanyName());
+        } else {
+            out.append(",\"machineId\":").append(((InHouse) part).getMachineId());
+        }
+        return out.append('}');
+    }
+
+    /**
+     * Appends a Product to the given builder as a JSON object, with the ids of its parts.
+     *
+     * @param out the builder to append to.
+     * @param product the Product to write.
+     * @return the builder.
+     */
+    private static StringBuilder appendProduct(StringBuilder out, Product product) {
+        out.append('{');
+        appendCommon(out, product.getId(), product.getName(), product.getPrice(), product.getStock(),
+                product.getMin(), product.getMax());
+        out.append(",\"parts\":[");
+        List<Part> parts = product.getAllAssociatedParts();
+        for (int i = 0; i < parts.size(); i++) {
+            out.append(i == 0 ? "" : ",").append(parts.get(i).getId());
+        }
+        return out.append("]}");
+    }
+
+    /**
+     * Appends the members shared by parts and products to the given builder.
+     *
+     * @param out the builder to append to.
+     * @param id the id.
+     * @param name the name.
+     * @param price the price.
+     * @param stock the inventory level.
+     * @param min the minimum inventory level.
+     * @param max the maximum inventory level.
+     */
+    private static void appendCommon(StringBuilder out, int id, String name, double price, int stock, int min, int max) {
+        out.append(out.charAt(out.length() - 1) == '{' ? "" : ",").append("\"id\":").append(id);
+        Json.appendString(out.append(",\"name\":"), name);
+        out.append(",\"price\":").append(price)
+                .append(",\"stock\":").append(stock)
+                .append(",\"min\":").append(min)
+                .append(",\"max\":").append(max);
+    }
+
+    /**
+     * Answers the requests for the valuation of the parts.
+     *
+     * @param exchange the request and its response.
+     * @param path the segments of the request path after /valuation.
+     * @throws IOException if the response cannot be sent.
+     */
+    private void handleValuation(HttpExchange exchange, String[] path) throws IOException {
+        if (path.length != 0) {
+            throw new ApiException(404, "Not found");
+        }
+        requireMethod(exchange.getRequestMethod(), "GET");
+        StringBuilder json = new StringBuilder("{\"total\":");
+        appendValuation(json, inventory.getPartValuation());
+        appendValuation(json.append(",\"inHouse\":"), inventory.getInHousePartValuation());
+        appendValuation(json.append(",\"outsourced\":"), inventory.getOutsourcedPartValuation());
+        json.append(",\"machines\":{");
+        for (Map.Entry<Integer, Valuation> machine : inventory.getMachineValuations().entrySet()) {
+            json.append(json.charAt(json.length() - 1) == '{' ? "\"" : ",\"").append(machine.getKey()).append("\":");
+            appendValuation(json, machine.getValue());
+        }
+        json.append("},\"companies\":{");
+        for (Map.Entry<String, Valuation> company : inventory.getCompanyValuations().entrySet()) {
+            Json.appendString(json.charAt(json.length() - 1) == '{' ? json : json.append(','), company.getKey());
+            appendValuation(json.append(':'), company.getValue());
+        }
+        respond(exchange, 200, json.append("}}"));
+    }
+
+    /**
+     * Appends a Valuation to the given builder as a JSON object.
+     *
+     * @param out the builder to append to.
+     * @param valuation the Valuation to write.
+     * @return the builder.
+     */
+    private static StringBuilder appendValuation(StringBuilder out, Valuation valuation) {
+        return out.append("{\"count\":").append(valuation.getCount())
+                .append(",\"value\":").append(valuation.getValue())
+                .append(",\"minPrice\":").append(valuation.getMinPrice())
+                .append(",\"maxPrice\":").append(valuation.getMaxPrice())
+                .append('}');
+    }
+
+    /**
+     * Reads the body of a request as a JSON object.
+     *
+     * @param exchange the request.
+     * @return the members of the object.
+     * @throws IOException if the body cannot be read.
+     * @throws IllegalArgumentException if the body is not a JSON object.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readObject(HttpExchange exchange) throws IOException {
+        Object json = Json.parse(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        if (!(json instanceof Map)) {
+            throw new IllegalArgumentException("The request body must be a JSON object");
+        }
+        return (Map<String, Object>) json;
+    }
+
+    /**
+     * Returns an integer member of a JSON object.
+     *
+     * @param json the JSON object.
+     * @param member the name of the member.
+     * @param label the name of the field, used in the error message.
+     * @return the value of the member.
+     * @throws IllegalArgumentException if the member is missing or not an integer.
+     */
+    private static int intMember(Map<String, Object> json, String member, String label) {
+        Object value = json.get(member);
+        if (!(value instanceof Long) || (Long) value != ((Long) value).intValue()) {
+            throw new IllegalArgumentException(label + " must be an integer");
+        }
+        return ((Long) value).intValue();
+    }
+
+    /**
+     * Returns the id member of the JSON object of a new Part or Product, or NEW_ID when
+     * the object has none.
+     *
+     * @param json the JSON object.
+     * @param label the name of the field, used in the error message.
+     * @return the id of the new object, or NEW_ID if it is to be given a new one.
+     * @throws IllegalArgumentException if the member is not a positive integer.
+     */
+    private static int requestedId(Map<String, Object> json, String label) {
+        if (json.get("id") == null) {
+            return NEW_ID;
+        }
+        int id = intMember(json, "id", label);
+        if (id < 1) {
+            throw new IllegalArgumentException("Invalid ID " + id);
+        }
+        return id;
+    }
+
+    /**
+     * Checks the rules shared by parts and products, as the importer does. The id of an
+     * object still to be given one is not checked.
+     *
+     * @param id the id, or NEW_ID.
+     * @param name the name.
+     * @param stock the inventory level.
+     * @param min the minimum inventory level.
+     * @param max the maximum inventory level.
+     * @throws IllegalArgumentException if a rule is broken.
+     */
+    private static void checkCommon(int id, String name, int stock, int min, int max) {
+        CsvImporter.checkCommon(id == NEW_ID ? 1 : id, name, stock, min, max);
+    }
+
+    /**
+     * Returns a string member of a JSON object, without its surrounding whitespace.
+     *
+     * @param json the JSON object.
+     * @param member the name of the member.
+     * @param label the name of the field, used in the error message.
+     * @return the value of the member.
+     * @throws IllegalArgumentException if the member is missing or not a string.
+     */
+    private static String stringMember(Map<String, Object> json, String member, String label) {
+        Object value = json.get(member);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException(label + " must be a string");
+        }
+        return ((String) value).trim();
+    }
+
+    /**
+     * Returns the price member of a JSON object.
+     *
+     * @param json the JSON object.
+     * @return the price.
+     * @throws IllegalArgumentException if the price is missing, not a number or not positive.
+     */
+    private static double priceMember(Map<String, Object> json) {
+        Object value = json.get("price");
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException("Price must be a floating number");
+        }
+        double price = ((Number) value).doubleValue();
+        if (!(price > 0)) {
+            throw new IllegalArgumentException("Price cannot be zero or negative");
+        }
+        return price;
+    }
+
+    /**
+     * Checks that a JSON object sent to replace a Part or Product keeps its id.
+     *
+     * @param json the JSON object.
+     * @param id the id in the request path.
+     * @throws IllegalArgumentException if the object has another id.
+     */
+    private static void checkSameId(Map<String, Object> json, int id) {
+        if (json.containsKey("id") && !Long.valueOf(id).equals(json.get("id"))) {
+            throw new IllegalArgumentException("The ID cannot be changed");
+        }
+    }
+
+    /**
+     * Parses the id in a request path.
+     *
+     * @param segment the path segment holding the id.
+     * @return the id.
+     * @throws ApiException if the segment is not an id.
+     */
+    private static int pathId(String segment) {
+        try {
+            return Integer.parseInt(segment);
+        } catch (NumberFormatException ex) {
+            throw new ApiException(404, "Not found");
+        }
+    }
+
+    /**
+     * Returns the given Part or Product, or fails with a 404 answer if it is null.
+     *
+     * @param item the Part or Product found.
+     * @param kind "Part" or "Product", used in the error message.
+     * @param id the id looked up.
+     * @param <T> the type of the object.
+     * @return the object.
+     * @throws ApiException if the object is null.
+     */
+    private static <T> T found(T item, String kind, int id) {
+        if (item == null) {
+            throw new ApiException(404, kind + " " + id + " not found");
+        }
+        return item;
+    }
+
+    /**
+     * Checks the method of a request.
+     *
+     * @param method the method of the request.
+     * @param expected the only method allowed.
+     * @throws ApiException if the method is another one.
+     */
+    private static void requireMethod(String method, String expected) {
+        if (!method.equals(expected)) {
+            throw new ApiException(405, "Method not allowed");
+        }
+    }
+
+    /**
+     * Returns the value of a query parameter of a request.
+     *
+     * @param exchange the request.
+     * @param name the name of the parameter.
+     * @return the decoded value of the parameter.
+     * @throws IllegalArgumentException if the parameter is missing.
+     */
+    private static String requiredQuery(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                int equals = parameter.indexOf('=');
+                if (equals > 0 && parameter.substring(0, equals).equals(name)) {
+                    return URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        throw new IllegalArgumentException("The " + name + " query parameter is required");
+    }
+
+    /**
+     * Sends an error answer.
+     *
+     * @param exchange the request and its response.
+     * @param status the HTTP status.
+     * @param message the error message.
+     * @throws IOException if the response cannot be sent.
+     */
+    private static void respondError(HttpExchange exchange, int status, String message) throws IOException {
+        respond(exchange, status, Json.appendString(new StringBuilder("{\"error\":"), message).append('}'));
+    }
+
+    /**
+     * Sends an answer with the given JSON body.
+     *
+     * @param exchange the request and its response.
+     * @param status the HTTP status.
+     * @param json the JSON body, or null for an answer without a body.
+     * @throws IOException if the response cannot be sent.
+     */
+    private static void respond(HttpExchange exchange, int status, StringBuilder json) throws IOException {
+        if (json == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
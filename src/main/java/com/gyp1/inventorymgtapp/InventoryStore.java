@@ -0,0 +1,452 @@
+package com.gyp1.inventorymgtapp;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The InventoryStore class keeps an Inventory on disk between sessions. The data directory
+ * holds at most a few snapshots and a sequence of numbered journal segments. When opened,
+ * the store loads the newest snapshot, replays the segments written after it, and then
+ * attaches the current segment to the Inventory so that every later change is appended.
+ * A snapshot that cannot be read is skipped for the one before it.
+ *
+ * Once enough changes have been journaled, a background thread compacts the store: it
+ * switches the Inventory to a new segment while capturing a snapshot of it, writes the
+ * snapshot and reads it back. Only then does it delete older data, and it keeps the
+ * previous snapshot and the segments written since, which can rebuild the Inventory
+ * without the new snapshot. Only the brief capture holds the Inventory's lock, so the
+ * JavaFX Application Thread is not paused by the write.
+ *
+ * When the inventory.partStore system property is set to "mapped", the parts are kept in
+ * a MappedPartStore in the parts subdirectory and only the products go through the journal
+ * and the snapshots. Parts saved by an earlier session without the store are moved into
+ * it the first time it is used. The store is only for a headless Inventory, such as the
+ * one of the InventoryServer: the views of the user interface would hold every Part, and
+ * an Inventory without the store cannot open data whose parts are in one.
+ *
+ * A journal stops at its first failed write, and the Inventory then refuses changes. The
+ * compactor is then asked to compact the store at once, which saves the Inventory in a
+ * snapshot, changes it to a new segment and lets the changes go on.
+ *
+ * The store also keeps the ceilings of the Inventory's part and product id sequences, so
+ * that the ids of deleted objects are not handed out again by a later session.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class InventoryStore implements Closeable {
+    /**
+     * The system property that overrides the directory holding the inventory data.
+     */
+    public static final String DATA_DIR_PROPERTY = "inventory.dataDir";
+
+    /**
+     * The system property that selects where parts are kept: "mapped" for a MappedPartStore,
+     * or anything else for the Java heap.
+     */
+    public static final String PART_STORE_PROPERTY = "inventory.partStore";
+
+    /**
+     * The name of the subdirectory of the data directory holding the MappedPartStore.
+     */
+    private static final String PART_STORE_DIRECTORY = "parts";
+
+    /**
+     * The name of the single journal file written by earlier versions of the application.
+     */
+    private static final String LEGACY_JOURNAL_FILE = "inventory.journal";
+
+    /**
+     * The prefix of the names of the segment and snapshot files.
+     */
+    private static final String FILE_PREFIX = "inventory-";
+
+    /**
+     * The suffix of the names of the journal segment files.
+     */
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    /**
+     * The suffix of the names of the snapshot files.
+     */
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    /**
+     * The name of the file holding the ceiling of the part id sequence.
+     */
+    private static final String PART_IDS_FILE = "part.ids";
+
+    /**
+     * The name of the file holding the ceiling of the product id sequence.
+     */
+    private static final String PRODUCT_IDS_FILE = "product.ids";
+
+    /**
+     * The number of journaled changes after which the store is compacted.
+     */
+    private static final long COMPACT_THRESHOLD = 50_000;
+
+    /**
+     * The number of seconds between two checks of the number of journaled changes.
+     */
+    private static final long COMPACT_CHECK_SECONDS = 30;
+
+    /**
+     * Logs failures of the background compaction.
+     */
+    private static final System.Logger LOG = System.getLogger(InventoryStore.class.getName());
+
+    /**
+     * The Inventory kept by this store.
+     */
+    private final Inventory inventory;
+
+    /**
+     * The data directory.
+     */
+    private final Path directory;
+
+    /**
+     * The thread that compacts the store in the background.
+     */
+    private final ScheduledExecutorService compactor;
+
+    /**
+     * The journal receiving the changes made to the Inventory.
+     */
+    private volatile Journal journal;
+
+    /**
+     * The number of the segment written by the current journal.
+     */
+    private volatile int segment;
+
+    /**
+     * The number of changes replayed at startup that are not yet in a snapshot.
+     */
+    private volatile long replayed;
+
+    /**
+     * Initializes a store for an Inventory whose journal is already attached.
+     *
+     * @param inventory the Inventory kept by this store.
+     * @param directory the data directory.
+     * @param journal the journal attached to the Inventory.
+     * @param segment the number of the segment written by the journal.
+     * @param replayed the number of changes replayed at startup.
+     */
+    private InventoryStore(Inventory inventory, Path directory, Journal journal, int segment, long replayed) {
+        this.inventory = inventory;
+        this.directory = directory;
+        this.journal = journal;
+        this.segment = segment;
+        this.replayed = replayed;
+        compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        journal.onFailure(ex -> compactor.execute(this::compactIfNeeded));
+        compactor.scheduleWithFixedDelay(this::compactIfNeeded, replayed >= COMPACT_THRESHOLD ? 0 : COMPACT_CHECK_SECONDS,
+                COMPACT_CHECK_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns the directory holding the inventory data: the value of the inventory.dataDir
+     * system property if it is set, or a .inventorymgtapp directory in the user's home.
+     *
+     * @return the data directory.
+     */
+    public static Path defaultDirectory() {
+        String directory = System.getProperty(DATA_DIR_PROPERTY);
+        if (directory != null && !directory.isBlank()) {
+            return Paths.get(directory);
+        }
+        return Paths.get(System.getProperty("user.home"), ".inventorymgtapp");
+    }
+
+    /**
+     * Creates an empty headless Inventory for the data in the given directory. It keeps its
+     * parts in a MappedPartStore when the inventory.partStore system property asks for one.
+     *
+     * @param directory the data directory.
+     * @return a new Inventory.
+     * @throws IOException if the part store cannot be opened.
+     */
+    public static Inventory newInventory(Path directory) throws IOException {
+        return newInventory(directory, true);
+    }
+
+    /**
+     * Creates an empty Inventory for the data in the given directory. A headless Inventory
+     * keeps its parts in a MappedPartStore when the inventory.partStore system property
+     * asks for one; an Inventory shown by the user interface never does.
+     *
+     * @param directory the data directory.
+     * @param headless true if the views of the Inventory will not be used.
+     * @return a new Inventory.
+     * @throws IOException if the part store cannot be opened, or is asked for by an
+     *                     Inventory that is not headless.
+     */
+    public static Inventory newInventory(Path directory, boolean headless) throws IOException {
+        if ("mapped".equals(System.getProperty(PART_STORE_PROPERTY))) {
+            if (!headless) {
+                throw new IOException("The mapped part store can only be used without the user interface");
+            }
+            return new Inventory(MappedPartStore.open(directory.resolve(PART_STORE_DIRECTORY)));
+        }
+        return new Inventory();
+    }
+
+    /**
+     * Loads the data in the given directory into the given Inventory and starts recording
+     * the Inventory's changes there.
+     *
+     * @param inventory the Inventory to load and record; it should be empty.
+     * @param directory the data directory, created if needed.
+     * @return the open store.
+     * @throws IOException if the data cannot be read or the journal cannot be opened, or
+     *                     if the parts are in a MappedPartStore that the Inventory does
+     *                     not use.
+     */
+    public static InventoryStore open(Inventory inventory, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        if (inventory.getPartStore() == null && Files.isDirectory(directory.resolve(PART_STORE_DIRECTORY))) {
+            // Neither the snapshots nor the journal hold those parts, so they would be lost.
+            throw new IOException("The parts in " + directory + " are kept in a mapped part store");
+        }
+        List<Integer> segments = list(directory, SEGMENT_SUFFIX);
+        Path legacy = directory.resolve(LEGACY_JOURNAL_FILE);
+        if (segments.isEmpty() && Files.exists(legacy)) {
+            Files.move(legacy, segmentFile(directory, 0));
+            segments = list(directory, SEGMENT_SUFFIX);
+        }
+
+        int first = 0;
+        List<Integer> snapshots = list(directory, SNAPSHOT_SUFFIX);
+        IOException unreadable = null;
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Path file = snapshotFile(directory, snapshots.get(i));
+            try {
+                first = Snapshot.load(file, inventory);
+                unreadable = null;
+                break;
+            } catch (IOException ex) {
+                LOG.log(System.Logger.Level.WARNING, "Cannot load snapshot " + file + "; trying an older one", ex);
+                if (unreadable == null) {
+                    unreadable = ex;
+                }
+            }
+        }
+        if (unreadable != null && (segments.isEmpty() || segments.get(0) != 0)) {
+            // Without a snapshot, the segments must go back to the first to rebuild the data.
+            throw unreadable;
+        }
+        int current = first;
+        long replayed = 0;
+        for (int number : segments) {
+            if (number >= first) {
+                replayed += Journal.replay(segmentFile(directory, number),
+                        record -> InventoryCodec.apply(record, inventory));
+                current = number;
+            }
+        }
+
+        // The sequences have observed every loaded id; they now continue above the saved ceilings.
+        inventory.getPartIds().attach(directory.resolve(PART_IDS_FILE));
+        inventory.getProductIds().attach(directory.resolve(PRODUCT_IDS_FILE));
+        Journal journal = new Journal(segmentFile(directory, current));
+        inventory.setJournal(journal);
+        InventoryStore store = new InventoryStore(inventory, directory, journal, current, replayed);
+        MappedPartStore partStore = inventory.getPartStore();
+        if (partStore != null && partStore.isCreated() && (!snapshots.isEmpty() || replayed > 0)) {
+            // The parts just moved into the new store must not be loaded again next time.
+            store.compact();
+        }
+        return store;
+    }
+
+    /**
+     * Waits until every change made so far is durable on disk.
+     *
+     * @throws IOException if a change could not be written.
+     */
+    public void flush() throws IOException {
+        journal.flush();
+        saveIds();
+        if (inventory.getPartStore() != null) {
+            inventory.getPartStore().force();
+        }
+    }
+
+    /**
+     * Writes a snapshot of the Inventory, reads it back, and deletes the snapshots and
+     * journal segments older than the previous snapshot. The Inventory is locked only while
+     * its contents are copied; the changes made after that are recorded in a new journal
+     * segment.
+     *
+     * @throws IOException if the snapshot cannot be written or read back.
+     */
+    public synchronized void compact() throws IOException {
+        int next = segment + 1;
+        Journal nextJournal = new Journal(segmentFile(directory, next));
+        nextJournal.onFailure(ex -> compactor.execute(this::compactIfNeeded));
+        Snapshot snapshot = inventory.snapshot(next, nextJournal);
+        Journal previous = journal;
+        journal = nextJournal;
+        segment = next;
+        replayed = 0;
+        try {
+            previous.close();
+        } catch (IOException ex) {
+            // The snapshot holds every change the failed journal lost.
+            LOG.log(System.Logger.Level.WARNING, "Journal " + previous.getFile() + " failed before compaction", ex);
+        }
+        if (inventory.getPartStore() != null) {
+            // The snapshot has no parts, so the store must be durable before older data goes.
+            inventory.getPartStore().force();
+        }
+
+        Path file = snapshotFile(directory, next);
+        snapshot.write(file);
+        try {
+            Snapshot.verify(file);
+        } catch (IOException ex) {
+            // The older snapshots and segments still hold everything; the next compaction tries again.
+            Files.deleteIfExists(file);
+            throw ex;
+        }
+
+        // The ceilings must cover the ids of deleted objects before their records go.
+        saveIds();
+        // The previous snapshot and the segments since it stay as a fallback for this one.
+        List<Integer> snapshots = list(directory, SNAPSHOT_SUFFIX);
+        int kept = 0;
+        for (int number : snapshots) {
+            if (number < next) {
+                kept = number;
+            }
+        }
+        for (int number : snapshots) {
+            if (number < kept) {
+                Files.deleteIfExists(snapshotFile(directory, number));
+            }
+        }
+        for (int number : list(directory, SEGMENT_SUFFIX)) {
+            if (number < kept) {
+                Files.deleteIfExists(segmentFile(directory, number));
+            }
+        }
+    }
+
+    /**
+     * Stops the background compaction, detaches the journal from the Inventory, writes
+     * the pending changes and closes it, saves the id ceilings, and closes the part store
+     * if there is one.
+     *
+     * @throws IOException if the pending changes cannot be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        compactor.shutdownNow();
+        inventory.setJournal(null);
+        try {
+            journal.close();
+        } finally {
+            try {
+                saveIds();
+            } finally {
+                if (inventory.getPartStore() != null) {
+                    inventory.getPartStore().close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Saves the ceilings of the Inventory's id sequences.
+     *
+     * @throws IOException if a ceiling cannot be saved.
+     */
+    private void saveIds() throws IOException {
+        inventory.getPartIds().save();
+        inventory.getProductIds().save();
+    }
+
+    /**
+     * Compacts the store if enough changes have been journaled since the last snapshot,
+     * or if the journal has failed. Run periodically by the compactor thread.
+     */
+    private void compactIfNeeded() {
+        IOException failure = journal.getFailure();
+        if (failure == null && replayed + journal.getAppendedCount() < COMPACT_THRESHOLD) {
+            return;
+        }
+        if (failure != null) {
+            LOG.log(System.Logger.Level.WARNING, "Journal " + journal.getFile() + " failed; compacting to a new segment",
+                    failure);
+        }
+        try {
+            compact();
+        } catch (IOException ex) {
+            LOG.log(System.Logger.Level.WARNING, "Cannot compact inventory data in " + directory, ex);
+        }
+    }
+
+    /**
+     * Returns the numbers of the files in the given directory with the given suffix.
+     *
+     * @param directory the data directory.
+     * @param suffix the suffix of the segment or snapshot files.
+     * @return the file numbers in ascending order.
+     * @throws IOException if the directory cannot be read.
+     */
+    private static List<Integer> list(Path directory, String suffix) throws IOException {
+        List<Integer> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + suffix)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    numbers.add(Integer.parseInt(name.substring(FILE_PREFIX.length(), name.length() - suffix.length())));
+                } catch (NumberFormatException ex) {
+                    // Not one of our files.
+                }
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+
+    /**
+     * Returns the journal segment file with the given number.
+     *
+     * @param directory the data directory.
+     * @param number the segment number.
+     * @return the segment file.
+     */
+    private static Path segmentFile(Path directory, int number) {
+        return directory.resolve(String.format("%s%010d%s", FILE_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Returns the snapshot file with the given number, which is the number of the first
+     * journal segment it does not cover.
+     *
+     * @param directory the data directory.
+     * @param number the snapshot number.
+     * @return the snapshot file.
+     */
+    private static Path snapshotFile(Path directory, int number) {
+        return directory.resolve(String.format("%s%010d%s", FILE_PREFIX, number, SNAPSHOT_SUFFIX));
+    }
+}
@@ -0,0 +1,150 @@
+package com.gyp1.inventorymgtapp;
+
+/**
+ * The InventoryValuation class keeps the valuations of an Inventory up to date: the
+ * PartValuation of its parts, by kind, machine and company, and the CostRollup of its
+ * Products. The Inventory tells it of every part added, changed or removed, and asks it
+ * to cost again the Products whose parts or part prices changed, so that a valuation or
+ * the cost of a Product is read in constant time. A change of the price of a Part only
+ * costs again the Products that the WhereUsedIndex finds using it.
+ *
+ * The cost of a Product is the sum of the current prices of its associated parts. A Part
+ * is priced by its id in the part attribute columns, as a Product may still list a Part
+ * object that an update has since replaced; a Part no longer in the Inventory keeps the
+ * price it was listed with.
+ *
+ * The valuation is not thread-safe; the Inventory only changes it under its write lock
+ * and reads it under its read lock.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class InventoryValuation {
+    /**
+     * The attribute columns of the parts, giving the current price of each part id.
+     */
+    private final AttributeTable partAttributes;
+
+    /**
+     * The running valuation of the parts.
+     */
+    private final PartValuation parts = new PartValuation();
+
+    /**
+     * The cost of every Product.
+     */
+    private final CostRollup productCosts = new CostRollup();
+
+    /**
+     * Default constructor.
+     *
+     * @param partAttributes the attribute columns of the parts of the Inventory.
+     */
+    InventoryValuation(AttributeTable partAttributes) {
+        this.partAttributes = partAttributes;
+    }
+
+    /**
+     * Returns the running valuation of the parts.
+     *
+     * @return the valuation of the parts.
+     */
+    PartValuation parts() {
+        return parts;
+    }
+
+    /**
+     * Records a Part added or replaced.
+     *
+     * @param part the Part.
+     */
+    void putPart(Part part) {
+        parts.put(part);
+    }
+
+    /**
+     * Records a part added or replaced, from its attributes.
+     *
+     * @param id the id of the part.
+     * @param price the price of the part.
+     * @param stock the stock of the part.
+     * @param machineId the machine making the part, for an InHouse part.
+     * @param companyName the company selling the part, or null for an InHouse part.
+     */
+    void putPart(int id, double price, int stock, int machineId, String companyName) {
+        parts.put(id, price, stock, machineId, companyName);
+    }
+
+    /**
+     * Records a change of the stock of a part.
+     *
+     * @param partId the id of the part.
+     * @param stock the new stock.
+     */
+    void setPartStock(int partId, int stock) {
+        parts.setStock(partId, stock);
+    }
+
+    /**
+     * Records the removal of a part.
+     *
+     * @param partId the id of the part.
+     */
+    void removePart(int partId) {
+        parts.remove(partId);
+    }
+
+    /**
+     * Counts the valuation of the given parts again and compares it with the running one.
+     *
+     * @param allParts every part of the Inventory.
+     * @return true if every aggregate of the running valuation is exactly right.
+     */
+    boolean verifyParts(Iterable<Part> allParts) {
+        return PartValuation.of(allParts).sameAs(parts);
+    }
+
+    /**
+     * Returns the cost of a Product.
+     *
+     * @param productId the id of the Product.
+     * @return the cost of its parts, or NaN if the Product has not been costed.
+     */
+    double productCost(int productId) {
+        return productCosts.get(productId);
+    }
+
+    /**
+     * Works out the cost of a Product again from the current prices of its parts.
+     *
+     * @param product the Product.
+     * @return true if its cost changed.
+     */
+    boolean costProduct(Product product) {
+        return productCosts.set(product.getId(), rolledUpCost(product));
+    }
+
+    /**
+     * Forgets the cost of a Product removed from the Inventory.
+     *
+     * @param productId the id of the Product.
+     */
+    void removeProduct(int productId) {
+        productCosts.remove(productId);
+    }
+
+    /**
+     * Works out the cost of a Product from the current prices of its associated parts.
+     *
+     * @param product the Product.
+     * @return the sum of the prices of its associated parts.
+     */
+    private double rolledUpCost(Product product) {
+        double cost = 0;
+        for (Part part : product.getAllAssociatedParts()) {
+            int row = partAttributes.rowOf(part.getId());
+            cost += row >= 0 ? partAttributes.price(row) : part.getPrice();
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,378 @@
+package com.gyp1.inventorymgtapp;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * The Journal class is an append-only file of records, used to make changes to the
+ * Inventory durable. Each record is stored with its length and a CRC32 checksum, so a
+ * record torn by a crash is detected and dropped when the file is read back.
+ *
+ * Records are written by a single background thread using group commit: every record
+ * queued while the previous batch was being flushed is written in one write and made
+ * durable with one fsync. A burst of edits therefore costs one disk flush, and callers
+ * that need to know when their record is on disk can wait on the returned future.
+ *
+ * A journal stops at its first failed write: the batch may have left a torn record, and
+ * the records written after it would be lost on replay, which stops at the first bad
+ * record. The failed batch and every later append fail at once with the error, which
+ * getFailure returns, and the journal must be replaced.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class Journal implements Closeable {
+    /**
+     * The number of bytes written before each record: its length and its checksum.
+     */
+    private static final int HEADER_SIZE = 8;
+
+    /**
+     * The largest record accepted; anything longer is treated as corruption.
+     */
+    private static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Logs failures of the writer thread.
+     */
+    private static final System.Logger LOG = System.getLogger(Journal.class.getName());
+
+    /**
+     * A record waiting to be written, with the future completed once it is durable.
+     */
+    private static final class Pending {
+        /**
+         * The record to write, or null for the marker that stops the writer thread.
+         */
+        final byte[] record;
+
+        /**
+         * Completed when the record is durable.
+         */
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        /**
+         * Default constructor.
+         *
+         * @param record the record to write.
+         */
+        Pending(byte[] record) {
+            this.record = record;
+        }
+    }
+
+    /**
+     * Something that receives the records read back from a journal file.
+     */
+    @FunctionalInterface
+    public interface RecordHandler {
+        /**
+         * Handles one record.
+         *
+         * @param record the record read from the file.
+         * @throws IOException if the record cannot be handled.
+         */
+        void handle(byte[] record) throws IOException;
+    }
+
+    /**
+     * The file this journal appends to.
+     */
+    private final Path file;
+
+    /**
+     * The channel used to write the file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The records waiting for the writer thread.
+     */
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+    /**
+     * The thread that writes and flushes the queued records.
+     */
+    private final Thread writer;
+
+    /**
+     * Guards closed, so that no record is queued after the marker that stops the writer.
+     */
+    private final Object queueLock = new Object();
+
+    /**
+     * Set once close() is called; later appends are refused.
+     */
+    private boolean closed;
+
+    /**
+     * The error of the first failed write, or null while every write succeeded.
+     */
+    private volatile IOException failure;
+
+    /**
+     * Completed with the error of the first failed write.
+     */
+    private final CompletableFuture<IOException> failed = new CompletableFuture<>();
+
+    /**
+     * The number of records appended to this journal since it was opened.
+     */
+    private final AtomicLong appended = new AtomicLong();
+
+    /**
+     * Opens the given journal file for appending, creating it if needed.
+     *
+     * @param file the journal file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public Journal(Path file) throws IOException {
+        this.file = file;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        writer = new Thread(this::writeLoop, "journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues a record for writing. The record is written in the order of the calls.
+     *
+     * @param record the record to append.
+     * @return a future completed when the record is durable on disk.
+     */
+    public CompletableFuture<Void> append(byte[] record) {
+        Pending pending = new Pending(record);
+        IOException refused = enqueue(pending);
+        if (refused != null) {
+            return CompletableFuture.failedFuture(refused);
+        }
+        appended.incrementAndGet();
+        return pending.done;
+    }
+
+    /**
+     * Waits until every record appended so far is durable on disk.
+     *
+     * @throws IOException if a record could not be written.
+     */
+    public void flush() throws IOException {
+        Pending marker = new Pending(new byte[0]);
+        IOException refused = enqueue(marker);
+        if (refused != null) {
+            throw refused;
+        }
+        try {
+            marker.done.join();
+        } catch (RuntimeException ex) {
+            throw new IOException("Journal flush failed: " + file, ex.getCause());
+        }
+    }
+
+    /**
+     * Returns the number of records appended to this journal since it was opened.
+     *
+     * @return the number of records appended.
+     */
+    public long getAppendedCount() {
+        return appended.get();
+    }
+
+    /**
+     * Returns the error that stopped this journal.
+     *
+     * @return the error of the first failed write, or null if no write failed.
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Runs an action on the writer thread once a write fails, or at once if one already has.
+     *
+     * @param action the action, given the error of the failed write.
+     */
+    public void onFailure(Consumer<IOException> action) {
+        failed.thenAccept(action);
+    }
+
+    /**
+     * Returns the file this journal appends to.
+     *
+     * @return the journal file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Writes the pending records, stops the writer thread and closes the file.
+     *
+     * @throws IOException if a record could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (queueLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // The writer writes every record queued before this marker, then stops.
+            queue.add(new Pending(null));
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw new IOException("Journal failed: " + file, failure);
+        }
+    }
+
+    /**
+     * Queues a record or a marker for the writer thread, unless this journal is closed
+     * or has failed.
+     *
+     * @param pending the record or marker.
+     * @return the reason it was refused, or null if it was queued.
+     */
+    private IOException enqueue(Pending pending) {
+        synchronized (queueLock) {
+            if (closed) {
+                return new IOException("Journal is closed: " + file);
+            }
+            if (failure != null) {
+                return new IOException("Journal failed: " + file, failure);
+            }
+            queue.add(pending);
+            return null;
+        }
+    }
+
+    /**
+     * Reads back the records of a journal file, in the order they were appended. Reading
+     * stops at the first record that is incomplete or fails its checksum, and the file is
+     * truncated there so that later appends follow the last good record.
+     *
+     * @param file the journal file; a missing file holds no records.
+     * @param handler receives each record.
+     * @return the number of records read.
+     * @throws IOException if the file cannot be read or a record cannot be handled.
+     */
+    public static int replay(Path file, RecordHandler handler) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        int count = 0;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            CRC32 crc = new CRC32();
+            long position = 0;
+            long size = in.size();
+            while (position + HEADER_SIZE <= size) {
+                header.clear();
+                in.read(header, position);
+                header.flip();
+                int length = header.getInt();
+                int checksum = header.getInt();
+                if (length < 0 || length > MAX_RECORD_SIZE || position + HEADER_SIZE + length > size) {
+                    break;
+                }
+                ByteBuffer body = ByteBuffer.allocate(length);
+                in.read(body, position + HEADER_SIZE);
+                crc.reset();
+                crc.update(body.array());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                handler.handle(body.array());
+                count++;
+                position += HEADER_SIZE + length;
+            }
+            if (position < size) {
+                LOG.log(System.Logger.Level.WARNING, "Dropping " + (size - position)
+                        + " bytes of incomplete journal records from " + file);
+                in.truncate(position);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The body of the writer thread: waits for records, then writes and flushes every
+     * record queued so far as one batch.
+     */
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>();
+        CRC32 crc = new CRC32();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException ex) {
+                continue;
+            }
+            queue.drainTo(batch);
+
+            int bytes = 0;
+            for (Pending pending : batch) {
+                if (pending.record == null) {
+                    running = false;
+                } else if (pending.record.length > 0) {
+                    bytes += HEADER_SIZE + pending.record.length;
+                }
+            }
+            if (failure != null) {
+                // Records queued while the failed batch was written are not written after it.
+                for (Pending pending : batch) {
+                    pending.done.completeExceptionally(failure);
+                }
+                batch.clear();
+                continue;
+            }
+            try {
+                if (bytes > 0) {
+                    ByteBuffer buffer = ByteBuffer.allocate(bytes);
+                    for (Pending pending : batch) {
+                        if (pending.record != null && pending.record.length > 0) {
+                            crc.reset();
+                            crc.update(pending.record);
+                            buffer.putInt(pending.record.length).putInt((int) crc.getValue()).put(pending.record);
+                        }
+                    }
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    channel.force(false);
+                }
+                for (Pending pending : batch) {
+                    pending.done.complete(null);
+                }
+            } catch (IOException ex) {
+                LOG.log(System.Logger.Level.ERROR, "Cannot write journal " + file + "; it accepts no more records", ex);
+                failure = ex;
+                failed.complete(ex);
+                for (Pending pending : batch) {
+                    pending.done.completeExceptionally(ex);
+                }
+            }
+            batch.clear();
+        }
+    }
+}
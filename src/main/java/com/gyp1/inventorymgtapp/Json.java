@@ -0,0 +1,325 @@
+package com.gyp1.inventorymgtapp;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Json class reads and writes the small JSON documents exchanged by the InventoryServer.
+ * A document is read into maps, lists, strings, numbers, booleans and nulls: an object
+ * becomes a Map keyed by member name, an array a List, a number without a fraction or an
+ * exponent a Long and any other number a Double.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class Json {
+    /**
+     * The text being read.
+     */
+    private final String text;
+
+    /**
+     * The position of the next character to read.
+     */
+    private int position;
+
+    /**
+     * Initializes a reader of the given text.
+     *
+     * @param text the JSON text.
+     */
+    private Json(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Reads a JSON document.
+     *
+     * @param text the JSON text.
+     * @return the value of the document.
+     * @throws IllegalArgumentException if the text is not a single valid JSON value.
+     */
+    public static Object parse(String text) {
+        Json reader = new Json(text);
+        Object value = reader.readValue();
+        reader.skipWhitespace();
+        if (reader.position != text.length()) {
+            throw reader.error("Unexpected text after the JSON value");
+        }
+        return value;
+    }
+
+    /**
+     * Appends a string to the given builder as a quoted JSON string.
+     *
+     * @param out the builder to append to.
+     * @param value the string to write, or null to write null.
+     * @return the builder.
+     */
+    public static StringBuilder appendString(StringBuilder out, String value) {
+        if (value == null) {
+            return out.append("null");
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.append('"');
+    }
+
+    /**
+     * Reads the value starting at the current position.
+     *
+     * @return the value read.
+     */
+    private Object readValue() {
+        skipWhitespace();
+        if (position >= text.length()) {
+            throw error("Unexpected end of the JSON text");
+        }
+        char c = text.charAt(position);
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                return readLiteral("true", Boolean.TRUE);
+            case 'f':
+                return readLiteral("false", Boolean.FALSE);
+            case 'n':
+                return readLiteral("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw error("Unexpected character '" + c + "'");
+        }
+    }
+
+    /**
+     * Reads an object starting at the current position.
+     *
+     * @return the members of the object, in the order they appear.
+     */
+    private Map<String, Object> readObject() {
+        Map<String, Object> members = new LinkedHashMap<>();
+        position++;
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return members;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("Expected a member name");
+            }
+            String name = readString();
+            skipWhitespace();
+            expect(':');
+            members.put(name, readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect('}');
+                return members;
+            }
+        }
+    }
+
+    /**
+     * Reads an array starting at the current position.
+     *
+     * @return the elements of the array.
+     */
+    private List<Object> readArray() {
+        List<Object> elements = new ArrayList<>();
+        position++;
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return elements;
+        }
+        while (true) {
+            elements.add(readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect(']');
+                return elements;
+            }
+        }
+    }
+
+    /**
+     * Reads a string starting at the current position, which holds its opening quote.
+     *
+     * @return the string read.
+     */
+    private String readString() {
+        StringBuilder value = new StringBuilder();
+        position++;
+        while (true) {
+            if (position >= text.length()) {
+                throw error("Unterminated string");
+            }
+            char c = text.charAt(position++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (position >= text.length()) {
+                throw error("Unterminated string");
+            }
+            char escaped = text.charAt(position++);
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    value.append(escaped);
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > text.length()) {
+                        throw error("Invalid unicode escape");
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    } catch (NumberFormatException ex) {
+                        throw error("Invalid unicode escape");
+                    }
+                    position += 4;
+                    break;
+                default:
+                    throw error("Invalid escape '\\" + escaped + "'");
+            }
+        }
+    }
+
+    /**
+     * Reads a number starting at the current position.
+     *
+     * @return a Long for an integer, or a Double otherwise.
+     */
+    private Number readNumber() {
+        int start = position;
+        boolean integer = true;
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if (c == '.' || c == 'e' || c == 'E') {
+                integer = false;
+            } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+                break;
+            }
+            position++;
+        }
+        String number = text.substring(start, position);
+        try {
+            return integer ? (Number) Long.parseLong(number) : (Number) Double.parseDouble(number);
+        } catch (NumberFormatException ex) {
+            throw error("Invalid number " + number);
+        }
+    }
+
+    /**
+     * Reads the given literal starting at the current position.
+     *
+     * @param literal the literal expected.
+     * @param value the value of the literal.
+     * @return the value of the literal.
+     */
+    private Object readLiteral(String literal, Object value) {
+        if (!text.startsWith(literal, position)) {
+            throw error("Unexpected text");
+        }
+        position += literal.length();
+        return value;
+    }
+
+    /**
+     * Moves past the given character, which must be the next one.
+     *
+     * @param c the character expected.
+     */
+    private void expect(char c) {
+        if (peek() != c) {
+            throw error("Expected '" + c + "'");
+        }
+        position++;
+    }
+
+    /**
+     * Returns the next character without moving past it.
+     *
+     * @return the next character, or 0 at the end of the text.
+     */
+    private char peek() {
+        return position < text.length() ? text.charAt(position) : 0;
+    }
+
+    /**
+     * Moves past the whitespace at the current position.
+     */
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    /**
+     * Creates the exception reporting a syntax error at the current position.
+     *
+     * @param message the description of the error.
+     * @return the exception to throw.
+     */
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + position);
+    }
+}
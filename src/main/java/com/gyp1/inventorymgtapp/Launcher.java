@@ -0,0 +1,55 @@
+package com.gyp1.inventorymgtapp;
+
+import javafx.application.Application;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The Launcher class is the main class of the application. It starts the JavaFX user
+ * interface, behind the SplashPreloader, or, with the --headless argument, an
+ * InventoryServer without it. The --cds-training argument runs the CdsTraining instead.
+ *
+ * The Java launcher starts the JavaFX toolkit before calling the main method of a class
+ * that extends Application, so that choice cannot be made in InventoryMgtApp itself. This
+ * class does not extend Application, and in headless mode the toolkit is never started.
+ *
+ * In both modes, the continuous flight recording is started first when the
+ * inventory.recording system property asks for it.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class Launcher {
+    /**
+     * The system property naming the preloader of a JavaFX application.
+     */
+    private static final String PRELOADER_PROPERTY = "javafx.preloader";
+
+    /**
+     * Starts the user interface, or the headless server when --headless is given. The
+     * server also accepts a --port=N argument.
+     *
+     * @param args stores commandline arguments.
+     * @throws IOException if the headless server cannot load the inventory or bind its port,
+     *                     or the training cannot run.
+     */
+    public static void main(String[] args) throws IOException {
+        StartupTimer.jvmStarted();
+        List<String> arguments = Arrays.asList(args);
+        if (arguments.contains("--cds-training")) {
+            CdsTraining.run();
+            return;
+        }
+        FlightRecording.startIfRequested();
+        if (arguments.contains("--headless")) {
+            InventoryServer.main(args);
+            return;
+        }
+        if (System.getProperty(PRELOADER_PROPERTY) == null) {
+            System.setProperty(PRELOADER_PROPERTY, SplashPreloader.class.getName());
+        }
+        Application.launch(InventoryMgtApp.class, args);
+    }
+}
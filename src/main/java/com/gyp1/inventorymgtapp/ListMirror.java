@@ -0,0 +1,435 @@
+package com.gyp1.inventorymgtapp;
+
+import javafx.collections.ModifiableObservableListBase;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The ListMirror class keeps an ObservableList in step with a list owned by another object
+ * and changed under that object's lock. Each change to the source list is recorded here
+ * while the lock is held, and the recorded changes are replayed on the observable list by
+ * the view thread, in the order they were made. On the JavaFX application thread this
+ * lets the TableViews observe a list that background threads change without touching it.
+ *
+ * When the view thread makes a change itself, its changes, and any still waiting, are
+ * replayed as soon as publish() is called, so it sees its own changes at once. Changes
+ * made by other threads are handed to the view executor, which replays all those waiting
+ * in one task. The changes of one replay reach the listeners of the observable list as a
+ * single change made of their steps, so a long run of them is not reported one by one,
+ * and a TableView keeps its selection across them. An element that changed in place is
+ * found through an index of the positions of the elements, kept while only elements are
+ * appended or replaced, so a run of such changes is replayed in linear time.
+ *
+ * @param <T> the type of the list elements.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class ListMirror<T> {
+    /**
+     * An observable list that can report several changes as one.
+     *
+     * @param <T> the type of the list elements.
+     */
+    private static final class MirrorList<T> extends ModifiableObservableListBase<T> {
+        /**
+         * The elements of the list.
+         */
+        private final List<T> elements;
+
+        /**
+         * Default constructor.
+         *
+         * @param elements the first elements of the list.
+         */
+        MirrorList(List<T> elements) {
+            this.elements = new ArrayList<>(elements);
+        }
+
+        /**
+         * Makes the given changes, reporting them to the listeners as one change.
+         *
+         * @param changes makes the changes.
+         */
+        void inOneChange(Runnable changes) {
+            beginChange();
+            try {
+                changes.run();
+            } finally {
+                endChange();
+            }
+        }
+
+        /**
+         * Replaces the whole content of the list, reported as one removal and one addition.
+         *
+         * @param items the new content.
+         * @return true.
+         */
+        @Override
+        public boolean setAll(Collection<? extends T> items) {
+            beginChange();
+            try {
+                if (!elements.isEmpty()) {
+                    nextRemove(0, new ArrayList<>(elements));
+                    elements.clear();
+                }
+                elements.addAll(items);
+                if (!elements.isEmpty()) {
+                    nextAdd(0, elements.size());
+                }
+            } finally {
+                endChange();
+            }
+            return true;
+        }
+
+        /**
+         * Inserts elements at the given position in one step, reported as one addition.
+         *
+         * @param index the position of the first new element.
+         * @param items the new elements.
+         * @return true if the list changed.
+         */
+        @Override
+        public boolean addAll(int index, Collection<? extends T> items) {
+            if (index < 0 || index > elements.size()) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            if (items.isEmpty()) {
+                return false;
+            }
+            beginChange();
+            try {
+                elements.addAll(index, items);
+                nextAdd(index, index + items.size());
+            } finally {
+                endChange();
+            }
+            return true;
+        }
+
+        @Override
+        public T get(int index) {
+            return elements.get(index);
+        }
+
+        @Override
+        public int size() {
+            return elements.size();
+        }
+
+        @Override
+        protected void doAdd(int index, T element) {
+            elements.add(index, element);
+        }
+
+        @Override
+        protected T doSet(int index, T element) {
+            return elements.set(index, element);
+        }
+
+        @Override
+        protected T doRemove(int index) {
+            return elements.remove(index);
+        }
+    }
+
+    /**
+     * A recorded change of the source list.
+     *
+     * @param <T> the type of the list elements.
+     */
+    private static final class Change<T> {
+        /**
+         * The position of the first element added, replaced or removed, or -1 when the
+         * whole list is replaced or when an element changed in place.
+         */
+        private final int index;
+
+        /**
+         * The elements added or set at the position, or the new content of the list.
+         */
+        private final List<T> items;
+
+        /**
+         * True if the items replace the elements at the position instead of being inserted.
+         */
+        private final boolean replace;
+
+        /**
+         * Default constructor.
+         *
+         * @param index the position of the change, or -1 for a new content or a change in place.
+         * @param items the elements added or set, or the new content; null for a removal.
+         * @param replace true if the items replace the elements at the position.
+         */
+        Change(int index, List<T> items, boolean replace) {
+            this.index = index;
+            this.items = items;
+            this.replace = replace;
+        }
+    }
+
+    /**
+     * The list observed by the view; only changed by the view thread.
+     */
+    private final MirrorList<T> list;
+
+    /**
+     * The position of each element of the observable list, or null until it is needed
+     * again after an element was inserted before the end or removed. Guarded by replayLock.
+     */
+    private Map<T, Integer> positions;
+
+    /**
+     * Runs the replay of changes made by threads other than the view thread.
+     */
+    private final Executor executor;
+
+    /**
+     * Returns true when called on the view thread.
+     */
+    private final BooleanSupplier onViewThread;
+
+    /**
+     * The changes not yet replayed, in the order they were made. Guarded by this object.
+     */
+    private List<Change<T>> waiting = new ArrayList<>();
+
+    /**
+     * True while a replay task has been handed to the executor and has not started yet.
+     * Guarded by this object.
+     */
+    private boolean scheduled;
+
+    /**
+     * Serializes the replays, which may run on more than one thread when every thread
+     * counts as the view thread.
+     */
+    private final Object replayLock = new Object();
+
+    /**
+     * Default constructor. Initializes a mirror whose observable list starts with the
+     * given elements. It must be called while the lock of the source list is held.
+     *
+     * @param source the elements of the source list.
+     * @param executor runs the replay of changes made by other threads than the view thread.
+     * @param onViewThread returns true when called on the view thread.
+     */
+    public ListMirror(List<T> source, Executor executor, BooleanSupplier onViewThread) {
+        this.list = new MirrorList<>(source);
+        this.executor = executor;
+        this.onViewThread = onViewThread;
+    }
+
+    /**
+     * Returns the mirrored list. It must only be read and observed on the view thread,
+     * and it must not be changed directly.
+     *
+     * @return the observable list.
+     */
+    public ObservableList<T> getList() {
+        return list;
+    }
+
+    /**
+     * Records that an element was inserted into the source list.
+     *
+     * @param index the position of the new element.
+     * @param item the new element.
+     */
+    public void added(int index, T item) {
+        record(new Change<>(index, List.of(item), false));
+    }
+
+    /**
+     * Records that elements were inserted into the source list.
+     *
+     * @param index the position of the first new element.
+     * @param items the new elements; the list must not change afterwards.
+     */
+    public void added(int index, List<T> items) {
+        if (!items.isEmpty()) {
+            record(new Change<>(index, items, false));
+        }
+    }
+
+    /**
+     * Records that an element of the source list was replaced.
+     *
+     * @param index the position of the element.
+     * @param item the new element.
+     */
+    public void replaced(int index, T item) {
+        record(new Change<>(index, List.of(item), true));
+    }
+
+    /**
+     * Records that an element of the source list changed in place, without being replaced.
+     * Its position is found through the position index when the change is replayed.
+     *
+     * @param item the element that changed.
+     */
+    public void changed(T item) {
+        record(new Change<>(-1, List.of(item), true));
+    }
+
+    /**
+     * Records that an element was removed from the source list.
+     *
+     * @param index the position of the removed element.
+     */
+    public void removed(int index) {
+        record(new Change<>(index, null, false));
+    }
+
+    /**
+     * Records that the whole content of the source list was replaced.
+     *
+     * @param items the new content; the list must not change afterwards.
+     */
+    public void reset(List<T> items) {
+        record(new Change<>(-1, items, false));
+    }
+
+    /**
+     * Replays the recorded changes if called on the view thread, or makes sure that a
+     * replay is on its way otherwise. It should be called after the lock of the source
+     * list is released, so the listeners of the observable list can read the source.
+     */
+    public void publish() {
+        if (onViewThread.getAsBoolean()) {
+            replay();
+            return;
+        }
+        synchronized (this) {
+            if (scheduled || waiting.isEmpty()) {
+                return;
+            }
+            scheduled = true;
+        }
+        executor.execute(this::replay);
+    }
+
+    /**
+     * Adds a change to the waiting changes.
+     *
+     * @param change the change to add.
+     */
+    private synchronized void record(Change<T> change) {
+        waiting.add(change);
+    }
+
+    /**
+     * Replays the waiting changes on the observable list, as a single change.
+     */
+    private void replay() {
+        synchronized (replayLock) {
+            List<Change<T>> changes;
+            synchronized (this) {
+                scheduled = false;
+                if (waiting.isEmpty()) {
+                    return;
+                }
+                changes = waiting;
+                waiting = new ArrayList<>();
+            }
+            list.inOneChange(() -> {
+                int i = 0;
+                while (i < changes.size()) {
+                    int end = i;
+                    while (end < changes.size() && changes.get(end).index < 0 && changes.get(end).replace) {
+                        end++;
+                    }
+                    if (end > i) {
+                        redraw(changes.subList(i, end));
+                        i = end;
+                    } else {
+                        apply(changes.get(i++));
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Replays a run of elements changed in place. Each element is reported as replaced by
+     * itself so that its cells are redrawn; they are reported once each and in the order
+     * of their positions, which the listeners' change builder merges in constant time.
+     *
+     * @param changes the changes in place, in the order they were made.
+     */
+    private void redraw(List<Change<T>> changes) {
+        Map<T, Integer> index = positions();
+        int[] found = new int[changes.size()];
+        int count = 0;
+        for (Change<T> change : changes) {
+            Integer position = index.get(change.items.get(0));
+            if (position != null) {
+                found[count++] = position;
+            }
+        }
+        Arrays.sort(found, 0, count);
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || found[i] != found[i - 1]) {
+                list.set(found[i], list.get(found[i]));
+            }
+        }
+    }
+
+    /**
+     * Makes a recorded change other than a change in place to the observable list,
+     * keeping the position index.
+     *
+     * @param change the change to make.
+     */
+    private void apply(Change<T> change) {
+        if (change.index < 0) {
+            list.setAll(change.items);
+            positions = null;
+        } else if (change.items == null) {
+            list.remove(change.index);
+            positions = null;
+        } else if (change.replace) {
+            T old = list.set(change.index, change.items.get(0));
+            if (positions != null) {
+                positions.remove(old);
+                positions.put(change.items.get(0), change.index);
+            }
+        } else {
+            boolean append = change.index == list.size();
+            list.addAll(change.index, change.items);
+            if (positions != null && append) {
+                for (int i = 0; i < change.items.size(); i++) {
+                    positions.put(change.items.get(i), change.index + i);
+                }
+            } else {
+                positions = null;
+            }
+        }
+    }
+
+    /**
+     * Returns the position index of the observable list, building it if needed.
+     *
+     * @return the position of each element.
+     */
+    private Map<T, Integer> positions() {
+        if (positions == null) {
+            positions = new IdentityHashMap<>(list.size() * 2);
+            for (int i = 0; i < list.size(); i++) {
+                positions.put(list.get(i), i);
+            }
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,239 @@
+package com.gyp1.inventorymgtapp;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.TreeSet;
+
+/**
+ * The LowStockIndex class keeps the set of entries whose stock is at or below their
+ * minimum, ordered by how far below the minimum they are, the largest shortfall first.
+ * It is told of every change of stock or minimum, and updates itself in O(log n), so the
+ * low entries are always known without scanning the catalog.
+ *
+ * While recording, it also remembers the threshold crossings: the entries that fell to
+ * or below their minimum, and those that rose back above it, until they are drained.
+ * The index is not thread-safe; the Inventory only uses it under its own lock.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class LowStockIndex {
+    /**
+     * Receives the threshold crossings drained from the index.
+     */
+    @FunctionalInterface
+    public interface CrossingConsumer {
+        /**
+         * Receives one crossing. The entry fell to or below its minimum if stock is at or
+         * below min, and rose back above it otherwise.
+         *
+         * @param id the id of the entry.
+         * @param stock the inventory level after the crossing.
+         * @param min the minimum inventory level.
+         */
+        void accept(int id, int stock, int min);
+    }
+
+    /**
+     * A low entry: its id and how far its stock is below its minimum.
+     */
+    private static final class Entry {
+        /**
+         * The id of the entry.
+         */
+        final int id;
+
+        /**
+         * The minimum minus the stock; 0 when the stock is at the minimum.
+         */
+        final long shortfall;
+
+        /**
+         * Default constructor.
+         *
+         * @param id the id of the entry.
+         * @param shortfall the minimum minus the stock.
+         */
+        Entry(int id, long shortfall) {
+            this.id = id;
+            this.shortfall = shortfall;
+        }
+    }
+
+    /**
+     * The order of the low entries: the largest shortfall first, then by id.
+     */
+    private static final Comparator<Entry> ORDER = Comparator.<Entry>comparingLong(entry -> -entry.shortfall)
+            .thenComparingInt(entry -> entry.id);
+
+    /**
+     * The low entries, in order.
+     */
+    private final TreeSet<Entry> entries = new TreeSet<>(ORDER);
+
+    /**
+     * The low entries by id.
+     */
+    private final IntMap<Entry> entriesById = new IntMap<>();
+
+    /**
+     * True while the crossings are remembered.
+     */
+    private boolean recording;
+
+    /**
+     * The ids of the crossings not drained yet.
+     */
+    private int[] crossedIds = new int[16];
+
+    /**
+     * The stock of the entry after each crossing not drained yet.
+     */
+    private int[] crossedStocks = new int[16];
+
+    /**
+     * The minimum of the entry at each crossing not drained yet.
+     */
+    private int[] crossedMins = new int[16];
+
+    /**
+     * The number of crossings not drained yet.
+     */
+    private int crossings;
+
+    /**
+     * Records the stock and minimum of an entry, adding it to the low entries, moving it
+     * among them, or removing it from them.
+     *
+     * @param id the id of the entry.
+     * @param stock the inventory level.
+     * @param min the minimum inventory level.
+     */
+    public void update(int id, int stock, int min) {
+        Entry old = entriesById.get(id);
+        boolean low = stock <= min;
+        if (old != null) {
+            long shortfall = (long) min - stock;
+            if (low && old.shortfall == shortfall) {
+                return;
+            }
+            entries.remove(old);
+        }
+        if (low) {
+            Entry entry = new Entry(id, (long) min - stock);
+            entries.add(entry);
+            entriesById.put(id, entry);
+            if (old == null) {
+                crossed(id, stock, min);
+            }
+        } else if (old != null) {
+            entriesById.remove(id);
+            crossed(id, stock, min);
+        }
+    }
+
+    /**
+     * Forgets an entry that is no longer in the catalog. Its removal is not a crossing.
+     *
+     * @param id the id of the entry.
+     */
+    public void remove(int id) {
+        Entry old = entriesById.remove(id);
+        if (old != null) {
+            entries.remove(old);
+        }
+    }
+
+    /**
+     * Returns the number of low entries.
+     *
+     * @return the number of entries at or below their minimum.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns true if the entry with the given id is low.
+     *
+     * @param id the id of the entry.
+     * @return true if the entry is at or below its minimum.
+     */
+    public boolean contains(int id) {
+        return entriesById.containsKey(id);
+    }
+
+    /**
+     * Returns the ids of the low entries, the furthest below their minimum first.
+     *
+     * @param limit the most ids to return.
+     * @return the ids, at most limit of them.
+     */
+    public int[] ids(int limit) {
+        int[] ids = new int[Math.min(Math.max(limit, 0), entries.size())];
+        int count = 0;
+        for (Entry entry : entries) {
+            if (count == ids.length) {
+                break;
+            }
+            ids[count++] = entry.id;
+        }
+        return ids;
+    }
+
+    /**
+     * Starts or stops remembering the crossings. Stopping forgets those not drained.
+     *
+     * @param recording true to remember the crossings.
+     */
+    public void setRecording(boolean recording) {
+        this.recording = recording;
+        if (!recording) {
+            crossings = 0;
+        }
+    }
+
+    /**
+     * Hands the crossings remembered since the last drain to the given consumer, in the
+     * order they happened, and forgets them.
+     *
+     * @param consumer receives the crossings.
+     */
+    public void drainCrossings(CrossingConsumer consumer) {
+        for (int i = 0; i < crossings; i++) {
+            consumer.accept(crossedIds[i], crossedStocks[i], crossedMins[i]);
+        }
+        crossings = 0;
+    }
+
+    /**
+     * Returns true if crossings are waiting to be drained.
+     *
+     * @return true if there are crossings not drained yet.
+     */
+    public boolean hasCrossings() {
+        return crossings > 0;
+    }
+
+    /**
+     * Remembers a crossing while recording.
+     *
+     * @param id the id of the entry.
+     * @param stock the inventory level after the crossing.
+     * @param min the minimum inventory level.
+     */
+    private void crossed(int id, int stock, int min) {
+        if (!recording) {
+            return;
+        }
+        if (crossings == crossedIds.length) {
+            crossedIds = Arrays.copyOf(crossedIds, crossings * 2);
+            crossedStocks = Arrays.copyOf(crossedStocks, crossings * 2);
+            crossedMins = Arrays.copyOf(crossedMins, crossings * 2);
+        }
+        crossedIds[crossings] = id;
+        crossedStocks[crossings] = stock;
+        crossedMins[crossings] = min;
+        crossings++;
+    }
+}
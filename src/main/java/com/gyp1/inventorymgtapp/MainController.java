@@ -1,12 +1,13 @@
 package com.gyp1.inventorymgtapp;
 
 import javafx.application.Platform;
-import javafx.collections.transformation.FilteredList;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
 import javafx.collections.transformation.SortedList;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
 import javafx.scene.Scene;
@@ -14,13 +15,17 @@ import javafx.scene.control.Button;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
-import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.stage.WindowEvent;
+import javafx.util.Duration;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.ResourceBundle;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The MainController controls the main view and provides linkage to the PartController
@@ -95,12 +100,24 @@ public class MainController implements Initializable {
     @FXML
     private TableColumn<Product, Double> tbcolPrdtPrice;
 
+    /**
+     * The Parts Cost column of the tblProducts TableView, hidden until chosen in the table menu.
+     */
+    @FXML
+    private TableColumn<Product, Double> tbcolPrdtCost;
+
     /**
      * The Exit button in the main view screen.
      */
     @FXML
     private Button btnExit;
 
+    /**
+     * The Import button in the main view screen.
+     */
+    @FXML
+    private Button btnImport;
+
     /**
      * The Search, Add, Modify and Delete buttons related to the tblParts Table View
      * of the main-view screen.
@@ -137,6 +154,16 @@ public class MainController implements Initializable {
      */
     private ProductController productController;
 
+    /**
+     * The part-view screen, built once and shown for every part Add or Modify.
+     */
+    private EditorView partView;
+
+    /**
+     * The product-view screen, built once and shown for every product Add or Modify.
+     */
+    private EditorView productView;
+
     /**
      * Stores the only instance of the Inventory object that will store all the Parts
      * and Products information obtained from the screens.
@@ -144,29 +171,163 @@ public class MainController implements Initializable {
     private Inventory inventory;
 
     /**
-     * A reference to the Part objects in the inventory allParts list that have been
-     * filtered by the word in the tbxPrtSearch TextField.
+     * Keeps the inventory on disk between sessions, or null if the data could not be opened.
+     */
+    private InventoryStore store;
+
+    /**
+     * The reason the saved inventory could not be loaded, or null if it was.
+     */
+    private IOException loadError;
+
+    /**
+     * Shows the columns of the tblParts TableView and sorts its items.
+     */
+    private TypedTable<Part> partColumns;
+
+    /**
+     * Shows the columns of the tblProducts TableView and sorts its items.
+     */
+    private TypedTable<Product> productColumns;
+
+    /**
+     * The delay after the last keystroke in a search box before a pending search runs.
+     */
+    private static final Duration SEARCH_DELAY = Duration.millis(120);
+
+    /**
+     * The latency statistics of the part searches, measured on the search thread.
+     */
+    private static final OperationStats SEARCH_PARTS = OperationStats.of("MainController", "searchParts");
+
+    /**
+     * The latency statistics of the product searches, measured on the search thread.
+     */
+    private static final OperationStats SEARCH_PRODUCTS = OperationStats.of("MainController", "searchProducts");
+
+    /**
+     * The latency statistics of handlePrtDeleteBtn, up to its dialogs.
+     */
+    private static final OperationStats DELETE_PART = OperationStats.of("MainController", "handlePrtDeleteBtn");
+
+    /**
+     * The latency statistics of handlePrdtDeleteBtn, up to its dialogs.
+     */
+    private static final OperationStats DELETE_PRODUCT = OperationStats.of("MainController", "handlePrdtDeleteBtn");
+
+    /**
+     * The Part objects in the inventory allParts list that match the word in the
+     * tbxPrtSearch TextField.
+     */
+    private ObservableList<Part> foundParts;
+
+    /**
+     * The Product objects in the inventory allProducts list that match the word in the
+     * tbxPrdtSearch TextField.
+     */
+    private ObservableList<Product> foundProducts;
+
+    /**
+     * The sorted views of all parts and of the found parts. The tblParts TableView shows
+     * the first when the search box is empty and the second otherwise.
+     */
+    private SortedList<Part> sortedParts, sortedFoundParts;
+
+    /**
+     * The sorted views of all products and of the found products. The tblProducts TableView
+     * shows the first when the search box is empty and the second otherwise.
+     */
+    private SortedList<Product> sortedProducts, sortedFoundProducts;
+
+    /**
+     * Answers the queries typed into the tbxPrtSearch TextField.
+     */
+    private IncrementalSearch<Part> partSearch;
+
+    /**
+     * Answers the queries typed into the tbxPrdtSearch TextField.
+     */
+    private IncrementalSearch<Product> productSearch;
+
+    /**
+     * Runs the part searches off the JavaFX application thread and publishes the latest result.
+     */
+    private BackgroundSearch<Part> partSearcher;
+
+    /**
+     * Runs the product searches off the JavaFX application thread and publishes the latest result.
+     */
+    private BackgroundSearch<Product> productSearcher;
+
+    /**
+     * Merges the searches triggered by fast typing in the tbxPrtSearch TextField.
      */
-    private FilteredList<Part> filteredParts;
+    private Debouncer partSearchDebouncer;
 
     /**
-     * A reference to the Product objects in the inventory allProducts list that have been
-     * filtered by the word in the tbxPrdtSearch TextField.
+     * Merges the searches triggered by fast typing in the tbxPrdtSearch TextField.
      */
-    private FilteredList<Product> filteredProducts;
+    private Debouncer productSearchDebouncer;
 
 
     /**
-     * Initializes objects of the Inventory, PartController, ProductController classes, and
-     * creates instances of the ObservableLists storing filtered part and Product objects.
+     * Creates instances of the ObservableLists storing found part and Product objects, and
+     * sets up the columns of the TableViews. The main-view is parsed while the inventory
+     * loads, possibly on another thread than the JavaFX application thread, so nothing here
+     * uses the inventory; bind() links the view to it once it is loaded.
      */
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
-        inventory = new Inventory();
-        // Wrap the parts observable list in a filtered list.
-        filteredParts = new FilteredList<>(inventory.getAllParts(),  b->true);
-        // Wrap the products observable list in a filtered list.
-        filteredProducts = new FilteredList<>(inventory.getAllProducts(),  b->true);
+        foundParts = FXCollections.observableArrayList();
+        foundProducts = FXCollections.observableArrayList();
+        setUpTableViews();
+    }
+
+    /**
+     * Loads the saved inventory. It may run on any thread, at the same time as the
+     * main-view is parsed. When the data cannot be loaded, the session starts with the
+     * inventory loaded so far, or an empty one, and bind() tells the user.
+     */
+    public void loadInventory() {
+        Path dataDirectory = InventoryStore.defaultDirectory();
+        try {
+            inventory = InventoryStore.newInventory(dataDirectory, false);
+            store = InventoryStore.open(inventory, dataDirectory);
+        } catch (IOException ex) {
+            if (inventory == null) {
+                inventory = new Inventory();
+            }
+            loadError = ex;
+        }
+    }
+
+    /**
+     * Initializes objects of the PartController and ProductController classes, and links
+     * the main-view to the inventory loaded by loadInventory(). It must be called on the
+     * JavaFX application thread, after both the main-view and the inventory are loaded.
+     */
+    public void bind() {
+        if (loadError != null) {
+            MessageDialog.showDialog("The saved inventory could not be loaded.",
+                    "Changes made in this session will not be saved. " + loadError.getMessage(),
+                    true);
+        }
+        // Changes made by background threads reach the Table Views on the application thread.
+        inventory.setViewThread(Platform::runLater, Platform::isFxApplicationThread);
+        partSearch = inventory.newPartSearch();
+        productSearch = inventory.newProductSearch();
+        partSearcher = new BackgroundSearch<>("part-search", SearchEvent.recorded("MainController", "parts",
+                SEARCH_PARTS, inventory::getPartCount, partSearch::search), parts -> {
+            foundParts.setAll(parts);
+            showItems(tblParts, sortedFoundParts);
+        });
+        productSearcher = new BackgroundSearch<>("product-search", SearchEvent.recorded("MainController",
+                "products", SEARCH_PRODUCTS, inventory::getProductCount, productSearch::search), products -> {
+            foundProducts.setAll(products);
+            showItems(tblProducts, sortedFoundProducts);
+        });
+        partSearchDebouncer = new Debouncer(SEARCH_DELAY, () -> filterParts(tbxPrtSearch.getText()));
+        productSearchDebouncer = new Debouncer(SEARCH_DELAY, () -> filterProducts(tbxPrdtSearch.getText()));
 
         partController = new PartController();
         productController = new ProductController();
@@ -174,6 +335,10 @@ public class MainController implements Initializable {
         partController.setInventory(inventory);
         productController.setInventory(inventory);
 
+        // Parse the editor screens in the background while the main screen starts.
+        partView = new EditorView("part-view.fxml", partController);
+        productView = new EditorView("product-view.fxml", productController);
+
         bindPartsLisToTableView();
         bindProductsLisToTableView();
     }
@@ -185,7 +350,7 @@ public class MainController implements Initializable {
      */
     @FXML
     protected void handlePrtSearchBtn(ActionEvent event) {
-        filterParts(tbxPrtSearch.getText());
+        partSearchDebouncer.runNow();
     }
 
     /**
@@ -218,9 +383,44 @@ public class MainController implements Initializable {
      */
     @FXML
     protected void handlePrtDeleteBtn(ActionEvent event) throws IOException {
+        Part selectedPart = tblParts.getSelectionModel().getSelectedItem();
+        if (selectedPart == null) {
+            MessageDialog.showDialog("You must select the part to delete", true);
+            return;
+        }
+
+        // A part cannot be deleted while products are made from it. The time the user
+        // spends in the dialogs is left out of the statistics.
+        long start = DELETE_PART.start();
+        if (inventory.isPartUsed(selectedPart.getId())) {
+            StringBuilder products = new StringBuilder();
+            for (Product product : inventory.lookupProductsUsingPart(selectedPart.getId())) {
+                products.append(products.length() == 0 ? "" : ", ").append(product.getName());
+            }
+            DELETE_PART.stop(start);
+            MessageDialog.showDialog("You cannot delete a part used by products.",
+                    "Please remove the part from these products first: " + products,
+                    true);
+            return;
+        }
+        DELETE_PART.stop(start);
+
         if (ConfirmDialog.showDialog("delete")){
-            Part selectedPart = tblParts.getSelectionModel().getSelectedItem();
-            inventory.deletePart(selectedPart);
+            // A product may have started using the part while the dialog was open, and
+            // the part may have been changed or deleted elsewhere.
+            start = DELETE_PART.start();
+            boolean deleted;
+            try {
+                deleted = inventory.deleteUnusedPart(selectedPart);
+                DELETE_PART.stop(start);
+            } catch (IllegalStateException ex) {
+                DELETE_PART.stop(start);
+                MessageDialog.showDialog("You cannot delete a part used by products.", ex.getMessage(), true);
+                return;
+            }
+            if (!deleted) {
+                MessageDialog.showDialog("The part was changed or deleted while the dialog was open", true);
+            }
         }
     }
 
@@ -231,7 +431,7 @@ public class MainController implements Initializable {
      */
     @FXML
     protected void handlePrdtSearchBtn(ActionEvent event) {
-        filterProducts(tbxPrdtSearch.getText());
+        productSearchDebouncer.runNow();
     }
 
     /**
@@ -267,13 +467,30 @@ public class MainController implements Initializable {
     @FXML
     protected void handlePrdtDeleteBtn(ActionEvent event) throws IOException {
         Product selectedProduct = tblProducts.getSelectionModel().getSelectedItem();
+        if (selectedProduct == null) {
+            MessageDialog.showDialog("You must select the product to delete", true);
+            return;
+        }
 
         if (selectedProduct.getAllAssociatedParts().isEmpty()) {
             // Prompt user to confirm or cancel deletion
             if (ConfirmDialog.showDialog("delete")) {
-                // Get from the products ObservableList the Product object that was
-                // selected on the products TableView.
-                inventory.deleteProduct(selectedProduct);
+                // A part may have been associated with the product while the dialog was
+                // open, and the product may have been changed or deleted elsewhere.
+                long start = DELETE_PRODUCT.start();
+                boolean deleted;
+                try {
+                    deleted = inventory.deleteEmptyProduct(selectedProduct);
+                    DELETE_PRODUCT.stop(start);
+                } catch (IllegalStateException ex) {
+                    DELETE_PRODUCT.stop(start);
+                    MessageDialog.showDialog("You cannot delete a product with associated parts.",
+                            ex.getMessage(), true);
+                    return;
+                }
+                if (!deleted) {
+                    MessageDialog.showDialog("The product was changed or deleted while the dialog was open", true);
+                }
             }
         }
         else{
@@ -284,6 +501,47 @@ public class MainController implements Initializable {
     }
 
 
+    /**
+     * Handler of the ActionEvent for the Import button. It asks for a CSV file of parts or
+     * products and imports it on a background thread, then shows the import report. The
+     * imported rows reach the Table Views through the inventory's views.
+     *
+     * @param event an instance of ActionEvent.
+     */
+    @FXML
+    protected void handleImportButton(ActionEvent event) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import parts or products");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = chooser.showOpenDialog(((Node) event.getSource()).getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        btnImport.setDisable(true);
+        CsvImporter importer = new CsvImporter(inventory, ForkJoinPool.commonPool());
+        Thread thread = new Thread(() -> {
+            try {
+                ImportReport report = importer.importFile(file.toPath());
+                Platform.runLater(() -> {
+                    btnImport.setDisable(false);
+                    MessageDialog.showDialog(report.toString(), String.join("\n", report.getRejections()),
+                            report.getRejected() > 0);
+                });
+            } catch (IOException | RuntimeException ex) {
+                // A failed insertion reaches here as a CompletionException; either way the
+                // button must come back.
+                String reason = ex.getMessage() == null ? ex.toString() : ex.getMessage();
+                Platform.runLater(() -> {
+                    btnImport.setDisable(false);
+                    MessageDialog.showDialog("The file could not be imported.", reason, true);
+                });
+            }
+        }, "csv-import");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     /**
      * Handler of the ActionEvent for the Exit button.
      *
@@ -291,10 +549,30 @@ public class MainController implements Initializable {
      */
     @FXML
     protected void handleExitButton(ActionEvent event) {
+        shutdown();
         Platform.exit();
         System.exit(0);
     }
 
+    /**
+     * Stops the background searches and writes the pending inventory changes to disk.
+     * It is called when the application exits and may be called more than once.
+     */
+    public void shutdown() {
+        if (partSearcher != null) {
+            partSearcher.shutdown();
+            productSearcher.shutdown();
+        }
+        if (store != null) {
+            try {
+                store.close();
+            } catch (IOException ex) {
+                MessageDialog.showDialog("The latest changes could not be saved.", ex.getMessage(), true);
+            }
+            store = null;
+        }
+    }
+
     /**
      * Assigns the value of the parameter to this controller's mainView variable.
      *
@@ -326,8 +604,9 @@ public class MainController implements Initializable {
     }
 
     /**
-     * Loads the part-view (screen) into the primary stage of the application
+     * Shows the part-view (screen) in the primary stage of the application
      * when either the Add or Delete buttons in the Part section are clicked.
+     * The screen is built once and prepared again for each action.
      *
      * @param event the event associated with the Add or Delete button.
      * @param action either Add or Delete action.
@@ -338,27 +617,33 @@ public class MainController implements Initializable {
         partController.setAction(action);
 
         if (action == UserAction.MODIFY) {
-            // Retrieve the index in the parts Table View to identify the selected Part.
-            int index = tblParts.getSelectionModel().getSelectedIndex();
-            if (index < 0) {
+            // Retrieve the Part selected in the parts Table View.
+            Part selectedPart = tblParts.getSelectionModel().getSelectedItem();
+            if (selectedPart == null) {
                 MessageDialog.showDialog("You must select the part to modify", true);
                 return;
             }
 
-            //Save the selected index to the PartController's selectedIndex attribute.
-            partController.setSelectedIndex(index);
+            //Save the selected Part to the PartController's selectedPart attribute.
+            partController.setSelectedPart(selectedPart);
         }
 
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("part-view.fxml"));
-        loader.setController(partController);
+        ScreenTransitionEvent transition = new ScreenTransitionEvent();
+        transition.begin();
         Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
         setOnCloseAction(stage);
-        stage.setScene(new Scene(loader.load()));
+        long loadStart = System.nanoTime();
+        Scene scene = partView.getScene();
+        transition.fxmlLoadTime = System.nanoTime() - loadStart;
+        partController.prepare();
+        stage.setScene(scene);
+        transition.finish("part-view.fxml", action, inventory);
     }
 
     /**
-     * Loads the product-view (screen) into the primary stage of the application
+     * Shows the product-view (screen) in the primary stage of the application
      * when either the Add or Delete buttons in the product section are clicked.
+     * The screen is built once and prepared again for each action.
      *
      * @param event the event associated with the Add or Delete button.
      * @param action either Add or Delete action.
@@ -368,121 +653,145 @@ public class MainController implements Initializable {
         productController.setAction(action);
 
         if (action == UserAction.MODIFY) {
-            int index = tblProducts.getSelectionModel().getSelectedIndex();
-            if (index < 0) {
+            Product selectedProduct = tblProducts.getSelectionModel().getSelectedItem();
+            if (selectedProduct == null) {
                 MessageDialog.showDialog("You must select the part to modify", true);
                 return;
             }
-            productController.setSelectedIndex(index);
+            productController.setSelectedProduct(selectedProduct);
         }
 
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("product-view.fxml"));
-        loader.setController(productController);
+        ScreenTransitionEvent transition = new ScreenTransitionEvent();
+        transition.begin();
         Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
         setOnCloseAction(stage);
-        stage.setScene(new Scene(loader.load()));
+        long loadStart = System.nanoTime();
+        Scene scene = productView.getScene();
+        transition.fxmlLoadTime = System.nanoTime() - loadStart;
+        productController.prepare();
+        stage.setScene(scene);
+        transition.finish("product-view.fxml", action, inventory);
     }
 
     /**
-     * Sets a predicate on the filteredParts Observable list. The predicate callback
-     * function returns true for each Part object that has an id or name matching the
-     * value in the given searchKey.
+     * Shows in the tblParts TableView the Part objects that have an id or name matching
+     * the value in the given searchKey, or all parts when the searchKey is empty. The
+     * search runs in the background and its matches replace the content of the foundParts
+     * list in a single change, unless a newer search key arrives first.
      *
      * @param searchKey the search item to lookup in the list.
      */
     private void filterParts(String searchKey) {
-        filteredParts.setPredicate(part -> {
-            if (searchKey == null || searchKey.isEmpty()) {
-                return true;
-            }
-            String filter = searchKey.toLowerCase();
-
-            if (part.getName().toLowerCase().indexOf(filter) != -1) {
-                return true;
-            } else if (String.valueOf(part.getId()).indexOf(filter) != -1) {
-                return true;
-            }
-            else{
-                return false;
-            }
-        });
+        if (searchKey == null || searchKey.isEmpty()) {
+            partSearcher.cancel();
+            partSearch.invalidate();
+            foundParts.clear();
+            showItems(tblParts, sortedParts);
+            return;
+        }
+        partSearcher.submit(searchKey);
     }
 
     /**
-     * Sets a predicate on the filteredProducts Observable list. The predicate callback
-     * function returns true for each Product object that has an id or name matching the
-     * value in the given searchKey.
+     * Shows in the tblProducts TableView the Product objects that have an id or name
+     * matching the value in the given searchKey, or all products when the searchKey is
+     * empty. The search runs in the background and its matches replace the content of
+     * the foundProducts list in a single change, unless a newer search key arrives first.
      *
      * @param searchKey the search item to lookup in the list.
      */
     private void filterProducts(String searchKey){
-        filteredProducts.setPredicate(product -> {
-            if (searchKey == null || searchKey.isEmpty()) {
-                return true;
-            }
+        if (searchKey == null || searchKey.isEmpty()) {
+            productSearcher.cancel();
+            productSearch.invalidate();
+            foundProducts.clear();
+            showItems(tblProducts, sortedProducts);
+            return;
+        }
+        productSearcher.submit(searchKey);
+    }
 
-            String filter = searchKey.toLowerCase();
+    /**
+     * Sets the items of the given TableView unless it already shows them, which would
+     * needlessly reset its selection and scroll position.
+     *
+     * @param table the TableView to update.
+     * @param items the list to show in the TableView.
+     * @param <T> the type of the objects listed in the TableView.
+     */
+    private static <T> void showItems(TableView<T> table, ObservableList<T> items) {
+        if (table.getItems() != items) {
+            table.setItems(items);
+        }
+    }
 
-            if (product.getName().toLowerCase().indexOf(filter) != -1) {
-                return true;
-            } else if (String.valueOf(product.getId()).indexOf(filter) != -1) {
-                return true;
-            }
-            else{
-                return false;
-            }
+    /**
+     * Sets typed cell factories for the columns of the TableViews in the main-view.fxml, and
+     * runs the searches as the search boxes change.
+     */
+    private void setUpTableViews() {
+        //Show the columns of the tblParts TableView in main-view.fxml through the Part getters.
+        partColumns = new TypedTable<>(tblParts);
+        partColumns.intColumn(tbcolPrtID, Part::getId);
+        partColumns.stringColumn(tbcolPrtName, Part::getName);
+        partColumns.intColumn(tbcolPrtInv, Part::getStock);
+        partColumns.doubleColumn(tbcolPrtPrice, Part::getPrice);
+
+        tbxPrtSearch.textProperty().addListener((Observable, oldValue, newValue) -> {
+            partSearchDebouncer.trigger();
+        });
+
+        //Show the columns of the tblProducts TableView in main-view.fxml through the Product getters.
+        productColumns = new TypedTable<>(tblProducts);
+        productColumns.intColumn(tbcolPrdtID, Product::getId);
+        productColumns.stringColumn(tbcolPrdtName, Product::getName);
+        productColumns.intColumn(tbcolPrdtInv, Product::getStock);
+        productColumns.doubleColumn(tbcolPrdtPrice, Product::getPrice);
+        productColumns.doubleColumn(tbcolPrdtCost, product -> inventory.getProductCost(product.getId()));
+
+        tbxPrdtSearch.textProperty().addListener((Observable, oldValue, newValue) -> {
+            productSearchDebouncer.trigger();
         });
     }
 
     /**
-     * Set the CellValueFactory for columns of the tblParts TableView in the part-view.fxml,
-     * and links the Table View to the allParts ObservableList in the inventory object
-     * via the parts FilteredList and SortedList objects.
+     * Links the tblParts Table View to the allParts ObservableList in the inventory object
+     * and to the foundParts list via SortedList objects.
      */
     private void bindPartsLisToTableView() {
-        //Set the CellValueFactory for all columns of the tblParts TableView in main-view.fxml.
-        tbcolPrtID.setCellValueFactory(new PropertyValueFactory<Part, Integer>("id"));
-        tbcolPrtName.setCellValueFactory(new PropertyValueFactory<Part, String>("name"));
-        tbcolPrtInv.setCellValueFactory(new PropertyValueFactory<Part, Integer>("stock"));
-        tbcolPrtPrice.setCellValueFactory(new PropertyValueFactory<Part, Double>("price"));
-
-        // Wrap filtered parts in a SortedList
-        SortedList<Part> sortedParts = new SortedList<>(filteredParts);
-        // Add sorted and/or filtered parts to the parts table.
-        sortedParts.comparatorProperty().bind(tblParts.comparatorProperty());
-        // Add sorted and/or filtered products to the products  table.
+        // Wrap all parts and the found parts in SortedLists that follow the table's sort order.
+        sortedParts = partColumns.sorted(inventory.getAllParts());
+        sortedFoundParts = partColumns.sorted(foundParts);
+        // Show all parts until something is typed in the search box.
         tblParts.setItems(sortedParts);
 
-        tbxPrtSearch.textProperty().addListener((Observable, oldValue, newValue) -> {
-            filterParts(newValue);
+        // The found parts are a copy of the matches, so search again when parts change.
+        inventory.getAllParts().addListener((ListChangeListener<Part>) change -> {
+            partSearch.invalidate();
+            if (!tbxPrtSearch.getText().isEmpty()) {
+                partSearchDebouncer.trigger();
+            }
         });
-
     }
 
     /**
-     * Set the CellValueFactory for columns of the tblProducts TableView in the product-view.fxml,
-     * and links the TableView to the allProducts ObservableList in the inventory object via the
-     * products FilteredList and SortedList objects.
+     * Links the TableView to the allProducts ObservableList in the inventory object and to
+     * the foundProducts list via SortedList objects.
      */
     private void bindProductsLisToTableView() {
-
-        //Set the CellValueFactory for all columns of the tblProducts TableView in main-view.fxml.
-        tbcolPrdtID.setCellValueFactory(new PropertyValueFactory<Product, Integer>("id"));
-        tbcolPrdtName.setCellValueFactory(new PropertyValueFactory<Product, String>("name"));
-        tbcolPrdtInv.setCellValueFactory(new PropertyValueFactory<Product, Integer>("stock"));
-        tbcolPrdtPrice.setCellValueFactory(new PropertyValueFactory<Product, Double>("price"));
-
-        tbxPrdtSearch.textProperty().addListener((Observable, oldValue, newValue) -> {
-            filterProducts(newValue);
+        // The found products are a copy of the matches, so search again when products change.
+        inventory.getAllProducts().addListener((ListChangeListener<Product>) change -> {
+            productSearch.invalidate();
+            if (!tbxPrdtSearch.getText().isEmpty()) {
+                productSearchDebouncer.trigger();
+            }
         });
 
-        //Wrap filtered products in a SortedList
-        SortedList<Product> sortedProducts = new SortedList<>(filteredProducts);
-
-        // Bind the SortedList comparator to the parts tableview comparator to effect sorting on tableview.
-        sortedProducts.comparatorProperty().bind(tblProducts.comparatorProperty());
+        // Wrap all products and the found products in SortedLists that follow the table's sort order.
+        sortedProducts = productColumns.sorted(inventory.getAllProducts());
+        sortedFoundProducts = productColumns.sorted(foundProducts);
 
-        // Add sorted and/or filtered products to the products  table.
+        // Show all products until something is typed in the search box.
         tblProducts.setItems(sortedProducts);
     }
 
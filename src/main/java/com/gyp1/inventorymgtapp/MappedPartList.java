@@ -0,0 +1,250 @@
+package com.gyp1.inventorymgtapp;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The MappedPartList class is an ObservableList view of the parts in a MappedPartStore.
+ * It only keeps the row of each part, in list order, and asks the store for a Part when
+ * one is read, so the Part objects of rows that are never shown are never created.
+ * Changes made through the list are written to the store and reported to the list's
+ * listeners like those of any other ObservableList.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class MappedPartList extends ObservableListBase<Part> {
+    /**
+     * The store holding the parts.
+     */
+    private final MappedPartStore store;
+
+    /**
+     * The store row of each element of this list; only the first size entries are used.
+     */
+    private int[] rows;
+
+    /**
+     * The number of elements in this list.
+     */
+    private int size;
+
+    /**
+     * Default constructor. Initializes a list of the parts already in the given store, in
+     * the order they were added.
+     *
+     * @param store the store holding the parts.
+     */
+    public MappedPartList(MappedPartStore store) {
+        this.store = store;
+        rows = store.liveRows();
+        size = rows.length;
+    }
+
+    /**
+     * Returns the Part at the given position, creating it from the store if needed.
+     *
+     * @param index the position of the Part.
+     * @return the Part at the position.
+     */
+    @Override
+    public Part get(int index) {
+        return store.getRow(rows[checkIndex(index)]);
+    }
+
+    /**
+     * Returns the number of parts in this list.
+     *
+     * @return the number of parts.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the store row of the Part at the given position.
+     *
+     * @param index the position of the Part.
+     * @return the store row of the Part.
+     */
+    public int rowAt(int index) {
+        return rows[checkIndex(index)];
+    }
+
+    /**
+     * Returns the position of the given Part. Only the Part objects handed out by, or
+     * added to, the store are found; an equal copy is not.
+     *
+     * @param o the Part to look for.
+     * @return the position of the Part, or -1 if it is not in this list.
+     */
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof Part)) {
+            return -1;
+        }
+        int row = store.rowOf(((Part) o).getId());
+        if (row < 0 || store.getRow(row) != o) {
+            return -1;
+        }
+        for (int i = 0; i < size; i++) {
+            if (rows[i] == row) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns true if the given Part is in this list.
+     *
+     * @param o the Part to look for.
+     * @return true if the Part is in this list, or false otherwise.
+     */
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Adds a Part to the store and inserts it at the given position.
+     *
+     * @param index the position at which to insert the Part.
+     * @param part the Part to add.
+     */
+    @Override
+    public void add(int index, Part part) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        int row = store.add(part);
+        grow(size + 1);
+        System.arraycopy(rows, index, rows, index + 1, size - index);
+        rows[index] = row;
+        size++;
+        beginChange();
+        nextAdd(index, index + 1);
+        endChange();
+    }
+
+    /**
+     * Adds the given parts to the store and appends them to this list as one change.
+     *
+     * @param parts the parts to add.
+     * @return true if this list changed.
+     */
+    @Override
+    public boolean addAll(Collection<? extends Part> parts) {
+        if (parts.isEmpty()) {
+            return false;
+        }
+        int from = size;
+        grow(size + parts.size());
+        for (Part part : parts) {
+            rows[size++] = store.add(part);
+        }
+        beginChange();
+        nextAdd(from, size);
+        endChange();
+        return true;
+    }
+
+    /**
+     * Replaces the Part at the given position, writing the new Part into the same store row.
+     *
+     * @param index the position of the Part to replace.
+     * @param part the new Part.
+     * @return the Part that was replaced.
+     */
+    @Override
+    public Part set(int index, Part part) {
+        Part old = get(index);
+        store.set(rows[index], part);
+        beginChange();
+        nextSet(index, old);
+        endChange();
+        return old;
+    }
+
+    /**
+     * Deletes the Part at the given position from the store and from this list.
+     *
+     * @param index the position of the Part to delete.
+     * @return the Part that was deleted.
+     */
+    @Override
+    public Part remove(int index) {
+        Part old = get(index);
+        store.delete(rows[index]);
+        System.arraycopy(rows, index + 1, rows, index, size - index - 1);
+        size--;
+        beginChange();
+        nextRemove(index, old);
+        endChange();
+        return old;
+    }
+
+    /**
+     * Deletes the given Part from the store and from this list.
+     *
+     * @param o the Part to delete.
+     * @return true if the Part was in this list, or false otherwise.
+     */
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    /**
+     * Deletes every Part from the store and from this list as one change.
+     */
+    @Override
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        List<Part> removed = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            removed.add(store.getRow(rows[i]));
+            store.delete(rows[i]);
+        }
+        size = 0;
+        beginChange();
+        nextRemove(0, removed);
+        endChange();
+    }
+
+    /**
+     * Checks that the given position is within this list.
+     *
+     * @param index the position to check.
+     * @return the position.
+     */
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return index;
+    }
+
+    /**
+     * Makes room for the given number of elements in the rows array.
+     *
+     * @param capacity the number of elements needed.
+     */
+    private void grow(int capacity) {
+        if (capacity > rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(capacity, rows.length + (rows.length >> 1) + 16));
+        }
+    }
+}
@@ -0,0 +1,597 @@
+package com.gyp1.inventorymgtapp;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The MappedPartStore class keeps a large catalog of parts outside the Java heap. Each
+ * attribute is stored as a column in its own memory-mapped file, one fixed-width slot per
+ * row, and names and company names are stored once in a mapped string heap that the rows
+ * point into. The operating system pages the files in and out as they are used, so a
+ * catalog of millions of parts costs neither heap nor garbage collection time.
+ *
+ * Part objects are only created when one is asked for, and the store remembers the Part
+ * it handed out for a row for as long as the caller keeps it, so asking twice returns the
+ * same object. Deleted rows are marked as such and never reused, and strings replaced by
+ * an update stay in the heap, so both files only grow.
+ *
+ * Changes are visible to other processes as soon as they are made but are only certain
+ * to survive a crash of the operating system once force() has been called.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class MappedPartStore implements Closeable {
+    /**
+     * The magic number at the start of the metadata file, "INVP" in ASCII.
+     */
+    private static final int MAGIC = 0x494E5650;
+
+    /**
+     * The version of the file layout written by this class.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The size of the metadata file: magic, version, row count and string heap size.
+     */
+    private static final int META_SIZE = 24;
+
+    /**
+     * The positions of the row count and the string heap size in the metadata file.
+     */
+    private static final int ROW_COUNT_OFFSET = 8, HEAP_SIZE_OFFSET = 16;
+
+    /**
+     * The number of rows the column files are first sized for.
+     */
+    private static final int INITIAL_ROWS = 1024;
+
+    /**
+     * The number of bytes the string heap file is first sized for.
+     */
+    private static final int INITIAL_HEAP_SIZE = 64 * 1024;
+
+    /**
+     * The values of the type column: a deleted row, an InHouse part or an Outsourced part.
+     */
+    private static final byte DELETED = 0, IN_HOUSE = 1, OUTSOURCED = 2;
+
+    /**
+     * The value of the company column of a row that has no company name.
+     */
+    private static final long NO_STRING = -1;
+
+    /**
+     * A file mapped into memory, remapped at a larger size when it must grow.
+     */
+    private static final class Region implements Closeable {
+        /**
+         * The channel of the mapped file.
+         */
+        private final FileChannel channel;
+
+        /**
+         * The current mapping of the file.
+         */
+        private MappedByteBuffer buffer;
+
+        /**
+         * Opens the given file, creating it if needed, and maps at least the given size.
+         *
+         * @param file the file to map.
+         * @param minSize the smallest number of bytes to map.
+         * @throws IOException if the file cannot be opened or mapped.
+         */
+        Region(Path file, long minSize) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), minSize));
+        }
+
+        /**
+         * Makes sure that the given number of bytes are mapped, doubling the mapping as
+         * many times as needed.
+         *
+         * @param size the number of bytes needed.
+         */
+        void ensure(long size) {
+            if (size <= buffer.capacity()) {
+                return;
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Part store file is full");
+            }
+            long capacity = buffer.capacity();
+            while (capacity < size) {
+                capacity *= 2;
+            }
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(capacity, Integer.MAX_VALUE));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        /**
+         * Flushes the changes made through the mapping to the file.
+         */
+        void force() {
+            buffer.force();
+        }
+
+        /**
+         * Closes the file. The mapping itself is released when it is garbage collected.
+         *
+         * @throws IOException if the file cannot be closed.
+         */
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * A weak reference to a Part handed out for a row, cleared once nobody else uses it.
+     */
+    private static final class PartReference extends WeakReference<Part> {
+        /**
+         * The row the Part was created from.
+         */
+        final int row;
+
+        /**
+         * Default constructor.
+         *
+         * @param part the Part handed out.
+         * @param row the row the Part was created from.
+         * @param queue the queue receiving the reference once it is cleared.
+         */
+        PartReference(Part part, int row, ReferenceQueue<Part> queue) {
+            super(part, queue);
+            this.row = row;
+        }
+    }
+
+    /**
+     * The metadata file, holding the row count and the size of the string heap.
+     */
+    private final Region meta;
+
+    /**
+     * The columns: the part type, id, price, stock, minimum, maximum and machine id, and
+     * the heap offsets of the name and company name.
+     */
+    private final Region types, ids, prices, stocks, mins, maxs, machineIds, names, companies;
+
+    /**
+     * The string heap: each string is stored as its length followed by its UTF-8 bytes.
+     */
+    private final Region heap;
+
+    /**
+     * True if the store was created by open() rather than read from existing files.
+     */
+    private final boolean created;
+
+    /**
+     * The row holding each live part, keyed by part id.
+     */
+    private final IntIntMap rowsById = new IntIntMap();
+
+    /**
+     * The Part objects handed out and still in use, keyed by row.
+     */
+    private final IntMap<PartReference> materialized = new IntMap<>();
+
+    /**
+     * Receives the references of handed-out Part objects that are no longer in use.
+     */
+    private final ReferenceQueue<Part> cleared = new ReferenceQueue<>();
+
+    /**
+     * The number of rows, including deleted ones.
+     */
+    private int rowCount;
+
+    /**
+     * The number of bytes used in the string heap.
+     */
+    private long heapSize;
+
+    /**
+     * Opens the files of a store in the given directory.
+     *
+     * @param directory the directory holding the files, which must exist.
+     * @throws IOException if a file cannot be opened or has an unknown format.
+     */
+    private MappedPartStore(Path directory) throws IOException {
+        created = !Files.exists(directory.resolve("parts.meta"));
+        meta = new Region(directory.resolve("parts.meta"), META_SIZE);
+        types = new Region(directory.resolve("type.col"), INITIAL_ROWS);
+        ids = new Region(directory.resolve("id.col"), INITIAL_ROWS * Integer.BYTES);
+        prices = new Region(directory.resolve("price.col"), INITIAL_ROWS * Double.BYTES);
+        stocks = new Region(directory.resolve("stock.col"), INITIAL_ROWS * Integer.BYTES);
+        mins = new Region(directory.resolve("min.col"), INITIAL_ROWS * Integer.BYTES);
+        maxs = new Region(directory.resolve("max.col"), INITIAL_ROWS * Integer.BYTES);
+        machineIds = new Region(directory.resolve("machineId.col"), INITIAL_ROWS * Integer.BYTES);
+        names = new Region(directory.resolve("name.col"), INITIAL_ROWS * Long.BYTES);
+        companies = new Region(directory.resolve("company.col"), INITIAL_ROWS * Long.BYTES);
+        heap = new Region(directory.resolve("names.heap"), INITIAL_HEAP_SIZE);
+
+        if (created) {
+            meta.buffer.putInt(0, MAGIC);
+            meta.buffer.putInt(4, VERSION);
+        } else if (meta.buffer.getInt(0) != MAGIC || meta.buffer.getInt(4) != VERSION) {
+            close();
+            throw new IOException("Not a part store of version " + VERSION + ": " + directory);
+        }
+        rowCount = meta.buffer.getInt(ROW_COUNT_OFFSET);
+        heapSize = meta.buffer.getLong(HEAP_SIZE_OFFSET);
+        for (int row = 0; row < rowCount; row++) {
+            if (types.buffer.get(row) != DELETED) {
+                rowsById.put(id(row), row);
+            }
+        }
+    }
+
+    /**
+     * Opens the store in the given directory, creating the directory and an empty store
+     * if needed.
+     *
+     * @param directory the directory holding the files of the store.
+     * @return the open store.
+     * @throws IOException if the files cannot be opened or have an unknown format.
+     */
+    public static MappedPartStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        return new MappedPartStore(directory);
+    }
+
+    /**
+     * Returns true if this store did not exist before it was opened.
+     *
+     * @return true if the store was created when opened, or false otherwise.
+     */
+    public boolean isCreated() {
+        return created;
+    }
+
+    /**
+     * Returns the number of parts in this store.
+     *
+     * @return the number of live parts.
+     */
+    public synchronized int size() {
+        return rowsById.size();
+    }
+
+    /**
+     * Returns true if this store holds a part with the given id.
+     *
+     * @param id the id of the part.
+     * @return true if the part is in this store, or false otherwise.
+     */
+    public synchronized boolean contains(int id) {
+        return rowsById.containsKey(id);
+    }
+
+    /**
+     * Returns the row holding the part with the given id.
+     *
+     * @param id the id of the part.
+     * @return the row of the part, or -1 if it is not in this store.
+     */
+    public synchronized int rowOf(int id) {
+        return rowsById.get(id, -1);
+    }
+
+    /**
+     * Returns the part with the given id, creating its Part object if needed.
+     *
+     * @param id the id of the part.
+     * @return the Part, or null if it is not in this store.
+     */
+    public synchronized Part get(int id) {
+        int row = rowsById.get(id, -1);
+        return row < 0 ? null : getRow(row);
+    }
+
+    /**
+     * Returns the part in the given row, creating its Part object if needed.
+     *
+     * @param row the row of a live part.
+     * @return the Part in the row.
+     */
+    public synchronized Part getRow(int row) {
+        purge();
+        PartReference reference = materialized.get(row);
+        Part part = reference == null ? null : reference.get();
+        if (part == null) {
+            part = materialize(row);
+            materialized.put(row, new PartReference(part, row, cleared));
+        }
+        return part;
+    }
+
+    /**
+     * Returns the rows of the live parts in ascending order, which is the order they were
+     * added in.
+     *
+     * @return a new array with the rows of the live parts.
+     */
+    public synchronized int[] liveRows() {
+        int[] rows = new int[rowsById.size()];
+        int count = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (types.buffer.get(row) != DELETED) {
+                rows[count++] = row;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the id of the part in the given row without creating its Part object.
+     *
+     * @param row the row of the part.
+     * @return the id of the part.
+     */
+    public synchronized int id(int row) {
+        return ids.buffer.getInt(row * Integer.BYTES);
+    }
+
+    /**
+     * Returns the name of the part in the given row without creating its Part object.
+     *
+     * @param row the row of the part.
+     * @return the name of the part.
+     */
+    public synchronized String name(int row) {
+        return readString(names.buffer.getLong(row * Long.BYTES));
+    }
+
+    /**
+     * Returns the price of the part in the given row without creating its Part object.
+     *
+     * @param row the row of the part.
+     * @return the price of the part.
+     */
+    public synchronized double price(int row) {
+        return prices.buffer.getDouble(row * Double.BYTES);
+    }
+
+    /**
+     * Returns the stock of the part in the given row without creating its Part object.
+     *
+     * @param row the row of the part.
+     * @return the stock of the part.
+     */
+    public synchronized int stock(int row) {
+        return stocks.buffer.getInt(row * Integer.BYTES);
+    }
+
+    /**
+     * Returns the minimum stock of the part in the given row without creating its Part object.
+     *
+     * @param row the row of the part.
+     * @return the minimum stock of the part.
+     */
+    public synchronized int min(int row) {
+        return mins.buffer.getInt(row * Integer.BYTES);
+    }
+
+    /**
+     * Returns the maximum stock of the part in the given row without creating its Part object.
+     *
+     * @param row the row of the part.
+     * @return the maximum stock of the part.
+     */
+    public synchronized int max(int row) {
+        return maxs.buffer.getInt(row * Integer.BYTES);
+    }
+
+    /**
+     * Returns the machine id of the part in the given row without creating its Part object.
+     *
+     * @param row the row of the part.
+     * @return the machine id of an InHouse part, or 0 for an Outsourced part.
+     */
+    public synchronized int machineId(int row) {
+        return machineIds.buffer.getInt(row * Integer.BYTES);
+    }
+
+    /**
+     * Returns the company name of the part in the given row without creating its Part object.
+     *
+     * @param row the row of the part.
+     * @return the company name of an Outsourced part, or null for an InHouse part.
+     */
+    public synchronized String companyName(int row) {
+        if (types.buffer.get(row) != OUTSOURCED) {
+            return null;
+        }
+        return readString(companies.buffer.getLong(row * Long.BYTES));
+    }
+
+    /**
+     * Adds a part in a new row.
+     *
+     * @param part the part to add; no part with the same id may be in this store.
+     * @return the row of the part.
+     * @throws IllegalArgumentException if a part with the same id is already in this store.
+     */
+    public synchronized int add(Part part) {
+        if (rowsById.containsKey(part.getId())) {
+            throw new IllegalArgumentException("Duplicate part id " + part.getId());
+        }
+        purge();
+        int row = rowCount;
+        writeRow(row, part, NO_STRING, NO_STRING);
+        rowCount++;
+        meta.buffer.putInt(ROW_COUNT_OFFSET, rowCount);
+        rowsById.put(part.getId(), row);
+        materialized.put(row, new PartReference(part, row, cleared));
+        return row;
+    }
+
+    /**
+     * Replaces the part in the given row. Strings that did not change are not copied again.
+     *
+     * @param row the row of a live part.
+     * @param part the part that replaces it.
+     * @throws IllegalArgumentException if the new part's id belongs to another part.
+     */
+    public synchronized void set(int row, Part part) {
+        int oldId = id(row);
+        int other = rowsById.get(part.getId(), row);
+        if (other != row) {
+            throw new IllegalArgumentException("Duplicate part id " + part.getId());
+        }
+        rowsById.remove(oldId);
+        writeRow(row, part, names.buffer.getLong(row * Long.BYTES), companies.buffer.getLong(row * Long.BYTES));
+        rowsById.put(part.getId(), row);
+        materialized.put(row, new PartReference(part, row, cleared));
+    }
+
+    /**
+     * Deletes the part in the given row. The row is marked as deleted and not reused.
+     *
+     * @param row the row of a live part.
+     */
+    public synchronized void delete(int row) {
+        rowsById.remove(id(row));
+        types.buffer.put(row, DELETED);
+        materialized.remove(row);
+    }
+
+    /**
+     * Flushes every change made so far to the files.
+     */
+    public synchronized void force() {
+        for (Region region : new Region[] {types, ids, prices, stocks, mins, maxs, machineIds, names, companies, heap, meta}) {
+            region.force();
+        }
+    }
+
+    /**
+     * Flushes every change made so far to the files and closes them.
+     *
+     * @throws IOException if a file cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        for (Region region : new Region[] {types, ids, prices, stocks, mins, maxs, machineIds, names, companies, heap, meta}) {
+            region.close();
+        }
+    }
+
+    /**
+     * Writes the attributes of a part into the columns of the given row, growing the
+     * files if needed. The type is written last, so a row is not seen as live before
+     * its other columns are written.
+     *
+     * @param row the row to write.
+     * @param part the part to write.
+     * @param oldName the heap offset of the name already in the row, or NO_STRING.
+     * @param oldCompany the heap offset of the company name already in the row, or NO_STRING.
+     */
+    private void writeRow(int row, Part part, long oldName, long oldCompany) {
+        types.ensure(row + 1L);
+        ids.ensure((row + 1L) * Integer.BYTES);
+        prices.ensure((row + 1L) * Double.BYTES);
+        stocks.ensure((row + 1L) * Integer.BYTES);
+        mins.ensure((row + 1L) * Integer.BYTES);
+        maxs.ensure((row + 1L) * Integer.BYTES);
+        machineIds.ensure((row + 1L) * Integer.BYTES);
+        names.ensure((row + 1L) * Long.BYTES);
+        companies.ensure((row + 1L) * Long.BYTES);
+
+        ids.buffer.putInt(row * Integer.BYTES, part.getId());
+        prices.buffer.putDouble(row * Double.BYTES, part.getPrice());
+        stocks.buffer.putInt(row * Integer.BYTES, part.getStock());
+        mins.buffer.putInt(row * Integer.BYTES, part.getMin());
+        maxs.buffer.putInt(row * Integer.BYTES, part.getMax());
+        machineIds.buffer.putInt(row * Integer.BYTES, part instanceof InHouse ? ((InHouse) part).getMachineId() : 0);
+        names.buffer.putLong(row * Long.BYTES, storeString(part.getName(), oldName));
+        companies.buffer.putLong(row * Long.BYTES, part instanceof Outsourced
+                ? storeString(((Outsourced) part).getCompanyName(), oldCompany) : NO_STRING);
+        types.buffer.put(row, part instanceof Outsourced ? OUTSOURCED : IN_HOUSE);
+    }
+
+    /**
+     * Creates the Part object for the given row.
+     *
+     * @param row the row of a live part.
+     * @return a new InHouse or Outsourced part.
+     */
+    private Part materialize(int row) {
+        int id = id(row);
+        String name = name(row);
+        double price = price(row);
+        int stock = stock(row);
+        int min = mins.buffer.getInt(row * Integer.BYTES);
+        int max = maxs.buffer.getInt(row * Integer.BYTES);
+        if (types.buffer.get(row) == OUTSOURCED) {
+            return new Outsourced(id, name, price, stock, min, max,
+                    readString(companies.buffer.getLong(row * Long.BYTES)));
+        }
+        return new InHouse(id, name, price, stock, min, max, machineIds.buffer.getInt(row * Integer.BYTES));
+    }
+
+    /**
+     * Returns the heap offset of the given string, appending it to the heap unless it is
+     * the string already stored at the given offset.
+     *
+     * @param value the string to store.
+     * @param oldOffset the offset of the string it replaces, or NO_STRING.
+     * @return the heap offset of the string.
+     */
+    private long storeString(String value, long oldOffset) {
+        if (oldOffset != NO_STRING && value.equals(readString(oldOffset))) {
+            return oldOffset;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long offset = heapSize;
+        heap.ensure(offset + Integer.BYTES + bytes.length);
+        heap.buffer.putInt((int) offset, bytes.length);
+        heap.buffer.put((int) offset + Integer.BYTES, bytes);
+        heapSize = offset + Integer.BYTES + bytes.length;
+        meta.buffer.putLong(HEAP_SIZE_OFFSET, heapSize);
+        return offset;
+    }
+
+    /**
+     * Reads the string stored at the given heap offset.
+     *
+     * @param offset the heap offset of the string.
+     * @return the string.
+     */
+    private String readString(long offset) {
+        byte[] bytes = new byte[heap.buffer.getInt((int) offset)];
+        heap.buffer.get((int) offset + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Forgets the handed-out Part objects that are no longer in use.
+     */
+    private void purge() {
+        PartReference reference;
+        while ((reference = (PartReference) cleared.poll()) != null) {
+            if (materialized.get(reference.row) == reference) {
+                materialized.remove(reference.row);
+            }
+        }
+    }
+}
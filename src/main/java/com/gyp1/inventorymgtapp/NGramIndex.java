@@ -0,0 +1,384 @@
+package com.gyp1.inventorymgtapp;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntFunction;
+
+/**
+ * The NGramIndex class is an inverted index that answers case-insensitive substring
+ * searches without scanning every entry. Each indexed text is lowercased once, split into
+ * overlapping three-character grams (trigrams), and the id of its owner is added to the
+ * posting list of every trigram. A query is answered by intersecting the posting lists of
+ * its own trigrams and verifying the few remaining candidates against the stored text.
+ * Queries shorter than a trigram are answered by scanning the stored lowercase texts,
+ * which still saves lowercasing every name on every keystroke.
+ *
+ * An index built with a text source does not keep the texts: it reads the text of a
+ * candidate from the source when verifying it, and keeps only the posting lists and the
+ * set of indexed ids. The owner of the texts, such as a MappedPartStore holding them off
+ * the heap, then pays for a read and a lowercasing per candidate instead of a copy of
+ * every text. Such an index cannot find the previous text of an id by itself, so a text
+ * must be removed, with the text it was indexed with, before another is indexed for its id.
+ *
+ * The loops that visit many entries stop with a CancellationException when the
+ * searching thread is interrupted, so a background search can be abandoned quickly.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class NGramIndex {
+    /**
+     * The number of characters in each gram.
+     */
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * The lowercase text indexed for each id, or null when the texts are read from the source.
+     */
+    private final IntMap<String> texts;
+
+    /**
+     * The indexed ids, when the texts are read from the source; null otherwise.
+     */
+    private final IntSet indexed;
+
+    /**
+     * Returns the current text of an indexed id, or null when the texts are kept here.
+     */
+    private final IntFunction<String> source;
+
+    /**
+     * The posting lists, mapping the key of each trigram to the ids whose text contains it.
+     */
+    private final IntMap<IntSet> postings = new IntMap<>();
+
+    /**
+     * Default constructor. Initializes an empty index that keeps a lowercase copy of
+     * every text it indexes.
+     */
+    public NGramIndex() {
+        texts = new IntMap<>();
+        indexed = null;
+        source = null;
+    }
+
+    /**
+     * Initializes an empty index that keeps no texts and reads them from the given source.
+     *
+     * @param source returns the current text of an indexed id, or null if it has none.
+     */
+    public NGramIndex(IntFunction<String> source) {
+        texts = null;
+        indexed = new IntSet();
+        this.source = source;
+    }
+
+    /**
+     * Indexes the given text under the given id, replacing any text already indexed for
+     * it. An index with a text source does not replace it: the previous text must have
+     * been removed first.
+     *
+     * @param id the id of the Part or Product that owns the text.
+     * @param text the text to index.
+     */
+    public void add(int id, String text) {
+        String lower = text.toLowerCase();
+        if (source == null) {
+            remove(id);
+            texts.put(id, lower);
+        } else {
+            indexed.add(id);
+        }
+        for (int i = 0; i + GRAM_LENGTH <= lower.length(); i++) {
+            int gram = gramKey(lower, i);
+            IntSet ids = postings.get(gram);
+            if (ids == null) {
+                ids = new IntSet();
+                postings.put(gram, ids);
+            }
+            ids.add(id);
+        }
+    }
+
+    /**
+     * Indexes many texts at once, replacing any texts already indexed for their ids. The
+     * trigrams are counted first so that every posting list is allocated at its final
+     * size, which makes loading a large catalog much faster than adding texts one by one.
+     *
+     * @param ids the ids of the Parts or Products that own the texts.
+     * @param newTexts the texts to index, in the same order as the ids.
+     */
+    public void addAll(int[] ids, String[] newTexts) {
+        String[] lower = new String[newTexts.length];
+        IntIntMap counts = new IntIntMap();
+        for (int i = 0; i < newTexts.length; i++) {
+            lower[i] = newTexts[i].toLowerCase();
+            if (source == null) {
+                remove(ids[i]);
+                texts.put(ids[i], lower[i]);
+            } else {
+                indexed.add(ids[i]);
+            }
+            for (int j = 0; j + GRAM_LENGTH <= lower[i].length(); j++) {
+                counts.addTo(gramKey(lower[i], j), 1);
+            }
+        }
+        counts.forEach((gram, count) -> {
+            if (!postings.containsKey(gram)) {
+                postings.put(gram, new IntSet(count));
+            }
+        });
+        for (int i = 0; i < lower.length; i++) {
+            for (int j = 0; j + GRAM_LENGTH <= lower[i].length(); j++) {
+                postings.get(gramKey(lower[i], j)).add(ids[i]);
+            }
+        }
+    }
+
+    /**
+     * Removes the text indexed under the given id. An index with a text source reads the
+     * text from it, so it must still be the text that was indexed.
+     *
+     * @param id the id of the Part or Product whose text is removed.
+     */
+    public void remove(int id) {
+        if (source == null) {
+            removeGrams(id, texts.remove(id));
+        } else if (indexed.contains(id)) {
+            remove(id, source.apply(id));
+        }
+    }
+
+    /**
+     * Removes the text indexed under the given id, which was indexed as the given text.
+     * An index that keeps its texts uses its own copy instead.
+     *
+     * @param id the id of the Part or Product whose text is removed.
+     * @param text the text the id was indexed with.
+     */
+    public void remove(int id, String text) {
+        if (source == null) {
+            remove(id);
+        } else if (indexed.remove(id) && text != null) {
+            removeGrams(id, text.toLowerCase());
+        }
+    }
+
+    /**
+     * Removes an id from the posting lists of the trigrams of its text.
+     *
+     * @param id the id to remove.
+     * @param lower the lowercase text the id was indexed with, or null if it was not indexed.
+     */
+    private void removeGrams(int id, String lower) {
+        if (lower == null) {
+            return;
+        }
+        for (int i = 0; i + GRAM_LENGTH <= lower.length(); i++) {
+            int gram = gramKey(lower, i);
+            IntSet ids = postings.get(gram);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Returns the ids whose indexed text contains the given query, ignoring case.
+     *
+     * @param query the substring to search for.
+     * @return a new set with the ids of all matching texts.
+     */
+    public IntSet search(String query) {
+        String lower = query.toLowerCase();
+        if (lower.length() < GRAM_LENGTH) {
+            return scan(lower);
+        }
+
+        // Collect the posting list of every trigram of the query, smallest first.
+        int gramCount = lower.length() - GRAM_LENGTH + 1;
+        IntSet[] lists = new IntSet[gramCount];
+        for (int i = 0; i < gramCount; i++) {
+            IntSet ids = postings.get(gramKey(lower, i));
+            if (ids == null) {
+                return new IntSet();
+            }
+            lists[i] = ids;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size(), b.size()));
+
+        // Only the ids in the shortest list can match; probe the others and verify.
+        IntSet result = new IntSet();
+        int[] visited = new int[1];
+        lists[0].forEach(id -> {
+            checkInterrupted(visited[0]++);
+            for (int i = 1; i < lists.length; i++) {
+                if (!lists[i].contains(id)) {
+                    return;
+                }
+            }
+            String text = text(id);
+            if (text != null && text.contains(lower)) {
+                result.add(id);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Returns the ids that may match the given query, without reading any text: the ids
+     * found in the posting list of every trigram of the query, or every indexed id for a
+     * query shorter than a trigram. The caller verifies the candidates against their
+     * texts, which it may do after the lock guarding this index has been released, since
+     * the returned set is a copy.
+     *
+     * @param query the substring to search for.
+     * @return a new set with the ids of every text that may contain the query.
+     */
+    public IntSet candidates(String query) {
+        String lower = query.toLowerCase();
+        if (lower.length() < GRAM_LENGTH) {
+            // Sized for every id up front: ids copied in table order into a growing set
+            // would pile up in the first slots of each smaller table.
+            IntSet result = new IntSet(size());
+            if (source == null) {
+                texts.forEach((id, text) -> result.add(id));
+            } else {
+                indexed.forEach(result::add);
+            }
+            return result;
+        }
+        int gramCount = lower.length() - GRAM_LENGTH + 1;
+        IntSet[] lists = new IntSet[gramCount];
+        for (int i = 0; i < gramCount; i++) {
+            IntSet ids = postings.get(gramKey(lower, i));
+            if (ids == null) {
+                return new IntSet();
+            }
+            lists[i] = ids;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size(), b.size()));
+        IntSet result = new IntSet(lists[0].size());
+        lists[0].forEach(id -> {
+            for (int i = 1; i < lists.length; i++) {
+                if (!lists[i].contains(id)) {
+                    return;
+                }
+            }
+            result.add(id);
+        });
+        return result;
+    }
+
+    /**
+     * Returns the ids of the given set whose indexed text contains the given lowercase
+     * query. It is used to narrow the result of a query to a query that extends it.
+     *
+     * @param candidates the ids to test.
+     * @param lowerQuery the query, already lowercased.
+     * @return a new set with the matching ids.
+     */
+    public IntSet narrow(IntSet candidates, String lowerQuery) {
+        IntSet result = new IntSet();
+        int[] visited = new int[1];
+        candidates.forEach(id -> {
+            checkInterrupted(visited[0]++);
+            if (matches(id, lowerQuery)) {
+                result.add(id);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Returns true if the text indexed under the given id contains the given lowercase query.
+     *
+     * @param id the id of the indexed text.
+     * @param lowerQuery the query, already lowercased.
+     * @return true if the text contains the query, or false otherwise or if the id is not indexed.
+     */
+    public boolean matches(int id, String lowerQuery) {
+        String lower = text(id);
+        return lower != null && lower.contains(lowerQuery);
+    }
+
+    /**
+     * Returns the number of texts in this index.
+     *
+     * @return the number of indexed ids.
+     */
+    public int size() {
+        return source == null ? texts.size() : indexed.size();
+    }
+
+    /**
+     * Returns the lowercase text indexed under the given id, from this index or its source.
+     *
+     * @param id the id of the indexed text.
+     * @return the lowercase text, or null if the id is not indexed.
+     */
+    private String text(int id) {
+        if (source == null) {
+            return texts.get(id);
+        }
+        if (!indexed.contains(id)) {
+            return null;
+        }
+        String text = source.apply(id);
+        return text == null ? null : text.toLowerCase();
+    }
+
+    /**
+     * Answers a query that has no complete trigram by checking every stored text.
+     *
+     * @param lower the lowercase query.
+     * @return a new set with the ids of all matching texts.
+     */
+    private IntSet scan(String lower) {
+        IntSet result = new IntSet();
+        int[] visited = new int[1];
+        if (source == null) {
+            texts.forEach((id, text) -> {
+                checkInterrupted(visited[0]++);
+                if (text.contains(lower)) {
+                    result.add(id);
+                }
+            });
+            return result;
+        }
+        indexed.forEach(id -> {
+            checkInterrupted(visited[0]++);
+            String text = source.apply(id);
+            if (text != null && text.toLowerCase().contains(lower)) {
+                result.add(id);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Stops a long loop when the current thread has been interrupted. The interrupt flag
+     * is only read once every 1024 iterations to keep the check cheap.
+     *
+     * @param iteration the number of iterations done so far.
+     * @throws CancellationException if the current thread has been interrupted.
+     */
+    static void checkInterrupted(int iteration) {
+        if ((iteration & 1023) == 0 && Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Search interrupted");
+        }
+    }
+
+    /**
+     * Packs the trigram starting at the given position into an int key. The packing is
+     * exact for Latin-1 text; other characters may share keys, which only adds candidates
+     * that the verification step in search() rejects.
+     *
+     * @param text the text holding the trigram.
+     * @param start the position of the first character of the trigram.
+     * @return the key of the trigram.
+     */
+    private static int gramKey(String text, int start) {
+        return (text.charAt(start) << 16) ^ (text.charAt(start + 1) << 8) ^ text.charAt(start + 2);
+    }
+}
@@ -0,0 +1,222 @@
+package com.gyp1.inventorymgtapp;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The OperationStats class records how long each run of one operation takes, such as an
+ * Inventory method or the handler of a button, and publishes the latency percentiles and
+ * the throughput as an MXBean named com.gyp1.inventorymgtapp:type=group,name=name. The
+ * statistics of an operation are created once, kept in a static field, and shared by
+ * every thread running it:
+ *
+ * long start = STATS.start();
+ * ... the operation ...
+ * STATS.stop(start);
+ *
+ * Setting the inventory.metrics system property to false turns the recording off, so
+ * that start and stop cost next to nothing.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class OperationStats implements OperationStatsMXBean {
+    /**
+     * The system property that turns the recording off when set to false.
+     */
+    public static final String METRICS_PROPERTY = "inventory.metrics";
+
+    /**
+     * True when runs are recorded.
+     */
+    private static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty(METRICS_PROPERTY));
+
+    /**
+     * Logs the statistics that cannot be published.
+     */
+    private static final System.Logger LOG = System.getLogger(OperationStats.class.getName());
+
+    /**
+     * The statistics created so far, by MXBean name.
+     */
+    private static final Map<String, OperationStats> REGISTRY = new ConcurrentHashMap<>();
+
+    /**
+     * The name of the operation.
+     */
+    private final String name;
+
+    /**
+     * The durations of the runs.
+     */
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    /**
+     * The time the statistics were created or last reset, from System.nanoTime.
+     */
+    private volatile long since = System.nanoTime();
+
+    /**
+     * Returns the statistics of the given operation, creating and publishing them on the
+     * first call.
+     *
+     * @param group the kind of operation, such as Inventory or MainController.
+     * @param name the name of the operation, such as lookupPart.
+     * @return the statistics of the operation.
+     */
+    public static OperationStats of(String group, String name) {
+        String objectName = "com.gyp1.inventorymgtapp:type=" + group + ",name=" + name;
+        return REGISTRY.computeIfAbsent(objectName, key -> {
+            OperationStats stats = new OperationStats(name);
+            if (ENABLED) {
+                try {
+                    ManagementFactory.getPlatformMBeanServer().registerMBean(stats, new ObjectName(key));
+                } catch (JMException | RuntimeException ex) {
+                    LOG.log(System.Logger.Level.WARNING, "Cannot publish the statistics " + key, ex);
+                }
+            }
+            return stats;
+        });
+    }
+
+    /**
+     * Initializes the statistics of an operation.
+     *
+     * @param name the name of the operation.
+     */
+    private OperationStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name of the operation, such as lookupPart.
+     *
+     * @return the name of the operation.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Marks the start of a run.
+     *
+     * @return the value to pass to stop.
+     */
+    public long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Marks the end of a run and records its duration.
+     *
+     * @param start the value returned by start.
+     */
+    public void stop(long start) {
+        if (start != 0) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the histogram of the durations of the runs.
+     *
+     * @return the histogram.
+     */
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Returns the number of times the operation ran since the statistics were reset.
+     *
+     * @return the count.
+     */
+    @Override
+    public long getCount() {
+        return histogram.getCount();
+    }
+
+    /**
+     * Returns the average number of runs per second since the statistics were reset.
+     *
+     * @return the throughput.
+     */
+    @Override
+    public double getRatePerSecond() {
+        long elapsed = System.nanoTime() - since;
+        return elapsed <= 0 ? 0 : histogram.getCount() * 1e9 / elapsed;
+    }
+
+    /**
+     * Returns the mean duration of a run.
+     *
+     * @return the mean in microseconds.
+     */
+    @Override
+    public double getMeanMicros() {
+        long count = histogram.getCount();
+        return count == 0 ? 0 : histogram.getTotalNanos() / 1e3 / count;
+    }
+
+    /**
+     * Returns the median duration of a run.
+     *
+     * @return the 50th percentile in microseconds.
+     */
+    @Override
+    public double getP50Micros() {
+        return histogram.getPercentileNanos(0.5) / 1e3;
+    }
+
+    /**
+     * Returns the duration that 90% of the runs do not exceed.
+     *
+     * @return the 90th percentile in microseconds.
+     */
+    @Override
+    public double getP90Micros() {
+        return histogram.getPercentileNanos(0.9) / 1e3;
+    }
+
+    /**
+     * Returns the duration that 99% of the runs do not exceed.
+     *
+     * @return the 99th percentile in microseconds.
+     */
+    @Override
+    public double getP99Micros() {
+        return histogram.getPercentileNanos(0.99) / 1e3;
+    }
+
+    /**
+     * Returns the duration that 99.9% of the runs do not exceed.
+     *
+     * @return the 99.9th percentile in microseconds.
+     */
+    @Override
+    public double getP999Micros() {
+        return histogram.getPercentileNanos(0.999) / 1e3;
+    }
+
+    /**
+     * Returns the longest duration of a run.
+     *
+     * @return the maximum in microseconds.
+     */
+    @Override
+    public double getMaxMicros() {
+        return histogram.getMaxNanos() / 1e3;
+    }
+
+    /**
+     * Forgets the runs recorded so far.
+     */
+    @Override
+    public void reset() {
+        histogram.reset();
+        since = System.nanoTime();
+    }
+}
@@ -0,0 +1,71 @@
+package com.gyp1.inventorymgtapp;
+
+/**
+ * The OperationStatsMXBean interface is the management view of the latency and
+ * throughput of one operation, as shown by JConsole or read by a JMX client.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public interface OperationStatsMXBean {
+    /**
+     * Returns the number of times the operation ran since the statistics were reset.
+     *
+     * @return the count.
+     */
+    long getCount();
+
+    /**
+     * Returns the average number of runs per second since the statistics were reset.
+     *
+     * @return the throughput.
+     */
+    double getRatePerSecond();
+
+    /**
+     * Returns the mean duration of a run.
+     *
+     * @return the mean in microseconds.
+     */
+    double getMeanMicros();
+
+    /**
+     * Returns the median duration of a run.
+     *
+     * @return the 50th percentile in microseconds.
+     */
+    double getP50Micros();
+
+    /**
+     * Returns the duration that 90% of the runs do not exceed.
+     *
+     * @return the 90th percentile in microseconds.
+     */
+    double getP90Micros();
+
+    /**
+     * Returns the duration that 99% of the runs do not exceed.
+     *
+     * @return the 99th percentile in microseconds.
+     */
+    double getP99Micros();
+
+    /**
+     * Returns the duration that 99.9% of the runs do not exceed.
+     *
+     * @return the 99.9th percentile in microseconds.
+     */
+    double getP999Micros();
+
+    /**
+     * Returns the longest duration of a run.
+     *
+     * @return the maximum in microseconds.
+     */
+    double getMaxMicros();
+
+    /**
+     * Forgets the runs recorded so far.
+     */
+    void reset();
+}
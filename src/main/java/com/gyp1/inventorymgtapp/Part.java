@@ -85,7 +85,7 @@ public abstract class Part {
      * @param stock has the value to assign to the stock.
      */
     public void setStock(int stock) {
-        this.min = min;
+        this.stock = stock;
     }
 
     /**
@@ -2,13 +2,10 @@ package com.gyp1.inventorymgtapp;
 
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.Initializable;
 import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
-import java.net.URL;
-import java.util.ResourceBundle;
 
 /**
  * The PartController contains the logic for updating the parts list in the inventory
@@ -18,16 +15,17 @@ import java.util.ResourceBundle;
  * @author Mami Camara
  * @version April 2023
  */
-public class PartController implements Initializable {
+public class PartController {
     /**
      * Stores a reference of the Scene object associated with the main-view.fxml.
      */
     private Scene parentView;
 
     /**
-     * Used for generating part id when adding new Part objects.
+     * The latency statistics of handleSaveButton, from reading the input to showing the
+     * main screen again. Saves that fail are not recorded.
      */
-    private int maxPartID = 1;
+    private static final OperationStats SAVE = OperationStats.of("PartController", "handleSaveButton");
 
     /**
      * A reference of the Inventory object instantiated in the MainController.
@@ -40,10 +38,9 @@ public class PartController implements Initializable {
     private UserAction action;
 
     /**
-     * The index in the allParts ObservableList in the Inventory object 'inventory'
-     * of the Part selected in the tblPart Table View of the main view screen.
+     * The Part selected in the tblPart Table View of the main view screen.
      */
-    private int selectedIndex = -1;
+    private Part selectedPart;
 
     /**
      * A Label component declared in the part-view.fxml file.
@@ -84,17 +81,30 @@ public class PartController implements Initializable {
      */
     @FXML
     protected void handleSaveButton(ActionEvent event) {
+        long start = SAVE.start();
         Part newPart = getPartInput();
 
         if (newPart != null) {
             if (action == UserAction.ADD) {
+                // The id is only leased once the input is valid, so rejected saves use none.
+                newPart.setId(generateID());
                 inventory.addPart(newPart);
             } else if (action == UserAction.MODIFY) {
-                inventory.updatePart(selectedIndex, newPart);
+                try {
+                    if (!inventory.updatePart(selectedPart, newPart)) {
+                        MessageDialog.showDialog("The part was deleted while it was being modified", true);
+                        return;
+                    }
+                } catch (IllegalArgumentException ex) {
+                    // For instance, the inventory level would fall below the units reserved.
+                    MessageDialog.showDialog("The part could not be saved", ex.getMessage(), true);
+                    return;
+                }
             } else {
                 MessageDialog.showDialog("Unknown operation", true);
             }
             backToMain(event);
+            SAVE.stop(start);
         }
     }
 
@@ -142,8 +152,11 @@ public class PartController implements Initializable {
      * @param event an instance of the ActionEvent.
      */
     private void backToMain(ActionEvent event) {
+        ScreenTransitionEvent transition = new ScreenTransitionEvent();
+        transition.begin();
         Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
         stage.setScene(parentView);
+        transition.finish("main-view.fxml", null, inventory);
     }
 
     /**
@@ -156,12 +169,12 @@ public class PartController implements Initializable {
     }
 
     /**
-     * Assign to this class' index attribute the value of the given parameter variable.
+     * Assign to this class' selectedPart attribute the value of the given parameter variable.
      *
-     * @param index the value to assign to the index attribute.
+     * @param part the value to assign to the selectedPart attribute.
      */
-    public void setSelectedIndex(int index) {
-        this.selectedIndex = index;
+    public void setSelectedPart(Part part) {
+        this.selectedPart = part;
     }
 
     /**
@@ -183,31 +196,19 @@ public class PartController implements Initializable {
     }
 
     /**
-     * Generates and returns a new Part ID.
+     * Generates and returns a new Part ID, taken from the Inventory's part id sequence so it
+     * is never shared with another Part, even one added by another thread or a past session.
      *
      * @return an integer with the value of the new Part ID
      */
     private int generateID() {
-
-        if (inventory.getAllParts().isEmpty()) {
-            maxPartID = 1;
-        } else {
-            if (maxPartID < 1) {
-                maxPartID = 0;
-                for (Part part : inventory.getAllParts()) {
-                    if (part.getId() > maxPartID) {
-                        maxPartID = part.getId();
-                    }
-                }
-            }
-            maxPartID++;
-        }
-        return maxPartID;
+        return inventory.getPartIds().next();
     }
 
     /**
      * Retrieves the value in the TextFields and creates a new Part object when user action is ADD,
-     * or update the selected Part object when user action is MODIFY.
+     * or update the selected Part object when user action is MODIFY. A new Part has the id 0
+     * until it is saved.
      *
      * @return return a new object or an updated object depending on the current user action.
      *
@@ -222,7 +223,7 @@ public class PartController implements Initializable {
         int id = -1, inv, min, max;
 
         if (action == UserAction.ADD){
-            id = generateID();
+            id = 0;
         }else if (action == UserAction.MODIFY){
             try {
                 id = Integer.parseInt(tbxId.getText());
@@ -230,16 +231,15 @@ public class PartController implements Initializable {
                 MessageDialog.showDialog("Part ID must be an integer", true);
                 return null;
             }
+            if (id < 1) {
+                MessageDialog.showDialog("Invalid part ID", true);
+                return null;
+            }
         }else{
             MessageDialog.showDialog("Unknown action!", "Expected add or modify operation", true);
             return null;
         }
 
-        if (id < 1) {
-            MessageDialog.showDialog("Invalid part ID", true);
-            return null;
-        }
-
         name = tbxName.getText();
         if (name.trim().isEmpty()) {
             MessageDialog.showDialog("Name is empty", true);
@@ -338,19 +338,25 @@ public class PartController implements Initializable {
     }
 
     /**
-     * Selects the default radio button when user action is ADD, or populates
-     * the TextField components with the values of the Part selected from the
-     * main view when loading the part-view.
+     * Clears the TextField components and selects the default radio button when user
+     * action is ADD, or populates them with the values of the Part selected from the
+     * main view. The part-view is built once, so this is called each time it is shown.
      */
-    @Override
-    public void initialize(URL url, ResourceBundle resourceBundle) {
+    public void prepare() {
         if (action == UserAction.ADD) {
+            tbxName.clear();
+            tbxInv.clear();
+            tbxPrice.clear();
+            tbxMax.clear();
+            tbxMin.clear();
+            tbxCompanyOrMachine.clear();
+            lblCompanyMachine.setText("Machine ID");
             rbtnInHouse.setSelected(true);
             tbxId.setText("Auto-Generated");
             lblTitle.setText("Add Part");
-        } else if (action == UserAction.MODIFY && selectedIndex >= 0) {
+        } else if (action == UserAction.MODIFY && selectedPart != null) {
             lblTitle.setText("Modify Part");
-            Part part = inventory.getAllParts().get(selectedIndex);
+            Part part = selectedPart;
             tbxId.setText(Integer.toString(part.getId()));
             tbxName.setText(part.getName());
             tbxInv.setText(Integer.toString(part.getStock()));
@@ -0,0 +1,421 @@
+package com.gyp1.inventorymgtapp;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The PartValuation class keeps the running valuation of a set of parts: the count, the
+ * value of the stock and the price range of all of them, of the InHouse and the
+ * Outsourced parts, of the parts made by each machine and of those bought from each
+ * company. It is told of every part added, changed or removed, and applies the
+ * difference to the groups of the part, so reading a Valuation takes constant time
+ * whatever the number of parts.
+ *
+ * The values are summed exactly, as BigDecimals of the prices, so adding and removing
+ * parts any number of times never lets the sums drift from those of a full recount; the
+ * price range of a group is kept in a sorted count of its prices. The valuation is not
+ * thread-safe; the Inventory only uses it under its own lock.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class PartValuation {
+    /**
+     * The attributes of a part that its groups depend on.
+     */
+    private static final class Entry {
+        /**
+         * The price of the part.
+         */
+        final double price;
+
+        /**
+         * The stock of the part.
+         */
+        int stock;
+
+        /**
+         * The machine making the part, for an InHouse part.
+         */
+        final int machineId;
+
+        /**
+         * The company selling the part, or null for an InHouse part.
+         */
+        final String companyName;
+
+        /**
+         * Default constructor.
+         *
+         * @param price the price of the part.
+         * @param stock the stock of the part.
+         * @param machineId the machine making the part, for an InHouse part.
+         * @param companyName the company selling the part, or null for an InHouse part.
+         */
+        Entry(double price, int stock, int machineId, String companyName) {
+            this.price = price;
+            this.stock = stock;
+            this.machineId = machineId;
+            this.companyName = companyName;
+        }
+    }
+
+    /**
+     * The running aggregates of one group of parts.
+     */
+    private static final class Group {
+        /**
+         * The name of the company of the group, shared by the entries of its parts, or
+         * null for a group that is not a company.
+         */
+        final String name;
+
+        /**
+         * The number of parts in the group.
+         */
+        int count;
+
+        /**
+         * The exact value of the stock of the parts.
+         */
+        BigDecimal value = BigDecimal.ZERO;
+
+        /**
+         * The number of parts at each price.
+         */
+        final TreeMap<Double, Integer> prices = new TreeMap<>();
+
+        /**
+         * The valuation of the group, rebuilt after every change.
+         */
+        Valuation valuation = Valuation.EMPTY;
+
+        /**
+         * Default constructor. Initializes an empty group that is not a company.
+         */
+        Group() {
+            this(null);
+        }
+
+        /**
+         * Initializes an empty group of the parts of a company.
+         *
+         * @param name the name of the company, or null for a group that is not a company.
+         */
+        Group(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Adds a part to the group.
+         *
+         * @param price the price of the part.
+         * @param stock the stock of the part.
+         */
+        void add(double price, int stock) {
+            count++;
+            value = value.add(value(price, stock));
+            prices.merge(price, 1, Integer::sum);
+            refresh();
+        }
+
+        /**
+         * Removes a part from the group.
+         *
+         * @param price the price of the part.
+         * @param stock the stock of the part.
+         */
+        void remove(double price, int stock) {
+            count--;
+            value = value.subtract(value(price, stock));
+            prices.computeIfPresent(price, (key, parts) -> parts == 1 ? null : parts - 1);
+            refresh();
+        }
+
+        /**
+         * Changes the stock of a part of the group.
+         *
+         * @param price the price of the part.
+         * @param delta the change of its stock.
+         */
+        void addStock(double price, long delta) {
+            value = value.add(new BigDecimal(price).multiply(BigDecimal.valueOf(delta)));
+            refresh();
+        }
+
+        /**
+         * Rebuilds the valuation of the group.
+         */
+        void refresh() {
+            valuation = count == 0 ? Valuation.EMPTY
+                    : new Valuation(count, value.doubleValue(), prices.firstKey(), prices.lastKey());
+        }
+
+        /**
+         * Returns true if the given group has exactly the same aggregates.
+         *
+         * @param other the group to compare with, or null for an empty group.
+         * @return true if the count, value and prices are the same.
+         */
+        boolean sameAs(Group other) {
+            if (other == null) {
+                return count == 0;
+            }
+            return count == other.count && value.compareTo(other.value) == 0 && prices.equals(other.prices);
+        }
+    }
+
+    /**
+     * The parts by id.
+     */
+    private final IntMap<Entry> entries = new IntMap<>();
+
+    /**
+     * The group of every part.
+     */
+    private final Group all = new Group();
+
+    /**
+     * The group of the InHouse parts.
+     */
+    private final Group inHouse = new Group();
+
+    /**
+     * The group of the Outsourced parts.
+     */
+    private final Group outsourced = new Group();
+
+    /**
+     * The group of the InHouse parts of each machine.
+     */
+    private final IntMap<Group> machines = new IntMap<>();
+
+    /**
+     * The group of the Outsourced parts of each company.
+     */
+    private final Map<String, Group> companies = new HashMap<>();
+
+    /**
+     * Returns the valuation of the given parts, counted from scratch.
+     *
+     * @param parts the parts to value.
+     * @return a new valuation of the parts.
+     */
+    public static PartValuation of(Iterable<Part> parts) {
+        PartValuation valuation = new PartValuation();
+        for (Part part : parts) {
+            valuation.put(part);
+        }
+        return valuation;
+    }
+
+    /**
+     * Records the given part, replacing the part with the same id if there is one.
+     *
+     * @param part the part.
+     */
+    public void put(Part part) {
+        if (part instanceof Outsourced) {
+            String companyName = ((Outsourced) part).getCompanyName();
+            put(part.getId(), part.getPrice(), part.getStock(), 0, companyName == null ? "" : companyName);
+        } else {
+            put(part.getId(), part.getPrice(), part.getStock(),
+                    part instanceof InHouse ? ((InHouse) part).getMachineId() : 0, null);
+        }
+    }
+
+    /**
+     * Records a part, replacing the part with the same id if there is one.
+     *
+     * @param id the id of the part.
+     * @param price the price of the part.
+     * @param stock the stock of the part.
+     * @param machineId the machine making the part, for an InHouse part.
+     * @param companyName the company selling the part, or null for an InHouse part.
+     */
+    public void put(int id, double price, int stock, int machineId, String companyName) {
+        remove(id);
+        if (companyName != null) {
+            // The entries of a company share its name instead of each keeping a copy of it.
+            Group company = companies.get(companyName);
+            if (company != null) {
+                companyName = company.name;
+            }
+        }
+        Entry entry = new Entry(price, stock, machineId, companyName);
+        entries.put(id, entry);
+        all.add(price, stock);
+        if (companyName == null) {
+            inHouse.add(price, stock);
+            Group machine = machines.get(machineId);
+            if (machine == null) {
+                machine = new Group();
+                machines.put(machineId, machine);
+            }
+            machine.add(price, stock);
+        } else {
+            outsourced.add(price, stock);
+            companies.computeIfAbsent(companyName, Group::new).add(price, stock);
+        }
+    }
+
+    /**
+     * Changes the stock of the part with the given id.
+     *
+     * @param id the id of the part.
+     * @param stock the new stock.
+     * @return true if the part was found, or false otherwise.
+     */
+    public boolean setStock(int id, int stock) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            return false;
+        }
+        long delta = (long) stock - entry.stock;
+        entry.stock = stock;
+        all.addStock(entry.price, delta);
+        if (entry.companyName == null) {
+            inHouse.addStock(entry.price, delta);
+            machines.get(entry.machineId).addStock(entry.price, delta);
+        } else {
+            outsourced.addStock(entry.price, delta);
+            companies.get(entry.companyName).addStock(entry.price, delta);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the part with the given id.
+     *
+     * @param id the id of the part.
+     * @return true if the part was removed, or false if it was not recorded.
+     */
+    public boolean remove(int id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        all.remove(entry.price, entry.stock);
+        if (entry.companyName == null) {
+            inHouse.remove(entry.price, entry.stock);
+            Group machine = machines.get(entry.machineId);
+            machine.remove(entry.price, entry.stock);
+            if (machine.count == 0) {
+                machines.remove(entry.machineId);
+            }
+        } else {
+            outsourced.remove(entry.price, entry.stock);
+            Group company = companies.get(entry.companyName);
+            company.remove(entry.price, entry.stock);
+            if (company.count == 0) {
+                companies.remove(entry.companyName);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the valuation of every part.
+     *
+     * @return the valuation.
+     */
+    public Valuation total() {
+        return all.valuation;
+    }
+
+    /**
+     * Returns the valuation of the InHouse parts.
+     *
+     * @return the valuation.
+     */
+    public Valuation inHouse() {
+        return inHouse.valuation;
+    }
+
+    /**
+     * Returns the valuation of the Outsourced parts.
+     *
+     * @return the valuation.
+     */
+    public Valuation outsourced() {
+        return outsourced.valuation;
+    }
+
+    /**
+     * Returns the valuation of the InHouse parts made by the given machine.
+     *
+     * @param machineId the id of the machine.
+     * @return the valuation, empty if the machine makes no part.
+     */
+    public Valuation machine(int machineId) {
+        Group machine = machines.get(machineId);
+        return machine == null ? Valuation.EMPTY : machine.valuation;
+    }
+
+    /**
+     * Returns the valuation of the Outsourced parts bought from the given company.
+     *
+     * @param companyName the name of the company.
+     * @return the valuation, empty if no part is bought from the company.
+     */
+    public Valuation company(String companyName) {
+        Group company = companies.get(companyName);
+        return company == null ? Valuation.EMPTY : company.valuation;
+    }
+
+    /**
+     * Returns the valuation of the parts of each machine.
+     *
+     * @return an unmodifiable map of the valuations by machine id, in ascending order.
+     */
+    public Map<Integer, Valuation> machines() {
+        Map<Integer, Valuation> valuations = new TreeMap<>();
+        machines.forEach((machineId, machine) -> valuations.put(machineId, machine.valuation));
+        return Collections.unmodifiableMap(valuations);
+    }
+
+    /**
+     * Returns the valuation of the parts of each company.
+     *
+     * @return an unmodifiable map of the valuations by company name, in alphabetical order.
+     */
+    public Map<String, Valuation> companies() {
+        Map<String, Valuation> valuations = new TreeMap<>();
+        companies.forEach((companyName, company) -> valuations.put(companyName, company.valuation));
+        return Collections.unmodifiableMap(valuations);
+    }
+
+    /**
+     * Returns true if every aggregate of this valuation is exactly the same as in the given
+     * one, such as a valuation counted from scratch.
+     *
+     * @param other the valuation to compare with.
+     * @return true if the totals of every group are the same.
+     */
+    public boolean sameAs(PartValuation other) {
+        if (!all.sameAs(other.all) || !inHouse.sameAs(other.inHouse) || !outsourced.sameAs(other.outsourced)
+                || machines.size() != other.machines.size() || companies.size() != other.companies.size()) {
+            return false;
+        }
+        boolean[] same = {true};
+        machines.forEach((machineId, machine) -> same[0] &= machine.sameAs(other.machines.get(machineId)));
+        for (Map.Entry<String, Group> company : companies.entrySet()) {
+            same[0] &= company.getValue().sameAs(other.companies.get(company.getKey()));
+        }
+        return same[0];
+    }
+
+    /**
+     * Returns the exact value of the stock of a part.
+     *
+     * @param price the price of the part.
+     * @param stock the stock of the part.
+     * @return the price times the stock.
+     */
+    private static BigDecimal value(double price, int stock) {
+        return new BigDecimal(price).multiply(BigDecimal.valueOf(stock));
+    }
+}
@@ -2,7 +2,6 @@ package com.gyp1.inventorymgtapp;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -10,7 +9,6 @@ import javafx.fxml.Initializable;
 import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 
 import java.net.URL;
@@ -31,14 +29,20 @@ public class ProductController implements Initializable {
     private Scene parentView;
 
     /**
-     * A reference of the Inventory object instantiated in the MainController.
+     * The latency statistics of handleSaveButton, from reading the input to showing the
+     * main screen again. Saves that fail are not recorded.
      */
-    private Inventory inventory;
+    private static final OperationStats SAVE = OperationStats.of("ProductController", "handleSaveButton");
 
     /**
-     * Used for generating product id when adding new Product object.
+     * The latency statistics of the part searches, measured on the search thread.
      */
-    private int maxProductID;
+    private static final OperationStats SEARCH_PARTS = OperationStats.of("ProductController", "searchParts");
+
+    /**
+     * A reference of the Inventory object instantiated in the MainController.
+     */
+    private Inventory inventory;
 
     /**
      * The current user action - either Add or Modify.
@@ -46,12 +50,31 @@ public class ProductController implements Initializable {
     private UserAction action;
 
     /**
-     * The index in the alProducts ObservableList in the Inventory object 'inventory'
-     * of the Product selected in the tblProduct Table View of the main view screen.
+     * The Product selected in the tblProduct Table View of the main view screen.
+     */
+    private Product selectedProduct;
+
+    /**
+     * The Part objects in the inventory allParts list that match the word in the
+     * tbxSearch TextField.
+     */
+    private ObservableList<Part> foundParts;
+
+    /**
+     * The sorted views of all parts and of the found parts. The tblviewParts TableView shows
+     * the first when the search box is empty and the second otherwise.
      */
-    private int selectedIndex = -1;
+    private SortedList<Part> sortedParts, sortedFoundParts;
 
-    private FilteredList<Part> filteredParts;
+    /**
+     * Answers the queries typed into the tbxSearch TextField.
+     */
+    private IncrementalSearch<Part> partSearch;
+
+    /**
+     * Runs the part searches off the JavaFX application thread and publishes the latest result.
+     */
+    private BackgroundSearch<Part> partSearcher;
 
     /**
      * The title label
@@ -113,31 +136,36 @@ public class ProductController implements Initializable {
      * The Part ID column of the tblviewPrdctParts TableView.
      */
     @FXML
-    private TableColumn<Product, Integer> tblcolPrdctPartID;
+    private TableColumn<Part, Integer> tblcolPrdctPartID;
 
     /**
      * The Name column of the tblviewPrdctParts TableView.
      */
     @FXML
-    private TableColumn<Product, String> tblcolPrdctPartName;
+    private TableColumn<Part, String> tblcolPrdctPartName;
 
     /**
      * The Inv column of the tblviewPrdctParts TableView.
      */
     @FXML
-    private TableColumn<Product, Integer> tblcolPrdctPartInv;
+    private TableColumn<Part, Integer> tblcolPrdctPartInv;
 
     /**
      * The Price column of the tblviewPrdctParts TableView.
      */
     @FXML
-    private TableColumn<Product, Double> tblcolPrdctPartPrice;
+    private TableColumn<Part, Double> tblcolPrdctPartPrice;
 
     /**
      * An ObservableList for temporarily storing parts associated to a product.
      */
     private ObservableList<Part> associatedParts;
 
+    /**
+     * Shows the columns of the tblviewParts TableView and sorts its items.
+     */
+    private TypedTable<Part> partColumns;
+
     /**
      * Handler of the ActionEvent for the Add button in the product-view.fxml. It adds
      * the selected part from the tblviewParts Table View into the associatedParts
@@ -186,17 +214,30 @@ public class ProductController implements Initializable {
      */
     @FXML
     protected void handleSaveButton(ActionEvent event) {
+        long start = SAVE.start();
         Product newProduct = getProductInput();
 
         if (newProduct != null) {
             if (action == UserAction.ADD) {
+                // The id is only leased once the input is valid, so rejected saves use none.
+                newProduct.setId(generateID());
                 inventory.addProduct(newProduct);
             } else if (action == UserAction.MODIFY) {
-                inventory.updateProduct(selectedIndex, newProduct);
+                try {
+                    if (!inventory.updateProduct(selectedProduct, newProduct)) {
+                        MessageDialog.showDialog("The product was deleted while it was being modified", true);
+                        return;
+                    }
+                } catch (IllegalArgumentException ex) {
+                    // For instance, the inventory level would fall below the units reserved.
+                    MessageDialog.showDialog("The product could not be saved", ex.getMessage(), true);
+                    return;
+                }
             } else {
                 MessageDialog.showDialog("Unknown operation", true);
             }
             backToMain(event);
+            SAVE.stop(start);
         }
 
     }
@@ -222,8 +263,12 @@ public class ProductController implements Initializable {
      * @param event an instance of the ActionEvent.
      */
     private void backToMain(ActionEvent event) {
+        ScreenTransitionEvent transition = new ScreenTransitionEvent();
+        transition.begin();
+        partSearcher.cancel();
         Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
         stage.setScene(parentView);
+        transition.finish("main-view.fxml", null, inventory);
     }
 
     /**
@@ -236,12 +281,12 @@ public class ProductController implements Initializable {
     }
 
     /**
-     * Assign to this class' index attribute the value of the given parameter variable.
+     * Assign to this class' selectedProduct attribute the value of the given parameter variable.
      *
-     * @param index the value to assign to the index attribute.
+     * @param product the value to assign to the selectedProduct attribute.
      */
-    public void setSelectedIndex(int index) {
-        this.selectedIndex = index;
+    public void setSelectedProduct(Product product) {
+        this.selectedProduct = product;
     }
 
     /**
@@ -251,6 +296,14 @@ public class ProductController implements Initializable {
      */
     void setInventory(Inventory inventory) {
         this.inventory = inventory;
+        partSearch = inventory.newPartSearch();
+        partSearcher = new BackgroundSearch<>("product-part-search", SearchEvent.recorded("ProductController",
+                "parts", SEARCH_PARTS, inventory::getPartCount, partSearch::search), parts -> {
+            foundParts.setAll(parts);
+            if (tblviewParts.getItems() != sortedFoundParts) {
+                tblviewParts.setItems(sortedFoundParts);
+            }
+        });
     }
 
     /**
@@ -263,22 +316,41 @@ public class ProductController implements Initializable {
     }
 
     /**
-     * Populates the TextField components with the values of the Product selected from the
-     * main view, initializes an ObservableList for temporarily storing parts associated to
-     * a Product, and links the TableViews in the Product-view to their respective ObservableLists.
+     * Initializes an ObservableList for temporarily storing parts associated to a Product,
+     * and sets up the columns of the TableViews. The product-view is built once, possibly
+     * on a background thread, so nothing here depends on the user action or on the
+     * Inventory's views; prepare() sets those up each time the view is shown.
      */
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
         associatedParts = FXCollections.observableArrayList();
+        foundParts = FXCollections.observableArrayList();
+        setUpTableViews();
+    }
+
+    /**
+     * Clears the TextField components when user action is ADD, or populates them with
+     * the values of the Product selected from the main view, and links the TableViews in
+     * the Product-view to their respective ObservableLists.
+     */
+    public void prepare() {
+        associatedParts.clear();
+        tblviewParts.getSelectionModel().clearSelection();
+        tblviewPrdctParts.getSelectionModel().clearSelection();
 
         if (action == UserAction.ADD) {
+            tbxName.clear();
+            tbxInv.clear();
+            tbxPrice.clear();
+            tbxMax.clear();
+            tbxMin.clear();
             tbxId.setText("Auto-Generated");
             lblTitle.setText("Add Product");
         }
         // Population the fields if modifying the product
-         else if (action == UserAction.MODIFY && selectedIndex >= 0) {
+         else if (action == UserAction.MODIFY && selectedProduct != null) {
             lblTitle.setText("Modify Product");
-            Product product = inventory.getAllProducts().get(selectedIndex);
+            Product product = selectedProduct;
             tbxId.setText(Integer.toString(product.getId()));
             tbxName.setText(product.getName());
             tbxInv.setText(Integer.toString(product.getStock()));
@@ -289,79 +361,53 @@ public class ProductController implements Initializable {
             associatedParts.addAll(product.getAllAssociatedParts());
         }
 
-        // Bind the Parts list and Product parts list to respective tables.
+        // Bind the Parts list to its table and reset the search.
         bindPartsLisToTableView();
     }
 
     /**
-     * Generates and returns a new Product ID.
+     * Generates and returns a new Product ID, taken from the Inventory's product id sequence so it
+     * is never shared with another Product, even one added by another thread or a past session.
      *
      * @return an integer with the value of the new Product ID
      */
     private int generateID() {
-        if (inventory.getAllProducts().isEmpty()) {
-            maxProductID = 1;
-        }
-        else{
-            if (maxProductID < 1) {
-                maxProductID = 0;
-                for (Product product : inventory.getAllProducts()) {
-                    if (product.getId() > maxProductID) {
-                        maxProductID = product.getId();
-                    }
-                }
-            }
-            maxProductID++;
-        }
-        return maxProductID;
+        return inventory.getProductIds().next();
     }
 
     /**
-     * Sets a predicate on the filteredParts Observable list. The predicate callback
-     * function returns true for each part object that has an id or name matching the
-     * value in the given searchKey.
+     * Shows in the tblviewParts TableView the Part objects that have an id or name matching
+     * the value in the given searchKey, or all parts when the searchKey is empty. The
+     * search runs in the background and its matches replace the content of the foundParts
+     * list in a single change, unless a newer search key arrives first.
      *
      * @param searchKey the search item to lookup in the list.
      */
     private void filterParts(String searchKey) {
-        filteredParts.setPredicate(part -> {
-            if (searchKey == null || searchKey.isEmpty()) {
-                return true;
-            }
-            String filter = searchKey.toLowerCase();
-
-            if (part.getName().toLowerCase().indexOf(filter) != -1) {
-                return true;
-            } else if (String.valueOf(part.getId()).indexOf(filter) != -1) {
-                return true;
-            } else {
-                return false;
+        if (searchKey == null || searchKey.isEmpty()) {
+            partSearcher.cancel();
+            foundParts.clear();
+            if (tblviewParts.getItems() != sortedParts) {
+                tblviewParts.setItems(sortedParts);
             }
-        });
+            return;
+        }
+        partSearcher.submit(searchKey);
     }
 
     /**
-     * Links the TableView components int the product-view.fxml file to their respective
-     * ObservableLists. The tblviewParts is linked to the allParts ObservableLists of the
-     * Inventory object, while the tblviewPrdctParts is linked to the associatedParts
+     * Sets up the columns of the TableView components in the product-view.fxml file and
+     * the search box. The tblviewPrdctParts is linked to the associatedParts
      * ObservableLists that temporarily holds Part objects associated to a product.
      */
-    private void bindPartsLisToTableView() {
+    private void setUpTableViews() {
 
-        //Set the CellValueFactory for all columns of the tblviewParts TableView in products-view.fxml.
-        tblcolPartID.setCellValueFactory(new PropertyValueFactory<Part, Integer>("id"));
-        tblcolPartName.setCellValueFactory(new PropertyValueFactory<Part, String>("name"));
-        tblcolPartInv.setCellValueFactory(new PropertyValueFactory<Part, Integer>("stock"));
-        tblcolPartPrice.setCellValueFactory(new PropertyValueFactory<Part, Double>("price"));
-        // Wrap the parts observable list in a filtered list.
-        filteredParts = new FilteredList<>(inventory.getAllParts(), b -> true);
-
-        // Wrap filtered parts in a SortedList
-        SortedList<Part> sortedParts = new SortedList<>(filteredParts);
-        // Add sorted and/or filtered parts to the parts table.
-        sortedParts.comparatorProperty().bind(tblviewParts.comparatorProperty());
-        // Add sorted and/or filtered products to the products  table.
-        tblviewParts.setItems(sortedParts);
+        //Show the columns of the tblviewParts TableView in products-view.fxml through the Part getters.
+        partColumns = new TypedTable<>(tblviewParts);
+        partColumns.intColumn(tblcolPartID, Part::getId);
+        partColumns.stringColumn(tblcolPartName, Part::getName);
+        partColumns.intColumn(tblcolPartInv, Part::getStock);
+        partColumns.doubleColumn(tblcolPartPrice, Part::getPrice);
 
         tbxSearch.textProperty().addListener((Observable, oldValue, newValue) -> {
             filterParts(newValue);
@@ -370,17 +416,36 @@ public class ProductController implements Initializable {
         /// Setup the product's parts tableview
 
         // Bind the part's table to the inventory's parts list.
-        tblcolPrdctPartID.setCellValueFactory(new PropertyValueFactory<Product, Integer>("id"));
-        tblcolPrdctPartName.setCellValueFactory(new PropertyValueFactory<Product, String>("name"));
-        tblcolPrdctPartInv.setCellValueFactory(new PropertyValueFactory<Product, Integer>("stock"));
-        tblcolPrdctPartPrice.setCellValueFactory(new PropertyValueFactory<Product, Double>("price"));
+        TypedTable<Part> associatedColumns = new TypedTable<>(tblviewPrdctParts);
+        associatedColumns.intColumn(tblcolPrdctPartID, Part::getId);
+        associatedColumns.stringColumn(tblcolPrdctPartName, Part::getName);
+        associatedColumns.intColumn(tblcolPrdctPartInv, Part::getStock);
+        associatedColumns.doubleColumn(tblcolPrdctPartPrice, Part::getPrice);
 
         tblviewPrdctParts.setItems(associatedParts);
     }
 
+    /**
+     * Links the tblviewParts TableView to the allParts ObservableLists of the Inventory
+     * object, and starts each showing of the view with an empty search box.
+     */
+    private void bindPartsLisToTableView() {
+        // Wrap all parts and the found parts in SortedLists that follow the table's sort order.
+        if (sortedParts == null) {
+            sortedParts = partColumns.sorted(inventory.getAllParts());
+            sortedFoundParts = partColumns.sorted(foundParts);
+        }
+        // Show all parts until something is typed in the search box.
+        tbxSearch.clear();
+        filterParts(null);
+        // The parts may have changed since the view was last shown.
+        partSearch.invalidate();
+    }
+
     /**
      * Retrieves the value in the TextFields and creates a new Product object when user action is ADD,
-     * or updates the selected Product object when user action is MODIFY.
+     * or updates the selected Product object when user action is MODIFY. A new Product has the
+     * id 0 until it is saved.
      *
      * @return return a new Product object or an updated Product object depending on the current user action.
      *
@@ -395,7 +460,7 @@ public class ProductController implements Initializable {
         int id = 0, inv, min, max;
 
         if (action == UserAction.ADD) {
-            id = generateID();
+            id = 0;
         } else if (action == UserAction.MODIFY) {
             try {
                 id = Integer.parseInt(tbxId.getText());
@@ -403,16 +468,15 @@ public class ProductController implements Initializable {
                 MessageDialog.showDialog("Product ID must be an integer", true);
                 return null;
             }
+            if (id < 1) {
+                MessageDialog.showDialog("Invalid product ID", true);
+                return null;
+            }
         } else {
             MessageDialog.showDialog("Unknown action!", "Expected add or modify operation", true);
             return null;
         }
 
-        if (id < 1) {
-            MessageDialog.showDialog("Invalid product ID", true);
-            return null;
-        }
-
         name = tbxName.getText();
         if (name.trim().isEmpty()) {
             MessageDialog.showDialog("Name is empty", true);
@@ -0,0 +1,176 @@
+package com.gyp1.inventorymgtapp;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * The Reservation class holds stock set aside by the ReservationEngine for one order: a
+ * quantity of one or more parts, or of one Product. The stock stays reserved until the
+ * reservation is committed, which takes it out of the Inventory, released, or expired.
+ * Each of these happens at most once, whichever thread gets there first.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class Reservation {
+    /**
+     * The states of a reservation.
+     */
+    public enum Status {
+        /**
+         * The stock is reserved.
+         */
+        ACTIVE,
+
+        /**
+         * The stock was given back.
+         */
+        RELEASED,
+
+        /**
+         * The stock was taken out of the Inventory.
+         */
+        COMMITTED,
+
+        /**
+         * The stock was given back because the reservation was not committed in time.
+         */
+        EXPIRED
+    }
+
+    /**
+     * Changes the status by compare-and-set.
+     */
+    private static final AtomicIntegerFieldUpdater<Reservation> STATUS =
+            AtomicIntegerFieldUpdater.newUpdater(Reservation.class, "status");
+
+    /**
+     * The ordinal of the status.
+     */
+    private volatile int status;
+
+    /**
+     * True if the reservation holds parts, or false if it holds a Product.
+     */
+    private final boolean parts;
+
+    /**
+     * The id of each item reserved; the ids are distinct.
+     */
+    private final int[] ids;
+
+    /**
+     * The quantity reserved of each item.
+     */
+    private final int[] quantities;
+
+    /**
+     * The ledger cell of each item reserved.
+     */
+    private final StockLedger.Cell[] cells;
+
+    /**
+     * The System.nanoTime after which the reservation expires, or Long.MAX_VALUE if it
+     * never does.
+     */
+    private final long deadline;
+
+    /**
+     * Default constructor. The stock must already be reserved in the cells.
+     *
+     * @param parts true if the items are parts, or false if it is a Product.
+     * @param ids the id of each item.
+     * @param quantities the quantity reserved of each item.
+     * @param cells the ledger cell of each item.
+     * @param deadline the System.nanoTime after which the reservation expires.
+     */
+    Reservation(boolean parts, int[] ids, int[] quantities, StockLedger.Cell[] cells, long deadline) {
+        this.parts = parts;
+        this.ids = ids;
+        this.quantities = quantities;
+        this.cells = cells;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Returns the status of the reservation.
+     *
+     * @return the status.
+     */
+    public Status getStatus() {
+        return Status.values()[status];
+    }
+
+    /**
+     * Returns true if the reservation holds parts.
+     *
+     * @return true for parts, or false for a Product.
+     */
+    public boolean isParts() {
+        return parts;
+    }
+
+    /**
+     * Returns the ids of the items reserved.
+     *
+     * @return a copy of the ids.
+     */
+    public int[] getIds() {
+        return ids.clone();
+    }
+
+    /**
+     * Returns the quantities reserved, in the order of getIds.
+     *
+     * @return a copy of the quantities.
+     */
+    public int[] getQuantities() {
+        return quantities.clone();
+    }
+
+    /**
+     * Returns the time after which the reservation expires.
+     *
+     * @return the System.nanoTime of the deadline, or Long.MAX_VALUE if it never expires.
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Returns true if the deadline of the reservation has passed.
+     *
+     * @param now the current System.nanoTime.
+     * @return true if the reservation should expire.
+     */
+    boolean isDue(long now) {
+        return deadline != Long.MAX_VALUE && now - deadline > 0;
+    }
+
+    /**
+     * Moves the reservation out of ACTIVE, unless another thread did first.
+     *
+     * @param next the new status.
+     * @return true if this call changed the status.
+     */
+    boolean finish(Status next) {
+        return STATUS.compareAndSet(this, Status.ACTIVE.ordinal(), next.ordinal());
+    }
+
+    /**
+     * Sets the status of a reservation that this thread has finished.
+     *
+     * @param next the new status.
+     */
+    void setStatus(Status next) {
+        status = next.ordinal();
+    }
+
+    /**
+     * Gives the reserved stock back to the ledger cells.
+     */
+    void unreserve() {
+        for (int i = 0; i < cells.length; i++) {
+            cells[i].unreserve(quantities[i]);
+        }
+    }
+}
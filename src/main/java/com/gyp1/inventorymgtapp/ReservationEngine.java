@@ -0,0 +1,406 @@
+package com.gyp1.inventorymgtapp;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ReservationEngine class lets many order channels reserve the stock of parts and
+ * Products of an Inventory at the same time. Reserving, releasing and checking stock
+ * take no lock: each item has a cell in a StockLedger, whose on-hand and reserved counts
+ * are changed together by compare-and-set, so the stock of an item is never reserved
+ * beyond what is on hand.
+ *
+ * A reservation of several parts, such as the parts of a Product, is all-or-nothing: the
+ * parts are reserved one after the other, and if one of them is short, those already
+ * reserved are given back. Another reservation may then briefly find them reserved, but
+ * never finds more stock than there is.
+ *
+ * A reservation holds its stock until it is committed, which takes the stock out of the
+ * Inventory, released, or, if it was given a time to live, expired. Expired reservations
+ * are given back by a sweep that runs every SWEEP_INTERVAL on a daemon thread.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class ReservationEngine implements Closeable {
+    /**
+     * The time between two sweeps of the expired reservations.
+     */
+    public static final Duration SWEEP_INTERVAL = Duration.ofMillis(100);
+
+    /**
+     * The Inventory whose stock is reserved.
+     */
+    private final Inventory inventory;
+
+    /**
+     * The on-hand and reserved stock of the parts.
+     */
+    private final StockLedger parts;
+
+    /**
+     * The on-hand and reserved stock of the Products.
+     */
+    private final StockLedger products;
+
+    /**
+     * The reservations with a time to live, until they are finished and swept.
+     */
+    private final ConcurrentLinkedQueue<Reservation> expiring = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Runs the sweeps of the expired reservations.
+     */
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * Default constructor. The ledgers must already follow the stock of the Inventory.
+     *
+     * @param inventory the Inventory whose stock is reserved.
+     * @param parts the ledger of the parts.
+     * @param products the ledger of the Products.
+     */
+    public ReservationEngine(Inventory inventory, StockLedger parts, StockLedger products) {
+        this.inventory = inventory;
+        this.parts = parts;
+        this.products = products;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = SWEEP_INTERVAL.toNanos();
+        sweeper.scheduleWithFixedDelay(this::expireReservations, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Reserves a quantity of one part.
+     *
+     * @param partId the id of the part.
+     * @param quantity the quantity to reserve.
+     * @param ttl how long the reservation lasts unless committed, or null if it lasts
+     *            until released.
+     * @return the reservation, or null if not enough stock of the part is available.
+     */
+    public Reservation reservePart(int partId, int quantity, Duration ttl) {
+        return reserve(parts, true, new int[] {partId}, new int[] {quantity}, ttl);
+    }
+
+    /**
+     * Reserves quantities of several parts, all or nothing.
+     *
+     * @param partIds the ids of the parts; an id may appear more than once.
+     * @param quantities the quantity to reserve of each part.
+     * @param ttl how long the reservation lasts unless committed, or null if it lasts
+     *            until released.
+     * @return the reservation, or null if one of the parts does not have enough stock
+     *         available, in which case nothing is reserved.
+     */
+    public Reservation reserveParts(int[] partIds, int[] quantities, Duration ttl) {
+        if (partIds.length != quantities.length) {
+            throw new IllegalArgumentException("Expected one quantity per part id");
+        }
+        return reserve(parts, true, partIds, quantities, ttl);
+    }
+
+    /**
+     * Reserves the parts needed to assemble units of a Product, all or nothing: each of
+     * its associated parts, as many times as the Product lists it, for every unit.
+     *
+     * @param product the Product to assemble.
+     * @param units the number of units.
+     * @param ttl how long the reservation lasts unless committed, or null if it lasts
+     *            until released.
+     * @return the reservation, or null if one of the parts does not have enough stock
+     *         available, in which case nothing is reserved.
+     * @throws IllegalArgumentException if the Product has no associated parts.
+     */
+    public Reservation reservePartsFor(Product product, int units, Duration ttl) {
+        List<Part> associated = product.getAllAssociatedParts();
+        if (associated.isEmpty()) {
+            throw new IllegalArgumentException("Product " + product.getId() + " has no associated parts");
+        }
+        int[] partIds = new int[associated.size()];
+        int[] quantities = new int[partIds.length];
+        for (int i = 0; i < partIds.length; i++) {
+            partIds[i] = associated.get(i).getId();
+            quantities[i] = units;
+        }
+        return reserve(parts, true, partIds, quantities, ttl);
+    }
+
+    /**
+     * Reserves a quantity of one Product.
+     *
+     * @param productId the id of the Product.
+     * @param quantity the quantity to reserve.
+     * @param ttl how long the reservation lasts unless committed, or null if it lasts
+     *            until released.
+     * @return the reservation, or null if not enough stock of the Product is available.
+     */
+    public Reservation reserveProduct(int productId, int quantity, Duration ttl) {
+        return reserve(products, false, new int[] {productId}, new int[] {quantity}, ttl);
+    }
+
+    /**
+     * Gives back the stock of a reservation.
+     *
+     * @param reservation the reservation.
+     * @return true if the stock was given back, or false if the reservation was already
+     *         committed, released or expired.
+     */
+    public boolean release(Reservation reservation) {
+        if (!reservation.finish(Reservation.Status.RELEASED)) {
+            return false;
+        }
+        reservation.unreserve();
+        return true;
+    }
+
+    /**
+     * Takes the stock of a reservation out of the Inventory. The stock stays reserved
+     * until the Inventory has been changed, so that it is never offered twice.
+     *
+     * @param reservation the reservation.
+     * @return true if the stock was taken out of the Inventory, or false if the
+     *         reservation was already finished or has expired, or if one of its items is
+     *         no longer in the Inventory or no longer has the stock; the reservation is
+     *         then finished and its stock given back.
+     */
+    public boolean commit(Reservation reservation) {
+        if (reservation.isDue(System.nanoTime())) {
+            expire(reservation);
+            return false;
+        }
+        if (!reservation.finish(Reservation.Status.COMMITTED)) {
+            return false;
+        }
+        boolean committed;
+        try {
+            committed = take(reservation);
+        } catch (IllegalArgumentException ex) {
+            committed = false;
+        }
+        if (!committed) {
+            reservation.setStatus(Reservation.Status.RELEASED);
+        }
+        reservation.unreserve();
+        return committed;
+    }
+
+    /**
+     * Gives back the stock of every reservation whose time to live has passed, and
+     * forgets the finished ones.
+     *
+     * @return the number of reservations expired.
+     */
+    public int expireReservations() {
+        long now = System.nanoTime();
+        int expired = 0;
+        for (Iterator<Reservation> it = expiring.iterator(); it.hasNext();) {
+            Reservation reservation = it.next();
+            if (reservation.getStatus() != Reservation.Status.ACTIVE) {
+                it.remove();
+            } else if (reservation.isDue(now)) {
+                it.remove();
+                if (expire(reservation)) {
+                    expired++;
+                }
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Returns the on-hand stock of a part, as the ledger knows it.
+     *
+     * @param partId the id of the part.
+     * @return the stock in the Inventory, or 0 if the part is not in it.
+     */
+    public int getPartOnHand(int partId) {
+        StockLedger.Cell cell = parts.cell(partId);
+        return cell == null ? 0 : cell.getOnHand();
+    }
+
+    /**
+     * Returns the reserved stock of a part.
+     *
+     * @param partId the id of the part.
+     * @return the stock held by reservations, or 0 if the part is not in the Inventory.
+     */
+    public int getPartReserved(int partId) {
+        StockLedger.Cell cell = parts.cell(partId);
+        return cell == null ? 0 : cell.getReserved();
+    }
+
+    /**
+     * Returns the stock of a part that can still be reserved.
+     *
+     * @param partId the id of the part.
+     * @return the on-hand stock minus the reserved stock, or 0 if the part is not in the
+     *         Inventory.
+     */
+    public int getPartAvailable(int partId) {
+        StockLedger.Cell cell = parts.cell(partId);
+        return cell == null ? 0 : Math.max(0, cell.getAvailable());
+    }
+
+    /**
+     * Returns the on-hand stock of a Product, as the ledger knows it.
+     *
+     * @param productId the id of the Product.
+     * @return the stock in the Inventory, or 0 if the Product is not in it.
+     */
+    public int getProductOnHand(int productId) {
+        StockLedger.Cell cell = products.cell(productId);
+        return cell == null ? 0 : cell.getOnHand();
+    }
+
+    /**
+     * Returns the reserved stock of a Product.
+     *
+     * @param productId the id of the Product.
+     * @return the stock held by reservations, or 0 if the Product is not in the Inventory.
+     */
+    public int getProductReserved(int productId) {
+        StockLedger.Cell cell = products.cell(productId);
+        return cell == null ? 0 : cell.getReserved();
+    }
+
+    /**
+     * Returns the stock of a Product that can still be reserved.
+     *
+     * @param productId the id of the Product.
+     * @return the on-hand stock minus the reserved stock, or 0 if the Product is not in
+     *         the Inventory.
+     */
+    public int getProductAvailable(int productId) {
+        StockLedger.Cell cell = products.cell(productId);
+        return cell == null ? 0 : Math.max(0, cell.getAvailable());
+    }
+
+    /**
+     * Stops the sweeps of the expired reservations.
+     */
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Reserves quantities of items of one ledger, all or nothing.
+     *
+     * @param ledger the ledger of the items.
+     * @param isParts true if the items are parts.
+     * @param ids the ids of the items; an id may appear more than once.
+     * @param quantities the quantity to reserve of each item.
+     * @param ttl how long the reservation lasts unless committed, or null if it lasts
+     *            until released.
+     * @return the reservation, or null if an item does not have enough stock available.
+     */
+    private Reservation reserve(StockLedger ledger, boolean isParts, int[] ids, int[] quantities, Duration ttl) {
+        long deadline = Long.MAX_VALUE;
+        if (ttl != null && !ttl.isZero()) {
+            if (ttl.isNegative()) {
+                throw new IllegalArgumentException("The time to live must not be negative");
+            }
+            deadline = System.nanoTime() + ttl.toNanos();
+        }
+        int[] distinctIds = ids;
+        int[] totals = quantities;
+        if (ids.length > 1) {
+            // Add up the quantities of an id listed more than once.
+            long[] sorted = new long[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                sorted[i] = ((long) ids[i] << 32) | i;
+            }
+            Arrays.sort(sorted);
+            distinctIds = new int[ids.length];
+            totals = new int[ids.length];
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                int id = (int) (sorted[i] >> 32);
+                int quantity = checkedQuantity(quantities[(int) sorted[i]]);
+                if (distinct > 0 && distinctIds[distinct - 1] == id) {
+                    totals[distinct - 1] = Math.addExact(totals[distinct - 1], quantity);
+                } else {
+                    distinctIds[distinct] = id;
+                    totals[distinct] = quantity;
+                    distinct++;
+                }
+            }
+            distinctIds = Arrays.copyOf(distinctIds, distinct);
+            totals = Arrays.copyOf(totals, distinct);
+        } else {
+            checkedQuantity(quantities[0]);
+        }
+
+        StockLedger.Cell[] cells = new StockLedger.Cell[distinctIds.length];
+        for (int i = 0; i < distinctIds.length; i++) {
+            StockLedger.Cell cell = ledger.cell(distinctIds[i]);
+            if (cell == null || !cell.tryReserve(totals[i])) {
+                for (int j = 0; j < i; j++) {
+                    cells[j].unreserve(totals[j]);
+                }
+                return null;
+            }
+            cells[i] = cell;
+        }
+        Reservation reservation = new Reservation(isParts, distinctIds, totals, cells, deadline);
+        if (deadline != Long.MAX_VALUE) {
+            expiring.add(reservation);
+        }
+        return reservation;
+    }
+
+    /**
+     * Expires a reservation, unless it was finished first.
+     *
+     * @param reservation the reservation.
+     * @return true if this call expired it.
+     */
+    private boolean expire(Reservation reservation) {
+        if (!reservation.finish(Reservation.Status.EXPIRED)) {
+            return false;
+        }
+        reservation.unreserve();
+        return true;
+    }
+
+    /**
+     * Takes the stock of a reservation out of the Inventory.
+     *
+     * @param reservation the reservation.
+     * @return true if the stock was taken, or false if an item is no longer in the Inventory.
+     * @throws IllegalArgumentException if an item no longer has the stock.
+     */
+    private boolean take(Reservation reservation) {
+        int[] ids = reservation.getIds();
+        int[] quantities = reservation.getQuantities();
+        if (reservation.isParts()) {
+            return inventory.takeReservedPartStocks(ids, quantities);
+        }
+        return inventory.takeReservedProductStock(ids[0], quantities[0]) != null;
+    }
+
+    /**
+     * Checks a quantity to reserve.
+     *
+     * @param quantity the quantity.
+     * @return the quantity.
+     * @throws IllegalArgumentException if the quantity is not above 0.
+     */
+    private static int checkedQuantity(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("The quantity to reserve must be greater than 0");
+        }
+        return quantity;
+    }
+}
@@ -0,0 +1,193 @@
+package com.gyp1.inventorymgtapp;
+
+/**
+ * The ReservedStock class holds the ReservationEngine of an Inventory, created the first
+ * time it is asked for, and keeps the changes of the Inventory from taking reserved stock.
+ * Creating the engine attaches a StockLedger to each attribute table of the Inventory, so
+ * that the on-hand counts of the ledgers follow every later change of a stock.
+ *
+ * Reservations are made without the lock of the Inventory, so a stock cannot be checked
+ * against its reserved units and then lowered: a reservation could land in between. A
+ * change lowering a stock therefore lowers it in the ledger first, by a compare-and-set
+ * that fails when the new level is below the reserved units, before it changes anything
+ * else. Only the commit of a reservation takes reserved units out. Once the change ends,
+ * settle brings every cell lowered by it back in step with the attribute table, which
+ * undoes the lowering of a change that failed.
+ *
+ * Apart from engine, every method must be called while holding the write lock of the
+ * Inventory.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class ReservedStock {
+    /**
+     * The engine reserving the stock, or null until it is asked for.
+     */
+    private volatile ReservationEngine engine;
+
+    /**
+     * The ledger of the parts, or null until the engine is created.
+     */
+    private StockLedger partLedger;
+
+    /**
+     * The ledger of the Products, or null until the engine is created.
+     */
+    private StockLedger productLedger;
+
+    /**
+     * The ids of the parts lowered in the ledger by the current change.
+     */
+    private final IntSet loweredParts = new IntSet();
+
+    /**
+     * The ids of the Products lowered in the ledger by the current change.
+     */
+    private final IntSet loweredProducts = new IntSet();
+
+    /**
+     * Returns the engine, if it has been created.
+     *
+     * @return the engine, or null until create is called.
+     */
+    ReservationEngine engine() {
+        return engine;
+    }
+
+    /**
+     * Creates the engine, unless it already exists, and attaches its ledgers to the
+     * attribute tables.
+     *
+     * @param inventory the Inventory whose stock is reserved.
+     * @param partAttributes the attribute columns of its parts.
+     * @param productAttributes the attribute columns of its Products.
+     * @return the engine.
+     */
+    ReservationEngine create(Inventory inventory, AttributeTable partAttributes, AttributeTable productAttributes) {
+        if (engine == null) {
+            partLedger = new StockLedger();
+            productLedger = new StockLedger();
+            partAttributes.attach(partLedger);
+            productAttributes.attach(productLedger);
+            engine = new ReservationEngine(inventory, partLedger, productLedger);
+        }
+        return engine;
+    }
+
+    /**
+     * Lowers the stock of a Part in the ledger ahead of the change that lowers it in the
+     * Inventory. A level that does not fall is left to the attribute table.
+     *
+     * @param partId the id of the Part.
+     * @param stock the current inventory level.
+     * @param adjusted the new inventory level.
+     * @param taken the units removed that are reserved by the reservation being committed.
+     * @throws IllegalArgumentException if the level is lowered below the units that must
+     *                                  stay reserved.
+     */
+    void lowerPart(int partId, int stock, int adjusted, int taken) {
+        if (lower(partLedger, partId, stock, adjusted, taken)) {
+            loweredParts.add(partId);
+        }
+    }
+
+    /**
+     * Lowers the stock of a Product in the ledger ahead of the change that lowers it in
+     * the Inventory. A level that does not fall is left to the attribute table.
+     *
+     * @param productId the id of the Product.
+     * @param stock the current inventory level.
+     * @param adjusted the new inventory level.
+     * @param taken the units removed that are reserved by the reservation being committed.
+     * @throws IllegalArgumentException if the level is lowered below the units that must
+     *                                  stay reserved.
+     */
+    void lowerProduct(int productId, int stock, int adjusted, int taken) {
+        if (lower(productLedger, productId, stock, adjusted, taken)) {
+            loweredProducts.add(productId);
+        }
+    }
+
+    /**
+     * Lowers the stock of a Part replaced by an update keeping its id.
+     *
+     * @param oldPart the Part replaced.
+     * @param newPart the Part that replaces it.
+     * @throws IllegalArgumentException if the new level is lower and below the units reserved.
+     */
+    void lowerPartUpdate(Part oldPart, Part newPart) {
+        if (oldPart.getId() == newPart.getId()) {
+            lowerPart(newPart.getId(), oldPart.getStock(), newPart.getStock(), 0);
+        }
+    }
+
+    /**
+     * Lowers the stock of a Product replaced by an update keeping its id.
+     *
+     * @param oldProduct the Product replaced.
+     * @param newProduct the Product that replaces it.
+     * @throws IllegalArgumentException if the new level is lower and below the units reserved.
+     */
+    void lowerProductUpdate(Product oldProduct, Product newProduct) {
+        if (oldProduct.getId() == newProduct.getId()) {
+            lowerProduct(newProduct.getId(), oldProduct.getStock(), newProduct.getStock(), 0);
+        }
+    }
+
+    /**
+     * Sets the on-hand stock of every cell lowered by the change that just ended to the
+     * stock of its attribute table. After a change that succeeded the cells already hold
+     * it; after one that failed part way, they get back the levels the change left.
+     *
+     * @param partAttributes the attribute columns of the parts.
+     * @param productAttributes the attribute columns of the Products.
+     */
+    void settle(AttributeTable partAttributes, AttributeTable productAttributes) {
+        if (!loweredParts.isEmpty()) {
+            settle(partLedger, partAttributes, loweredParts);
+        }
+        if (!loweredProducts.isEmpty()) {
+            settle(productLedger, productAttributes, loweredProducts);
+        }
+    }
+
+    /**
+     * Lowers the on-hand stock of a cell of a ledger.
+     *
+     * @param ledger the ledger, or null while no engine exists.
+     * @param id the id of the item.
+     * @param stock the current inventory level.
+     * @param adjusted the new inventory level.
+     * @param taken the units removed that are reserved by the reservation being committed.
+     * @return true if the cell was lowered.
+     * @throws IllegalArgumentException if the level is lowered below the units that must
+     *                                  stay reserved.
+     */
+    private static boolean lower(StockLedger ledger, int id, int stock, int adjusted, int taken) {
+        if (ledger == null || adjusted >= stock) {
+            return false;
+        }
+        StockLedger.Cell cell = ledger.cell(id);
+        if (cell == null) {
+            return false;
+        }
+        cell.lowerOnHand(adjusted, taken);
+        return true;
+    }
+
+    /**
+     * Sets the on-hand stock of the given cells of a ledger to the stock of the table.
+     *
+     * @param ledger the ledger.
+     * @param attributes the attribute columns the ledger follows.
+     * @param ids the ids of the cells, cleared once they are set.
+     */
+    private static void settle(StockLedger ledger, AttributeTable attributes, IntSet ids) {
+        ids.forEach(id -> {
+            int row = attributes.rowOf(id);
+            ledger.setOnHand(id, row < 0 ? 0 : attributes.stock(row));
+        });
+        ids.clear();
+    }
+}
@@ -0,0 +1,73 @@
+package com.gyp1.inventorymgtapp;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The ScreenTransitionEvent class is the Java Flight Recorder event of a move from one
+ * screen of the application to another. It spans the whole move on the JavaFX
+ * application thread, and tells apart the time spent loading the FXML of the new screen.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+@Name("com.gyp1.inventorymgtapp.ScreenTransition")
+@Label("Screen Transition")
+@Category({"Inventory Management", "User Interface"})
+@Description("A move to another screen, including the loading of its FXML")
+public class ScreenTransitionEvent extends Event {
+    /**
+     * The FXML file of the screen shown.
+     */
+    @Label("Screen")
+    String screen;
+
+    /**
+     * The user action the screen is shown for, or null for the main screen.
+     */
+    @Label("Action")
+    String action;
+
+    /**
+     * The time spent loading the FXML of the screen, or waiting for its background load to
+     * finish; close to 0 when the screen was already built.
+     */
+    @Label("FXML Load Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long fxmlLoadTime;
+
+    /**
+     * The number of parts in the Inventory.
+     */
+    @Label("Parts")
+    int partCount;
+
+    /**
+     * The number of products in the Inventory.
+     */
+    @Label("Products")
+    int productCount;
+
+    /**
+     * Ends the transition, started with begin(), and commits it if Flight Recorder
+     * records it.
+     *
+     * @param screen the FXML file of the screen shown.
+     * @param action the user action the screen is shown for, or null for the main screen.
+     * @param inventory the Inventory shown by the application.
+     */
+    void finish(String screen, UserAction action, Inventory inventory) {
+        end();
+        if (shouldCommit()) {
+            this.screen = screen;
+            this.action = action == null ? null : action.name();
+            partCount = inventory.getPartCount();
+            productCount = inventory.getProductCount();
+            commit();
+        }
+    }
+}
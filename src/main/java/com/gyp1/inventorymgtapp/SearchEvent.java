@@ -0,0 +1,92 @@
+package com.gyp1.inventorymgtapp;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * The SearchEvent class is the Java Flight Recorder event of a search typed into one of
+ * the search boxes. It is recorded on the search thread and spans the search itself,
+ * not the debounce delay before it or the update of the Table View after it.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+@Name("com.gyp1.inventorymgtapp.Search")
+@Label("Search")
+@Category({"Inventory Management", "User Interface"})
+@Description("A search of the parts or products typed into a search box")
+public class SearchEvent extends Event {
+    /**
+     * The controller of the screen holding the search box.
+     */
+    @Label("Screen")
+    String screen;
+
+    /**
+     * What was searched, either parts or products.
+     */
+    @Label("Target")
+    String target;
+
+    /**
+     * The length of the search key.
+     */
+    @Label("Query Length")
+    int queryLength;
+
+    /**
+     * The number of matches found, or -1 when the search was interrupted.
+     */
+    @Label("Results")
+    int resultCount;
+
+    /**
+     * The number of parts or products searched.
+     */
+    @Label("Catalog Size")
+    int catalogSize;
+
+    /**
+     * Wraps a search so that each run records its latency in the given statistics and,
+     * while Flight Recorder records it, a SearchEvent.
+     *
+     * @param screen the controller of the screen holding the search box.
+     * @param target what is searched, either parts or products.
+     * @param stats the statistics of the search.
+     * @param catalogSize returns the number of parts or products searched.
+     * @param search computes the result of a query.
+     * @param <T> the type of the objects found by the search.
+     * @return the search, recorded.
+     */
+    static <T> Function<String, List<T>> recorded(String screen, String target, OperationStats stats,
+                                                  IntSupplier catalogSize, Function<String, List<T>> search) {
+        return query -> {
+            long start = stats.start();
+            SearchEvent event = new SearchEvent();
+            event.begin();
+            List<T> found = null;
+            try {
+                found = search.apply(query);
+                return found;
+            } finally {
+                stats.stop(start);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.screen = screen;
+                    event.target = target;
+                    event.queryLength = query == null ? 0 : query.length();
+                    event.resultCount = found == null ? -1 : found.size();
+                    event.catalogSize = catalogSize.getAsInt();
+                    event.commit();
+                }
+            }
+        };
+    }
+}
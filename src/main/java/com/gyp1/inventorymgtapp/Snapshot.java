@@ -0,0 +1,235 @@
+package com.gyp1.inventorymgtapp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The Snapshot class holds a point-in-time copy of the contents of an Inventory and writes
+ * it to, or loads it from, a versioned binary file. A snapshot replaces the journal
+ * segments written before it, so startup only replays the segments written after it.
+ *
+ * The file starts with a magic number, the format version and the number of the first
+ * journal segment not covered by the snapshot. It then holds the parts, with their
+ * InHouse or Outsourced attributes, and the products with the ids of their associated
+ * parts. It ends with a CRC32 checksum of everything before it.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class Snapshot {
+    /**
+     * The magic number at the start of every snapshot file, "INVS" in ASCII.
+     */
+    private static final int MAGIC = 0x494E5653;
+
+    /**
+     * The version of the snapshot format written by this class.
+     */
+    private static final short VERSION = 1;
+
+    /**
+     * The size of the buffers used to read and write snapshot files.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The number of the first journal segment whose records are not in this snapshot.
+     */
+    private final int segment;
+
+    /**
+     * The parts of the Inventory when the snapshot was taken.
+     */
+    private final Part[] parts;
+
+    /**
+     * The stock of each part when the snapshot was taken.
+     */
+    private final int[] partStocks;
+
+    /**
+     * The products of the Inventory when the snapshot was taken.
+     */
+    private final Product[] products;
+
+    /**
+     * The stock of each product when the snapshot was taken.
+     */
+    private final int[] productStocks;
+
+    /**
+     * The ids of the associated parts of each product when the snapshot was taken.
+     */
+    private final int[][] associatedPartIds;
+
+    /**
+     * Captures the contents of an Inventory. The caller must hold the Inventory's lock so
+     * that the lists do not change during the copy. Parts and products are replaced when
+     * edited, so their references are copied, but their stock is adjusted in place and
+     * the associated parts of a product can change in place too, so the stocks and the
+     * ids of the associated parts are copied while the lock is held; the snapshot is then
+     * written without reading a field that another thread may be changing.
+     *
+     * @param segment the number of the first journal segment not covered by the snapshot.
+     * @param parts the parts of the Inventory.
+     * @param products the products of the Inventory.
+     */
+    Snapshot(int segment, List<Part> parts, List<Product> products) {
+        this.segment = segment;
+        this.parts = parts.toArray(new Part[0]);
+        partStocks = new int[this.parts.length];
+        for (int i = 0; i < this.parts.length; i++) {
+            partStocks[i] = this.parts[i].getStock();
+        }
+        this.products = products.toArray(new Product[0]);
+        productStocks = new int[this.products.length];
+        associatedPartIds = new int[this.products.length][];
+        for (int i = 0; i < this.products.length; i++) {
+            productStocks[i] = this.products[i].getStock();
+            List<Part> associated = this.products[i].getAllAssociatedParts();
+            int[] ids = new int[associated.size()];
+            for (int j = 0; j < ids.length; j++) {
+                ids[j] = associated.get(j).getId();
+            }
+            associatedPartIds[i] = ids;
+        }
+    }
+
+    /**
+     * Returns the number of the first journal segment whose records are not in this snapshot.
+     *
+     * @return the journal segment number.
+     */
+    public int getSegment() {
+        return segment;
+    }
+
+    /**
+     * Writes this snapshot to the given file. The data is written to a temporary file,
+     * flushed to disk and then moved over the target, so a crash never leaves a partly
+     * written snapshot in its place.
+     *
+     * @param file the file to write.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32 crc = new CRC32();
+            OutputStream stream = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(stream, crc));
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(segment);
+            out.writeInt(parts.length);
+            for (int i = 0; i < parts.length; i++) {
+                InventoryCodec.writePart(out, parts[i], partStocks[i]);
+            }
+            out.writeInt(products.length);
+            for (int i = 0; i < products.length; i++) {
+                InventoryCodec.writeProduct(out, products[i], productStocks[i], associatedPartIds[i]);
+            }
+            out.flush();
+            // The checksum is written outside the checked stream so it does not cover itself.
+            new DataOutputStream(stream).writeInt((int) crc.getValue());
+            stream.flush();
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads a snapshot file into the given Inventory. The whole file is decoded and its
+     * checksum verified before anything is loaded, so a corrupt snapshot leaves the
+     * Inventory as it was.
+     *
+     * @param file the snapshot file.
+     * @param inventory the Inventory to load; it should be empty.
+     * @return the number of the first journal segment not covered by the snapshot.
+     * @throws IOException if the file cannot be read, has an unknown format or is corrupt.
+     */
+    public static int load(Path file, Inventory inventory) throws IOException {
+        // Parts kept in a part store are not in the snapshot, but are already in the Inventory.
+        Snapshot snapshot = read(file, inventory::lookupPart);
+        inventory.loadParts(Arrays.asList(snapshot.parts));
+        inventory.loadProducts(Arrays.asList(snapshot.products));
+        return snapshot.segment;
+    }
+
+    /**
+     * Reads a snapshot file back and checks that it is complete and intact.
+     *
+     * @param file the snapshot file.
+     * @throws IOException if the file cannot be read, has an unknown format or is corrupt.
+     */
+    public static void verify(Path file) throws IOException {
+        read(file, id -> null);
+    }
+
+    /**
+     * Decodes a snapshot file. The associated parts of the products are resolved among
+     * the parts of the snapshot first, and then with the given function.
+     *
+     * @param file the snapshot file.
+     * @param storedParts returns a Part that is not in the snapshot, or null if there is none.
+     * @return the snapshot held by the file.
+     * @throws IOException if the file cannot be read, has an unknown format or is corrupt.
+     */
+    private static Snapshot read(Path file, IntFunction<Part> storedParts) throws IOException {
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE)) {
+            CRC32 crc = new CRC32();
+            DataInputStream in = new DataInputStream(new CheckedInputStream(stream, crc));
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not an inventory snapshot: " + file);
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            int segment = in.readInt();
+
+            int partCount = in.readInt();
+            List<Part> parts = new ArrayList<>(partCount);
+            IntMap<Part> partsById = new IntMap<>(partCount);
+            for (int i = 0; i < partCount; i++) {
+                Part part = InventoryCodec.readPart(in);
+                parts.add(part);
+                partsById.put(part.getId(), part);
+            }
+
+            int productCount = in.readInt();
+            List<Product> products = new ArrayList<>(productCount);
+            for (int i = 0; i < productCount; i++) {
+                products.add(InventoryCodec.readProduct(in, id -> {
+                    Part part = partsById.get(id);
+                    return part != null ? part : storedParts.apply(id);
+                }));
+            }
+
+            int expected = (int) crc.getValue();
+            if (new DataInputStream(stream).readInt() != expected) {
+                throw new IOException("Corrupt inventory snapshot: " + file);
+            }
+            return new Snapshot(segment, parts, products);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.gyp1.inventorymgtapp;
+
+import javafx.application.Preloader;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+
+/**
+ * The SplashPreloader class shows a small window as soon as the JavaFX toolkit is up,
+ * while InventoryMgtApp loads the inventory and parses the main-view in the background.
+ * It is built in code rather than FXML so that it appears before any FXML is parsed. The
+ * application hides it by sending a ProgressNotification of 1 once the main window shows.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class SplashPreloader extends Preloader {
+    /**
+     * The stage of the splash window.
+     */
+    private Stage stage;
+
+    /**
+     * Shows how far the startup has come.
+     */
+    private ProgressBar progress;
+
+    /**
+     * Shows the splash window.
+     *
+     * @param stage the stage given to the preloader.
+     */
+    @Override
+    public void start(Stage stage) {
+        long start = StartupTimer.start();
+        this.stage = stage;
+        progress = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+        progress.setPrefWidth(240);
+        VBox content = new VBox(12, new Label("Inventory Management System"), new Label("Loading inventory..."),
+                progress);
+        content.setAlignment(Pos.CENTER);
+        content.setPadding(new Insets(24));
+        stage.initStyle(StageStyle.UNDECORATED);
+        stage.setScene(new Scene(content));
+        stage.show();
+        StartupTimer.stop("showSplash", start);
+    }
+
+    /**
+     * Shows the progress reported by the application, and hides the splash window when
+     * the startup is complete.
+     *
+     * @param info the notification sent by the application.
+     */
+    @Override
+    public void handleApplicationNotification(PreloaderNotification info) {
+        if (info instanceof ProgressNotification) {
+            double done = ((ProgressNotification) info).getProgress();
+            if (done >= 1) {
+                stage.hide();
+            } else {
+                progress.setProgress(done);
+            }
+        }
+    }
+
+    /**
+     * Hides the splash window when the application fails to start, so the error is not
+     * hidden behind it.
+     *
+     * @param info the notification of the error.
+     * @return false, to let the error be reported as usual.
+     */
+    @Override
+    public boolean handleErrorNotification(ErrorNotification info) {
+        stage.hide();
+        return false;
+    }
+}
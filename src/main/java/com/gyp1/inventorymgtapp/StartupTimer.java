@@ -0,0 +1,88 @@
+package com.gyp1.inventorymgtapp;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The StartupTimer class times the phases of the application's startup, from the start
+ * of the JVM to the main window being shown. Phases may run at the same time on different
+ * threads; each one is timed where it runs:
+ *
+ * long start = StartupTimer.start();
+ * ... the phase ...
+ * StartupTimer.stop("loadInventory", start);
+ *
+ * The duration of each phase is kept in the OperationStats of the Startup group, so it
+ * can be read over JMX, and finish() logs all of them on one line.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class StartupTimer {
+    /**
+     * Logs the durations of the phases.
+     */
+    private static final System.Logger LOG = System.getLogger(StartupTimer.class.getName());
+
+    /**
+     * The phases timed so far, as name, duration and thread.
+     */
+    private static final List<String> PHASES = new ArrayList<>();
+
+    /**
+     * Prevents instantiation; the phases of the startup are shared by the whole application.
+     */
+    private StartupTimer() {
+    }
+
+    /**
+     * Marks the start of a phase.
+     *
+     * @return the value to pass to stop.
+     */
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Marks the end of a phase and records its duration.
+     *
+     * @param phase the name of the phase.
+     * @param start the value returned by start.
+     */
+    public static void stop(String phase, long start) {
+        record(phase, System.nanoTime() - start);
+    }
+
+    /**
+     * Records the time the JVM took to start, up to now. It is called first thing in
+     * the main method.
+     */
+    public static void jvmStarted() {
+        record("jvm", ManagementFactory.getRuntimeMXBean().getUptime() * 1_000_000);
+    }
+
+    /**
+     * Logs the duration of every phase and the time since the JVM started.
+     */
+    public static void finish() {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        synchronized (PHASES) {
+            LOG.log(System.Logger.Level.INFO, "Started in " + uptime + " ms: " + String.join(", ", PHASES));
+        }
+    }
+
+    /**
+     * Records the duration of a phase.
+     *
+     * @param phase the name of the phase.
+     * @param nanos the duration, in nanoseconds.
+     */
+    private static void record(String phase, long nanos) {
+        OperationStats.of("Startup", phase).getHistogram().record(nanos);
+        synchronized (PHASES) {
+            PHASES.add(phase + " " + nanos / 1_000_000 + " ms (" + Thread.currentThread().getName() + ")");
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.gyp1.inventorymgtapp;
+
+/**
+ * The StockAlert class describes a threshold crossing of a Part or Product in the
+ * Inventory: its stock fell to or below its minimum, and it should be reordered, or its
+ * stock rose back above the minimum. A StockAlert is immutable.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class StockAlert {
+    /**
+     * The kind of item whose stock crossed its minimum.
+     */
+    public enum Kind {
+        /**
+         * A Part.
+         */
+        PART,
+
+        /**
+         * A Product.
+         */
+        PRODUCT
+    }
+
+    /**
+     * The kind of item.
+     */
+    private final Kind kind;
+
+    /**
+     * The id of the item.
+     */
+    private final int id;
+
+    /**
+     * The stock of the item after the crossing.
+     */
+    private final int stock;
+
+    /**
+     * The minimum stock of the item.
+     */
+    private final int min;
+
+    /**
+     * The System.nanoTime of the change that made the crossing.
+     */
+    private final long changeTime;
+
+    /**
+     * Default constructor.
+     *
+     * @param kind the kind of item.
+     * @param id the id of the item.
+     * @param stock the stock of the item after the crossing.
+     * @param min the minimum stock of the item.
+     * @param changeTime the System.nanoTime of the change that made the crossing.
+     */
+    public StockAlert(Kind kind, int id, int stock, int min, long changeTime) {
+        this.kind = kind;
+        this.id = id;
+        this.stock = stock;
+        this.min = min;
+        this.changeTime = changeTime;
+    }
+
+    /**
+     * Returns the kind of item.
+     *
+     * @return PART or PRODUCT.
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the id of the item.
+     *
+     * @return the id.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the stock of the item after the crossing.
+     *
+     * @return the inventory level.
+     */
+    public int getStock() {
+        return stock;
+    }
+
+    /**
+     * Returns the minimum stock of the item.
+     *
+     * @return the minimum inventory level.
+     */
+    public int getMin() {
+        return min;
+    }
+
+    /**
+     * Returns true if the item fell low, or false if it recovered.
+     *
+     * @return true if the stock is at or below the minimum.
+     */
+    public boolean isLow() {
+        return stock <= min;
+    }
+
+    /**
+     * Returns the time of the change that made the crossing, to measure how long the
+     * alert took to arrive.
+     *
+     * @return the System.nanoTime of the change.
+     */
+    public long getChangeTime() {
+        return changeTime;
+    }
+
+    /**
+     * Returns a description of the alert.
+     *
+     * @return the kind, id, stock and minimum of the item.
+     */
+    @Override
+    public String toString() {
+        return kind + " " + id + (isLow() ? " low: " : " restocked: ") + stock + " of min " + min;
+    }
+}
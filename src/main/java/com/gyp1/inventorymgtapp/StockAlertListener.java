@@ -0,0 +1,20 @@
+package com.gyp1.inventorymgtapp;
+
+/**
+ * The StockAlertListener interface receives the StockAlerts of an Inventory. The alerts
+ * of a change are delivered on the thread that made it, right after the change, once the
+ * Inventory is unlocked; a listener may read the Inventory but should hand slow work,
+ * such as placing an order, to another thread.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+@FunctionalInterface
+public interface StockAlertListener {
+    /**
+     * Receives the crossing of a Part or Product.
+     *
+     * @param alert the crossing.
+     */
+    void stockCrossed(StockAlert alert);
+}
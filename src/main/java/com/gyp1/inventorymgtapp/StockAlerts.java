@@ -0,0 +1,113 @@
+package com.gyp1.inventorymgtapp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The StockAlerts class delivers the threshold crossings of the parts and products of an
+ * Inventory to its StockAlertListeners. The crossings are recorded by the LowStockIndexes
+ * of the Inventory only while a listener is registered; the Inventory takes them before
+ * it releases its write lock and publishes them once it has, so a listener may read the
+ * Inventory.
+ *
+ * Apart from publish, every method must be called while holding the write lock of the
+ * Inventory.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class StockAlerts {
+    /**
+     * Logs the failures of the listeners.
+     */
+    private static final System.Logger LOG = System.getLogger(StockAlerts.class.getName());
+
+    /**
+     * The low-stock index of the parts.
+     */
+    private final LowStockIndex parts;
+
+    /**
+     * The low-stock index of the products.
+     */
+    private final LowStockIndex products;
+
+    /**
+     * The listeners receiving the crossings.
+     */
+    private final List<StockAlertListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Default constructor.
+     *
+     * @param parts the low-stock index of the parts.
+     * @param products the low-stock index of the products.
+     */
+    StockAlerts(LowStockIndex parts, LowStockIndex products) {
+        this.parts = parts;
+        this.products = products;
+    }
+
+    /**
+     * Registers a listener, and starts recording the crossings.
+     *
+     * @param listener the listener to add.
+     */
+    void add(StockAlertListener listener) {
+        listeners.add(listener);
+        parts.setRecording(true);
+        products.setRecording(true);
+    }
+
+    /**
+     * Removes a listener, and stops recording the crossings once the last one is removed.
+     *
+     * @param listener the listener to remove.
+     */
+    void remove(StockAlertListener listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty()) {
+            parts.setRecording(false);
+            products.setRecording(false);
+        }
+    }
+
+    /**
+     * Takes the crossings recorded by the low-stock indexes since the last change.
+     *
+     * @return the alerts of the crossings, or null if there are none.
+     */
+    List<StockAlert> take() {
+        if (!parts.hasCrossings() && !products.hasCrossings()) {
+            return null;
+        }
+        long now = System.nanoTime();
+        List<StockAlert> alerts = new ArrayList<>();
+        parts.drainCrossings((id, stock, min) -> alerts.add(new StockAlert(StockAlert.Kind.PART, id, stock, min, now)));
+        products.drainCrossings((id, stock, min) ->
+                alerts.add(new StockAlert(StockAlert.Kind.PRODUCT, id, stock, min, now)));
+        return alerts;
+    }
+
+    /**
+     * Delivers alerts to every listener. A listener that fails is logged and does not
+     * keep the others from receiving the alerts. The write lock must not be held.
+     *
+     * @param alerts the alerts to deliver, or null if there are none.
+     */
+    void publish(List<StockAlert> alerts) {
+        if (alerts == null) {
+            return;
+        }
+        for (StockAlertListener listener : listeners) {
+            for (StockAlert alert : alerts) {
+                try {
+                    listener.stockCrossed(alert);
+                } catch (RuntimeException ex) {
+                    LOG.log(System.Logger.Level.ERROR, "Stock alert listener failed on " + alert, ex);
+                }
+            }
+        }
+    }
+}
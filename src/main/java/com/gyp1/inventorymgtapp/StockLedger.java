@@ -0,0 +1,221 @@
+package com.gyp1.inventorymgtapp;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * The StockLedger class keeps the on-hand and reserved stock of each Part or Product, so
+ * that many threads can reserve stock at once without a lock. The two counts of an item
+ * are packed in one long and changed together by compare-and-set, so a reservation only
+ * succeeds while the stock left available, on hand minus reserved, covers it: concurrent
+ * reservations can never oversubscribe an item.
+ *
+ * The on-hand counts follow the Inventory: its AttributeTable passes every change of a
+ * stock to the ledger, and the Inventory first lowers a stock in the ledger with
+ * lowerOnHand, which refuses to go below the reserved count except when a reservation is
+ * committed. The reserved counts are only changed by
+ * the ReservationEngine. An item removed from the Inventory keeps its cell with nothing
+ * on hand, so its reservations can no longer be committed but are still given back.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class StockLedger {
+    /**
+     * The counts of one item.
+     */
+    public static final class Cell {
+        /**
+         * Changes the state of a cell by compare-and-set.
+         */
+        private static final AtomicLongFieldUpdater<Cell> STATE = AtomicLongFieldUpdater.newUpdater(Cell.class,
+                "state");
+
+        /**
+         * The on-hand stock in the high 32 bits and the reserved stock in the low 32 bits.
+         */
+        private volatile long state;
+
+        /**
+         * Default constructor.
+         *
+         * @param onHand the on-hand stock.
+         */
+        Cell(int onHand) {
+            state = pack(onHand, 0);
+        }
+
+        /**
+         * Returns the on-hand stock.
+         *
+         * @return the stock in the Inventory.
+         */
+        public int getOnHand() {
+            return onHand(state);
+        }
+
+        /**
+         * Returns the reserved stock.
+         *
+         * @return the stock held by reservations.
+         */
+        public int getReserved() {
+            return reserved(state);
+        }
+
+        /**
+         * Returns the stock that can still be reserved.
+         *
+         * @return the on-hand stock minus the reserved stock, or less than 0 when the
+         *         on-hand stock fell below the reservations.
+         */
+        public int getAvailable() {
+            long current = state;
+            return onHand(current) - reserved(current);
+        }
+
+        /**
+         * Reserves stock if enough is available.
+         *
+         * @param quantity the quantity to reserve, above 0.
+         * @return true if the stock was reserved, or false if not enough is available.
+         */
+        boolean tryReserve(int quantity) {
+            while (true) {
+                long current = state;
+                int reserved = reserved(current);
+                if ((long) onHand(current) - reserved < quantity) {
+                    return false;
+                }
+                if (STATE.compareAndSet(this, current, pack(onHand(current), reserved + quantity))) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Gives back reserved stock.
+         *
+         * @param quantity the quantity reserved before.
+         */
+        void unreserve(int quantity) {
+            while (true) {
+                long current = state;
+                if (STATE.compareAndSet(this, current, pack(onHand(current), reserved(current) - quantity))) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Lowers the on-hand stock, keeping the reservations, unless it would fall below
+         * the units that must stay reserved. The check and the change are one
+         * compare-and-set, so no reservation can slip in between them.
+         *
+         * @param onHand the new on-hand stock.
+         * @param taken the reserved units that leave with the stock, those of a reservation
+         *              being committed.
+         * @throws IllegalArgumentException if the stock is lowered below the reserved units
+         *                                  other than those taken.
+         */
+        void lowerOnHand(int onHand, int taken) {
+            while (true) {
+                long current = state;
+                long mustStay = (long) reserved(current) - taken;
+                if (onHand < onHand(current) && onHand < mustStay) {
+                    throw new IllegalArgumentException("Inventory level cannot fall below the " + mustStay
+                            + " units reserved");
+                }
+                if (STATE.compareAndSet(this, current, pack(onHand, reserved(current)))) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Sets the on-hand stock, keeping the reservations.
+         *
+         * @param onHand the new on-hand stock.
+         */
+        void setOnHand(int onHand) {
+            while (true) {
+                long current = state;
+                if (STATE.compareAndSet(this, current, pack(onHand, reserved(current)))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * The cell of each item, by id.
+     */
+    private final ConcurrentHashMap<Integer, Cell> cells = new ConcurrentHashMap<>();
+
+    /**
+     * Records the on-hand stock of an item, adding its cell if needed.
+     *
+     * @param id the id of the item.
+     * @param onHand the stock of the item in the Inventory.
+     */
+    public void setOnHand(int id, int onHand) {
+        Cell cell = cells.get(id);
+        if (cell == null) {
+            cell = cells.putIfAbsent(id, new Cell(onHand));
+            if (cell == null) {
+                return;
+            }
+        }
+        cell.setOnHand(onHand);
+    }
+
+    /**
+     * Returns the cell of an item.
+     *
+     * @param id the id of the item.
+     * @return the cell, or null if the item is not in the ledger.
+     */
+    public Cell cell(int id) {
+        return cells.get(id);
+    }
+
+    /**
+     * Returns the number of items in the ledger.
+     *
+     * @return the number of cells.
+     */
+    public int size() {
+        return cells.size();
+    }
+
+    /**
+     * Packs the counts of a cell in one long.
+     *
+     * @param onHand the on-hand stock.
+     * @param reserved the reserved stock.
+     * @return the packed state.
+     */
+    private static long pack(int onHand, int reserved) {
+        return ((long) onHand << 32) | (reserved & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the on-hand stock of a packed state.
+     *
+     * @param state the packed state.
+     * @return the on-hand stock.
+     */
+    private static int onHand(long state) {
+        return (int) (state >> 32);
+    }
+
+    /**
+     * Returns the reserved stock of a packed state.
+     *
+     * @param state the packed state.
+     * @return the reserved stock.
+     */
+    private static int reserved(long state) {
+        return (int) state;
+    }
+}
@@ -0,0 +1,361 @@
+package com.gyp1.inventorymgtapp;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * The TypedTable class shows the columns of a TableView through typed getters instead of
+ * PropertyValueFactory. A PropertyValueFactory finds the getter by reflection and wraps
+ * the value in a new object each time a cell is updated, and the table's default sort
+ * does the same for every comparison. The cells created here read their row's object
+ * straight from the table's items, skip the update when the value they show has not
+ * changed, and take the text of numbers from small caches, so scrolling back over rows
+ * already seen allocates nothing beyond the bookkeeping of TableCell itself. The table is
+ * sorted by comparators built from the same getters.
+ *
+ * The columns have no cell value factory, so their getCellData returns null. The items
+ * must be sorted through the lists returned by sorted(), or are sorted in place when
+ * they are a plain list.
+ *
+ * @param <S> the type of the objects listed in the TableView.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class TypedTable<S> {
+    /**
+     * The number of entries in each text cache; a power of two.
+     */
+    private static final int CACHE_SIZE = 4096;
+
+    /**
+     * A cell showing one value of the object in its row.
+     *
+     * @param <S> the type of the objects listed in the TableView.
+     * @param <T> the type of the column.
+     */
+    private abstract static class ValueCell<S, T> extends TableCell<S, T> {
+        /**
+         * True while the cell shows the value of an object.
+         */
+        boolean showing;
+
+        /**
+         * Updates the position of the cell, then the text it shows.
+         *
+         * @param index the position of the cell's row in the table's items.
+         */
+        @Override
+        public void updateIndex(int index) {
+            super.updateIndex(index);
+            TableView<S> table = getTableView();
+            List<S> items = table == null ? null : table.getItems();
+            if (items == null || index < 0 || index >= items.size()) {
+                if (showing) {
+                    setText(null);
+                    showing = false;
+                }
+                return;
+            }
+            show(items.get(index));
+        }
+
+        /**
+         * Shows the value of the given object, unless it is already shown.
+         *
+         * @param item the object in the cell's row.
+         */
+        abstract void show(S item);
+    }
+
+    /**
+     * A cell showing an integer value.
+     */
+    private final class IntCell extends ValueCell<S, Integer> {
+        /**
+         * Returns the value shown.
+         */
+        private final ToIntFunction<S> getter;
+
+        /**
+         * The value shown, while showing is true.
+         */
+        private int shown;
+
+        /**
+         * Default constructor.
+         *
+         * @param getter returns the value shown.
+         */
+        IntCell(ToIntFunction<S> getter) {
+            this.getter = getter;
+        }
+
+        /**
+         * Shows the value of the given object, unless it is already shown.
+         *
+         * @param item the object in the cell's row.
+         */
+        @Override
+        void show(S item) {
+            int value = getter.applyAsInt(item);
+            if (!showing || value != shown) {
+                setText(intText(value));
+                shown = value;
+                showing = true;
+            }
+        }
+    }
+
+    /**
+     * A cell showing a floating point value.
+     */
+    private final class DoubleCell extends ValueCell<S, Double> {
+        /**
+         * Returns the value shown.
+         */
+        private final ToDoubleFunction<S> getter;
+
+        /**
+         * The value shown, while showing is true.
+         */
+        private double shown;
+
+        /**
+         * Default constructor.
+         *
+         * @param getter returns the value shown.
+         */
+        DoubleCell(ToDoubleFunction<S> getter) {
+            this.getter = getter;
+        }
+
+        /**
+         * Shows the value of the given object, unless it is already shown.
+         *
+         * @param item the object in the cell's row.
+         */
+        @Override
+        void show(S item) {
+            double value = getter.applyAsDouble(item);
+            if (!showing || Double.compare(value, shown) != 0) {
+                setText(doubleText(value));
+                shown = value;
+                showing = true;
+            }
+        }
+    }
+
+    /**
+     * A cell showing a string value.
+     *
+     * @param <S> the type of the objects listed in the TableView.
+     */
+    private static final class StringCell<S> extends ValueCell<S, String> {
+        /**
+         * Returns the value shown.
+         */
+        private final Function<S, String> getter;
+
+        /**
+         * Default constructor.
+         *
+         * @param getter returns the value shown.
+         */
+        StringCell(Function<S, String> getter) {
+            this.getter = getter;
+        }
+
+        /**
+         * Shows the value of the given object.
+         *
+         * @param item the object in the cell's row.
+         */
+        @Override
+        void show(S item) {
+            setText(getter.apply(item));
+            showing = true;
+        }
+    }
+
+    /**
+     * The table whose columns are shown.
+     */
+    private final TableView<S> table;
+
+    /**
+     * The comparator of each column, in ascending order.
+     */
+    private final Map<TableColumn<S, ?>, Comparator<S>> comparators = new IdentityHashMap<>();
+
+    /**
+     * The sorted lists that follow the table's sort order.
+     */
+    private final List<SortedList<S>> sortedLists = new ArrayList<>();
+
+    /**
+     * The integers whose text is cached, in the slots of their text.
+     */
+    private final int[] intKeys = new int[CACHE_SIZE];
+
+    /**
+     * The cached text of integers.
+     */
+    private final String[] intTexts = new String[CACHE_SIZE];
+
+    /**
+     * The bits of the floating point numbers whose text is cached, in the slots of their text.
+     */
+    private final long[] doubleKeys = new long[CACHE_SIZE];
+
+    /**
+     * The cached text of floating point numbers.
+     */
+    private final String[] doubleTexts = new String[CACHE_SIZE];
+
+    /**
+     * Default constructor. Takes over the sorting of the given table.
+     *
+     * @param table the table whose columns are shown.
+     */
+    public TypedTable(TableView<S> table) {
+        this.table = table;
+        table.setSortPolicy(sorted -> {
+            sort();
+            return true;
+        });
+    }
+
+    /**
+     * Shows an integer value in the given column.
+     *
+     * @param column the column.
+     * @param getter returns the value of an object.
+     */
+    public void intColumn(TableColumn<S, Integer> column, ToIntFunction<S> getter) {
+        column.setCellValueFactory(null);
+        column.setCellFactory(c -> new IntCell(getter));
+        comparators.put(column, Comparator.comparingInt(getter));
+    }
+
+    /**
+     * Shows a floating point value in the given column.
+     *
+     * @param column the column.
+     * @param getter returns the value of an object.
+     */
+    public void doubleColumn(TableColumn<S, Double> column, ToDoubleFunction<S> getter) {
+        column.setCellValueFactory(null);
+        column.setCellFactory(c -> new DoubleCell(getter));
+        comparators.put(column, Comparator.comparingDouble(getter));
+    }
+
+    /**
+     * Shows a string value in the given column.
+     *
+     * @param column the column.
+     * @param getter returns the value of an object.
+     */
+    public void stringColumn(TableColumn<S, String> column, Function<S, String> getter) {
+        column.setCellValueFactory(null);
+        column.setCellFactory(c -> new StringCell<>(getter));
+        comparators.put(column, Comparator.comparing(getter, Comparator.nullsFirst(Comparator.naturalOrder())));
+    }
+
+    /**
+     * Returns a SortedList of the given items that follows the table's sort order, to be
+     * set as the table's items.
+     *
+     * @param items the items to sort.
+     * @return the sorted items.
+     */
+    public SortedList<S> sorted(ObservableList<S> items) {
+        SortedList<S> sortedList = new SortedList<>(items, comparator());
+        sortedLists.add(sortedList);
+        return sortedList;
+    }
+
+    /**
+     * Sorts the table's items by its sort order: the sorted lists are given the new
+     * comparator, and a plain list of items is sorted in place.
+     */
+    private void sort() {
+        Comparator<S> comparator = comparator();
+        for (SortedList<S> sortedList : sortedLists) {
+            sortedList.setComparator(comparator);
+        }
+        ObservableList<S> items = table.getItems();
+        if (comparator != null && items != null && !(items instanceof SortedList)) {
+            FXCollections.sort(items, comparator);
+        }
+    }
+
+    /**
+     * Builds the comparator of the table's sort order from the comparators of its columns.
+     *
+     * @return the comparator, or null when the table is not sorted.
+     */
+    private Comparator<S> comparator() {
+        Comparator<S> comparator = null;
+        for (TableColumn<S, ?> column : table.getSortOrder()) {
+            Comparator<S> next = comparators.get(column);
+            if (next == null) {
+                continue;
+            }
+            if (column.getSortType() == TableColumn.SortType.DESCENDING) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    /**
+     * Returns the text of an integer, from the cache when it is there.
+     *
+     * @param value the integer.
+     * @return its text.
+     */
+    private String intText(int value) {
+        int slot = (value * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(CACHE_SIZE));
+        String text = intTexts[slot];
+        if (text == null || intKeys[slot] != value) {
+            text = Integer.toString(value);
+            intKeys[slot] = value;
+            intTexts[slot] = text;
+        }
+        return text;
+    }
+
+    /**
+     * Returns the text of a floating point number, from the cache when it is there.
+     *
+     * @param value the number.
+     * @return its text, as the default cells show it.
+     */
+    private String doubleText(double value) {
+        long bits = Double.doubleToLongBits(value);
+        int hash = (int) (bits ^ (bits >>> 32));
+        int slot = (hash * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(CACHE_SIZE));
+        String text = doubleTexts[slot];
+        if (text == null || doubleKeys[slot] != bits) {
+            text = Double.toString(value);
+            doubleKeys[slot] = bits;
+            doubleTexts[slot] = text;
+        }
+        return text;
+    }
+}
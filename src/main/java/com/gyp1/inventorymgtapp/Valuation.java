@@ -0,0 +1,97 @@
+package com.gyp1.inventorymgtapp;
+
+/**
+ * The Valuation class holds the aggregates of a group of parts: how many there are, the
+ * value of their stock, the sum of price times stock, and their lowest and highest price.
+ * A Valuation is immutable.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class Valuation {
+    /**
+     * The valuation of a group without parts.
+     */
+    public static final Valuation EMPTY = new Valuation(0, 0, 0, 0);
+
+    /**
+     * The number of parts.
+     */
+    private final int count;
+
+    /**
+     * The value of the stock of the parts.
+     */
+    private final double value;
+
+    /**
+     * The lowest price of the parts.
+     */
+    private final double minPrice;
+
+    /**
+     * The highest price of the parts.
+     */
+    private final double maxPrice;
+
+    /**
+     * Default constructor.
+     *
+     * @param count the number of parts.
+     * @param value the value of the stock of the parts.
+     * @param minPrice the lowest price of the parts.
+     * @param maxPrice the highest price of the parts.
+     */
+    public Valuation(int count, double value, double minPrice, double maxPrice) {
+        this.count = count;
+        this.value = value;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    /**
+     * Returns the number of parts.
+     *
+     * @return the number of parts in the group.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the value of the stock of the parts.
+     *
+     * @return the sum of price times stock.
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the lowest price of the parts.
+     *
+     * @return the lowest price, or 0 if the group has no parts.
+     */
+    public double getMinPrice() {
+        return minPrice;
+    }
+
+    /**
+     * Returns the highest price of the parts.
+     *
+     * @return the highest price, or 0 if the group has no parts.
+     */
+    public double getMaxPrice() {
+        return maxPrice;
+    }
+
+    /**
+     * Returns a description of the valuation.
+     *
+     * @return the count, value and price range.
+     */
+    @Override
+    public String toString() {
+        return count + " parts worth " + value + ", priced " + minPrice + " to " + maxPrice;
+    }
+}
@@ -0,0 +1,106 @@
+package com.gyp1.inventorymgtapp;
+
+/**
+ * The WhereUsedIndex class records, for every Part id, the ids of the Products whose
+ * associated parts include that Part, together with how many times each Product lists it.
+ * It answers "which products use this part" in time proportional to the number of such
+ * products, without walking the associated parts of every product.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+public class WhereUsedIndex {
+    /**
+     * Maps each Part id to the Product ids using it and the number of times each uses it.
+     */
+    private final IntMap<IntIntMap> productsByPart = new IntMap<>();
+
+    /**
+     * Records one more use of a Part by a Product.
+     *
+     * @param partId the id of the Part that is used.
+     * @param productId the id of the Product using the Part.
+     */
+    public void addUse(int partId, int productId) {
+        IntIntMap products = productsByPart.get(partId);
+        if (products == null) {
+            products = new IntIntMap();
+            productsByPart.put(partId, products);
+        }
+        products.addTo(productId, 1);
+    }
+
+    /**
+     * Records one less use of a Part by a Product.
+     *
+     * @param partId the id of the Part that is no longer used.
+     * @param productId the id of the Product that used the Part.
+     */
+    public void removeUse(int partId, int productId) {
+        IntIntMap products = productsByPart.get(partId);
+        if (products == null) {
+            return;
+        }
+        if (products.addTo(productId, -1) <= 0) {
+            products.remove(productId);
+            if (products.isEmpty()) {
+                productsByPart.remove(partId);
+            }
+        }
+    }
+
+    /**
+     * Records the uses of all the associated parts of the given Product.
+     *
+     * @param product the Product whose associated parts are recorded.
+     */
+    public void addProduct(Product product) {
+        for (Part part : product.getAllAssociatedParts()) {
+            addUse(part.getId(), product.getId());
+        }
+    }
+
+    /**
+     * Removes the uses of all the associated parts of the given Product.
+     *
+     * @param product the Product whose associated parts are removed.
+     */
+    public void removeProduct(Product product) {
+        for (Part part : product.getAllAssociatedParts()) {
+            removeUse(part.getId(), product.getId());
+        }
+    }
+
+    /**
+     * Returns true if at least one Product uses the Part with the given id.
+     *
+     * @param partId the id of the Part.
+     * @return true if the Part is used by a Product, or false otherwise.
+     */
+    public boolean isUsed(int partId) {
+        return productsByPart.containsKey(partId);
+    }
+
+    /**
+     * Returns the ids of the Products that use the Part with the given id.
+     *
+     * @param partId the id of the Part.
+     * @return a new array with the Product ids in ascending order.
+     */
+    public int[] productsUsing(int partId) {
+        IntIntMap products = productsByPart.get(partId);
+        return products == null ? new int[0] : products.keysSorted();
+    }
+
+    /**
+     * Returns how many times the Product with the given id lists the Part with the given id.
+     *
+     * @param partId the id of the Part.
+     * @param productId the id of the Product.
+     * @return the number of times the Product lists the Part, or 0 if it does not use it.
+     */
+    public int quantity(int partId, int productId) {
+        IntIntMap products = productsByPart.get(partId);
+        return products == null ? 0 : products.get(productId, 0);
+    }
+}
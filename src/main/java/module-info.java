@@ -4,6 +4,9 @@
 module com.gyp1.inventorymgtapp {
     requires javafx.controls;
     requires javafx.fxml;
+    requires jdk.httpserver;
+    requires java.management;
+    requires jdk.jfr;
 
     opens com.gyp1.inventorymgtapp to javafx.fxml;
     exports com.gyp1.inventorymgtapp;
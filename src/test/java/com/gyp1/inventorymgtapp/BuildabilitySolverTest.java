@@ -0,0 +1,132 @@
+package com.gyp1.inventorymgtapp;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the BuildabilitySolver: the buildable count of each Product alone, and a plan
+ * that never uses more of a part than its stock when Products share it.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+class BuildabilitySolverTest {
+    /**
+     * The pool running the solver.
+     */
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    /**
+     * Shuts the pool down.
+     */
+    @AfterEach
+    void shutDown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * A part listed several times by a Product counts once for each time.
+     */
+    @Test
+    void duplicatePartsCountAsMultiplicity() {
+        BuildabilitySolver.Catalog catalog = new BuildabilitySolver.Catalog();
+        catalog.addPart(1, 7);
+        catalog.addPart(2, 100);
+        catalog.addProduct(10, new int[] {1, 2, 1, 1});
+
+        BuildPlan plan = new BuildabilitySolver(pool).solve(catalog);
+
+        assertEquals(2, plan.getBuildable(10));
+        assertEquals(2, plan.getPlanned(10));
+        assertEquals(1, plan.getRemainingStock(1));
+        assertEquals(98, plan.getRemainingStock(2));
+    }
+
+    /**
+     * Products sharing a part are each buildable from its whole stock alone, but the
+     * plan shares it, giving it first to the Product whose unit consumes the least.
+     */
+    @Test
+    void sharedPartsAreNotOversubscribed() {
+        BuildabilitySolver.Catalog catalog = new BuildabilitySolver.Catalog();
+        catalog.addPart(1, 10);
+        catalog.addPart(2, 5);
+        catalog.addProduct(10, new int[] {1, 2});
+        catalog.addProduct(11, new int[] {1});
+
+        BuildPlan plan = new BuildabilitySolver(pool).solve(catalog);
+
+        assertEquals(5, plan.getBuildable(10));
+        assertEquals(10, plan.getBuildable(11));
+        assertEquals(0, plan.getPlanned(10));
+        assertEquals(10, plan.getPlanned(11));
+        assertEquals(0, plan.getRemainingStock(1));
+        assertEquals(5, plan.getRemainingStock(2));
+        assertEquals(10, plan.getTotalPlanned());
+    }
+
+    /**
+     * A Product without parts, or listing a part not in the catalog, cannot be built.
+     */
+    @Test
+    void productsWithoutKnownPartsAreNotBuildable() {
+        BuildabilitySolver.Catalog catalog = new BuildabilitySolver.Catalog();
+        catalog.addPart(1, 10);
+        catalog.addProduct(10, new int[0]);
+        catalog.addProduct(11, new int[] {1, 99});
+
+        BuildPlan plan = new BuildabilitySolver(pool).solve(catalog);
+
+        assertEquals(0, plan.getBuildable(10));
+        assertEquals(0, plan.getBuildable(11));
+        assertEquals(0, plan.getTotalPlanned());
+        assertEquals(10, plan.getRemainingStock(1));
+    }
+
+    /**
+     * In a catalog large enough for the tasks to split, the plan of every group of
+     * Products sharing parts uses exactly the stock it says it leaves, and no more than
+     * the stock of any part.
+     */
+    @Test
+    void largeCatalogPlanMatchesStock() {
+        Random random = new Random(42);
+        int parts = 3_000;
+        int products = 10_000;
+        int[] stocks = new int[parts];
+        BuildabilitySolver.Catalog catalog = new BuildabilitySolver.Catalog();
+        for (int id = 0; id < parts; id++) {
+            stocks[id] = random.nextInt(500);
+            catalog.addPart(id, stocks[id]);
+        }
+        int[][] productParts = new int[products][];
+        for (int i = 0; i < products; i++) {
+            productParts[i] = new int[1 + random.nextInt(4)];
+            for (int j = 0; j < productParts[i].length; j++) {
+                productParts[i][j] = random.nextInt(parts);
+            }
+            catalog.addProduct(100_000 + i, productParts[i]);
+        }
+
+        BuildPlan plan = new BuildabilitySolver(pool).solve(catalog);
+
+        long[] used = new long[parts];
+        for (int i = 0; i < products; i++) {
+            int planned = plan.getPlanned(100_000 + i);
+            assertTrue(planned <= plan.getBuildable(100_000 + i));
+            for (int part : productParts[i]) {
+                used[part] += planned;
+            }
+        }
+        for (int id = 0; id < parts; id++) {
+            assertTrue(used[id] <= stocks[id], "part " + id + " is oversubscribed");
+            assertEquals(stocks[id] - used[id], plan.getRemainingStock(id));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.gyp1.inventorymgtapp;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the CsvImporter: every row read is either imported or rejected, rows that
+ * break the form rules or reuse an id, whether from the file or from the Inventory, are
+ * rejected with their line numbers, and rows without an id are given new ones.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+class CsvImporterTest {
+    /**
+     * The directory holding the files imported.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * The Inventory imported into.
+     */
+    private Inventory inventory;
+
+    /**
+     * The importer under test, inserting on the thread that reads the file.
+     */
+    private CsvImporter importer;
+
+    /**
+     * Creates an Inventory holding part 9 and an importer for it.
+     */
+    @BeforeEach
+    void setUp() {
+        inventory = new Inventory();
+        inventory.addPart(new InHouse(9, "Gear", 1.0, 1, 0, 5, 7));
+        importer = new CsvImporter(inventory, Runnable::run);
+    }
+
+    /**
+     * Each bad row of a small parts file is counted and reported once, with its line in
+     * the file, blank lines included.
+     */
+    @Test
+    void badPartRowsAreCountedAndReported() throws IOException {
+        Path file = write("parts.csv",
+                "type,id,name,price,stock,min,max,machine or company",
+                "InHouse,1,Bolt,0.5,10,0,100,7",
+                "Outsourced,2,Nut,0.25,3,0,50,Acme",
+                "InHouse,3,Washer,abc,1,0,5,7",
+                "",
+                "InHouse,1,Bolt again,0.5,1,0,5,7",
+                "InHouse,9,Gear again,1,1,0,5,7",
+                "Outsourced,,Spring,1,1,0,5,Acme",
+                "InHouse,4,Pin,1,10,0,5,7",
+                "Outsourced,5,Clip,1,1,0,5,123");
+
+        ImportReport report = importer.importFile(file);
+
+        assertEquals(8, report.getRowsRead());
+        assertEquals(3, report.getImported());
+        assertEquals(5, report.getRejected());
+        assertEquals(Set.of(
+                "Line 4: Price must be a floating number",
+                "Line 6: Duplicate id 1",
+                "Line 7: Duplicate id 9",
+                "Line 9: Inventory level must be less than or equal to max",
+                "Line 10: The company name is not valid"), Set.copyOf(report.getRejections()));
+
+        assertEquals(4, inventory.getPartCount());
+        assertEquals("Bolt", inventory.lookupPart(1).getName());
+        assertEquals("Gear", inventory.lookupPart(9).getName());
+        List<Part> springs = inventory.lookupPart("Spring");
+        assertEquals(1, springs.size());
+        assertFalse(Set.of(1, 2, 9).contains(springs.get(0).getId()));
+    }
+
+    /**
+     * A products file is rejected row by row against the parts of the Inventory.
+     */
+    @Test
+    void badProductRowsAreCountedAndReported() throws IOException {
+        Path file = write("products.csv",
+                "id,name,price,stock,min,max,parts",
+                "1000,Gearbox,5,1,0,5,9;9",
+                "1001,Ghost,5,1,0,5,42",
+                "1002,Empty,5,1,0,5,",
+                "1003,Cheap,1.5,1,0,5,9;9",
+                "1000,Gearbox again,5,1,0,5,9");
+
+        ImportReport report = importer.importFile(file);
+
+        assertEquals(5, report.getRowsRead());
+        assertEquals(1, report.getImported());
+        assertEquals(4, report.getRejected());
+        assertEquals(Set.of(
+                "Line 3: Unknown part ID 42",
+                "Line 4: Product must have at least one part",
+                "Line 5: Price cannot be less than cost of parts",
+                "Line 6: Duplicate id 1000"), Set.copyOf(report.getRejections()));
+        assertEquals(2, inventory.lookupProduct(1000).getAllAssociatedParts().size());
+    }
+
+    /**
+     * A file of several blocks counts every row once, rejects ids repeated from an earlier
+     * block, and keeps only the first hundred messages.
+     */
+    @Test
+    void countsAddUpAcrossBlocks() throws IOException {
+        int rows = 2 * CsvImporter.BATCH_SIZE + CsvImporter.BATCH_SIZE / 2;
+        int distinct = 2 * CsvImporter.BATCH_SIZE;
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= rows; i++) {
+            int id = (i - 1) % distinct + 1;
+            // Every tenth id has a stock above its max.
+            int stock = id % 10 == 0 ? 6 : 1;
+            lines.add("InHouse," + (id + 100) + ",Part " + i + ",1," + stock + ",0,5,7");
+        }
+        Path file = write("parts.csv", lines.toArray(new String[0]));
+
+        ImportReport report = importer.importParts(file);
+
+        int invalid = rows / 10;
+        int repeated = (rows - distinct) - (rows - distinct) / 10;
+        assertEquals(rows, report.getRowsRead());
+        assertEquals(invalid + repeated, report.getRejected());
+        assertEquals(rows - invalid - repeated, report.getImported());
+        assertEquals(report.getRowsRead(), report.getImported() + report.getRejected());
+        assertEquals(100, report.getRejections().size());
+        assertEquals(1 + report.getImported(), inventory.getPartCount());
+
+        Set<Integer> ids = new HashSet<>();
+        inventory.getAllParts().forEach(part -> assertTrue(ids.add(part.getId())));
+    }
+
+    /**
+     * Writes the lines of a file to import.
+     *
+     * @param name the name of the file.
+     * @param lines its lines.
+     * @return the file.
+     * @throws IOException if the file cannot be written.
+     */
+    private Path write(String name, String... lines) throws IOException {
+        return Files.write(directory.resolve(name), List.of(lines));
+    }
+}
@@ -0,0 +1,119 @@
+package com.gyp1.inventorymgtapp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the IdSequence: ids are handed out once each, observed ids are skipped, and a
+ * sequence attached to a file continues above its saved ceiling after a restart, so the
+ * ids of deleted objects are not handed out again.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+class IdSequenceTest {
+    /**
+     * The directory holding the ceiling files.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Ids are handed out one by one or in blocks, and observed ids are skipped.
+     */
+    @Test
+    void handsOutEachIdOnce() {
+        IdSequence ids = new IdSequence();
+        assertEquals(1, ids.next());
+        assertEquals(2, ids.lease(3));
+        assertEquals(5, ids.next());
+
+        ids.observe(10);
+        ids.observe(7);
+        assertEquals(11, ids.peek());
+        assertEquals(11, ids.next());
+        assertThrows(IllegalArgumentException.class, () -> ids.lease(0));
+    }
+
+    /**
+     * A sequence attached to the file of an earlier one continues above the ceiling it
+     * saved, even for ids it handed out but nobody kept.
+     */
+    @Test
+    void restartContinuesAboveTheCeiling() throws IOException {
+        Path file = directory.resolve("part.ids");
+        IdSequence first = new IdSequence();
+        first.attach(file);
+        int last = first.lease(2_000) + 1_999;
+
+        IdSequence restarted = new IdSequence();
+        restarted.attach(file);
+        int ceiling = Integer.parseInt(Files.readString(file, StandardCharsets.UTF_8).trim());
+        assertTrue(restarted.peek() > last);
+        assertTrue(ceiling > restarted.peek());
+        assertTrue(restarted.next() > last);
+    }
+
+    /**
+     * Observing an id does not write the file; the next save raises the ceiling above it.
+     */
+    @Test
+    void observedIdsAreSavedBySave() throws IOException {
+        Path file = directory.resolve("part.ids");
+        IdSequence ids = new IdSequence();
+        ids.attach(file);
+        String before = Files.readString(file, StandardCharsets.UTF_8);
+
+        ids.observe(50_000);
+        assertEquals(before, Files.readString(file, StandardCharsets.UTF_8));
+        ids.save();
+
+        IdSequence restarted = new IdSequence();
+        restarted.attach(file);
+        assertTrue(restarted.next() > 50_000);
+    }
+
+    /**
+     * A file that does not hold a number is refused.
+     */
+    @Test
+    void invalidCeilingIsRefused() throws IOException {
+        Path file = directory.resolve("part.ids");
+        Files.writeString(file, "many", StandardCharsets.UTF_8);
+
+        assertThrows(IOException.class, () -> new IdSequence().attach(file));
+    }
+
+    /**
+     * The id of a part deleted and compacted away is not handed out again after the store
+     * is reopened, though no record of the part is left.
+     */
+    @Test
+    void deletedIdsAreNotReusedAfterRestart() throws IOException {
+        int deleted;
+        Inventory inventory = new Inventory();
+        try (InventoryStore store = InventoryStore.open(inventory, directory)) {
+            inventory.addPart(new InHouse(1, "Bolt", 0.5, 10, 0, 100, 7));
+            deleted = inventory.getPartIds().next();
+            inventory.addPart(new InHouse(deleted, "Nut", 0.25, 3, 0, 100, 7));
+            inventory.deletePart(inventory.lookupPart(deleted));
+            store.compact();
+            store.compact();
+        }
+
+        Inventory reopened = new Inventory();
+        try (InventoryStore store = InventoryStore.open(reopened, directory)) {
+            assertEquals(1, reopened.getPartCount());
+            assertTrue(reopened.getPartIds().next() > deleted);
+        }
+    }
+}
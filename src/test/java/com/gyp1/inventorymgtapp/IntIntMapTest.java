@@ -0,0 +1,135 @@
+package com.gyp1.inventorymgtapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the IntIntMap: keys are found after puts, additions and removals, including
+ * keys that share a home slot and wrap around the end of the table, and a long run of
+ * random operations leaves the map equal to a HashMap given the same operations.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+class IntIntMapTest {
+    /**
+     * The number of keys the maps of the collision test are sized for.
+     */
+    private static final int EXPECTED = 8;
+
+    /**
+     * The number of slots of a map sized for EXPECTED keys, the smallest power of two
+     * whose three quarters hold them.
+     */
+    private static final int SLOTS = 16;
+
+    /**
+     * Puts, adds to and removes keys of any sign, and lists them in order.
+     */
+    @Test
+    void putAddToAndRemove() {
+        IntIntMap map = new IntIntMap();
+        map.put(4, 40);
+        map.put(-2, -20);
+        map.put(4, 44);
+        assertEquals(3, map.addTo(0, 3));
+        assertEquals(5, map.addTo(0, 2));
+
+        assertEquals(3, map.size());
+        assertEquals(44, map.get(4, -1));
+        assertEquals(-20, map.get(-2, -1));
+        assertEquals(5, map.get(0, -1));
+        assertEquals(-1, map.get(1, -1));
+        assertArrayEquals(new int[] {-2, 0, 4}, map.keysSorted());
+
+        assertTrue(map.remove(-2));
+        assertFalse(map.remove(-2));
+        assertFalse(map.containsKey(-2));
+        assertEquals(2, map.size());
+    }
+
+    /**
+     * Removing a key from a run of keys sharing a home slot at the end of the table moves
+     * the rest of the run back, across the wrap-around, so every one is still found.
+     */
+    @Test
+    void removalKeepsCollidingKeysReachable() {
+        List<Integer> colliding = keysWithHome(SLOTS - 1, 5);
+        int neighbour = keysWithHome(0, 1).get(0);
+        IntIntMap map = new IntIntMap(EXPECTED);
+        for (int key : colliding) {
+            map.put(key, -key);
+        }
+        map.put(neighbour, -neighbour);
+
+        for (int i = 0; i < colliding.size(); i++) {
+            assertTrue(map.remove(colliding.get(i)));
+            for (int j = i + 1; j < colliding.size(); j++) {
+                int key = colliding.get(j);
+                assertEquals(-key, map.get(key, 0), "key " + key);
+            }
+            assertEquals(-neighbour, map.get(neighbour, 0));
+        }
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * A long run of random puts, additions and removals over a small range of keys, which
+     * keeps the table crowded and its runs long, leaves the same entries as a HashMap.
+     */
+    @Test
+    void randomOperationsMatchHashMap() {
+        Random random = new Random(5);
+        IntIntMap map = new IntIntMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(2_000) - 1_000;
+            switch (random.nextInt(3)) {
+                case 0 -> assertEquals(expected.remove(key) != null, map.remove(key));
+                case 1 -> {
+                    map.put(key, i);
+                    expected.put(key, i);
+                }
+                default -> assertEquals((int) expected.merge(key, i, Integer::sum), map.addTo(key, i));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (int key = -1_000; key < 1_000; key++) {
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+            assertEquals(expected.getOrDefault(key, -1), map.get(key, -1));
+        }
+        Map<Integer, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+        assertArrayEquals(expected.keySet().stream().mapToInt(Integer::intValue).sorted().toArray(),
+                map.keysSorted());
+    }
+
+    /**
+     * Returns keys whose home slot in a map of SLOTS slots is the given one.
+     *
+     * @param slot the home slot.
+     * @param count the number of keys.
+     * @return the keys.
+     */
+    private static List<Integer> keysWithHome(int slot, int count) {
+        List<Integer> keys = new ArrayList<>();
+        for (int key = 1; keys.size() < count; key++) {
+            if ((IntMap.hash(key) & (SLOTS - 1)) == slot) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,138 @@
+package com.gyp1.inventorymgtapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the IntMap: keys are found after puts, replacements and removals, including
+ * keys that share a home slot and wrap around the end of the table, and a long run of
+ * random operations leaves the map equal to a HashMap given the same operations.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+class IntMapTest {
+    /**
+     * The number of keys the maps of the collision test are sized for.
+     */
+    private static final int EXPECTED = 8;
+
+    /**
+     * The number of slots of a map sized for EXPECTED keys.
+     */
+    private static final int SLOTS = IntMap.tableSizeFor(EXPECTED);
+
+    /**
+     * Puts, replaces and removes keys of any sign.
+     */
+    @Test
+    void putReplaceAndRemove() {
+        IntMap<String> map = new IntMap<>();
+        assertNull(map.put(0, "zero"));
+        assertNull(map.put(-7, "minus seven"));
+        assertNull(map.put(Integer.MAX_VALUE, "max"));
+        assertEquals("zero", map.put(0, "nought"));
+
+        assertEquals(3, map.size());
+        assertEquals("nought", map.get(0));
+        assertEquals("minus seven", map.get(-7));
+        assertTrue(map.containsKey(Integer.MAX_VALUE));
+        assertNull(map.get(1));
+
+        assertEquals("minus seven", map.remove(-7));
+        assertNull(map.remove(-7));
+        assertFalse(map.containsKey(-7));
+        assertEquals(2, map.size());
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(0));
+    }
+
+    /**
+     * A null value is refused, since a null slot marks a free one.
+     */
+    @Test
+    void nullValuesAreRefused() {
+        assertThrows(IllegalArgumentException.class, () -> new IntMap<String>().put(1, null));
+    }
+
+    /**
+     * Removing a key from a run of keys sharing a home slot at the end of the table moves
+     * the rest of the run back, across the wrap-around, so every one is still found.
+     */
+    @Test
+    void removalKeepsCollidingKeysReachable() {
+        List<Integer> colliding = keysWithHome(SLOTS - 1, 5);
+        int neighbour = keysWithHome(0, 1).get(0);
+        IntMap<Integer> map = new IntMap<>(EXPECTED);
+        for (int key : colliding) {
+            map.put(key, key);
+        }
+        map.put(neighbour, neighbour);
+
+        for (int i = 0; i < colliding.size(); i++) {
+            assertEquals(colliding.get(i), map.remove(colliding.get(i)));
+            for (int j = i + 1; j < colliding.size(); j++) {
+                assertEquals(colliding.get(j), map.get(colliding.get(j)), "key " + colliding.get(j));
+            }
+            assertEquals(neighbour, map.get(neighbour));
+        }
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * A long run of random puts and removals over a small range of keys, which keeps the
+     * table crowded and its runs long, leaves the same entries as a HashMap.
+     */
+    @Test
+    void randomOperationsMatchHashMap() {
+        Random random = new Random(42);
+        IntMap<Integer> map = new IntMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (int key = -1_000; key < 1_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+        Map<Integer, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+    }
+
+    /**
+     * Returns keys whose home slot in a map of SLOTS slots is the given one.
+     *
+     * @param slot the home slot.
+     * @param count the number of keys.
+     * @return the keys.
+     */
+    private static List<Integer> keysWithHome(int slot, int count) {
+        List<Integer> keys = new ArrayList<>();
+        for (int key = 1; keys.size() < count; key++) {
+            if ((IntMap.hash(key) & (SLOTS - 1)) == slot) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
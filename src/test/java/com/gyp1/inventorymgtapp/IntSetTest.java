@@ -0,0 +1,89 @@
+package com.gyp1.inventorymgtapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the IntSet: elements are found after additions and removals, and a long run of
+ * random operations leaves the set equal to a HashSet given the same operations.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+class IntSetTest {
+    /**
+     * Adds and removes elements of any sign, and lists them in order.
+     */
+    @Test
+    void addRemoveAndSort() {
+        IntSet set = new IntSet();
+        assertTrue(set.add(5));
+        assertTrue(set.add(-3));
+        assertTrue(set.add(0));
+        assertFalse(set.add(5));
+
+        assertEquals(3, set.size());
+        assertTrue(set.contains(-3));
+        assertFalse(set.contains(4));
+        assertArrayEquals(new int[] {-3, 0, 5}, set.toSortedArray());
+
+        assertTrue(set.remove(0));
+        assertFalse(set.remove(0));
+        assertArrayEquals(new int[] {-3, 5}, set.toSortedArray());
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(5));
+    }
+
+    /**
+     * A set sized up front and one that grows hold the same elements.
+     */
+    @Test
+    void presizedAndGrownSetsAgree() {
+        IntSet presized = new IntSet(10_000);
+        IntSet grown = new IntSet();
+        for (int i = 0; i < 10_000; i++) {
+            presized.add(i * 7);
+            grown.add(i * 7);
+        }
+
+        assertEquals(10_000, grown.size());
+        assertArrayEquals(presized.toSortedArray(), grown.toSortedArray());
+    }
+
+    /**
+     * A long run of random additions and removals over a small range of values, which
+     * keeps the table crowded and its runs long, leaves the same elements as a HashSet.
+     */
+    @Test
+    void randomOperationsMatchHashSet() {
+        Random random = new Random(7);
+        IntSet set = new IntSet();
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            int value = random.nextInt(2_000) - 1_000;
+            if (random.nextBoolean()) {
+                assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                assertEquals(expected.add(value), set.add(value));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        for (int value = -1_000; value < 1_000; value++) {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+        Set<Integer> visited = new HashSet<>();
+        set.forEach(visited::add);
+        assertEquals(expected, visited);
+    }
+}
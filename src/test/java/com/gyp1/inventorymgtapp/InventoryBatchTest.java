@@ -0,0 +1,162 @@
+package com.gyp1.inventorymgtapp;
+
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of the InventoryBatch: the changes of a batch reach the views of an Inventory as
+ * one change per list, are indexed and journaled one by one, and a batch that cannot be
+ * applied leaves the Inventory as it was.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+class InventoryBatchTest {
+    /**
+     * The directory holding the journal of a test.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * The Inventory the batches are applied to.
+     */
+    private Inventory inventory;
+
+    /**
+     * The number of changes fired by the parts view.
+     */
+    private final AtomicInteger partChanges = new AtomicInteger();
+
+    /**
+     * The number of changes fired by the products view.
+     */
+    private final AtomicInteger productChanges = new AtomicInteger();
+
+    /**
+     * Creates an Inventory with two parts and a product, and counts the changes of its views.
+     */
+    @BeforeEach
+    void setUp() {
+        inventory = new Inventory();
+        inventory.addPart(new InHouse(1, "Bolt", 0.5, 10, 0, 100, 7));
+        inventory.addPart(new InHouse(2, "Nut", 0.25, 3, 0, 100, 7));
+        inventory.addProduct(new Product(1000, "Bracket", 9.99, 4, 0, 20));
+        inventory.getAllParts().addListener((ListChangeListener<Part>) change -> partChanges.incrementAndGet());
+        inventory.getAllProducts().addListener((ListChangeListener<Product>) change -> productChanges.incrementAndGet());
+    }
+
+    /**
+     * Many additions, an update and deletions of parts and products fire one change on
+     * each view, and every object is found by id and by name afterwards.
+     */
+    @Test
+    void batchFiresOneChangePerList() {
+        Part bolt = inventory.lookupPart(1);
+        Part nut = inventory.lookupPart(2);
+        Product bracket = inventory.lookupProduct(1000);
+        inventory.mutate(batch -> {
+            for (int i = 10; i < 110; i++) {
+                batch.addPart(new Outsourced(i, "Spring " + i, 1.0, 1, 0, 5, "Acme"));
+            }
+            batch.updatePart(bolt, new InHouse(1, "Hex Bolt", 0.5, 10, 0, 100, 7));
+            batch.deletePart(nut);
+            batch.addProduct(new Product(1001, "Frame", 20, 1, 0, 5));
+            batch.deleteProduct(bracket);
+        });
+
+        assertEquals(1, partChanges.get());
+        assertEquals(1, productChanges.get());
+        assertEquals(101, inventory.getPartCount());
+        assertEquals(101, inventory.getAllParts().size());
+        assertEquals("Hex Bolt", inventory.lookupPart(1).getName());
+        assertNull(inventory.lookupPart(2));
+        assertEquals(1, inventory.lookupPart("Hex").size());
+        assertEquals(100, inventory.lookupPart("Spring").size());
+        assertEquals(List.of(1001), inventory.getAllProducts().stream().map(Product::getId).collect(Collectors.toList()));
+        assertNull(inventory.lookupProduct(1000));
+    }
+
+    /**
+     * A batch is applied in the order it was recorded, so an object added by the batch can
+     * be replaced and deleted by it too.
+     */
+    @Test
+    void changesApplyInOrder() {
+        Part spring = new InHouse(3, "Spring", 1.0, 1, 0, 5, 7);
+        Part bigSpring = new InHouse(3, "Big Spring", 2.0, 1, 0, 5, 7);
+        InventoryBatch batch = new InventoryBatch()
+                .addPart(spring)
+                .updatePart(spring, bigSpring)
+                .addPart(new InHouse(4, "Pin", 0.1, 1, 0, 5, 7))
+                .deletePart(bigSpring);
+        assertEquals(4, batch.size());
+        inventory.apply(batch);
+
+        assertNull(inventory.lookupPart(3));
+        assertEquals("Pin", inventory.lookupPart(4).getName());
+        assertEquals(List.of(1, 2, 4), inventory.getAllParts().stream().map(Part::getId).collect(Collectors.toList()));
+        assertEquals(1, partChanges.get());
+    }
+
+    /**
+     * A batch replacing a part that is not in the Inventory, or giving two parts one id, is
+     * refused without changing anything or firing a change.
+     */
+    @Test
+    void failingBatchChangesNothing() {
+        Part stranger = new InHouse(50, "Stranger", 1.0, 1, 0, 5, 7);
+        assertThrows(IllegalArgumentException.class, () -> inventory.mutate(batch -> batch
+                .addPart(new InHouse(3, "Spring", 1.0, 1, 0, 5, 7))
+                .updatePart(stranger, new InHouse(50, "Stranger", 2.0, 1, 0, 5, 7))));
+        assertThrows(IllegalArgumentException.class, () -> inventory.mutate(batch -> batch
+                .addPart(new InHouse(3, "Spring", 1.0, 1, 0, 5, 7))
+                .addPart(new InHouse(1, "Another Bolt", 1.0, 1, 0, 5, 7))));
+
+        assertEquals(2, inventory.getPartCount());
+        assertNull(inventory.lookupPart(3));
+        assertEquals("Bolt", inventory.lookupPart(1).getName());
+        assertEquals(0, partChanges.get());
+    }
+
+    /**
+     * The journal records each change of a batch, so replaying it rebuilds the same contents.
+     */
+    @Test
+    void batchIsJournaledChangeByChange() throws IOException {
+        Path file = directory.resolve("journal");
+        Inventory journaled = new Inventory();
+        try (Journal journal = new Journal(file)) {
+            journaled.setJournal(journal);
+            journaled.mutate(batch -> batch
+                    .addPart(new InHouse(1, "Bolt", 0.5, 10, 0, 100, 7))
+                    .addPart(new InHouse(2, "Nut", 0.25, 3, 0, 100, 7))
+                    .addProduct(new Product(1000, "Bracket", 9.99, 4, 0, 20)));
+            Part nut = journaled.lookupPart(2);
+            journaled.mutate(batch -> batch
+                    .updatePart(nut, new Outsourced(2, "Wing Nut", 0.3, 3, 0, 100, "Acme"))
+                    .deleteProduct(journaled.lookupProduct(1000)));
+            journaled.setJournal(null);
+        }
+
+        Inventory replayed = new Inventory();
+        assertEquals(5, Journal.replay(file, record -> InventoryCodec.apply(record, replayed)));
+        assertEquals(2, replayed.getPartCount());
+        assertEquals("Wing Nut", replayed.lookupPart(2).getName());
+        assertEquals(0, replayed.getProductCount());
+        assertSame(Outsourced.class, replayed.lookupPart(2).getClass());
+    }
+}
@@ -0,0 +1,254 @@
+package com.gyp1.inventorymgtapp;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests of the InventoryServer: each route reads and changes the Inventory with the rules
+ * of the forms, and answers bad requests, conflicts and failures with the matching status
+ * and a JSON error.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+class InventoryServerTest {
+    /**
+     * The status and parsed JSON body of an answer.
+     */
+    private static final class Response {
+        /**
+         * The HTTP status.
+         */
+        final int status;
+
+        /**
+         * The parsed body, or null if there is none.
+         */
+        final Object json;
+
+        /**
+         * Default constructor.
+         *
+         * @param status the HTTP status.
+         * @param json the parsed body.
+         */
+        Response(int status, Object json) {
+            this.status = status;
+            this.json = json;
+        }
+
+        /**
+         * Returns the body as a JSON object.
+         *
+         * @return the members of the body.
+         */
+        @SuppressWarnings("unchecked")
+        Map<String, Object> object() {
+            return (Map<String, Object>) json;
+        }
+    }
+
+    /**
+     * The Inventory served.
+     */
+    private Inventory inventory;
+
+    /**
+     * The server under test, on a port chosen by the system.
+     */
+    private InventoryServer server;
+
+    /**
+     * Creates an Inventory with one part and serves it.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        inventory = new Inventory();
+        inventory.addPart(new InHouse(1, "Bolt", 0.5, 10, 0, 100, 7));
+        server = new InventoryServer(inventory, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+    }
+
+    /**
+     * Stops the server.
+     */
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    /**
+     * A part can be added without an id, read by id and by name, replaced, adjusted and
+     * deleted, after which it is not found.
+     */
+    @Test
+    void partRoutes() throws IOException {
+        Response added = send("POST", "/parts",
+                "{\"type\":\"Outsourced\",\"name\":\"Nut\",\"price\":0.25,\"stock\":3,\"min\":0,\"max\":50,"
+                        + "\"companyName\":\"Acme\"}");
+        assertEquals(201, added.status);
+        int id = ((Long) added.object().get("id")).intValue();
+        assertEquals("Nut", inventory.lookupPart(id).getName());
+
+        assertEquals("Acme", send("GET", "/parts/" + id, null).object().get("companyName"));
+        assertEquals(1, ((List<?>) send("GET", "/parts?name=Nut", null).json).size());
+
+        Response replaced = send("PUT", "/parts/" + id,
+                "{\"id\":" + id + ",\"type\":\"InHouse\",\"name\":\"Wing Nut\",\"price\":0.3,\"stock\":3,"
+                        + "\"min\":0,\"max\":50,\"machineId\":4}");
+        assertEquals(200, replaced.status);
+        assertEquals(4L, replaced.object().get("machineId"));
+        assertEquals("Wing Nut", inventory.lookupPart(id).getName());
+
+        Response adjusted = send("POST", "/parts/" + id + "/stock", "{\"delta\":-2}");
+        assertEquals(200, adjusted.status);
+        assertEquals(1L, adjusted.object().get("stock"));
+        assertEquals(409, send("POST", "/parts/" + id + "/stock", "{\"delta\":-2}").status);
+        assertEquals(409, send("POST", "/parts/" + id + "/stock", "{\"delta\":50}").status);
+
+        assertEquals(204, send("DELETE", "/parts/" + id, null).status);
+        assertNull(inventory.lookupPart(id));
+        assertEquals(404, send("GET", "/parts/" + id, null).status);
+        assertEquals(404, send("DELETE", "/parts/" + id, null).status);
+    }
+
+    /**
+     * A product lists its parts by id; a part it uses and a product with parts cannot be
+     * deleted, and an emptied product can be deleted once.
+     */
+    @Test
+    void productRoutes() throws IOException {
+        Response added = send("POST", "/products",
+                "{\"id\":1000,\"name\":\"Bracket\",\"price\":5,\"stock\":1,\"min\":0,\"max\":5,\"parts\":[1,1]}");
+        assertEquals(201, added.status);
+        assertEquals(List.of(1L, 1L), added.object().get("parts"));
+        assertEquals(409, send("POST", "/products",
+                "{\"id\":1000,\"name\":\"Copy\",\"price\":5,\"stock\":1,\"min\":0,\"max\":5,\"parts\":[1]}").status);
+
+        assertEquals(409, send("DELETE", "/parts/1", null).status);
+        assertEquals(409, send("DELETE", "/products/1000", null).status);
+        assertEquals(1, inventory.getProductCount());
+
+        Product bracket = inventory.lookupProduct(1000);
+        inventory.updateProduct(bracket, new Product(1000, "Bracket", 5, 1, 0, 5));
+        assertEquals(204, send("DELETE", "/products/1000", null).status);
+        assertEquals(404, send("DELETE", "/products/1000", null).status);
+        assertEquals(0, inventory.getProductCount());
+    }
+
+    /**
+     * Bodies that break the form rules and malformed requests are answered with 400, 404
+     * or 405 and a JSON error, and change nothing.
+     */
+    @Test
+    void badRequestsAreRefused() throws IOException {
+        String valid = "\"type\":\"InHouse\",\"name\":\"Pin\",\"price\":1,\"min\":0,\"max\":5,\"machineId\":2";
+        Response tooMany = send("POST", "/parts", "{" + valid + ",\"stock\":6}");
+        assertEquals(400, tooMany.status);
+        assertEquals("Inventory level must be less than or equal to max", tooMany.object().get("error"));
+        assertEquals(400, send("POST", "/parts", "{" + valid + ",\"stock\":1,\"id\":0}").status);
+        assertEquals(400, send("POST", "/parts", "{" + valid).status);
+        assertEquals(409, send("POST", "/parts", "{" + valid + ",\"stock\":1,\"id\":1}").status);
+        assertEquals(400, send("PUT", "/parts/1", "{" + valid + ",\"stock\":1,\"id\":2}").status);
+        assertEquals(400, send("GET", "/parts", null).status);
+        assertEquals(404, send("GET", "/parts/bolt", null).status);
+        assertEquals(404, send("GET", "/parts/1/price", null).status);
+        assertEquals(405, send("POST", "/parts/1", "{}").status);
+        assertEquals(405, send("GET", "/parts/1/stock", null).status);
+
+        assertEquals(1, inventory.getPartCount());
+        assertEquals("Bolt", inventory.lookupPart(1).getName());
+    }
+
+    /**
+     * The valuation covers the parts in total, by kind, by machine and by company.
+     */
+    @Test
+    void valuationRoute() throws IOException {
+        inventory.addPart(new Outsourced(2, "Nut", 0.25, 4, 0, 100, "Acme"));
+
+        Map<String, Object> valuation = send("GET", "/valuation", null).object();
+
+        assertEquals(2L, ((Map<?, ?>) valuation.get("total")).get("count"));
+        assertEquals(6.0, ((Map<?, ?>) valuation.get("total")).get("value"));
+        assertEquals(1L, ((Map<?, ?>) valuation.get("inHouse")).get("count"));
+        assertTrue(((Map<?, ?>) valuation.get("machines")).containsKey("7"));
+        assertEquals(1.0, ((Map<?, ?>) ((Map<?, ?>) valuation.get("companies")).get("Acme")).get("value"));
+    }
+
+    /**
+     * A change that fails unexpectedly, here because the journal can no longer be written,
+     * is answered with 500 and a JSON error rather than a dropped connection.
+     */
+    @Test
+    void unexpectedFailuresAreAnswered() throws IOException {
+        Path full = Path.of("/dev/full");
+        assumeTrue(Files.isWritable(full), "needs a device that fails every write");
+        Journal journal = new Journal(full);
+        inventory.setJournal(journal);
+        inventory.adjustPartStock(1, 1);
+        assertThrows(IOException.class, journal::flush);
+
+        Response failed = send("POST", "/parts/1/stock", "{\"delta\":1}");
+
+        assertEquals(500, failed.status);
+        assertEquals("Internal server error", failed.object().get("error"));
+        assertEquals(200, send("GET", "/parts/1", null).status);
+    }
+
+    /**
+     * Sends a request to the server.
+     *
+     * @param method the HTTP method.
+     * @param path the path and query of the request.
+     * @param body the JSON body, or null for none.
+     * @return the answer.
+     * @throws IOException if the request cannot be sent or answered.
+     */
+    private Response send(String method, String path, String body) throws IOException {
+        InetSocketAddress address = server.getAddress();
+        URL url = new URL("http", address.getHostString(), address.getPort(), path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setRequestMethod(method);
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            int status = connection.getResponseCode();
+            InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            if (in == null) {
+                return new Response(status, null);
+            }
+            try (in) {
+                String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                return new Response(status, text.isEmpty() ? null : Json.parse(text));
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
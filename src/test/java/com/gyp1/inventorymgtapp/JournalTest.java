@@ -0,0 +1,237 @@
+package com.gyp1.inventorymgtapp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests of the Journal: records are framed with their length and checksum and read back
+ * in order, a torn or corrupt tail is dropped and truncated away, and a journal stops at
+ * its first failed write.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+class JournalTest {
+    /**
+     * The directory holding the journal files of a test.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Each record is written after its length and the CRC32 of its bytes, and records
+     * are read back in the order they were appended.
+     */
+    @Test
+    void recordsAreFramedAndReplayedInOrder() throws IOException {
+        Path file = directory.resolve("journal");
+        List<String> written = List.of("first", "second record", "third");
+        try (Journal journal = new Journal(file)) {
+            for (String text : written) {
+                journal.append(bytes(text));
+            }
+            journal.flush();
+            assertEquals(written.size(), journal.getAppendedCount());
+        }
+
+        ByteBuffer contents = ByteBuffer.wrap(Files.readAllBytes(file));
+        for (String text : written) {
+            byte[] record = bytes(text);
+            assertEquals(record.length, contents.getInt());
+            assertEquals(crc(record), contents.getInt());
+            byte[] body = new byte[record.length];
+            contents.get(body);
+            assertEquals(text, new String(body, StandardCharsets.UTF_8));
+        }
+        assertEquals(0, contents.remaining());
+
+        assertEquals(written, replay(file));
+    }
+
+    /**
+     * Appending to an existing file adds to its records rather than overwriting them.
+     */
+    @Test
+    void reopenedJournalAppends() throws IOException {
+        Path file = directory.resolve("journal");
+        try (Journal journal = new Journal(file)) {
+            journal.append(bytes("one")).join();
+        }
+        try (Journal journal = new Journal(file)) {
+            journal.append(bytes("two")).join();
+        }
+
+        assertEquals(List.of("one", "two"), replay(file));
+    }
+
+    /**
+     * A missing file holds no records.
+     */
+    @Test
+    void missingFileHoldsNoRecords() throws IOException {
+        assertEquals(0, Journal.replay(directory.resolve("missing"), record -> {
+            throw new AssertionError("no record expected");
+        }));
+    }
+
+    /**
+     * A record torn by a crash is dropped and cut from the file, so the next record
+     * appended follows the last good one.
+     */
+    @Test
+    void tornTailIsDroppedAndTruncated() throws IOException {
+        Path file = directory.resolve("journal");
+        writeRecords(file, "one", "two", "three");
+        long goodSize;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            goodSize = channel.size() - bytes("three").length - 8;
+            channel.truncate(channel.size() - 2);
+        }
+
+        assertEquals(List.of("one", "two"), replay(file));
+        assertEquals(goodSize, Files.size(file));
+
+        writeRecords(file, "four");
+        assertEquals(List.of("one", "two", "four"), replay(file));
+    }
+
+    /**
+     * A header cut short at the end of the file is dropped too.
+     */
+    @Test
+    void partialHeaderIsDropped() throws IOException {
+        Path file = directory.resolve("journal");
+        writeRecords(file, "one");
+        long goodSize = Files.size(file);
+        Files.write(file, new byte[] {0, 0, 0}, StandardOpenOption.APPEND);
+
+        assertEquals(List.of("one"), replay(file));
+        assertEquals(goodSize, Files.size(file));
+    }
+
+    /**
+     * Reading stops at a record whose bytes do not match its checksum, dropping it and
+     * every record after it.
+     */
+    @Test
+    void corruptRecordStopsReplay() throws IOException {
+        Path file = directory.resolve("journal");
+        writeRecords(file, "one", "two", "three");
+        long corrupt = 8 + bytes("one").length + 8;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes("T")), corrupt);
+        }
+
+        assertEquals(List.of("one"), replay(file));
+        assertEquals(corrupt - 8, Files.size(file));
+    }
+
+    /**
+     * A closed journal refuses further records.
+     */
+    @Test
+    void closedJournalRefusesRecords() throws IOException {
+        Journal journal = new Journal(directory.resolve("journal"));
+        journal.close();
+
+        CompletableFuture<Void> refused = journal.append(bytes("late"));
+        assertThrows(CompletionException.class, refused::join);
+        assertThrows(IOException.class, journal::flush);
+    }
+
+    /**
+     * After a failed write the batch and every later record fail with the same error,
+     * which getFailure returns, and the failure actions run.
+     */
+    @Test
+    void failedWriteStopsTheJournal() throws IOException {
+        Path full = Path.of("/dev/full");
+        assumeTrue(Files.isWritable(full), "needs a device that fails every write");
+        Journal journal = new Journal(full);
+        List<IOException> reported = new ArrayList<>();
+        journal.onFailure(reported::add);
+        assertNull(journal.getFailure());
+
+        CompletionException lost = assertThrows(CompletionException.class, journal.append(bytes("lost"))::join);
+        IOException failure = journal.getFailure();
+        assertNotNull(failure);
+        assertSame(failure, lost.getCause());
+        assertEquals(List.of(failure), reported);
+
+        CompletionException refused = assertThrows(CompletionException.class, journal.append(bytes("later"))::join);
+        assertSame(failure, refused.getCause().getCause());
+        assertThrows(IOException.class, journal::flush);
+        assertThrows(IOException.class, journal::close);
+    }
+
+    /**
+     * Appends records to a journal file and closes it.
+     *
+     * @param file the journal file.
+     * @param texts the texts of the records.
+     * @throws IOException if the records cannot be written.
+     */
+    private static void writeRecords(Path file, String... texts) throws IOException {
+        try (Journal journal = new Journal(file)) {
+            for (String text : texts) {
+                journal.append(bytes(text));
+            }
+        }
+    }
+
+    /**
+     * Reads back the records of a journal file as text.
+     *
+     * @param file the journal file.
+     * @return the texts of its records, in order.
+     * @throws IOException if the file cannot be read.
+     */
+    private static List<String> replay(Path file) throws IOException {
+        List<String> records = new ArrayList<>();
+        int count = Journal.replay(file, record -> records.add(new String(record, StandardCharsets.UTF_8)));
+        assertEquals(records.size(), count);
+        return records;
+    }
+
+    /**
+     * Returns the UTF-8 bytes of a text.
+     *
+     * @param text the text.
+     * @return its bytes.
+     */
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the CRC32 of some bytes, as the journal stores it.
+     *
+     * @param bytes the bytes.
+     * @return their checksum.
+     */
+    private static int crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,174 @@
+package com.gyp1.inventorymgtapp;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the ListMirror: the changes recorded off the view thread are replayed on it in
+ * the order they were made, as one change of the list, and only one replay is scheduled
+ * however many times they are published.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+class ListMirrorTest {
+    /**
+     * The replays scheduled on the view thread and not yet run.
+     */
+    private final List<Runnable> scheduled = new ArrayList<>();
+
+    /**
+     * Changes recorded away from the view thread wait until the scheduled replay runs, and
+     * then reach the list in order as one change.
+     */
+    @Test
+    void changesAreReplayedInOrderOnTheViewThread() {
+        ListMirror<String> mirror = new ListMirror<>(List.of("a", "b", "c"), scheduled::add, () -> false);
+        ObservableList<String> list = mirror.getList();
+        List<String> fired = new ArrayList<>();
+        list.addListener((ListChangeListener<String>) change -> fired.add(change.toString()));
+
+        mirror.added(3, "d");
+        mirror.removed(0);
+        mirror.replaced(1, "C");
+        mirror.added(0, List.of("x", "y"));
+        mirror.publish();
+        mirror.removed(4);
+        mirror.publish();
+
+        assertEquals(List.of("a", "b", "c"), list);
+        assertEquals(1, scheduled.size());
+        runScheduled();
+
+        assertEquals(List.of("x", "y", "b", "C"), list);
+        assertEquals(1, fired.size());
+    }
+
+    /**
+     * On the view thread, publish replays the changes at once.
+     */
+    @Test
+    void changesOnTheViewThreadAreReplayedAtOnce() {
+        ListMirror<String> mirror = new ListMirror<>(List.of("a"), scheduled::add, () -> true);
+
+        mirror.added(1, "b");
+        mirror.publish();
+
+        assertEquals(List.of("a", "b"), mirror.getList());
+        assertTrue(scheduled.isEmpty());
+    }
+
+    /**
+     * A reset replaces the whole list, and the changes after it apply to the new contents.
+     */
+    @Test
+    void resetReplacesTheContents() {
+        ListMirror<String> mirror = new ListMirror<>(List.of("a", "b"), scheduled::add, () -> false);
+
+        mirror.added(2, "c");
+        mirror.reset(List.of("p", "q"));
+        mirror.added(1, "r");
+        mirror.publish();
+        runScheduled();
+
+        assertEquals(List.of("p", "r", "q"), mirror.getList());
+    }
+
+    /**
+     * An element changed in place is redrawn where it is, wherever the earlier changes of
+     * the same replay moved it, and an element no longer in the list is ignored.
+     */
+    @Test
+    void changedElementsAreRedrawnWhereTheyAre() {
+        ListMirror<String> mirror = new ListMirror<>(List.of("a", "b", "c"), scheduled::add, () -> false);
+        ObservableList<String> list = mirror.getList();
+        List<String> replaced = new ArrayList<>();
+        list.addListener((ListChangeListener<String>) change -> {
+            while (change.next()) {
+                if (change.wasReplaced()) {
+                    replaced.addAll(change.getAddedSubList());
+                }
+            }
+        });
+
+        mirror.added(0, "z");
+        mirror.changed("c");
+        mirror.changed("gone");
+        mirror.changed("c");
+        mirror.publish();
+        runScheduled();
+
+        assertEquals(List.of("z", "a", "b", "c"), list);
+        assertEquals(List.of("c"), replaced);
+    }
+
+    /**
+     * A long run of random changes, published and replayed at random times, leaves the
+     * mirror equal to the list the changes were made to whenever it is brought up to date.
+     */
+    @Test
+    void randomChangesMatchTheSource() {
+        Random random = new Random(11);
+        List<Integer> source = new ArrayList<>();
+        ListMirror<Integer> mirror = new ListMirror<>(source, scheduled::add, () -> false);
+        for (int i = 0; i < 20_000; i++) {
+            int action = random.nextInt(10);
+            if (source.isEmpty() || action < 4) {
+                int index = random.nextInt(source.size() + 1);
+                source.add(index, i);
+                mirror.added(index, i);
+            } else if (action < 7) {
+                mirror.removed(removeAt(source, random.nextInt(source.size())));
+            } else if (action < 9) {
+                int index = random.nextInt(source.size());
+                source.set(index, i);
+                mirror.replaced(index, i);
+            } else {
+                mirror.changed(source.get(random.nextInt(source.size())));
+            }
+            if (random.nextInt(50) == 0) {
+                mirror.publish();
+            }
+            if (random.nextInt(200) == 0) {
+                mirror.publish();
+                runScheduled();
+                assertEquals(source, mirror.getList());
+            } else if (random.nextInt(50) == 0) {
+                runScheduled();
+            }
+        }
+        mirror.publish();
+        runScheduled();
+
+        assertEquals(source, mirror.getList());
+    }
+
+    /**
+     * Removes an element from a list.
+     *
+     * @param list the list.
+     * @param index the position of the element.
+     * @return the position.
+     */
+    private static int removeAt(List<Integer> list, int index) {
+        list.remove(index);
+        return index;
+    }
+
+    /**
+     * Runs the replays scheduled so far, as the view thread would.
+     */
+    private void runScheduled() {
+        List<Runnable> replays = new ArrayList<>(scheduled);
+        scheduled.clear();
+        replays.forEach(Runnable::run);
+    }
+}
@@ -0,0 +1,140 @@
+package com.gyp1.inventorymgtapp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the MappedPartStore: parts added, replaced and deleted are found the same way
+ * after the store is closed and opened again, the files grow past their first size, and
+ * the store hands out one Part object per row.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+class MappedPartStoreTest {
+    /**
+     * The directory holding the files of the store.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Parts added, replaced and deleted keep their rows, ids and attributes once the store
+     * is reopened.
+     */
+    @Test
+    void reopenedStoreKeepsChanges() throws IOException {
+        try (MappedPartStore store = MappedPartStore.open(directory)) {
+            assertTrue(store.isCreated());
+            assertEquals(0, store.add(new InHouse(1, "Bolt", 0.5, 10, 0, 100, 7)));
+            assertEquals(1, store.add(new Outsourced(2, "Nut", 0.25, 3, 1, 50, "Acme")));
+            assertEquals(2, store.add(new InHouse(3, "Washer", 0.1, 8, 0, 20, 9)));
+            store.set(0, new Outsourced(4, "Hex Bolt", 0.75, 12, 2, 200, "Bolts Inc"));
+            store.delete(1);
+        }
+
+        try (MappedPartStore store = MappedPartStore.open(directory)) {
+            assertFalse(store.isCreated());
+            assertEquals(2, store.size());
+            assertArrayEquals(new int[] {0, 2}, store.liveRows());
+            assertFalse(store.contains(1));
+            assertFalse(store.contains(2));
+            assertNull(store.get(2));
+            assertEquals(0, store.rowOf(4));
+            assertEquals(2, store.rowOf(3));
+
+            Outsourced hexBolt = assertInstanceOf(Outsourced.class, store.get(4));
+            assertEquals("Hex Bolt", hexBolt.getName());
+            assertEquals(0.75, hexBolt.getPrice());
+            assertEquals(12, hexBolt.getStock());
+            assertEquals(2, hexBolt.getMin());
+            assertEquals(200, hexBolt.getMax());
+            assertEquals("Bolts Inc", hexBolt.getCompanyName());
+
+            assertEquals("Washer", store.name(2));
+            assertEquals(9, store.machineId(2));
+            assertNull(store.companyName(2));
+            assertEquals(8, store.stock(2));
+
+            assertEquals(3, store.add(new InHouse(5, "Gear", 2.5, 1, 0, 5, 1)));
+        }
+    }
+
+    /**
+     * Replacing a part keeps its row, frees its old id, and refuses an id held by another
+     * part; adding a part with an id already in the store is refused too.
+     */
+    @Test
+    void idsAreUniqueAcrossRows() throws IOException {
+        try (MappedPartStore store = MappedPartStore.open(directory)) {
+            store.add(new InHouse(1, "Bolt", 0.5, 10, 0, 100, 7));
+            store.add(new InHouse(2, "Nut", 0.25, 3, 0, 100, 7));
+
+            assertThrows(IllegalArgumentException.class, () -> store.add(new InHouse(2, "Nut", 0.25, 3, 0, 100, 7)));
+            assertThrows(IllegalArgumentException.class, () -> store.set(0, new InHouse(2, "Bolt", 0.5, 10, 0, 100, 7)));
+            assertEquals(1, store.id(0));
+
+            store.set(0, new InHouse(10, "Bolt", 0.5, 10, 0, 100, 7));
+            assertFalse(store.contains(1));
+            assertEquals(0, store.rowOf(10));
+            store.add(new InHouse(1, "New Bolt", 0.5, 10, 0, 100, 7));
+            assertEquals(2, store.rowOf(1));
+        }
+    }
+
+    /**
+     * The store grows its files past the size they were created with, for the columns and
+     * for the string heap, and reads every part back after reopening.
+     */
+    @Test
+    void filesGrowAsPartsAreAdded() throws IOException {
+        int count = 5_000;
+        String padding = "x".repeat(200);
+        try (MappedPartStore store = MappedPartStore.open(directory)) {
+            for (int i = 1; i <= count; i++) {
+                store.add(new Outsourced(i, "Part " + i + padding, i, i % 100, 0, 100, "Company " + i));
+            }
+        }
+
+        try (MappedPartStore store = MappedPartStore.open(directory)) {
+            assertEquals(count, store.size());
+            for (int i = 1; i <= count; i++) {
+                int row = store.rowOf(i);
+                assertEquals(i - 1, row);
+                assertEquals("Part " + i + padding, store.name(row));
+                assertEquals("Company " + i, store.companyName(row));
+                assertEquals(i, store.price(row));
+            }
+        }
+    }
+
+    /**
+     * Asking for a part again returns the Part object handed out before, including the one
+     * that was added or set, so changes to it are seen by every holder.
+     */
+    @Test
+    void partObjectsAreShared() throws IOException {
+        try (MappedPartStore store = MappedPartStore.open(directory)) {
+            Part added = new InHouse(1, "Bolt", 0.5, 10, 0, 100, 7);
+            store.add(added);
+            assertSame(added, store.get(1));
+            assertSame(store.getRow(0), store.get(1));
+
+            Part replacement = new InHouse(1, "Bolt", 0.5, 11, 0, 100, 7);
+            store.set(0, replacement);
+            assertSame(replacement, store.get(1));
+        }
+    }
+}
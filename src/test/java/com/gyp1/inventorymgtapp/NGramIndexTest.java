@@ -0,0 +1,156 @@
+package com.gyp1.inventorymgtapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the NGramIndex: searches find every text containing the query and nothing
+ * else, whether the texts are added one by one or together, kept by the index or read from
+ * a source, and after they are replaced or removed; candidates and narrow agree with search.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+class NGramIndexTest {
+    /**
+     * Queries of any length are matched against the whole text, ignoring case.
+     */
+    @Test
+    void searchMatchesSubstringsIgnoringCase() {
+        NGramIndex index = new NGramIndex();
+        index.add(1, "Hex Bolt");
+        index.add(2, "Bolt Cutter");
+        index.add(3, "Nut");
+
+        assertArrayEquals(new int[] {1, 2}, index.search("BOLT").toSortedArray());
+        assertArrayEquals(new int[] {1}, index.search("x b").toSortedArray());
+        assertArrayEquals(new int[] {1, 2, 3}, index.search("t").toSortedArray());
+        assertArrayEquals(new int[] {1, 2, 3}, index.search("").toSortedArray());
+        assertTrue(index.search("washer").isEmpty());
+    }
+
+    /**
+     * A text holding every trigram of a query but not the query itself does not match.
+     */
+    @Test
+    void trigramsAloneDoNotMatch() {
+        NGramIndex index = new NGramIndex();
+        index.add(1, "abcx bcd");
+
+        assertArrayEquals(new int[] {1}, index.candidates("abcd").toSortedArray());
+        assertTrue(index.search("abcd").isEmpty());
+    }
+
+    /**
+     * Adding a text for an id replaces its old text, and removing the id forgets it.
+     */
+    @Test
+    void addReplacesAndRemoveForgets() {
+        NGramIndex index = new NGramIndex();
+        index.add(1, "Bolt");
+        index.add(1, "Washer");
+
+        assertTrue(index.search("bolt").isEmpty());
+        assertArrayEquals(new int[] {1}, index.search("wash").toSortedArray());
+
+        index.remove(1);
+        assertTrue(index.search("wash").isEmpty());
+        assertTrue(index.search("").isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    /**
+     * An index reading its texts from a source finds the same ids, as long as a text is
+     * removed with the text it was indexed with before it changes.
+     */
+    @Test
+    void sourceBackedIndexFollowsItsSource() {
+        Map<Integer, String> names = new HashMap<>();
+        NGramIndex index = new NGramIndex(names::get);
+        names.put(1, "Hex Bolt");
+        names.put(2, "Nut");
+        index.addAll(new int[] {1, 2}, new String[] {"Hex Bolt", "Nut"});
+
+        assertArrayEquals(new int[] {1}, index.search("bolt").toSortedArray());
+
+        index.remove(1, names.get(1));
+        names.put(1, "Hex Nut");
+        index.add(1, names.get(1));
+        assertTrue(index.search("bolt").isEmpty());
+        assertArrayEquals(new int[] {1, 2}, index.search("nut").toSortedArray());
+
+        index.remove(2);
+        assertArrayEquals(new int[] {1}, index.search("nut").toSortedArray());
+        assertEquals(1, index.size());
+    }
+
+    /**
+     * Texts added together or one by one answer every query alike, and the candidates of
+     * a query narrowed to a longer one give the matches of the longer one.
+     */
+    @Test
+    void addAllCandidatesAndNarrowAgreeWithSearch() {
+        Random random = new Random(3);
+        int count = 2_000;
+        int[] ids = new int[count];
+        String[] texts = new String[count];
+        NGramIndex oneByOne = new NGramIndex();
+        for (int i = 0; i < count; i++) {
+            ids[i] = i + 1;
+            texts[i] = randomText(random, 4 + random.nextInt(12));
+            oneByOne.add(ids[i], texts[i]);
+        }
+        NGramIndex together = new NGramIndex();
+        together.addAll(ids, texts);
+
+        for (int q = 0; q < 200; q++) {
+            String query = randomText(random, 1 + random.nextInt(4));
+            int[] expected = matching(texts, query);
+            assertArrayEquals(expected, oneByOne.search(query).toSortedArray(), query);
+            assertArrayEquals(expected, together.search(query).toSortedArray(), query);
+
+            String longer = query + randomText(random, 1);
+            IntSet narrowed = together.narrow(together.candidates(query), longer.toLowerCase());
+            assertArrayEquals(matching(texts, longer), narrowed.toSortedArray(), longer);
+        }
+    }
+
+    /**
+     * Returns the ids of the texts containing a query, ignoring case, found by scanning.
+     *
+     * @param texts the texts, the text of id i + 1 at position i.
+     * @param query the query.
+     * @return the ids of the matching texts, in ascending order.
+     */
+    private static int[] matching(String[] texts, String query) {
+        String lower = query.toLowerCase();
+        return IntStream.range(0, texts.length)
+                .filter(i -> texts[i].toLowerCase().contains(lower))
+                .map(i -> i + 1)
+                .toArray();
+    }
+
+    /**
+     * Returns a random text over a small alphabet, so that queries often match.
+     *
+     * @param random the source of randomness.
+     * @param length the length of the text.
+     * @return the text.
+     */
+    private static String randomText(Random random, int length) {
+        String alphabet = "abcABC d";
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
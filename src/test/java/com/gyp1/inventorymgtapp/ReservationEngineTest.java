@@ -0,0 +1,248 @@
+package com.gyp1.inventorymgtapp;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the ReservationEngine of an Inventory: reservations never oversubscribe the
+ * stock, even from many threads at once, reservations of several parts are all or
+ * nothing, and reserved stock leaves the Inventory only when it is committed.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+class ReservationEngineTest {
+    /**
+     * The Inventory whose stock is reserved.
+     */
+    private Inventory inventory;
+
+    /**
+     * The engine under test.
+     */
+    private ReservationEngine engine;
+
+    /**
+     * Creates an Inventory with two parts, 10 units of part 1 and 3 of part 2.
+     */
+    @BeforeEach
+    void setUp() {
+        inventory = new Inventory();
+        inventory.addPart(new InHouse(1, "Bolt", 0.5, 10, 0, 10_000, 7));
+        inventory.addPart(new InHouse(2, "Nut", 0.25, 3, 0, 1000, 7));
+        engine = inventory.getReservations();
+    }
+
+    /**
+     * Stops the sweeps of the engine.
+     */
+    @AfterEach
+    void tearDown() {
+        engine.close();
+    }
+
+    /**
+     * Threads reserving the same part at once get exactly the stock on hand between them.
+     *
+     * @throws Exception if a reserving thread fails.
+     */
+    @Test
+    void concurrentReservationsNeverOversubscribe() throws Exception {
+        inventory.adjustPartStock(1, 9_990);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int quantity = 1 + t % 3;
+            results.add(pool.submit(() -> {
+                start.await();
+                int reserved = 0;
+                while (engine.reservePart(1, quantity, null) != null) {
+                    reserved += quantity;
+                }
+                return reserved;
+            }));
+        }
+        start.countDown();
+        int total = 0;
+        for (Future<Integer> result : results) {
+            total += result.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertTrue(total <= 10_000);
+        assertTrue(total > 10_000 - 3, "stock was left that a thread could still reserve");
+        assertEquals(total, engine.getPartReserved(1));
+        assertEquals(10_000 - total, engine.getPartAvailable(1));
+    }
+
+    /**
+     * Adjustments lowering a stock while other threads reserve it never leave more units
+     * reserved than on hand: each round, the stock is lowered and reserved at once until
+     * neither can go on, which must leave every unit on hand reserved.
+     *
+     * @throws Exception if a thread fails.
+     */
+    @Test
+    void concurrentAdjustmentsNeverTakeReservedStock() throws Exception {
+        int reservers = 3;
+        ExecutorService pool = Executors.newFixedThreadPool(reservers + 1);
+        inventory.adjustPartStock(1, -10);
+        for (int round = 0; round < 200; round++) {
+            inventory.adjustPartStock(1, 50);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<Reservation>>> results = new ArrayList<>();
+            for (int t = 0; t < reservers; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    List<Reservation> held = new ArrayList<>();
+                    Reservation reservation;
+                    while ((reservation = engine.reservePart(1, 1, null)) != null) {
+                        held.add(reservation);
+                    }
+                    return held;
+                }));
+            }
+            Future<?> lowering = pool.submit(() -> {
+                start.await();
+                try {
+                    while (true) {
+                        inventory.adjustPartStock(1, -1);
+                    }
+                } catch (IllegalArgumentException ex) {
+                    // Every unit left on hand is reserved.
+                }
+                return null;
+            });
+            start.countDown();
+            lowering.get(30, TimeUnit.SECONDS);
+            List<Reservation> held = new ArrayList<>();
+            for (Future<List<Reservation>> result : results) {
+                held.addAll(result.get(30, TimeUnit.SECONDS));
+            }
+
+            int stock = inventory.lookupPart(1).getStock();
+            assertEquals(stock, engine.getPartOnHand(1));
+            assertEquals(stock, engine.getPartReserved(1), "round " + round);
+            assertEquals(stock, held.size());
+            held.forEach(engine::release);
+            inventory.adjustPartStock(1, -stock);
+        }
+        pool.shutdown();
+    }
+
+    /**
+     * A reservation of several parts that one of them cannot cover reserves nothing.
+     */
+    @Test
+    void shortPartRollsBackTheOthers() {
+        assertNull(engine.reserveParts(new int[] {1, 2}, new int[] {5, 4}, null));
+
+        assertEquals(0, engine.getPartReserved(1));
+        assertEquals(0, engine.getPartReserved(2));
+        assertNotNull(engine.reserveParts(new int[] {1, 2}, new int[] {5, 3}, null));
+        assertEquals(5, engine.getPartReserved(1));
+        assertEquals(3, engine.getPartReserved(2));
+    }
+
+    /**
+     * The quantities of a part listed twice are added up before they are reserved.
+     */
+    @Test
+    void repeatedPartIdsAreAddedUp() {
+        assertNull(engine.reserveParts(new int[] {1, 1}, new int[] {6, 5}, null));
+        assertEquals(0, engine.getPartReserved(1));
+
+        Product product = new Product(100, "Kit", 5.0, 0, 0, 10);
+        product.addAssociatedPart(inventory.lookupPart(1));
+        product.addAssociatedPart(inventory.lookupPart(1));
+        product.addAssociatedPart(inventory.lookupPart(2));
+        assertNotNull(engine.reservePartsFor(product, 3, null));
+        assertEquals(6, engine.getPartReserved(1));
+        assertEquals(3, engine.getPartReserved(2));
+        assertNull(engine.reservePartsFor(product, 1, null));
+    }
+
+    /**
+     * Committing a reservation takes its stock out of the Inventory and gives back only
+     * its own reservation.
+     */
+    @Test
+    void commitTakesTheReservedStock() {
+        Reservation first = engine.reservePart(1, 6, null);
+        Reservation second = engine.reservePart(1, 4, null);
+
+        assertTrue(engine.commit(first));
+
+        assertEquals(Reservation.Status.COMMITTED, first.getStatus());
+        assertEquals(4, inventory.lookupPart(1).getStock());
+        assertEquals(4, engine.getPartReserved(1));
+        assertEquals(0, engine.getPartAvailable(1));
+        assertFalse(engine.commit(first));
+        assertTrue(engine.commit(second));
+        assertEquals(0, inventory.lookupPart(1).getStock());
+    }
+
+    /**
+     * A reservation past its time to live is given back by the sweep and cannot be
+     * committed.
+     *
+     * @throws InterruptedException if the test is interrupted while waiting.
+     */
+    @Test
+    void expiredReservationsAreGivenBack() throws InterruptedException {
+        Reservation reservation = engine.reservePart(1, 7, Duration.ofMillis(1));
+        Thread.sleep(5);
+
+        assertFalse(engine.commit(reservation));
+        assertEquals(Reservation.Status.EXPIRED, reservation.getStatus());
+        assertEquals(0, engine.getPartReserved(1));
+        assertEquals(10, inventory.lookupPart(1).getStock());
+
+        Reservation swept = engine.reservePart(1, 2, Duration.ofMillis(1));
+        Thread.sleep(5);
+        // The background sweep may get there first; either way it is expired once.
+        engine.expireReservations();
+        assertEquals(Reservation.Status.EXPIRED, swept.getStatus());
+        assertEquals(10, engine.getPartAvailable(1));
+    }
+
+    /**
+     * An adjustment or an update may not lower a stock below its reserved units, and an
+     * update keeping the id keeps the reservations.
+     */
+    @Test
+    void reservedStockCannotBeTakenByOtherChanges() {
+        engine.reservePart(1, 8, null);
+
+        assertThrows(IllegalArgumentException.class, () -> inventory.adjustPartStock(1, -3));
+        assertThrows(IllegalArgumentException.class, () -> inventory.adjustPartStocks(new int[] {1}, new int[] {-3}));
+        Part part = inventory.lookupPart(1);
+        assertThrows(IllegalArgumentException.class,
+                () -> inventory.updatePart(part, new InHouse(1, "Bolt", 0.5, 5, 0, 1000, 7)));
+        assertEquals(10, inventory.lookupPart(1).getStock());
+
+        assertNotNull(inventory.adjustPartStock(1, -2));
+        assertTrue(inventory.updatePart(inventory.lookupPart(1), new InHouse(1, "Bolt M8", 0.5, 9, 0, 1000, 7)));
+        assertEquals(8, engine.getPartReserved(1));
+        assertEquals(1, engine.getPartAvailable(1));
+    }
+}
@@ -0,0 +1,203 @@
+package com.gyp1.inventorymgtapp;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of the Snapshot: an Inventory written to a snapshot file loads back with the same
+ * parts, products and associations, and a file that is corrupt, cut short or not a
+ * snapshot is refused without loading anything.
+ *
+ * @author Mami Camara
+ * @version April 2023
+ */
+class SnapshotTest {
+    /**
+     * The directory holding the snapshot files of a test.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * The Inventory captured by the snapshots.
+     */
+    private Inventory inventory;
+
+    /**
+     * Creates an Inventory with an InHouse part, an Outsourced part and a product using both.
+     */
+    @BeforeEach
+    void setUp() {
+        inventory = new Inventory();
+        inventory.addPart(new InHouse(1, "Bolt", 0.5, 10, 0, 100, 7));
+        inventory.addPart(new Outsourced(2, "Nut", 0.25, 3, 1, 50, "Acme"));
+        Product product = new Product(1000, "Bracket", 9.99, 4, 0, 20);
+        product.addAssociatedPart(inventory.lookupPart(2));
+        product.addAssociatedPart(inventory.lookupPart(1));
+        inventory.addProduct(product);
+    }
+
+    /**
+     * A snapshot loads back the parts with their attributes, the products, and associated
+     * parts that are the loaded parts themselves, in their original order.
+     */
+    @Test
+    void writtenSnapshotLoadsBack() throws IOException {
+        Path file = directory.resolve("snapshot");
+        inventory.snapshot(7, null).write(file);
+
+        Inventory loaded = new Inventory();
+        assertEquals(7, Snapshot.load(file, loaded));
+
+        assertEquals(2, loaded.getPartCount());
+        InHouse bolt = (InHouse) loaded.lookupPart(1);
+        assertEquals(List.of("Bolt", 0.5, 10, 0, 100), fields(bolt));
+        assertEquals(7, bolt.getMachineId());
+        Outsourced nut = (Outsourced) loaded.lookupPart(2);
+        assertEquals(List.of("Nut", 0.25, 3, 1, 50), fields(nut));
+        assertEquals("Acme", nut.getCompanyName());
+
+        assertEquals(1, loaded.getProductCount());
+        Product bracket = loaded.lookupProduct(1000);
+        assertEquals(List.of("Bracket", 9.99, 4, 0, 20),
+                List.of(bracket.getName(), bracket.getPrice(), bracket.getStock(), bracket.getMin(), bracket.getMax()));
+        List<Part> associated = bracket.getAllAssociatedParts();
+        assertEquals(2, associated.size());
+        assertSame(nut, associated.get(0));
+        assertSame(bolt, associated.get(1));
+    }
+
+    /**
+     * The stock written is the stock when the snapshot was taken, not when it is written.
+     */
+    @Test
+    void stockIsCapturedWhenTaken() throws IOException {
+        Snapshot snapshot = inventory.snapshot(1, null);
+        inventory.adjustPartStock(1, 5);
+        Path file = directory.resolve("snapshot");
+        snapshot.write(file);
+
+        Inventory loaded = new Inventory();
+        Snapshot.load(file, loaded);
+        assertEquals(10, loaded.lookupPart(1).getStock());
+    }
+
+    /**
+     * Writing a snapshot replaces an older file of the same name and leaves no temporary
+     * file behind.
+     */
+    @Test
+    void writeReplacesTheFile() throws IOException {
+        Path file = directory.resolve("snapshot");
+        inventory.snapshot(1, null).write(file);
+        inventory.deletePart(inventory.lookupPart(1));
+        inventory.snapshot(2, null).write(file);
+
+        Inventory loaded = new Inventory();
+        assertEquals(2, Snapshot.load(file, loaded));
+        assertEquals(1, loaded.getPartCount());
+        assertFalse(Files.exists(directory.resolve("snapshot.tmp")));
+    }
+
+    /**
+     * A changed byte fails the checksum: verify refuses the file and load leaves the
+     * Inventory empty.
+     */
+    @Test
+    void corruptSnapshotIsRefused() throws IOException {
+        Path file = directory.resolve("snapshot");
+        inventory.snapshot(1, null).write(file);
+        byte[] bytes = Files.readAllBytes(file);
+        // The first letter of the name of the first part, after the header, the part count,
+        // the type and id of the part and the length of its name.
+        bytes[10 + 4 + 1 + 4 + 2] ^= 1;
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> Snapshot.verify(file));
+        Inventory loaded = new Inventory();
+        assertThrows(IOException.class, () -> Snapshot.load(file, loaded));
+        assertEquals(0, loaded.getPartCount());
+        assertEquals(0, loaded.getProductCount());
+    }
+
+    /**
+     * A file cut short is refused, even when only its checksum is missing.
+     */
+    @Test
+    void truncatedSnapshotIsRefused() throws IOException {
+        Path file = directory.resolve("snapshot");
+        inventory.snapshot(1, null).write(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 4);
+        }
+
+        assertThrows(IOException.class, () -> Snapshot.verify(file));
+        Inventory loaded = new Inventory();
+        assertThrows(IOException.class, () -> Snapshot.load(file, loaded));
+        assertEquals(0, loaded.getPartCount());
+    }
+
+    /**
+     * A file that does not start with the magic number is not read as a snapshot.
+     */
+    @Test
+    void otherFilesAreRefused() throws IOException {
+        Path file = directory.resolve("snapshot");
+        Files.write(file, new byte[64]);
+
+        IOException refused = assertThrows(IOException.class, () -> Snapshot.verify(file));
+        assertEquals("Not an inventory snapshot: " + file, refused.getMessage());
+    }
+
+    /**
+     * A store whose newest snapshot is corrupt loads the previous one and replays the
+     * journal segments written since, losing nothing.
+     */
+    @Test
+    void storeFallsBackToThePreviousSnapshot() throws IOException {
+        Path data = directory.resolve("data");
+        Inventory stored = new Inventory();
+        try (InventoryStore store = InventoryStore.open(stored, data)) {
+            stored.addPart(new InHouse(1, "Bolt", 0.5, 10, 0, 100, 7));
+            store.compact();
+            stored.addPart(new InHouse(2, "Nut", 0.25, 3, 0, 100, 7));
+            store.compact();
+            stored.addPart(new InHouse(3, "Washer", 0.1, 8, 0, 100, 7));
+        }
+        Path newest;
+        try (Stream<Path> files = Files.list(data)) {
+            newest = files.filter(file -> file.toString().endsWith(".snapshot")).max(Path::compareTo).orElseThrow();
+        }
+        Files.write(newest, new byte[] {1, 2, 3});
+
+        Inventory reopened = new Inventory();
+        try (InventoryStore store = InventoryStore.open(reopened, data)) {
+            assertEquals(3, reopened.getPartCount());
+            assertEquals("Nut", reopened.lookupPart(2).getName());
+        }
+    }
+
+    /**
+     * Returns the common fields of a part.
+     *
+     * @param part the part.
+     * @return its name, price, stock, min and max.
+     */
+    private static List<Object> fields(Part part) {
+        return List.of(part.getName(), part.getPrice(), part.getStock(), part.getMin(), part.getMax());
+    }
+}